@@ -0,0 +1,144 @@
+package com.acepero13.research.profilesimilarity.benchmarks;
+
+import com.acepero13.research.profilesimilarity.annotations.Categorical;
+import com.acepero13.research.profilesimilarity.annotations.Numerical;
+import com.acepero13.research.profilesimilarity.api.Vectorizable;
+import com.acepero13.research.profilesimilarity.api.features.Features;
+import com.acepero13.research.profilesimilarity.core.AbstractVectorizable;
+import com.acepero13.research.profilesimilarity.core.proxy.CategoricalFeatureProxy;
+import com.acepero13.research.profilesimilarity.core.vectors.DoubleVector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates the reproducible data sets used by the benchmarks.
+ */
+final class BenchmarkData {
+    static final long SEED = 42L;
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private BenchmarkData() {
+    }
+
+    /**
+     * Returns a vector of random values between 0 and 1.
+     *
+     * @param random    the source of randomness
+     * @param dimension the size of the vector
+     * @return a new vector
+     */
+    static DoubleVector vector(Random random, int dimension) {
+        double[] values = new double[dimension];
+        for (int i = 0; i < dimension; i++) {
+            values[i] = random.nextDouble();
+        }
+        return DoubleVector.of(values);
+    }
+
+    /**
+     * Returns vectors of random values between 0 and 1.
+     *
+     * @param size      the number of vectors
+     * @param dimension the size of every vector
+     * @return the vectors
+     */
+    static List<DoubleVector> vectors(int size, int dimension) {
+        Random random = new Random(SEED);
+        List<DoubleVector> vectors = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            vectors.add(vector(random, dimension));
+        }
+        return vectors;
+    }
+
+    /**
+     * Returns samples with {@code dimension} numerical features and two categorical features: a boolean flag and a
+     * level.
+     *
+     * @param size      the number of samples
+     * @param dimension the number of numerical features of every sample
+     * @return the samples
+     */
+    static List<Vectorizable> samples(int size, int dimension) {
+        Random random = new Random(SEED);
+        List<Vectorizable> samples = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            samples.add(sample(random, dimension));
+        }
+        return samples;
+    }
+
+    /**
+     * Returns a sample that is not part of the data set, to be used as target.
+     *
+     * @param dimension the number of numerical features of the sample
+     * @return the sample
+     */
+    static Vectorizable target(int dimension) {
+        return sample(new Random(SEED + 1), dimension);
+    }
+
+    /**
+     * Returns annotated objects, as they would be handed to the {@code ofObjects} factories.
+     *
+     * @param size the number of objects
+     * @return the objects
+     */
+    static List<Profile> profiles(int size) {
+        Random random = new Random(SEED);
+        List<Profile> profiles = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            profiles.add(new Profile(18 + random.nextInt(60), 20_000 + random.nextInt(100_000), random.nextDouble() * 2.0,
+                    Level.values()[random.nextInt(Level.values().length)],
+                    List.of(Tag.values()[random.nextInt(Tag.values().length)], Tag.values()[random.nextInt(Tag.values().length)])));
+        }
+        return profiles;
+    }
+
+    private static Vectorizable sample(Random random, int dimension) {
+        Sample sample = new Sample();
+        for (int i = 0; i < dimension; i++) {
+            sample.addNonNullFeature(Features.doubleFeature(random.nextDouble() * 100.0, "f" + i));
+        }
+        sample.addNonNullFeature(Features.categoricalBoolean(random.nextBoolean(), "flag"));
+        sample.addNonNullFeature(CategoricalFeatureProxy.of(Level.values()[random.nextInt(Level.values().length)], "level"));
+        return sample;
+    }
+
+    enum Level {
+        LOW, MEDIUM, HIGH
+    }
+
+    enum Tag {
+        SPORT, FAMILY, ECO, SAFETY, MUSIC, EVENTS, READING, EMAIL, TRAVEL, FOOD, ART, CINEMA, GAMES, TECH
+    }
+
+    private static final class Sample extends AbstractVectorizable {
+    }
+
+    @com.acepero13.research.profilesimilarity.annotations.Vectorizable
+    static final class Profile {
+        @Numerical
+        private final int age;
+        @Numerical
+        private final int income;
+        @Numerical(weight = 0.5)
+        private final double score;
+        @Categorical(name = "level")
+        private final Level level;
+        @Categorical(name = "tags", oneHotEncoding = true, type = Tag.class)
+        private final List<Tag> tags;
+
+        Profile(int age, int income, double score, Level level, List<Tag> tags) {
+            this.age = age;
+            this.income = income;
+            this.score = score;
+            this.level = level;
+            this.tags = tags;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.acepero13.research.profilesimilarity.benchmarks;
+
+import com.acepero13.research.profilesimilarity.api.Vectorizable;
+import com.acepero13.research.profilesimilarity.core.classifier.HnswIndex;
+import com.acepero13.research.profilesimilarity.core.classifier.IvfIndex;
+import com.acepero13.research.profilesimilarity.core.classifier.Knn;
+import com.acepero13.research.profilesimilarity.core.classifier.KnnMixedData;
+import com.acepero13.research.profilesimilarity.core.classifier.MostSimilar;
+import com.acepero13.research.profilesimilarity.core.classifier.PqIndex;
+import com.acepero13.research.profilesimilarity.core.classifier.result.Result;
+import com.acepero13.research.profilesimilarity.scores.Metrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end queries of the classifiers. The classifiers are built, and their indexes warmed, during the setup, so
+ * the benchmarks measure one query against an already loaded data set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassifierBenchmark {
+    @Param({"1000", "100000"})
+    private int size;
+
+    @Param({"8", "64"})
+    private int dimension;
+
+    @Param({"1", "10"})
+    private int k;
+
+    private List<Vectorizable> samples;
+    private Vectorizable target;
+    private Knn knn;
+    private Knn approximateKnn;
+    private Knn quantizedKnn;
+    private Knn partitionedKnn;
+    private KnnMixedData knnMixedData;
+    private MostSimilar mostSimilar;
+    private MostSimilar approximateMostSimilar;
+
+    @Setup
+    public void setUp() {
+        samples = BenchmarkData.samples(size, dimension);
+        target = BenchmarkData.target(dimension);
+        knn = Knn.withDefaultNormalizer(k, samples);
+        knnMixedData = KnnMixedData.ofVectorizable(k, samples);
+        mostSimilar = MostSimilar.of(Metrics.cosineSimilarity(), samples);
+        approximateKnn = knn.approximate(HnswIndex.Parameters.defaults());
+        approximateMostSimilar = mostSimilar.approximate(HnswIndex.Distance.COSINE, HnswIndex.Parameters.defaults());
+        quantizedKnn = knn.quantized(PqIndex.Parameters.defaults());
+        partitionedKnn = knn.partitioned(IvfIndex.Parameters.defaults());
+        knn.fit(target);
+        approximateKnn.fit(target);
+        quantizedKnn.fit(target);
+        partitionedKnn.fit(target);
+        mostSimilar.mostSimilarTo(target);
+        approximateMostSimilar.mostSimilarTo(target);
+    }
+
+    @Benchmark
+    public Result knnFit() {
+        return knn.fit(target);
+    }
+
+    @Benchmark
+    public Result approximateKnnFit() {
+        return approximateKnn.fit(target);
+    }
+
+    @Benchmark
+    public Result quantizedKnnFit() {
+        return quantizedKnn.fit(target);
+    }
+
+    @Benchmark
+    public Result partitionedKnnFit() {
+        return partitionedKnn.fit(target);
+    }
+
+    @Benchmark
+    public Result knnBuildAndFit() {
+        return Knn.withDefaultNormalizer(k, samples).fit(target);
+    }
+
+    @Benchmark
+    public Result knnMixedDataFit() {
+        return knnMixedData.fit(target);
+    }
+
+    @Benchmark
+    public Vectorizable mostSimilarTo() {
+        return mostSimilar.mostSimilarTo(target);
+    }
+
+    @Benchmark
+    public Vectorizable approximateMostSimilarTo() {
+        return approximateMostSimilar.mostSimilarTo(target);
+    }
+}
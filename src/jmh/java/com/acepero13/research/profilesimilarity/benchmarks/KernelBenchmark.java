@@ -0,0 +1,69 @@
+package com.acepero13.research.profilesimilarity.benchmarks;
+
+import com.acepero13.research.profilesimilarity.core.vectors.Kernels;
+import com.acepero13.research.profilesimilarity.core.vectors.VectorKernels;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The scalar and SIMD backends of {@link VectorKernels}, side by side. 784 is the size of an MNIST image. The SIMD
+ * backend is only available when the JVM runs with {@code --add-modules jdk.incubator.vector}, which the {@code jmh}
+ * task does; otherwise both rows measure the scalar backend.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KernelBenchmark {
+    @Param({"64", "256", "784", "1024"})
+    private int dimension;
+
+    @Param({"scalar", "simd"})
+    private String backend;
+
+    private Kernels kernels;
+    private double[] a;
+    private double[] b;
+
+    @Setup
+    public void setUp() {
+        kernels = "simd".equals(backend) ? VectorKernels.simd().orElse(VectorKernels.scalar()) : VectorKernels.scalar();
+        Random random = new Random(BenchmarkData.SEED);
+        a = BenchmarkData.vector(random, dimension).toArray();
+        b = BenchmarkData.vector(random, dimension).toArray();
+    }
+
+    @Benchmark
+    public double dot() {
+        return kernels.dot(a, 0, b, 0, dimension);
+    }
+
+    @Benchmark
+    public double squaredDistance() {
+        return kernels.squaredDistance(a, 0, b, 0, dimension);
+    }
+
+    @Benchmark
+    public double manhattanDistance() {
+        return kernels.manhattanDistance(a, 0, b, 0, dimension);
+    }
+
+    @Benchmark
+    public double cosine() {
+        return kernels.cosine(a, 0, b, 0, dimension);
+    }
+}
@@ -0,0 +1,59 @@
+package com.acepero13.research.profilesimilarity.benchmarks;
+
+import com.acepero13.research.profilesimilarity.api.Vector;
+import com.acepero13.research.profilesimilarity.core.Matrix;
+import com.acepero13.research.profilesimilarity.utils.MinMax;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Column-wise operations of {@link Matrix}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatrixBenchmark {
+    @Param({"1000", "100000"})
+    private int size;
+
+    @Param({"8", "64"})
+    private int dimension;
+
+    private Matrix<Double> matrix;
+
+    @Setup
+    public void setUp() {
+        matrix = Matrix.of(new ArrayList<Vector<Double>>(BenchmarkData.vectors(size, dimension)));
+    }
+
+    @Benchmark
+    public Matrix<Double> transpose() {
+        return matrix.transpose();
+    }
+
+    @Benchmark
+    public List<MinMax> reduceColumnWise() {
+        return matrix.reduceColumnWise(Vector::minMax);
+    }
+
+    @Benchmark
+    public List<MinMax> columnMinMax() {
+        return matrix.columnMinMax();
+    }
+}
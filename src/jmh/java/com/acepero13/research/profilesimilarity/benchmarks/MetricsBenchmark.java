@@ -0,0 +1,85 @@
+package com.acepero13.research.profilesimilarity.benchmarks;
+
+import com.acepero13.research.profilesimilarity.api.Metric;
+import com.acepero13.research.profilesimilarity.api.Vectorizable;
+import com.acepero13.research.profilesimilarity.core.MixedSample;
+import com.acepero13.research.profilesimilarity.core.vectors.NormalizedVector;
+import com.acepero13.research.profilesimilarity.scores.Metrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every metric of {@link Metrics}, on normalized vectors and on mixed samples.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+    @Param({"16", "256"})
+    private int dimension;
+
+    @Param({"cosine", "jaccard", "euclidean", "normalizedEuclidean", "manhattan", "gowersCosineAndDice"})
+    private String metricName;
+
+    private Metric metric;
+    private NormalizedVector vector;
+    private NormalizedVector another;
+    private MixedSample sample;
+    private MixedSample anotherSample;
+
+    @Setup
+    public void setUp() {
+        metric = metric(metricName);
+        Random random = new Random(BenchmarkData.SEED);
+        vector = NormalizedVector.of(BenchmarkData.vector(random, dimension));
+        another = NormalizedVector.of(BenchmarkData.vector(random, dimension));
+        List<Vectorizable> samples = BenchmarkData.samples(2, dimension);
+        sample = MixedSample.of(vector, samples.get(0).toFeatureVector().categorical());
+        anotherSample = MixedSample.of(another, samples.get(1).toFeatureVector().categorical());
+    }
+
+    private static Metric metric(String name) {
+        switch (name) {
+            case "cosine":
+                return Metrics.cosineSimilarity();
+            case "jaccard":
+                return Metrics.jaccardDistance();
+            case "euclidean":
+                return Metrics.euclideanDistance();
+            case "normalizedEuclidean":
+                return Metrics.normalizedEuclideanDistance();
+            case "manhattan":
+                return Metrics.manhattanDistance();
+            case "gowersCosineAndDice":
+                return Metrics.gowersMetricCosineAndDice();
+            default:
+                throw new IllegalArgumentException("Unknown metric: " + name);
+        }
+    }
+
+    @Benchmark
+    public Double vectors() {
+        return metric.similarityScore(vector, another);
+    }
+
+    @Benchmark
+    public Double mixedSamples() {
+        return metric.similarityScore(sample, anotherSample);
+    }
+}
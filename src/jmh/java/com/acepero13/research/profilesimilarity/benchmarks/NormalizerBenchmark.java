@@ -0,0 +1,61 @@
+package com.acepero13.research.profilesimilarity.benchmarks;
+
+import com.acepero13.research.profilesimilarity.api.Normalizer;
+import com.acepero13.research.profilesimilarity.api.Vector;
+import com.acepero13.research.profilesimilarity.core.Matrix;
+import com.acepero13.research.profilesimilarity.core.vectors.DoubleVector;
+import com.acepero13.research.profilesimilarity.core.vectors.NormalizedVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building a min-max {@link Normalizer} from a data set, and normalizing one vector with it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NormalizerBenchmark {
+    @Param({"1000", "100000"})
+    private int size;
+
+    @Param({"8", "64"})
+    private int dimension;
+
+    private Matrix<Double> matrix;
+    private Normalizer normalizer;
+    private DoubleVector vector;
+
+    @Setup
+    public void setUp() {
+        matrix = Matrix.of(new ArrayList<Vector<Double>>(BenchmarkData.vectors(size, dimension)));
+        normalizer = Normalizer.minMaxNormalizer(matrix);
+        vector = BenchmarkData.vector(new Random(BenchmarkData.SEED + 1), dimension);
+    }
+
+    @Benchmark
+    public Normalizer minMaxNormalizer() {
+        return Normalizer.minMaxNormalizer(matrix);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public NormalizedVector normalize() {
+        return normalizer.normalize(vector);
+    }
+}
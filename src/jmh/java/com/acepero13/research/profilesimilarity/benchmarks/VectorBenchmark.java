@@ -0,0 +1,92 @@
+package com.acepero13.research.profilesimilarity.benchmarks;
+
+import com.acepero13.research.profilesimilarity.api.Vector;
+import com.acepero13.research.profilesimilarity.core.vectors.DoubleVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Element-wise operations and reductions of {@link DoubleVector}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VectorBenchmark {
+    @Param({"16", "256", "4096"})
+    private int dimension;
+
+    private DoubleVector vector;
+    private DoubleVector another;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(BenchmarkData.SEED);
+        vector = BenchmarkData.vector(random, dimension);
+        another = BenchmarkData.vector(random, dimension);
+    }
+
+    @Benchmark
+    public Vector<Double> add() {
+        return vector.add(another);
+    }
+
+    @Benchmark
+    public Vector<Double> subtract() {
+        return vector.subtract(another);
+    }
+
+    @Benchmark
+    public Vector<Double> multiply() {
+        return vector.multiply(another);
+    }
+
+    @Benchmark
+    public Vector<Double> divide() {
+        return vector.divide(another);
+    }
+
+    @Benchmark
+    public double dot() {
+        return vector.dot(another);
+    }
+
+    @Benchmark
+    public double norm() {
+        return vector.norm();
+    }
+
+    @Benchmark
+    public double cosine() {
+        return vector.cosine(another);
+    }
+
+    @Benchmark
+    public double distanceTo() {
+        return vector.distanceTo(another);
+    }
+
+    @Benchmark
+    public double manhattanDistanceTo() {
+        return vector.manhattanDistanceTo(another);
+    }
+
+    @Benchmark
+    public double sum() {
+        return vector.sum();
+    }
+}
@@ -0,0 +1,45 @@
+package com.acepero13.research.profilesimilarity.benchmarks;
+
+import com.acepero13.research.profilesimilarity.api.Vectorizable;
+import com.acepero13.research.profilesimilarity.core.proxy.VectorizableProxy;
+import com.acepero13.research.profilesimilarity.core.vectors.FeatureVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converting an annotated object into a {@link Vectorizable}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VectorizableProxyBenchmark {
+    private BenchmarkData.Profile profile;
+
+    @Setup
+    public void setUp() {
+        profile = BenchmarkData.profiles(1).get(0);
+    }
+
+    @Benchmark
+    public Vectorizable of() {
+        return VectorizableProxy.of(profile);
+    }
+
+    @Benchmark
+    public FeatureVector ofAndToFeatureVector() {
+        return VectorizableProxy.of(profile).toFeatureVector();
+    }
+}
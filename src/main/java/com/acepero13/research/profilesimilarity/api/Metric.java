@@ -3,6 +3,8 @@ package com.acepero13.research.profilesimilarity.api;
 import com.acepero13.research.profilesimilarity.api.features.CategoricalFeature;
 import com.acepero13.research.profilesimilarity.api.features.Feature;
 import com.acepero13.research.profilesimilarity.core.MixedSample;
+import com.acepero13.research.profilesimilarity.core.PackedRow;
+import com.acepero13.research.profilesimilarity.core.vectors.BitVector;
 import com.acepero13.research.profilesimilarity.core.vectors.NormalizedVector;
 import com.acepero13.research.profilesimilarity.utils.VectorCollector;
 
@@ -39,6 +41,18 @@ public interface Metric {
      */
     Double similarityScore(NormalizedVector vectorizable, NormalizedVector another);
 
+    /**
+     * Calculates the similarity score between two binary vectors, such as one-hot encodings. By default, the vectors
+     * are unpacked and scored as normalized vectors; set-based metrics override it to work on the packed words.
+     *
+     * @param vector  the first binary vector.
+     * @param another the second binary vector.
+     * @return the similarity score between the two binary vectors.
+     */
+    default Double similarityScore(BitVector vector, BitVector another) {
+        return similarityScore(vector.toNormalizedVector(), another.toNormalizedVector());
+    }
+
     /**
      * Calculates the similarity score between two mixed samples.
      *
@@ -49,4 +63,16 @@ public interface Metric {
     default Double similarityScore(MixedSample sample, MixedSample another) {
         return 0.0;
     }
+
+    /**
+     * Calculates the similarity score between two samples read in place from packed storage. By default, the rows are
+     * decoded and scored as mixed samples; metrics built on the vector kernels override it to score the packed values.
+     *
+     * @param row     the first row.
+     * @param another the second row, stored in the same column order.
+     * @return the similarity score between the two rows.
+     */
+    default Double similarityScore(PackedRow row, PackedRow another) {
+        return similarityScore(row.decode(), another.decode());
+    }
 }
\ No newline at end of file
@@ -1,7 +1,9 @@
 package com.acepero13.research.profilesimilarity.api;
 
 import com.acepero13.research.profilesimilarity.core.Matrix;
+import com.acepero13.research.profilesimilarity.core.vectors.DoubleVector;
 import com.acepero13.research.profilesimilarity.core.vectors.NormalizedVector;
+import com.acepero13.research.profilesimilarity.utils.ColumnStatistics;
 import com.acepero13.research.profilesimilarity.utils.MinMaxVector;
 
 /**
@@ -17,8 +19,73 @@ public interface Normalizer {
      @return a normalizer that uses the min-max normalization technique.
      */
     static Normalizer minMaxNormalizer(Matrix<Double> matrix) {
-        var minMax = MinMaxVector.of(matrix);
-        return target -> NormalizedVector.of(target.subtract(minMax.getMin()).divide(minMax.difference()));
+        return minMaxNormalizer(MinMaxVector.of(matrix));
+    }
+
+    /**
+
+     Returns a normalizer that maps every column from its range to [0, 1].
+     @param minMax the minimum and maximum of every column.
+     @return a normalizer that uses the min-max normalization technique.
+     */
+    static Normalizer minMaxNormalizer(MinMaxVector minMax) {
+        return scaling(minMax.getMin().toArray(), minMax.difference().toArray());
+    }
+
+    /**
+
+     Returns a min-max normalizer built from statistics accumulated in a single pass over the data set.
+     @param statistics the statistics of the columns.
+     @return a normalizer that uses the min-max normalization technique.
+     @see ColumnStatistics#minMax()
+     */
+    static Normalizer minMaxNormalizer(ColumnStatistics statistics) {
+        return minMaxNormalizer(statistics.minMax());
+    }
+
+    /**
+
+     Returns a normalizer that subtracts the mean of every column and divides by its standard deviation. Columns without
+     variance are only centered.
+     @param statistics the statistics of the columns.
+     @return a normalizer that uses the z-score normalization technique.
+     */
+    static Normalizer zScoreNormalizer(ColumnStatistics statistics) {
+        double[] deviation = statistics.standardDeviation().toArray();
+        for (int i = 0; i < deviation.length; i++) {
+            deviation[i] = deviation[i] == 0.0 ? 1.0 : deviation[i];
+        }
+        return scaling(statistics.mean().toArray(), deviation);
+    }
+
+    /**
+
+     Returns a normalizer that subtracts the median of every column and divides by its interquartile range, which is
+     not affected by outliers. Columns with an empty interquartile range are only centered.
+     @param statistics the statistics of the columns, with quantiles tracked.
+     @return a normalizer that uses the robust scaling technique.
+     @throws IllegalStateException if the statistics do not track quantiles.
+     */
+    static Normalizer robustNormalizer(ColumnStatistics statistics) {
+        double[] median = statistics.quantile(0.5).toArray();
+        double[] lower = statistics.quantile(0.25).toArray();
+        double[] range = statistics.quantile(0.75).toArray();
+        for (int i = 0; i < range.length; i++) {
+            range[i] = range[i] == lower[i] ? 1.0 : range[i] - lower[i];
+        }
+        return scaling(median, range);
+    }
+
+    private static Normalizer scaling(double[] center, double[] spread) {
+        Vector<Double> reference = DoubleVector.of(center);
+        return target -> {
+            target.checkSizeMatchWith(reference);
+            double[] values = target.toArray();
+            for (int i = 0; i < values.length; i++) {
+                values[i] = (values[i] - center[i]) / spread[i];
+            }
+            return NormalizedVector.of(DoubleVector.of(values));
+        };
     }
     /**
 
@@ -5,9 +5,7 @@ import com.acepero13.research.profilesimilarity.exceptions.VectorException;
 import com.acepero13.research.profilesimilarity.utils.MinMax;
 import com.acepero13.research.profilesimilarity.utils.Tuple;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -25,11 +23,15 @@ public interface Vector<T extends Number> {
      */
     @SuppressWarnings("unchecked")
     static <T extends Number> Vector<T> of(List<T> features) {
-        if (features.stream().allMatch(Double.class::isInstance)) {
-            return (Vector<T>) DoubleVector.of(features.stream()
-                    .map(Double.class::cast).collect(Collectors.toList()));
+        double[] values = new double[features.size()];
+        int i = 0;
+        for (T feature : features) {
+            if (!(feature instanceof Double)) {
+                return (Vector<T>) DoubleVector.of(new double[0]);
+            }
+            values[i++] = (Double) feature;
         }
-        return (Vector<T>) DoubleVector.of(new ArrayList<>());
+        return (Vector<T>) DoubleVector.of(values);
     }
 
     /**
@@ -40,7 +42,8 @@ public interface Vector<T extends Number> {
     Double norm();
 
     /**
-     * Computes the cosine similarity between this vector and another vector.
+     * Computes the cosine similarity between this vector and another vector. Implementations should accumulate the
+     * dot product and both norms in the same pass.
      *
      * @param another the other vector.
      * @return the cosine similarity between this vector and another vector as a {@link Double}.
@@ -66,6 +69,40 @@ public interface Vector<T extends Number> {
      */
     Double distanceTo(Vector<T> another) throws VectorException;
 
+    /**
+     * Computes the squared Euclidean distance between this vector and another vector in a single pass, without
+     * building the intermediate difference vector.
+     *
+     * @param another the other vector.
+     * @return the squared Euclidean distance between this vector and another vector.
+     * @throws VectorException if the two vectors have different dimensions.
+     */
+    default double squaredDistanceTo(Vector<T> another) throws VectorException {
+        checkSizeMatchWith(another);
+        double sum = 0.0;
+        for (int i = 0; i < size(); i++) {
+            double difference = valueAt(i) - another.valueAt(i);
+            sum += difference * difference;
+        }
+        return sum;
+    }
+
+    /**
+     * Computes the Manhattan (L1) distance between this vector and another vector in a single pass.
+     *
+     * @param another the other vector.
+     * @return the Manhattan distance between this vector and another vector.
+     * @throws VectorException if the two vectors have different dimensions.
+     */
+    default double manhattanDistanceTo(Vector<T> another) throws VectorException {
+        checkSizeMatchWith(another);
+        double sum = 0.0;
+        for (int i = 0; i < size(); i++) {
+            sum += Math.abs(valueAt(i) - another.valueAt(i));
+        }
+        return sum;
+    }
+
     /**
      * Adds another vector to this vector.
      *
@@ -118,6 +155,16 @@ public interface Vector<T extends Number> {
      */
     T getFeature(int index);
 
+    /**
+     * Returns the value at the specified index in this vector as a primitive double.
+     *
+     * @param index the index of the value to retrieve.
+     * @return the value at the specified index.
+     */
+    default double valueAt(int index) {
+        return getFeature(index).doubleValue();
+    }
+
     /**
      * Returns the size of this vector.
      *
@@ -137,9 +184,10 @@ public interface Vector<T extends Number> {
      *
      * @param difference the vector to divide this vector by.
      * @return the resulting vector.
+     * @throws VectorException if the vectors are not of the same size.
      */
 
-    Vector<Double> divide(Vector<Double> difference);
+    Vector<Double> divide(Vector<Double> difference) throws VectorException;
 
     /**
      * Returns the sum of all the elements in this vector.
@@ -179,4 +227,17 @@ public interface Vector<T extends Number> {
      * @return the resulting vector.
      */
     Vector<T> add(Vector<T> anotherVector, T padding);
+
+    /**
+     * Returns the values of this vector as a primitive array. Modifying the returned array does not modify this vector.
+     *
+     * @return a new array holding the values of this vector.
+     */
+    default double[] toArray() {
+        double[] values = new double[size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = getFeature(i).doubleValue();
+        }
+        return values;
+    }
 }
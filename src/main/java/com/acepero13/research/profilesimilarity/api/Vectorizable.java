@@ -6,6 +6,7 @@ import com.acepero13.research.profilesimilarity.core.vectors.DoubleVector;
 import com.acepero13.research.profilesimilarity.core.vectors.FeatureVector;
 
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -38,7 +39,8 @@ public interface Vectorizable {
     }
 
     /**
-     * Returns the vector representation of this object for the given white-listed features.
+     * Returns the vector representation of this object for the given white-listed features. The names of the
+     * white-listed features are collected once, so every feature of this object is checked with a single lookup.
      *
      * @param whiteList a {@link List} of white-listed {@link Feature}s.
      * @return the vector representation of this object as a {@link Vector} of {@link Double}s
@@ -48,8 +50,11 @@ public interface Vectorizable {
         if (whiteList.isEmpty()) {
             return vector();
         }
+        Set<String> names = whiteList.stream()
+                .map(Feature::featureName)
+                .collect(Collectors.toSet());
         return DoubleVector.ofFeatures(features().stream()
-                .filter(f -> f.isWhiteListed(whiteList))
+                .filter(f -> names.contains(f.featureName()))
                 .filter(f -> !(f instanceof CategoricalFeature))
                 .collect(Collectors.toList()));
     }
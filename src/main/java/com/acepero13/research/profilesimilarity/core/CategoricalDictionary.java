@@ -0,0 +1,182 @@
+package com.acepero13.research.profilesimilarity.core;
+
+import com.acepero13.research.profilesimilarity.api.features.CategoricalFeature;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Maps the categorical features of a data set to dense int codes.
+ * <p>
+ * Every feature name becomes a column, and every distinct value of a column gets a code from {@code 0} to the number of
+ * values of the column. Two features of the same column have the same code when their original values are equal, so
+ * once the rows are encoded comparing two categorical features is an int comparison on aligned columns.
+ * <p>
+ * The dictionary is built once, when the data set is loaded, and is immutable afterwards. Values that are not in the
+ * dictionary are encoded as {@link #UNKNOWN}, which never matches a code of the data set.
+ */
+public final class CategoricalDictionary {
+    /**
+     * The code of a column for which a row has no feature.
+     */
+    public static final int MISSING = -1;
+    /**
+     * The code of a value that is not part of the dictionary.
+     */
+    public static final int UNKNOWN = -2;
+
+    private final Map<String, Integer> columns;
+    private final List<Map<Object, Integer>> codes;
+    private final List<List<CategoricalFeature<?>>> values;
+
+    private CategoricalDictionary(Map<String, Integer> columns, List<Map<Object, Integer>> codes, List<List<CategoricalFeature<?>>> values) {
+        this.columns = columns;
+        this.codes = codes;
+        this.values = values;
+    }
+
+    /**
+     * Builds the dictionary of the categorical features of a data set. Columns and codes are assigned in order of
+     * appearance.
+     *
+     * @param rows the categorical features of every row of the data set
+     * @return a new dictionary
+     */
+    public static CategoricalDictionary of(List<? extends List<CategoricalFeature<?>>> rows) {
+        Map<String, Integer> columns = new LinkedHashMap<>();
+        List<Map<Object, Integer>> codes = new ArrayList<>();
+        List<List<CategoricalFeature<?>>> values = new ArrayList<>();
+        for (List<CategoricalFeature<?>> row : requireNonNull(rows)) {
+            for (CategoricalFeature<?> feature : requireNonNull(row)) {
+                int column = columns.computeIfAbsent(feature.featureName(), name -> {
+                    codes.add(new HashMap<>());
+                    values.add(new ArrayList<>());
+                    return codes.size() - 1;
+                });
+                if (codes.get(column).putIfAbsent(feature.originalValue(), values.get(column).size()) == null) {
+                    values.get(column).add(feature);
+                }
+            }
+        }
+        return new CategoricalDictionary(columns, codes, values);
+    }
+
+    /**
+     * Returns the number of columns, that is, the number of distinct categorical feature names.
+     *
+     * @return the number of columns
+     */
+    public int columns() {
+        return codes.size();
+    }
+
+    /**
+     * Returns the column of the given feature name.
+     *
+     * @param featureName the name of the feature
+     * @return the column, or {@link #MISSING} if the name is not part of the dictionary
+     */
+    public int column(String featureName) {
+        return columns.getOrDefault(featureName, MISSING);
+    }
+
+    /**
+     * Returns the code of the value of the given feature within its column.
+     *
+     * @param feature the feature to encode
+     * @return the code, or {@link #UNKNOWN} if the feature or its value are not part of the dictionary
+     */
+    public int code(CategoricalFeature<?> feature) {
+        int column = column(requireNonNull(feature).featureName());
+        if (column == MISSING) {
+            return UNKNOWN;
+        }
+        return codes.get(column).getOrDefault(feature.originalValue(), UNKNOWN);
+    }
+
+    /**
+     * Returns the feature of the data set that was assigned the given code.
+     *
+     * @param column the column of the feature
+     * @param code   the code of the value
+     * @return the first feature of the data set with that value
+     */
+    public CategoricalFeature<?> decode(int column, int code) {
+        return values.get(column).get(code);
+    }
+
+    /**
+     * Encodes the features of a row into one code per column. Columns for which the row has no feature are
+     * {@link #MISSING}. Features whose name is not part of the dictionary are ignored.
+     *
+     * @param features the categorical features of the row
+     * @return the codes of the row, aligned to the columns of the dictionary
+     */
+    public int[] encode(List<CategoricalFeature<?>> features) {
+        int[] row = new int[columns()];
+        Arrays.fill(row, MISSING);
+        for (CategoricalFeature<?> feature : requireNonNull(features)) {
+            int column = column(feature.featureName());
+            if (column != MISSING) {
+                row[column] = code(feature);
+            }
+        }
+        return row;
+    }
+
+    /**
+     * Encodes many rows into a single row-major array of {@code rows x columns} codes.
+     *
+     * @param rows the categorical features of every row
+     * @return the codes of every row, one row after the other
+     * @see #encode(List)
+     */
+    public int[] encodeAll(List<? extends List<CategoricalFeature<?>>> rows) {
+        int width = columns();
+        int[] encoded = new int[requireNonNull(rows).size() * width];
+        for (int row = 0; row < rows.size(); row++) {
+            System.arraycopy(encode(rows.get(row)), 0, encoded, row * width, width);
+        }
+        return encoded;
+    }
+
+    /**
+     * Returns the number of columns for which the query has a feature and the row has the same value.
+     *
+     * @param codes  the packed codes of the rows
+     * @param offset the position of the first code of the row
+     * @param query  the codes of the query, aligned to the same columns
+     * @return the number of matching features
+     */
+    public static int matches(int[] codes, int offset, int[] query) {
+        return matches(codes, offset, query, 0, query.length);
+    }
+
+    /**
+     * Returns the number of columns for which the query has a feature and the row has the same value, reading both from
+     * packed codes.
+     *
+     * @param codes       the packed codes of the rows
+     * @param offset      the position of the first code of the row
+     * @param query       the packed codes of the query, aligned to the same columns
+     * @param queryOffset the position of the first code of the query
+     * @param columns     the number of columns of the dictionary
+     * @return the number of matching features
+     */
+    public static int matches(int[] codes, int offset, int[] query, int queryOffset, int columns) {
+        int matches = 0;
+        for (int column = 0; column < columns; column++) {
+            int code = query[queryOffset + column];
+            if (code >= 0 && codes[offset + column] == code) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+}
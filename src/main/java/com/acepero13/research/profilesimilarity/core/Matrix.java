@@ -2,16 +2,21 @@ package com.acepero13.research.profilesimilarity.core;
 
 import com.acepero13.research.profilesimilarity.api.Normalizer;
 import com.acepero13.research.profilesimilarity.api.Vector;
+import com.acepero13.research.profilesimilarity.core.vectors.DoubleVector;
 import com.acepero13.research.profilesimilarity.exceptions.MatrixException;
-import com.acepero13.research.profilesimilarity.utils.ListUtils;
+import com.acepero13.research.profilesimilarity.utils.MinMax;
 import lombok.EqualsAndHashCode;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static java.util.Objects.requireNonNull;
@@ -22,21 +27,51 @@ import static java.util.Objects.requireNonNull;
  * The class implements the Iterable interface to allow iteration over the rows of the matrix.
  * <p>
  * The type parameter T specifies the type of the elements of the matrix, which must extend the Number class.
+ * <p>
+ * All values are stored row-major in one contiguous {@code double[]}. Row {@code i} spans the indices
+ * {@code offsets[i]} (inclusive) to {@code offsets[i + 1]} (exclusive), so rows of different length can still be
+ * represented, although column operations require every row to have the same size. Column reductions walk the rows in
+ * cache-sized blocks and never transpose the data.
+ * <p>
+ * Only the packed values are kept: the rows a matrix was built from are not retained, and {@link #row(int)} returns
+ * a {@link DoubleVector} with the values of the row, as {@link Vector#of(List)} builds them. A {@code null} row is
+ * kept as a row without values and is returned as {@code null}.
  *
  * @param <T> the type of the Matrix. It must extend {@link Number}
  */
 @EqualsAndHashCode
 public class Matrix<T extends Number> implements Iterable<Vector<T>> {
-    private final List<Vector<T>> matrix;
+    /**
+     * Approximate number of values processed per block, small enough to stay in the L2 cache.
+     */
+    private static final int BLOCK_SIZE = 8192;
+    /**
+     * Side of the square tiles used to transpose the matrix.
+     */
+    private static final int TILE = 64;
 
+    private final double[] data;
+    private final int[] offsets;
     /**
-     * Constructs a Matrix object from a list of row vectors.
+     * The rows that were {@code null}, or null when every row has values.
+     */
+    private final BitSet nulls;
+
+    /**
+     * Constructs a Matrix object from its packed values and row offsets.
      *
-     * @param rows a list of row vectors
-     * @throws NullPointerException if rows is null
+     * @param data    the values of every row, one after the other
+     * @param offsets the start index of every row, followed by the total number of values
+     * @param nulls   the rows that were {@code null}, or null when there are none
      */
-    private Matrix(List<Vector<T>> rows) {
-        this.matrix = requireNonNull(rows, "Rows cannot be null");
+    private Matrix(double[] data, int[] offsets, BitSet nulls) {
+        this.data = requireNonNull(data, "Data cannot be null");
+        this.offsets = requireNonNull(offsets, "Offsets cannot be null");
+        this.nulls = nulls;
+    }
+
+    private static <T extends Number> Matrix<T> packed(double[] data, int[] offsets) {
+        return new Matrix<>(data, offsets, null);
     }
 
     /**
@@ -45,9 +80,47 @@ public class Matrix<T extends Number> implements Iterable<Vector<T>> {
      * @param rows a list of row vectors
      * @param <T>  the type of the elements of the matrix, which must extend the Number class
      * @return a new Matrix object
+     * @throws NullPointerException if rows is null
      */
     public static <T extends Number> Matrix<T> of(List<Vector<T>> rows) {
-        return new Matrix<>(requireNonNull(rows));
+        requireNonNull(rows, "Rows cannot be null");
+        int[] offsets = new int[rows.size() + 1];
+        BitSet nulls = null;
+        int row = 0;
+        for (Vector<T> vector : rows) {
+            if (vector == null) {
+                nulls = nulls == null ? new BitSet(rows.size()) : nulls;
+                nulls.set(row);
+            }
+            offsets[row + 1] = offsets[row] + (vector == null ? 0 : vector.size());
+            row++;
+        }
+        double[] data = new double[offsets[rows.size()]];
+        row = 0;
+        for (Vector<T> vector : rows) {
+            int offset = offsets[row++];
+            for (int column = 0; vector != null && column < vector.size(); column++) {
+                data[offset + column] = vector.valueAt(column);
+            }
+        }
+        return new Matrix<>(data, offsets, nulls);
+    }
+
+    /**
+     * Returns a new Matrix object backed by an array of values stored row by row.
+     *
+     * @param values  the values of the matrix in row-major order. The array is not copied
+     * @param columns the number of columns of every row
+     * @return a new Matrix object
+     * @throws MatrixException if the number of values is not a multiple of the number of columns
+     */
+    public static Matrix<Double> ofRowMajor(double[] values, int columns) {
+        requireNonNull(values, "Values cannot be null");
+        if (columns <= 0 ? values.length != 0 : values.length % columns != 0) {
+            throw new MatrixException("The number of values: " + values.length + " is not a multiple of the number of columns: " + columns);
+        }
+        int rows = columns == 0 ? 0 : values.length / columns;
+        return packed(values, uniformOffsets(rows, columns));
     }
 
     /**
@@ -68,38 +141,42 @@ public class Matrix<T extends Number> implements Iterable<Vector<T>> {
      * @return a new Matrix object
      */
     public static Matrix<Double> ofVectors(List<Vector<Double>> vectors) {
-        return new Matrix<>(requireNonNull(vectors));
+        return of(requireNonNull(vectors));
     }
 
+    private static int[] uniformOffsets(int rows, int columns) {
+        int[] offsets = new int[rows + 1];
+        for (int row = 1; row <= rows; row++) {
+            offsets[row] = offsets[row - 1] + columns;
+        }
+        return offsets;
+    }
 
     /**
-     * Returns a new Matrix object that is the transpose of the original matrix.
+     * Returns a new Matrix object that is the transpose of the original matrix. The transposition copies the values
+     * tile by tile, which makes the result a cache-friendly column-major view of this matrix.
      *
      * @return a new Matrix object that is the transpose of the original matrix
      * @throws MatrixException if the number of columns of the original matrix does not match the number of rows
      */
     public Matrix<T> transpose() throws MatrixException {
         checkNumberOfColumnsMatch();
-        int totalCols = matrix.get(0).size();
-        return new Matrix<>(transpose(totalCols));
-    }
-
-    /**
-     * Returns a list of column vectors that is the transpose of the original matrix.
-     *
-     * @param totalCols the total number of columns in the original matrix
-     * @return a list of column vectors that is the transpose of the original matrix
-     */
-    private List<Vector<T>> transpose(int totalCols) {
-        List<Vector<T>> transposed = new ArrayList<>();
-        for (int column = 0; column < totalCols; column++) {
-            List<T> tmp = new ArrayList<>();
-            for (Vector<T> vector : matrix) {
-                tmp.add(vector.getFeature(column));
+        int rows = rows();
+        int columns = totalColumns();
+        double[] transposed = new double[data.length];
+        for (int rowTile = 0; rowTile < rows; rowTile += TILE) {
+            int rowEnd = Math.min(rowTile + TILE, rows);
+            for (int columnTile = 0; columnTile < columns; columnTile += TILE) {
+                int columnEnd = Math.min(columnTile + TILE, columns);
+                for (int row = rowTile; row < rowEnd; row++) {
+                    int offset = row * columns;
+                    for (int column = columnTile; column < columnEnd; column++) {
+                        transposed[column * rows + row] = data[offset + column];
+                    }
+                }
             }
-            transposed.add(Vector.of(tmp));
         }
-        return transposed;
+        return packed(transposed, uniformOffsets(columns, rows));
     }
 
     /**
@@ -112,23 +189,73 @@ public class Matrix<T extends Number> implements Iterable<Vector<T>> {
 
     public <R> List<R> reduceColumnWise(Function<Vector<T>, R> mapper) {
         Matrix<T> transposed = transpose();
-        return transposed.matrix.stream()
+        return transposed.stream()
                 .parallel()
                 .map(requireNonNull(mapper))
                 .collect(Collectors.toList());
     }
 
-    private void checkNumberOfColumnsMatch() throws MatrixException {
-        int size = -1;
-        int row = 1;
-        for (Vector<T> vector : matrix) {
-            if (size == -1) {
-                size = vector.size();
+    /**
+     * Computes the minimum and maximum of every column in a single blocked pass over the rows, without transposing
+     * the matrix.
+     *
+     * @return a list with the {@link MinMax} of every column
+     * @throws MatrixException if not every row has the same number of columns
+     */
+    public List<MinMax> columnMinMax() throws MatrixException {
+        checkNumberOfColumnsMatch();
+        int columns = totalColumns();
+        int rows = rows();
+        if (rows == 0) {
+            return new ArrayList<>();
+        }
+        int rowsPerBlock = rowsPerBlock(columns);
+        double[] minMax = IntStream.range(0, blocks(rows, rowsPerBlock))
+                .parallel()
+                .mapToObj(block -> blockMinMax(block * rowsPerBlock, Math.min(rows, (block + 1) * rowsPerBlock), columns))
+                .reduce(Matrix::mergeMinMax)
+                .orElseThrow();
+        List<MinMax> result = new ArrayList<>(columns);
+        for (int column = 0; column < columns; column++) {
+            result.add(new MinMax(minMax[column], minMax[columns + column]));
+        }
+        return result;
+    }
+
+    private double[] blockMinMax(int from, int to, int columns) {
+        double[] minMax = new double[2 * columns];
+        System.arraycopy(data, from * columns, minMax, 0, columns);
+        System.arraycopy(data, from * columns, minMax, columns, columns);
+        for (int row = from + 1; row < to; row++) {
+            int offset = row * columns;
+            for (int column = 0; column < columns; column++) {
+                double value = data[offset + column];
+                minMax[column] = Math.min(minMax[column], value);
+                minMax[columns + column] = Math.max(minMax[columns + column], value);
             }
-            if (vector.size() != size) {
-                throw new MatrixException("Not every vector have the same size. The expected size is: " + size + " but row: " + row + " has size: " + vector.size());
+        }
+        return minMax;
+    }
+
+    private static double[] mergeMinMax(double[] first, double[] second) {
+        int columns = first.length / 2;
+        for (int column = 0; column < columns; column++) {
+            first[column] = Math.min(first[column], second[column]);
+            first[columns + column] = Math.max(first[columns + column], second[columns + column]);
+        }
+        return first;
+    }
+
+    private void checkNumberOfColumnsMatch() throws MatrixException {
+        int rows = rows();
+        if (rows == 0) {
+            return;
+        }
+        int size = rowSize(0);
+        for (int row = 1; row < rows; row++) {
+            if (rowSize(row) != size) {
+                throw new MatrixException("Not every vector have the same size. The expected size is: " + size + " but row: " + (row + 1) + " has size: " + rowSize(row));
             }
-            row++;
         }
     }
 
@@ -140,7 +267,7 @@ public class Matrix<T extends Number> implements Iterable<Vector<T>> {
      */
     @Override
     public Iterator<Vector<T>> iterator() {
-        return matrix.iterator();
+        return stream().iterator();
     }
 
     /**
@@ -149,7 +276,34 @@ public class Matrix<T extends Number> implements Iterable<Vector<T>> {
      * @return {@link Vector} with the result of sum of every column
      */
     public Vector<Double> sumColumns() {
-        return Vector.of(reduceColumnWise(Vector::sum));
+        checkNumberOfColumnsMatch();
+        int columns = totalColumns();
+        int rows = rows();
+        int rowsPerBlock = rowsPerBlock(columns);
+        double[] sums = IntStream.range(0, blocks(rows, rowsPerBlock))
+                .parallel()
+                .mapToObj(block -> blockSum(block * rowsPerBlock, Math.min(rows, (block + 1) * rowsPerBlock), columns))
+                .reduce(Matrix::mergeSum)
+                .orElseGet(() -> new double[columns]);
+        return DoubleVector.of(sums);
+    }
+
+    private double[] blockSum(int from, int to, int columns) {
+        double[] sums = new double[columns];
+        for (int row = from; row < to; row++) {
+            int offset = row * columns;
+            for (int column = 0; column < columns; column++) {
+                sums[column] += data[offset + column];
+            }
+        }
+        return sums;
+    }
+
+    private static double[] mergeSum(double[] first, double[] second) {
+        for (int column = 0; column < first.length; column++) {
+            first[column] += second[column];
+        }
+        return first;
     }
 
     /**
@@ -158,7 +312,63 @@ public class Matrix<T extends Number> implements Iterable<Vector<T>> {
      * @return number of rows
      */
     public double totalRows() {
-        return matrix.size();
+        return rows();
+    }
+
+    private int rows() {
+        return offsets.length - 1;
+    }
+
+    private int rowSize(int row) {
+        return offsets[row + 1] - offsets[row];
+    }
+
+    private static int rowsPerBlock(int columns) {
+        return Math.max(1, BLOCK_SIZE / Math.max(1, columns));
+    }
+
+    private static int blocks(int rows, int rowsPerBlock) {
+        return (rows + rowsPerBlock - 1) / rowsPerBlock;
+    }
+
+    /**
+     * Returns the row at the given index.
+     *
+     * @param index the index of the row
+     * @return a {@link DoubleVector} with a copy of the values of the row, or {@code null} if the row was null
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    @SuppressWarnings("unchecked")
+    public Vector<T> row(int index) {
+        Objects.checkIndex(index, rows());
+        if (nulls != null && nulls.get(index)) {
+            return null;
+        }
+        return (Vector<T>) DoubleVector.of(Arrays.copyOfRange(data, offsets[index], offsets[index + 1]));
+    }
+
+    /**
+     * Returns the value stored at the given row and column.
+     *
+     * @param row    the index of the row
+     * @param column the index of the column
+     * @return the value at the given position
+     * @throws IndexOutOfBoundsException if the row or column is out of range
+     */
+    public double get(int row, int column) {
+        Objects.checkIndex(row, rows());
+        return data[offsets[row] + Objects.checkIndex(column, rowSize(row))];
+    }
+
+    /**
+     * Returns the values of the matrix row by row in a single array.
+     *
+     * @return a copy of the values in row-major order
+     * @throws MatrixException if not every row has the same number of columns
+     */
+    public double[] toRowMajorArray() throws MatrixException {
+        checkNumberOfColumnsMatch();
+        return data.clone();
     }
 
     /**
@@ -169,9 +379,18 @@ public class Matrix<T extends Number> implements Iterable<Vector<T>> {
      * @return a new matrix containing the resulting vectors after applying the given function to each vector in this matrix
      */
     public <R extends Number> Matrix<R> map(Function<Vector<T>, Vector<R>> mapper) {
-        return new Matrix<>(matrix.stream()
-                .parallel().map(mapper)
-                .collect(Collectors.toList()));
+        requireNonNull(mapper);
+        int rows = rows();
+        int rowsPerBlock = rowsPerBlock(rows == 0 ? 1 : offsets[rows] / rows);
+        List<Vector<R>> mapped = new ArrayList<>(Collections.nCopies(rows, null));
+        IntStream.range(0, blocks(rows, rowsPerBlock))
+                .parallel()
+                .forEach(block -> {
+                    for (int row = block * rowsPerBlock; row < Math.min(rows, (block + 1) * rowsPerBlock); row++) {
+                        mapped.set(row, mapper.apply(row(row)));
+                    }
+                });
+        return of(mapped);
     }
 
     /**
@@ -181,7 +400,21 @@ public class Matrix<T extends Number> implements Iterable<Vector<T>> {
      * @return the resulting matrix after adding the two matrices.
      */
     public Matrix<T> add(Matrix<T> anotherMatrix) {
-        return new Matrix<>(ListUtils.zip(matrix, anotherMatrix.matrix, Vector::add).collect(Collectors.toList()));
+        checkSameNumberOfRows(anotherMatrix);
+        if (!Arrays.equals(offsets, anotherMatrix.offsets) || nulls != null || anotherMatrix.nulls != null) {
+            return of(IntStream.range(0, rows())
+                    .mapToObj(row -> row(row).add(anotherMatrix.row(row)))
+                    .collect(Collectors.toList()));
+        }
+        double[] result = new double[data.length];
+        IntStream.range(0, blocks(data.length, BLOCK_SIZE))
+                .parallel()
+                .forEach(block -> {
+                    for (int i = block * BLOCK_SIZE; i < Math.min(data.length, (block + 1) * BLOCK_SIZE); i++) {
+                        result[i] = data[i] + anotherMatrix.data[i];
+                    }
+                });
+        return packed(result, offsets);
     }
 
     /**
@@ -192,7 +425,36 @@ public class Matrix<T extends Number> implements Iterable<Vector<T>> {
      * @return the resulting matrix after adding the two matrices element-wise.
      */
     public Matrix<T> add(Matrix<T> another, T padding) {
-        return new Matrix<>(ListUtils.zip(matrix, another.matrix, (v1, v2) -> v1.add(v2, padding)).collect(Collectors.toList()));
+        checkSameNumberOfRows(another);
+        if (nulls != null || another.nulls != null) {
+            return of(IntStream.range(0, rows())
+                    .mapToObj(row -> row(row).add(another.row(row), padding))
+                    .collect(Collectors.toList()));
+        }
+        int rows = rows();
+        double pad = padding.doubleValue();
+        int[] resultOffsets = new int[rows + 1];
+        for (int row = 0; row < rows; row++) {
+            resultOffsets[row + 1] = resultOffsets[row] + Math.max(rowSize(row), another.rowSize(row));
+        }
+        double[] result = new double[resultOffsets[rows]];
+        for (int row = 0; row < rows; row++) {
+            int size = rowSize(row);
+            int anotherSize = another.rowSize(row);
+            int offset = resultOffsets[row];
+            for (int column = 0; column < resultOffsets[row + 1] - offset; column++) {
+                double first = column < size ? data[offsets[row] + column] : pad;
+                double second = column < anotherSize ? another.data[another.offsets[row] + column] : pad;
+                result[offset + column] = first + second;
+            }
+        }
+        return packed(result, resultOffsets);
+    }
+
+    private void checkSameNumberOfRows(Matrix<T> another) {
+        if (rows() != another.rows()) {
+            throw new IllegalStateException("Size of the lists are different. First size: " + rows() + " second size: " + another.rows());
+        }
     }
 
     /**
@@ -202,10 +464,10 @@ public class Matrix<T extends Number> implements Iterable<Vector<T>> {
      * @return The number of columns in the matrix.
      */
     public int totalColumns() {
-        if (totalRows() == 0) {
+        if (rows() == 0) {
             return 0;
         }
-        return matrix.get(0).size();
+        return rowSize(0);
     }
 
     /**
@@ -215,6 +477,6 @@ public class Matrix<T extends Number> implements Iterable<Vector<T>> {
      */
 
     public Stream<Vector<T>> stream() {
-        return matrix.stream();
+        return IntStream.range(0, rows()).mapToObj(this::row);
     }
 }
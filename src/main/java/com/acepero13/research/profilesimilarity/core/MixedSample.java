@@ -2,6 +2,7 @@ package com.acepero13.research.profilesimilarity.core;
 
 import com.acepero13.research.profilesimilarity.api.features.CategoricalFeature;
 import com.acepero13.research.profilesimilarity.api.features.Feature;
+import com.acepero13.research.profilesimilarity.core.vectors.BitVector;
 import com.acepero13.research.profilesimilarity.core.vectors.NormalizedVector;
 import lombok.Data;
 
@@ -26,16 +27,28 @@ public class MixedSample {
      * The categorical features of the mixed sample.
      */
     private final List<CategoricalFeature<?>> features;
+    /**
+     * The categorical features encoded by a {@link CategoricalDictionary}, or null if the sample is not encoded.
+     */
+    private final int[] codes;
+    /**
+     * The boolean categorical features of the mixed sample, such as one-hot encodings, packed into a bit vector.
+     */
+    private final BitVector flags;
 
     /**
      * Creates a new MixedSample object with the given numerical and categorical features.
      *
      * @param vector   the numerical features of the mixed sample represented as a NormalizedVector.
      * @param features the categorical features of the mixed sample.
+     * @param codes    the encoded categorical features, or null.
+     * @param flags    the boolean categorical features packed into a bit vector.
      */
-    private MixedSample(NormalizedVector vector, List<CategoricalFeature<?>> features) {
+    private MixedSample(NormalizedVector vector, List<CategoricalFeature<?>> features, int[] codes, BitVector flags) {
         this.vector = requireNonNull(vector);
         this.features = requireNonNull(features);
+        this.codes = codes;
+        this.flags = requireNonNull(flags);
     }
 
     /**
@@ -47,7 +60,36 @@ public class MixedSample {
      * @return a new MixedSample object with the given numerical and categorical features.
      */
     public static MixedSample of(NormalizedVector sample, List<CategoricalFeature<?>> features) {
-        return new MixedSample(requireNonNull(sample), requireNonNull(features));
+        return new MixedSample(requireNonNull(sample), requireNonNull(features), null, BitVector.of(features));
+    }
+
+    /**
+     * Creates a new MixedSample object whose categorical features are also encoded by a {@link CategoricalDictionary}.
+     * Two encoded samples compare their categorical features by code, so both must be encoded with the same dictionary.
+     *
+     * @param sample   the numerical features of the mixed sample represented as a NormalizedVector.
+     * @param features the categorical features of the mixed sample.
+     * @param codes    the codes of the categorical features, aligned to the columns of the dictionary.
+     * @return a new MixedSample object with the given numerical and categorical features.
+     * @see CategoricalDictionary#encode(List)
+     */
+    public static MixedSample of(NormalizedVector sample, List<CategoricalFeature<?>> features, int[] codes) {
+        return of(sample, features, codes, BitVector.of(requireNonNull(features)));
+    }
+
+    /**
+     * Creates a new MixedSample object with encoded categorical features and boolean features that were already packed,
+     * so that data sets can pack their rows once instead of on every comparison.
+     *
+     * @param sample   the numerical features of the mixed sample represented as a NormalizedVector.
+     * @param features the categorical features of the mixed sample.
+     * @param codes    the codes of the categorical features, aligned to the columns of the dictionary.
+     * @param flags    the boolean categorical features packed into a bit vector.
+     * @return a new MixedSample object with the given numerical and categorical features.
+     * @see BitVector#of(List)
+     */
+    public static MixedSample of(NormalizedVector sample, List<CategoricalFeature<?>> features, int[] codes, BitVector flags) {
+        return new MixedSample(requireNonNull(sample), requireNonNull(features), requireNonNull(codes), requireNonNull(flags));
     }
 
     /**
@@ -78,7 +120,9 @@ public class MixedSample {
      * @return the number of matching categorical features
      */
     public int numberOfMatches(MixedSample another) {
-
+        if (codes != null && requireNonNull(another).codes != null && codes.length == another.codes.length) {
+            return CategoricalDictionary.matches(codes, 0, another.codes);
+        }
         return (int) requireNonNull(another).features.stream()
                 .filter(another::hasFeature)
                 .map(a -> feature(a).filter(thisFeat -> thisFeat.matches(a)))
@@ -96,9 +140,7 @@ public class MixedSample {
      * @return the number of matching features
      */
     public int numberOfMatchingFeatures(MixedSample another) {
-        // Use stream to count the number of features that exist in both MixedSamples
-        return (int) requireNonNull(another).getFeatures().stream()
-                .filter(another::hasFeature)
-                .count();
+        // Every feature of the other sample passes another::hasFeature, so this is the size of its feature list
+        return requireNonNull(another).getFeatures().size();
     }
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import com.acepero13.research.profilesimilarity.api.features.CategoricalFeature;
 import com.acepero13.research.profilesimilarity.api.features.Feature;
 import com.acepero13.research.profilesimilarity.api.features.Features;
 import com.acepero13.research.profilesimilarity.core.proxy.CategoricalFeatureProxy;
+import com.acepero13.research.profilesimilarity.core.vectors.BitVector;
 
 import java.util.*;
 
@@ -25,6 +26,12 @@ public class OneHotEncodingExtractor<T extends CategoricalFeature<?>> {
      * The set of feature names to encode.
      */
     private final Set<T> featureNames;
+    /**
+     * The features of a present and of an absent value, one per possible value. They are immutable and shared by every
+     * encoded list, so converting a list does not create a feature per possible value.
+     */
+    private final Feature<?>[] present;
+    private final Feature<?>[] absent;
 
     /**
      * Constructs a OneHotEncodingExtractor with the given set of feature names.
@@ -33,6 +40,13 @@ public class OneHotEncodingExtractor<T extends CategoricalFeature<?>> {
      */
     public OneHotEncodingExtractor(Set<T> featureNames) {
         this.featureNames = requireNonNull(featureNames);
+        this.present = new Feature<?>[featureNames.size()];
+        this.absent = new Feature<?>[featureNames.size()];
+        int i = 0;
+        for (T element : featureNames) {
+            present[i] = Features.categoricalBoolean(true, getName(element));
+            absent[i++] = Features.categoricalBoolean(false, getName(element));
+        }
     }
 
     /**
@@ -88,14 +102,39 @@ public class OneHotEncodingExtractor<T extends CategoricalFeature<?>> {
      * @return a list of one-hot encoded features
      */
     public List<Feature<?>> convert(List<T> elements) {
-        List<Feature<?>> oneHotVectorList = new ArrayList<>();
+        return features(encode(elements));
+    }
 
+    /**
+     * Encodes a list of categorical features as a packed one-hot vector, with one value per possible feature in the
+     * same order as {@link #convert(List)}. A group of up to 64 possible values fits in a single word.
+     *
+     * @param elements the list of categorical features to encode
+     * @return the one-hot encoding packed into a bit vector
+     */
+    public BitVector encode(List<? extends CategoricalFeature<?>> elements) {
+        requireNonNull(elements);
+        boolean[] bits = new boolean[featureNames.size()];
+        int i = 0;
         for (T element : featureNames) {
-            if (elements.stream().anyMatch(e -> e.matches(element))) {
-                oneHotVectorList.add(Features.categoricalBoolean(true, getName(element)));
-            } else {
-                oneHotVectorList.add(Features.categoricalBoolean(false, getName(element)));
+            for (CategoricalFeature<?> e : elements) {
+                if (e.matches(element)) {
+                    bits[i] = true;
+                    break;
+                }
             }
+            i++;
+        }
+        return BitVector.of(bits);
+    }
+
+    /**
+     * Returns the shared feature of every possible value, present or absent as in the given encoding.
+     */
+    private List<Feature<?>> features(BitVector bits) {
+        List<Feature<?>> oneHotVectorList = new ArrayList<>(bits.size());
+        for (int i = 0; i < bits.size(); i++) {
+            oneHotVectorList.add(bits.get(i) ? present[i] : absent[i]);
         }
         return oneHotVectorList;
     }
@@ -119,16 +158,7 @@ public class OneHotEncodingExtractor<T extends CategoricalFeature<?>> {
      * @return a list of Feature objects that represent the same data as one-hot vectors.
      */
     public List<Feature<?>> convertCategoricalFeature(List<CategoricalFeature<Object>> elements) {
-        List<Feature<?>> oneHotVectorList = new ArrayList<>();
-
-        for (T element : featureNames) {
-            if (elements.stream().anyMatch(e -> e.matches(element))) {
-                oneHotVectorList.add(Features.categoricalBoolean(true, getName(element)));
-            } else {
-                oneHotVectorList.add(Features.categoricalBoolean(false, getName(element)));
-            }
-        }
-        return oneHotVectorList;
+        return features(encode(elements));
     }
 }
 
@@ -0,0 +1,139 @@
+package com.acepero13.research.profilesimilarity.core;
+
+import com.acepero13.research.profilesimilarity.core.vectors.BitVector;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A sample read in place from the packed storage of a data set, so that a metric can score it with the vector kernels
+ * instead of copying it into a {@link MixedSample}.
+ * <p>
+ * The numerical values of two rows that are compared are stored in the same column order, which is not necessarily the
+ * order of the features: metrics that do not depend on that order, such as the cosine similarity or the Euclidean
+ * distance, read {@link #values()} directly, and the others score the {@link #decode() decoded} samples. A row read
+ * from a data set is a cursor that is moved to the next row once it has been scored.
+ */
+public interface PackedRow {
+
+    /**
+     * Creates a row over the given values and the categorical features of a sample.
+     *
+     * @param values the numerical values of the sample, in the column order of the rows it will be compared with
+     * @param sample the decoded sample
+     * @return a new row
+     */
+    static PackedRow of(double[] values, MixedSample sample) {
+        requireNonNull(values);
+        requireNonNull(sample);
+        return new PackedRow() {
+            @Override
+            public double[] values() {
+                return values;
+            }
+
+            @Override
+            public int offset() {
+                return 0;
+            }
+
+            @Override
+            public int length() {
+                return values.length;
+            }
+
+            @Override
+            public int[] codes() {
+                return sample.getCodes();
+            }
+
+            @Override
+            public int codesOffset() {
+                return 0;
+            }
+
+            @Override
+            public int numberOfCodes() {
+                return sample.getCodes() == null ? 0 : sample.getCodes().length;
+            }
+
+            @Override
+            public BitVector flags() {
+                return sample.getFlags();
+            }
+
+            @Override
+            public int numberOfCategoricalFeatures() {
+                return sample.getFeatures().size();
+            }
+
+            @Override
+            public MixedSample decode() {
+                return sample;
+            }
+        };
+    }
+
+    /**
+     * Returns the array holding the numerical values of the row.
+     *
+     * @return the packed values
+     */
+    double[] values();
+
+    /**
+     * Returns the position of the first numerical value of the row in {@link #values()}.
+     *
+     * @return the offset of the row
+     */
+    int offset();
+
+    /**
+     * Returns the number of numerical values of the row.
+     *
+     * @return the length of the row
+     */
+    int length();
+
+    /**
+     * Returns the array holding the categorical features of the row encoded by a {@link CategoricalDictionary}, or null
+     * if the row is not encoded.
+     *
+     * @return the packed codes, or null
+     */
+    int[] codes();
+
+    /**
+     * Returns the position of the first code of the row in {@link #codes()}.
+     *
+     * @return the offset of the codes of the row
+     */
+    int codesOffset();
+
+    /**
+     * Returns the number of codes of the row, that is, the number of columns of the dictionary it is encoded with.
+     *
+     * @return the number of codes
+     */
+    int numberOfCodes();
+
+    /**
+     * Returns the boolean categorical features of the row packed into a bit vector.
+     *
+     * @return the flags of the row
+     */
+    BitVector flags();
+
+    /**
+     * Returns the number of categorical features of the row.
+     *
+     * @return the number of categorical features
+     */
+    int numberOfCategoricalFeatures();
+
+    /**
+     * Decodes the row into a mixed sample, with its numerical values in the order of the features.
+     *
+     * @return the decoded sample
+     */
+    MixedSample decode();
+}
@@ -0,0 +1,29 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import com.acepero13.research.profilesimilarity.api.Vectorizable;
+
+/**
+ * A {@link NeighborIndex} that only searches part of the data set, built on top of an exact index.
+ */
+interface ApproximateIndex extends NeighborIndex {
+
+    /**
+     * Returns the positions of the samples found closest to the target, to be scored exactly by the caller.
+     *
+     * @param target the target to compare against the index
+     * @return the positions of the candidates, closest first
+     */
+    int[] candidates(Vectorizable target);
+
+    /**
+     * Returns the positions of the samples found closest to the target, scanning the rows with the given executor.
+     * Indexes that do not scan their rows answer on the calling thread.
+     *
+     * @param target   the target to compare against the index
+     * @param executor the executor that runs the scan
+     * @return the positions of the candidates, closest first
+     */
+    default int[] candidates(Vectorizable target, QueryExecutor executor) {
+        return candidates(target);
+    }
+}
@@ -0,0 +1,127 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Answers every query on its calling thread, with the help of the tasks it can borrow from a shared semaphore.
+ * <p>
+ * A query splits its range into one chunk for the calling thread and one per permit it acquired without waiting. The
+ * helper chunks run on the executor and release their permit when they finish; the calling thread scans its own chunk
+ * meanwhile, then waits for the helpers and combines the chunks in index order.
+ */
+final class BoundedQueryExecutor implements QueryExecutor {
+    /**
+     * Minimum number of indices of a chunk of {@link #collect}, so that a helper is only borrowed for enough work.
+     */
+    private static final int MIN_CHUNK = 1024;
+
+    private final Executor helpers;
+    private final Semaphore permits;
+    private final int parallelism;
+
+    BoundedQueryExecutor(Executor helpers, int permits) {
+        this.helpers = helpers;
+        this.permits = new Semaphore(permits);
+        this.parallelism = permits + 1;
+    }
+
+    @Override
+    public int parallelism() {
+        return parallelism;
+    }
+
+    @Override
+    public <R> R collect(int size, Supplier<R> supplier, ObjIntConsumer<R> accumulator, BiConsumer<R, R> combiner) {
+        int chunks = borrow((size + MIN_CHUNK - 1) / MIN_CHUNK);
+        List<R> containers = new ArrayList<>(chunks);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            containers.add(supplier.get());
+        }
+        run(chunks, chunk -> {
+            R container = containers.get(chunk);
+            for (int index = start(chunk, chunks, size); index < start(chunk + 1, chunks, size); index++) {
+                accumulator.accept(container, index);
+            }
+        });
+        R result = containers.get(0);
+        for (int chunk = 1; chunk < chunks; chunk++) {
+            combiner.accept(result, containers.get(chunk));
+        }
+        return result;
+    }
+
+    @Override
+    public void forEach(int size, IntConsumer action) {
+        int chunks = borrow(size);
+        run(chunks, chunk -> {
+            for (int index = start(chunk, chunks, size); index < start(chunk + 1, chunks, size); index++) {
+                action.accept(index);
+            }
+        });
+    }
+
+    /**
+     * Acquires the free permits, up to one less than the wanted number of chunks, and returns the number of chunks:
+     * one per permit plus the one of the calling thread.
+     */
+    private int borrow(int wanted) {
+        int borrowed = 0;
+        while (borrowed < wanted - 1 && permits.tryAcquire()) {
+            borrowed++;
+        }
+        return borrowed + 1;
+    }
+
+    /**
+     * Runs the first chunk on the calling thread and every other chunk on a helper holding one permit.
+     */
+    private void run(int chunks, IntConsumer chunk) {
+        List<CompletableFuture<Void>> running = new ArrayList<>(chunks - 1);
+        for (int helper = 1; helper < chunks; helper++) {
+            int current = helper;
+            try {
+                running.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        chunk.accept(current);
+                    } finally {
+                        permits.release();
+                    }
+                }, helpers));
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                chunk.accept(current);
+            }
+        }
+        chunk.accept(0);
+        try {
+            CompletableFuture.allOf(running.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static int start(int chunk, int chunks, int size) {
+        return (int) ((long) size * chunk / chunks);
+    }
+
+    @Override
+    public String toString() {
+        return "QueryExecutor{bounded, permits=" + (parallelism - 1) + "}";
+    }
+}
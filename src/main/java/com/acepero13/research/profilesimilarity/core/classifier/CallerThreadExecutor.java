@@ -0,0 +1,42 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs every query sequentially on the calling thread.
+ */
+final class CallerThreadExecutor implements QueryExecutor {
+    static final CallerThreadExecutor INSTANCE = new CallerThreadExecutor();
+
+    private CallerThreadExecutor() {
+    }
+
+    @Override
+    public int parallelism() {
+        return 1;
+    }
+
+    @Override
+    public <R> R collect(int size, Supplier<R> supplier, ObjIntConsumer<R> accumulator, BiConsumer<R, R> combiner) {
+        R container = supplier.get();
+        for (int index = 0; index < size; index++) {
+            accumulator.accept(container, index);
+        }
+        return container;
+    }
+
+    @Override
+    public void forEach(int size, IntConsumer action) {
+        for (int index = 0; index < size; index++) {
+            action.accept(index);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "QueryExecutor{callerThread}";
+    }
+}
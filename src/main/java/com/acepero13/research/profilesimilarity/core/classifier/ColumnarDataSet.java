@@ -0,0 +1,116 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import com.acepero13.research.profilesimilarity.api.Vectorizable;
+import com.acepero13.research.profilesimilarity.api.features.CategoricalFeature;
+import com.acepero13.research.profilesimilarity.core.CategoricalDictionary;
+import com.acepero13.research.profilesimilarity.core.vectors.BitVector;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * A data set stored column by column, whose samples are only decoded into features when they are returned as
+ * neighbors. The classifiers query it through the projection of the numerical columns used by a feature schema and
+ * through the dictionary codes of its categorical columns.
+ */
+abstract class ColumnarDataSet {
+    private BitVector[] flags;
+
+    /**
+     * Returns the number of samples in the data set.
+     *
+     * @return the number of samples
+     */
+    abstract int size();
+
+    /**
+     * Decodes the sample stored at the given position.
+     *
+     * @param index the position of the sample
+     * @return the decoded sample
+     */
+    abstract Vectorizable sample(int index);
+
+    /**
+     * Returns the normalized and weighted rows of the numerical columns used by the feature schema of the target. The
+     * projection is built the first time a schema is seen and reused by every later query.
+     *
+     * @param target a vectorizable describing the features used by the queries
+     * @return the projection for the feature schema of the target
+     */
+    abstract NeighborIndex projection(Vectorizable target);
+
+    /**
+     * Returns the categorical features of the sample stored at the given position.
+     *
+     * @param index the position of the sample
+     * @return the categorical features
+     */
+    abstract List<CategoricalFeature<?>> categorical(int index);
+
+    /**
+     * Copies the dictionary codes of the sample stored at the given position into the buffer, one per categorical
+     * column.
+     *
+     * @param index  the position of the sample
+     * @param buffer the array the codes are copied to, aligned to the columns of {@link #categoricalDictionary()}
+     */
+    abstract void readCodes(int index, int[] buffer);
+
+    /**
+     * Returns the dictionary codes of the sample stored at the given position, one per categorical column.
+     *
+     * @param index the position of the sample
+     * @return the codes, aligned to the columns of {@link #categoricalDictionary()}
+     */
+    int[] codes(int index) {
+        int[] row = new int[categoricalDictionary().columns()];
+        readCodes(index, row);
+        return row;
+    }
+
+    /**
+     * Returns the boolean categorical features of the sample stored at the given position, packed into a bit vector.
+     * The flags of every sample are packed the first time they are read.
+     *
+     * @param index the position of the sample
+     * @return the flags of the sample
+     */
+    BitVector flags(int index) {
+        return flags()[index];
+    }
+
+    private synchronized BitVector[] flags() {
+        if (flags == null) {
+            flags = IntStream.range(0, size()).mapToObj(row -> BitVector.of(categorical(row))).toArray(BitVector[]::new);
+        }
+        return flags;
+    }
+
+    /**
+     * Returns the dictionary of the categorical columns.
+     *
+     * @return the dictionary
+     */
+    abstract CategoricalDictionary categoricalDictionary();
+
+    /**
+     * Returns a view of the samples of the data set that decodes every sample when it is read.
+     *
+     * @return the samples
+     */
+    List<Vectorizable> samples() {
+        return new AbstractList<>() {
+            @Override
+            public Vectorizable get(int index) {
+                return sample(index);
+            }
+
+            @Override
+            public int size() {
+                return ColumnarDataSet.this.size();
+            }
+        };
+    }
+}
@@ -0,0 +1,333 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import com.acepero13.research.profilesimilarity.api.Normalizer;
+import com.acepero13.research.profilesimilarity.api.Vector;
+import com.acepero13.research.profilesimilarity.api.Vectorizable;
+import com.acepero13.research.profilesimilarity.api.features.CategoricalFeature;
+import com.acepero13.research.profilesimilarity.core.Score;
+import com.acepero13.research.profilesimilarity.core.vectors.BitVector;
+import com.acepero13.research.profilesimilarity.core.vectors.DoubleVector;
+import com.acepero13.research.profilesimilarity.core.vectors.NormalizedVector;
+import com.acepero13.research.profilesimilarity.core.vectors.VectorKernels;
+import com.acepero13.research.profilesimilarity.exceptions.ArgumentException;
+import com.acepero13.research.profilesimilarity.exceptions.VectorException;
+import com.acepero13.research.profilesimilarity.utils.TopK;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link KnnIndex} whose rows are stored with less precision, to cut the memory used by large data sets and the
+ * bandwidth needed to scan them.
+ * <p>
+ * With {@link Precision#FLOAT32} every value takes 4 bytes instead of 8. With {@link Precision#INT8} every value is
+ * quantized to one byte: the range of each column of the normalized and weighted rows is split into 256 steps, and a
+ * value is stored as the step closest to it. Queries are compared with the compact rows directly.
+ * <p>
+ * The distances of the compact rows are approximate. When a re-rank depth is given, that many candidates are selected
+ * with the compact rows and their exact distances are then computed in double precision from the numerical columns of
+ * the {@link FeatureTable} the index is built on. The table keeps the values packed column by column, without a feature
+ * object per row, and decodes a sample only when it is returned as a neighbor; the index keeps no other copy of the
+ * data set.
+ */
+public final class CompactIndex implements NeighborIndex {
+    private static final int LEVELS = 255;
+    private static final int CODE_OFFSET = 128;
+
+    private final Normalizer normalizer;
+    private final FeatureSchema schema;
+    private final Vector<Double> weights;
+    private final FeatureTable table;
+    private final int[] columns;
+    private final int dimension;
+    private final Precision precision;
+    private final int rerank;
+    private final float[] floats;
+    private final byte[] codes;
+    private final double[] offset;
+    private final double[] step;
+
+    private CompactIndex(FeatureSchema schema, FeatureTable table, Normalizer normalizer, Precision precision, int rerank,
+                         QueryExecutor executor) {
+        this.schema = schema;
+        this.weights = schema.weights();
+        this.table = table;
+        this.columns = table.size() == 0 ? new int[0] : table.columns(schema);
+        this.normalizer = normalizer == null ? table.minMaxNormalizer(columns) : normalizer;
+        this.dimension = schema.dimension();
+        this.precision = precision;
+        this.rerank = rerank;
+        if (precision == Precision.FLOAT32) {
+            this.floats = new float[table.size() * dimension];
+            this.codes = null;
+            this.offset = null;
+            this.step = null;
+            executor.forEach(table.size(), row -> {
+                double[] values = exactRow(row);
+                for (int column = 0; column < dimension; column++) {
+                    floats[row * dimension + column] = (float) values[column];
+                }
+            });
+        } else {
+            this.floats = null;
+            this.offset = new double[dimension];
+            this.step = new double[dimension];
+            this.codes = quantize(executor);
+        }
+    }
+
+    /**
+     * Builds a compact index of the given data points using the min-max normalizer of the data set. The feature schema
+     * (the numerical features and their weights) is taken from the sample.
+     *
+     * @param sample     a vectorizable describing the features used by the queries
+     * @param dataPoints the data set
+     * @param precision  the precision of the stored rows
+     * @param rerank     the number of candidates whose exact distance is computed, or 0 to keep the compact distances
+     * @return a new index
+     * @throws ArgumentException if the re-rank depth is negative
+     * @throws VectorException   if a data point does not have one of the numerical features of the sample
+     */
+    public static CompactIndex of(Vectorizable sample, List<Vectorizable> dataPoints, Precision precision, int rerank) {
+        requireNonNull(sample, "Sample cannot be null");
+        return of(sample, FeatureTable.of(requireNonNull(dataPoints)), null, precision, rerank, QueryExecutor.commonPool());
+    }
+
+    /**
+     * Builds a compact index of the numerical columns of the table used by the feature schema of the sample. When the
+     * normalizer is null, the columns are normalized with their min-max ranges.
+     */
+    static CompactIndex of(Vectorizable sample, FeatureTable table, Normalizer normalizer, Precision precision,
+                           int rerank, QueryExecutor executor) {
+        if (rerank < 0) {
+            throw new ArgumentException("The re-rank depth cannot be negative, but got: " + rerank);
+        }
+        return new CompactIndex(FeatureSchema.of(requireNonNull(sample, "Sample cannot be null")), table, normalizer,
+                requireNonNull(precision), rerank, executor);
+    }
+
+    /**
+     * Quantizes every column to {@link #LEVELS} steps between its minimum and maximum. The rows are normalized twice,
+     * once to find the range of every column and once to quantize them, so that no other copy of the rows is held
+     * while the codes are built.
+     */
+    private byte[] quantize(QueryExecutor executor) {
+        int size = table.size();
+        double[] range = executor.collect(size, this::emptyRange, (minMax, row) -> {
+            double[] values = exactRow(row);
+            for (int column = 0; column < dimension; column++) {
+                minMax[column] = Math.min(minMax[column], values[column]);
+                minMax[dimension + column] = Math.max(minMax[dimension + column], values[column]);
+            }
+        }, (minMax, another) -> {
+            for (int column = 0; column < dimension; column++) {
+                minMax[column] = Math.min(minMax[column], another[column]);
+                minMax[dimension + column] = Math.max(minMax[dimension + column], another[dimension + column]);
+            }
+        });
+        for (int column = 0; column < dimension; column++) {
+            double min = range[column];
+            double max = range[dimension + column];
+            offset[column] = size == 0 ? 0.0 : min;
+            step[column] = max > min ? (max - min) / LEVELS : 1.0;
+        }
+        byte[] quantized = new byte[size * dimension];
+        executor.forEach(size, row -> {
+            double[] values = exactRow(row);
+            for (int column = 0; column < dimension; column++) {
+                long level = Math.round((values[column] - offset[column]) / step[column]);
+                quantized[row * dimension + column] = (byte) (level - CODE_OFFSET);
+            }
+        });
+        return quantized;
+    }
+
+    private double[] emptyRange() {
+        double[] minMax = new double[2 * dimension];
+        Arrays.fill(minMax, 0, dimension, Double.POSITIVE_INFINITY);
+        Arrays.fill(minMax, dimension, 2 * dimension, Double.NEGATIVE_INFINITY);
+        return minMax;
+    }
+
+    /**
+     * Normalizes the numerical features of the target using the normalizer of this index.
+     *
+     * @param target the target to normalize
+     * @return the normalized target
+     */
+    @Override
+    public NormalizedVector normalize(Vectorizable target) {
+        requireNonNull(target, "Target cannot be null");
+        return NormalizedVector.of(schema.vector(target), normalizer);
+    }
+
+    /**
+     * Returns the k samples closest to the target, sorted by ascending Euclidean distance. The candidates are selected
+     * with the compact rows; if a re-rank depth was given, the closest candidates are re-scored exactly.
+     *
+     * @param target the target to compare against the index
+     * @param k      the number of neighbors to return
+     * @return the scores of the k nearest samples
+     * @throws VectorException if the target does not have the dimension of the index
+     */
+    @Override
+    public List<Score> nearest(Vectorizable target, int k) {
+        return nearest(target, k, QueryExecutor.commonPool());
+    }
+
+    /**
+     * Returns the k samples closest to the target, selecting the candidates with the given executor.
+     *
+     * @param target   the target to compare against the index
+     * @param k        the number of neighbors to return
+     * @param executor the executor that runs the scan of the compact rows
+     * @return the scores of the k nearest samples
+     * @throws VectorException if the target does not have the dimension of the index
+     * @see #nearest(Vectorizable, int)
+     */
+    @Override
+    public List<Score> nearest(Vectorizable target, int k, QueryExecutor executor) {
+        double[] query = normalize(target).toArray();
+        if (query.length != dimension && table.size() > 0) {
+            throw new VectorException("Vector length do not match. Vector length is: " + query.length + " and the other vector's length is: " + dimension);
+        }
+        double[] prepared = prepare(query);
+        TopK candidates = executor.collect(table.size(), () -> TopK.of(Math.max(k, rerank)),
+                (heap, row) -> heap.offer(row, compactDistance(prepared, row)),
+                TopK::merge);
+        TopK nearest = rerank == 0 ? limit(candidates, k) : rescore(query, candidates, k);
+        int[] indices = nearest.indices();
+        double[] distances = nearest.scores();
+        List<Score> scores = new ArrayList<>(indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            scores.add(new Score(Math.sqrt(distances[i]), table.sample(indices[i]).toFeatureVector()));
+        }
+        return scores;
+    }
+
+    @Override
+    public List<List<Score>> nearest(List<? extends Vectorizable> targets, int k) {
+        return requireNonNull(targets, "Targets cannot be null").stream()
+                .map(t -> nearest(t, k))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public int size() {
+        return table.size();
+    }
+
+    /**
+     * Decodes the sample stored at the given position from the table of the index.
+     *
+     * @param index the position of the sample
+     * @return the decoded sample
+     */
+    @Override
+    public Vectorizable sample(int index) {
+        return table.sample(index);
+    }
+
+    /**
+     * Returns the normalized and weighted row of the sample stored at the given position, computed again in double
+     * precision from the numerical columns of the table.
+     *
+     * @param index the position of the sample
+     * @return the exact row
+     */
+    @Override
+    public NormalizedVector row(int index) {
+        double[] values = new double[dimension];
+        table.readNumerical(index, columns, values);
+        return DataSet.scale(DoubleVector.of(values), normalizer, weights);
+    }
+
+    @Override
+    public List<CategoricalFeature<?>> categorical(int index) {
+        return table.categorical(index);
+    }
+
+    @Override
+    public BitVector flags(int index) {
+        return table.flags(index);
+    }
+
+    /**
+     * Returns the number of bytes used by the stored rows.
+     *
+     * @return the size of the rows in memory
+     */
+    public long rowBytes() {
+        return precision == Precision.FLOAT32 ? (long) floats.length * Float.BYTES : codes.length;
+    }
+
+    private double[] exactRow(int index) {
+        return row(index).toArray();
+    }
+
+    /**
+     * Moves the query into the space of the stored rows: unchanged for floats, and expressed in steps of each column
+     * for quantized rows, so that the scan only subtracts the stored code.
+     */
+    private double[] prepare(double[] query) {
+        if (precision == Precision.FLOAT32) {
+            return query;
+        }
+        double[] prepared = new double[query.length];
+        for (int column = 0; column < query.length; column++) {
+            prepared[column] = (query[column] - offset[column]) / step[column] - CODE_OFFSET;
+        }
+        return prepared;
+    }
+
+    private double compactDistance(double[] query, int row) {
+        int start = row * dimension;
+        double sum = 0.0;
+        if (precision == Precision.FLOAT32) {
+            for (int column = 0; column < dimension; column++) {
+                double difference = query[column] - floats[start + column];
+                sum += difference * difference;
+            }
+            return sum;
+        }
+        for (int column = 0; column < dimension; column++) {
+            double difference = (query[column] - codes[start + column]) * step[column];
+            sum += difference * difference;
+        }
+        return sum;
+    }
+
+    private TopK rescore(double[] query, TopK candidates, int k) {
+        TopK nearest = TopK.of(k);
+        for (int row : candidates.indices()) {
+            double[] exact = exactRow(row);
+            nearest.offer(row, VectorKernels.squaredDistance(query, 0, exact, 0, dimension));
+        }
+        return nearest;
+    }
+
+    private static TopK limit(TopK candidates, int k) {
+        TopK limited = TopK.of(k);
+        limited.merge(candidates);
+        return limited;
+    }
+
+    /**
+     * The precision of the stored rows.
+     */
+    public enum Precision {
+        /**
+         * Every value is stored as a {@code float}: half the memory of a {@code double}.
+         */
+        FLOAT32,
+        /**
+         * Every value is quantized to one byte with a scale and an offset per column: an eighth of the memory of a
+         * {@code double}.
+         */
+        INT8
+    }
+}
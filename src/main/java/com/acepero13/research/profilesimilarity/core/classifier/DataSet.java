@@ -4,16 +4,13 @@ import com.acepero13.research.profilesimilarity.api.Metric;
 import com.acepero13.research.profilesimilarity.api.Normalizer;
 import com.acepero13.research.profilesimilarity.api.Vector;
 import com.acepero13.research.profilesimilarity.api.Vectorizable;
-import com.acepero13.research.profilesimilarity.api.features.Feature;
 import com.acepero13.research.profilesimilarity.core.Matrix;
 import com.acepero13.research.profilesimilarity.core.vectors.NormalizedVector;
-import com.acepero13.research.profilesimilarity.utils.Tuple;
-import com.acepero13.research.profilesimilarity.utils.VectorCollector;
 import lombok.extern.java.Log;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 @Log
 final class DataSet {
@@ -28,12 +25,15 @@ final class DataSet {
     }
 
     public static Normalizer minMaxNormalizer(Vectorizable target, DataSet dataSet) {
+        return minMaxNormalizer(target, dataSet, QueryExecutor.commonPool());
+    }
+
+    static Normalizer minMaxNormalizer(Vectorizable target, DataSet dataSet, QueryExecutor executor) {
         Objects.requireNonNull(target, "target cannot be null");
         Objects.requireNonNull(dataSet, "Dataset cannot be null");
-        List<Vector<Double>> featureReducedDataSet = dataSet.dataPoints.stream()
-                .parallel()
-                .map(d -> d.vector(target.features()))
-                .collect(Collectors.toList());
+        FeatureSchema schema = FeatureSchema.of(target);
+        List<Vector<Double>> featureReducedDataSet = executor.collect(dataSet.size(), ArrayList::new,
+                (vectors, row) -> vectors.add(schema.vector(dataSet.dataPoints.get(row))), List::addAll);
         return Matrix.buildMinMaxNormalizerFrom(Matrix.ofVectors(featureReducedDataSet));
     }
 
@@ -44,21 +44,23 @@ final class DataSet {
         return metric.similarityScore(normalizedTarget, v);
     }
 
-    List<Tuple<Vectorizable, NormalizedVector>> scaleAndScore(Vectorizable target, Normalizer normalizer) {
+    List<NormalizedVector> scale(Vectorizable target, Normalizer normalizer, QueryExecutor executor) {
         log.info("Target is: " + target);
 
-        Vector<Double> weights = target.numericalFeatures().stream()
-                .map(Feature::weight)
-                .collect(VectorCollector.toVector());
+        FeatureSchema schema = FeatureSchema.of(target);
+        Vector<Double> weights = schema.weights();
+
 
+        return executor.collect(dataPoints.size(), ArrayList::new,
+                (scaled, row) -> scaled.add(scale(schema.vector(dataPoints.get(row)), normalizer, weights)), List::addAll);
+    }
+
+    static NormalizedVector scale(Vector<Double> vector, Normalizer normalizer, Vector<Double> weights) {
+        return NormalizedVector.of(weights.multiply(normalizer.normalize(vector)));
+    }
 
-        return this.dataPoints.stream()
-                .parallel()
-                .map(v -> Tuple.of(v, v.vector(target.numericalFeatures())))
-                .map(t -> t.mapSecond(normalizer::normalize))
-                .map(t -> t.mapSecond(weights::multiply))
-                .map(t -> t.mapSecond(NormalizedVector::of))
-                .collect(Collectors.toList());
+    List<Vectorizable> dataPoints() {
+        return dataPoints;
     }
 
     public int size() {
@@ -0,0 +1,160 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import com.acepero13.research.profilesimilarity.api.Vector;
+import com.acepero13.research.profilesimilarity.api.Vectorizable;
+import com.acepero13.research.profilesimilarity.api.features.CategoricalFeature;
+import com.acepero13.research.profilesimilarity.api.features.Feature;
+import com.acepero13.research.profilesimilarity.core.vectors.DoubleVector;
+import com.acepero13.research.profilesimilarity.exceptions.VectorException;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The names and weights of the numerical features of a target, resolved once into the position of every name.
+ * <p>
+ * Projecting a row on the schema is a single pass over the features of the row with one hash lookup per feature,
+ * instead of matching every feature against the whole white list. Stores that keep their columns by name resolve the
+ * schema once into an {@code int[]} of column indices, so projecting one of their rows is a gather over primitive
+ * arrays. Two targets with the same schema are equal, so the schema is the key under which the classifiers cache
+ * their indexes and projections.
+ */
+@EqualsAndHashCode
+@ToString
+final class FeatureSchema {
+    private final String[] names;
+    private final double[] weights;
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final Map<String, Integer> positions;
+
+    private FeatureSchema(String[] names, double[] weights) {
+        this.names = names;
+        this.weights = weights;
+        this.positions = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            positions.put(names[i], i);
+        }
+    }
+
+    /**
+     * Returns the schema of the numerical features of the target, in the order of the target.
+     *
+     * @param target a vectorizable describing the features used by the queries
+     * @return the schema of the target
+     */
+    static FeatureSchema of(Vectorizable target) {
+        List<Feature<?>> features = requireNonNull(target, "Target cannot be null").numericalFeatures();
+        String[] names = new String[features.size()];
+        double[] weights = new double[features.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = features.get(i).featureName();
+            weights[i] = features.get(i).weight();
+        }
+        return new FeatureSchema(names, weights);
+    }
+
+    /**
+     * Returns the number of features of the schema.
+     *
+     * @return the dimension of the projected rows
+     */
+    int dimension() {
+        return names.length;
+    }
+
+    /**
+     * Returns the name of the feature at the given position.
+     *
+     * @param position the position of the feature
+     * @return the name of the feature
+     */
+    String name(int position) {
+        return names[position];
+    }
+
+    /**
+     * Returns the weight of the feature at the given position.
+     *
+     * @param position the position of the feature
+     * @return the weight of the feature
+     */
+    double weight(int position) {
+        return weights[position];
+    }
+
+    /**
+     * Returns the weights of the features, in the order of the schema.
+     *
+     * @return the weights
+     */
+    Vector<Double> weights() {
+        return DoubleVector.of(weights.clone());
+    }
+
+    /**
+     * Returns the values of the numerical features of the row, in the order of the schema. A schema without features
+     * projects the row on all of its features, as {@link Vectorizable#vector(List)} does with an empty white list.
+     *
+     * @param row the row to project
+     * @return the projected values
+     * @throws VectorException if the row does not have every feature of the schema
+     */
+    double[] project(Vectorizable row) {
+        if (names.length == 0) {
+            return row.vector().toArray();
+        }
+        double[] values = new double[names.length];
+        int found = 0;
+        for (Feature<?> feature : row.features()) {
+            if (feature instanceof CategoricalFeature) {
+                continue;
+            }
+            Integer position = positions.get(feature.featureName());
+            if (position != null) {
+                values[position] = feature.featureValue();
+                found++;
+            }
+        }
+        if (found != names.length) {
+            throw new VectorException("Vector length do not match. Vector length is: " + found + " and the other vector's length is: " + names.length);
+        }
+        return values;
+    }
+
+    /**
+     * Returns the values of the numerical features of the row, in the order of the schema.
+     *
+     * @param row the row to project
+     * @return the projected vector
+     * @throws VectorException if the row does not have every feature of the schema
+     * @see #project(Vectorizable)
+     */
+    Vector<Double> vector(Vectorizable row) {
+        return DoubleVector.of(project(row));
+    }
+
+    /**
+     * Resolves the schema against the columns of a store.
+     *
+     * @param columns the index of every column of the store, by name
+     * @return the index of the column of every feature, in the order of the schema
+     * @throws VectorException if the store does not have one of the features
+     */
+    int[] columnsIn(Map<String, Integer> columns) {
+        int[] projection = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            Integer column = columns.get(names[i]);
+            if (column == null) {
+                throw new VectorException("The data set does not have the feature: " + names[i]);
+            }
+            projection[i] = column;
+        }
+        return projection;
+    }
+}
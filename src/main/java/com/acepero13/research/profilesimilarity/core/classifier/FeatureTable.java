@@ -0,0 +1,391 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import com.acepero13.research.profilesimilarity.api.Normalizer;
+import com.acepero13.research.profilesimilarity.api.Vectorizable;
+import com.acepero13.research.profilesimilarity.api.features.CategoricalFeature;
+import com.acepero13.research.profilesimilarity.api.features.Feature;
+import com.acepero13.research.profilesimilarity.api.features.Features;
+import com.acepero13.research.profilesimilarity.core.AbstractVectorizable;
+import com.acepero13.research.profilesimilarity.core.CategoricalDictionary;
+import com.acepero13.research.profilesimilarity.core.proxy.VectorizableProxy;
+import com.acepero13.research.profilesimilarity.core.vectors.DoubleVector;
+import com.acepero13.research.profilesimilarity.core.vectors.FeatureVector;
+import com.acepero13.research.profilesimilarity.exceptions.VectorException;
+import com.acepero13.research.profilesimilarity.utils.MinMax;
+import com.acepero13.research.profilesimilarity.utils.MinMaxVector;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An in-memory data set stored column by column.
+ * <p>
+ * The table holds one schema shared by every row: the name, weight and type of every numerical column, and the
+ * {@link CategoricalDictionary} of the categorical columns. The numerical values are kept in one {@code double[]} per
+ * column, {@code NaN} when a row does not have the feature, and the categorical values as one array of dictionary
+ * codes per column. No feature object is kept per row: a sample is decoded back into features only when it is returned
+ * as a neighbor, with the weight and type of its column.
+ * <p>
+ * {@link Knn}, {@link KnnMixedData} and {@link MostSimilar} query the table directly. A query resolves the names of
+ * its numerical features to columns once per feature schema and packs the projected, min-max normalized and weighted
+ * columns into a {@link KnnIndex}; later queries with the same schema reuse it and never match feature names again.
+ * <p>
+ * Numerical features whose original value is an {@link Integer} or a {@link Boolean} are decoded as integer and
+ * boolean features; every other numerical feature is decoded as a double feature.
+ */
+public final class FeatureTable extends ColumnarDataSet {
+    private final int rows;
+    private final String[] numericalNames;
+    private final double[] weights;
+    private final NumericalType[] types;
+    private final double[][] values;
+    private final double[] min;
+    private final double[] max;
+    private final Map<String, Integer> numericalColumns;
+    private final CategoricalDictionary dictionary;
+    private final String[] categoricalNames;
+    private final int[][] codes;
+    private final ConcurrentMap<FeatureSchema, KnnIndex> projections = new ConcurrentHashMap<>();
+
+    private FeatureTable(List<? extends Vectorizable> dataPoints) {
+        this.rows = dataPoints.size();
+        this.numericalColumns = new LinkedHashMap<>();
+        List<Double> columnWeights = new ArrayList<>();
+        List<NumericalType> columnTypes = new ArrayList<>();
+        List<List<Feature<?>>> numerical = new ArrayList<>(rows);
+        List<List<CategoricalFeature<?>>> categorical = new ArrayList<>(rows);
+        for (Vectorizable dataPoint : dataPoints) {
+            List<Feature<?>> features = requireNonNull(dataPoint, "Data point cannot be null").numericalFeatures();
+            for (Feature<?> feature : features) {
+                numericalColumns.computeIfAbsent(feature.featureName(), name -> {
+                    columnWeights.add(feature.weight());
+                    columnTypes.add(NumericalType.of(feature));
+                    return columnWeights.size() - 1;
+                });
+            }
+            numerical.add(features);
+            categorical.add(dataPoint.toFeatureVector().categorical());
+        }
+        this.numericalNames = numericalColumns.keySet().toArray(String[]::new);
+        this.weights = columnWeights.stream().mapToDouble(Double::doubleValue).toArray();
+        this.types = columnTypes.toArray(NumericalType[]::new);
+        this.values = new double[numericalNames.length][rows];
+        this.min = new double[numericalNames.length];
+        this.max = new double[numericalNames.length];
+        Arrays.stream(values).forEach(column -> Arrays.fill(column, Double.NaN));
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, Double.NEGATIVE_INFINITY);
+        for (int row = 0; row < rows; row++) {
+            for (Feature<?> feature : numerical.get(row)) {
+                int column = numericalColumns.get(feature.featureName());
+                double value = feature.featureValue();
+                values[column][row] = value;
+                min[column] = Math.min(min[column], value);
+                max[column] = Math.max(max[column], value);
+            }
+        }
+
+        this.dictionary = CategoricalDictionary.of(categorical);
+        this.categoricalNames = new String[dictionary.columns()];
+        this.codes = new int[dictionary.columns()][rows];
+        for (int column = 0; column < categoricalNames.length; column++) {
+            categoricalNames[column] = dictionary.decode(column, 0).featureName();
+        }
+        for (int row = 0; row < rows; row++) {
+            int[] encoded = dictionary.encode(categorical.get(row));
+            for (int column = 0; column < encoded.length; column++) {
+                codes[column][row] = encoded[column];
+            }
+        }
+    }
+
+    /**
+     * Builds a table from the given data points. The schema of the table is the union of the features of the data
+     * points; the weight of a numerical column is the weight of its first feature.
+     *
+     * @param dataPoints the data set
+     * @return a new table
+     */
+    public static FeatureTable of(List<? extends Vectorizable> dataPoints) {
+        return new FeatureTable(requireNonNull(dataPoints, "Data points cannot be null"));
+    }
+
+    /**
+     * Builds a table from the given annotated objects, which will be converted to Vectorizables using
+     * VectorizableProxy.
+     *
+     * @param objects the data set
+     * @param <T>     the type of the objects
+     * @return a new table
+     */
+    public static <T> FeatureTable ofObjects(List<T> objects) {
+        return of(VectorizableProxy.of(requireNonNull(objects, "Objects cannot be null")));
+    }
+
+    /**
+     * Returns the number of samples in the table.
+     *
+     * @return the number of samples
+     */
+    @Override
+    public int size() {
+        return rows;
+    }
+
+    /**
+     * Returns the names of the numerical columns.
+     *
+     * @return the names of the numerical columns
+     */
+    public List<String> numericalFeatureNames() {
+        return List.of(numericalNames);
+    }
+
+    /**
+     * Returns the names of the categorical columns.
+     *
+     * @return the names of the categorical columns
+     */
+    public List<String> categoricalFeatureNames() {
+        return List.of(categoricalNames);
+    }
+
+    /**
+     * Returns a copy of the values of a numerical column, {@code NaN} for the samples that do not have the feature.
+     *
+     * @param featureName the name of the column
+     * @return the values of the column, in the order of the samples
+     * @throws VectorException if the table does not have the column
+     */
+    public double[] column(String featureName) {
+        return values[numericalColumn(requireNonNull(featureName))].clone();
+    }
+
+    /**
+     * Decodes the sample stored at the given position.
+     *
+     * @param index the position of the sample
+     * @return the decoded sample, with the numerical and categorical features of the row
+     */
+    @Override
+    public Vectorizable sample(int index) {
+        Objects.checkIndex(index, rows);
+        List<Feature<?>> features = new ArrayList<>(numericalNames.length + categoricalNames.length);
+        for (int column = 0; column < numericalNames.length; column++) {
+            double value = values[column][index];
+            if (!Double.isNaN(value)) {
+                features.add(types[column].decode(value, numericalNames[column], weights[column]));
+            }
+        }
+        features.addAll(categorical(index));
+        return new Row(features);
+    }
+
+    @Override
+    KnnIndex projection(Vectorizable target) {
+        requireNonNull(target, "Target cannot be null");
+        return projections.computeIfAbsent(FeatureSchema.of(target), this::project);
+    }
+
+    @Override
+    List<CategoricalFeature<?>> categorical(int index) {
+        Objects.checkIndex(index, rows);
+        List<CategoricalFeature<?>> categorical = new ArrayList<>(codes.length);
+        for (int column = 0; column < codes.length; column++) {
+            int code = codes[column][index];
+            if (code != CategoricalDictionary.MISSING) {
+                categorical.add(dictionary.decode(column, code));
+            }
+        }
+        return categorical;
+    }
+
+    @Override
+    void readCodes(int index, int[] buffer) {
+        Objects.checkIndex(index, rows);
+        for (int column = 0; column < codes.length; column++) {
+            buffer[column] = codes[column][index];
+        }
+    }
+
+    @Override
+    CategoricalDictionary categoricalDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Returns every numerical column, packed row after row.
+     *
+     * @throws VectorException if a sample does not have one of the numerical columns
+     */
+    double[] numericalRows() {
+        int dimension = numericalNames.length;
+        double[] packed = new double[rows * dimension];
+        for (int column = 0; column < dimension; column++) {
+            double[] source = values[column];
+            for (int row = 0; row < rows; row++) {
+                packed[row * dimension + column] = present(source[row], row, column);
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * Resolves the numerical features of the schema to the columns of the table.
+     *
+     * @throws VectorException if the table does not have one of the features of the schema
+     */
+    int[] columns(FeatureSchema schema) {
+        return schema.columnsIn(numericalColumns);
+    }
+
+    /**
+     * Copies the values of the given numerical columns of the sample stored at the given position into the buffer.
+     *
+     * @throws VectorException if the sample does not have one of the columns
+     */
+    void readNumerical(int index, int[] columns, double[] buffer) {
+        Objects.checkIndex(index, rows);
+        for (int i = 0; i < columns.length; i++) {
+            buffer[i] = present(values[columns[i]][index], index, columns[i]);
+        }
+    }
+
+    /**
+     * Returns the min-max normalizer of the given numerical columns, built like the one of an in-memory data set.
+     */
+    Normalizer minMaxNormalizer(int[] columns) {
+        List<MinMax> minMax = new ArrayList<>(columns.length);
+        for (int column : columns) {
+            minMax.add(new MinMax(min[column], max[column]));
+        }
+        return Normalizer.minMaxNormalizer(MinMaxVector.of(minMax));
+    }
+
+    /**
+     * Returns the difference between the maximum and the minimum of every numerical column.
+     */
+    double[] ranges() {
+        double[] ranges = new double[numericalNames.length];
+        for (int column = 0; column < ranges.length; column++) {
+            ranges[column] = max[column] - min[column];
+        }
+        return ranges;
+    }
+
+    /**
+     * Returns a view of the samples of the table as feature vectors, decoded when they are read.
+     */
+    List<FeatureVector> featureVectors() {
+        return new AbstractList<>() {
+            @Override
+            public FeatureVector get(int index) {
+                return sample(index).toFeatureVector();
+            }
+
+            @Override
+            public int size() {
+                return rows;
+            }
+        };
+    }
+
+    /**
+     * Resolves the schema to columns and packs the projected columns, normalized with their range and multiplied by
+     * the weights of the schema, into an index.
+     */
+    private KnnIndex project(FeatureSchema schema) {
+        int[] columns = schema.columnsIn(numericalColumns);
+        int dimension = columns.length;
+        double[] projectedMin = new double[dimension];
+        double[] projectedMax = new double[dimension];
+        double[] packed = new double[rows * dimension];
+        for (int i = 0; i < dimension; i++) {
+            int column = columns[i];
+            projectedMin[i] = min[column];
+            projectedMax[i] = max[column];
+            double range = max[column] - min[column];
+            double[] source = values[column];
+            for (int row = 0; row < rows; row++) {
+                packed[row * dimension + i] = schema.weight(i) * (present(source[row], row, column) - min[column]) / range;
+            }
+        }
+        Normalizer normalizer = Normalizer.minMaxNormalizer(new MinMaxVector(DoubleVector.of(projectedMin), DoubleVector.of(projectedMax)));
+        return KnnIndex.ofRows(schema, normalizer, samples(), packed, dimension);
+    }
+
+    private int numericalColumn(String featureName) {
+        Integer column = numericalColumns.get(featureName);
+        if (column == null) {
+            throw new VectorException("The data set does not have the feature: " + featureName);
+        }
+        return column;
+    }
+
+    private double present(double value, int row, int column) {
+        if (Double.isNaN(value)) {
+            throw new VectorException("The sample at row " + row + " does not have the feature: " + numericalNames[column]);
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "FeatureTable{rows=" + rows + ", numerical=" + Arrays.toString(numericalNames)
+                + ", categorical=" + Arrays.toString(categoricalNames) + "}";
+    }
+
+    /**
+     * How the values of a numerical column are turned back into features.
+     */
+    private enum NumericalType {
+        DOUBLE {
+            @Override
+            Feature<?> decode(double value, String name, double weight) {
+                return Features.doubleFeature(value, name, weight);
+            }
+        },
+        INTEGER {
+            @Override
+            Feature<?> decode(double value, String name, double weight) {
+                return Features.integerFeature((int) value, name, weight);
+            }
+        },
+        BOOLEAN {
+            @Override
+            Feature<?> decode(double value, String name, double weight) {
+                return Features.booleanFeature(value != 0.0, name, weight);
+            }
+        };
+
+        private static NumericalType of(Feature<?> feature) {
+            Object original = feature.originalValue();
+            if (original instanceof Integer) {
+                return INTEGER;
+            }
+            return original instanceof Boolean ? BOOLEAN : DOUBLE;
+        }
+
+        abstract Feature<?> decode(double value, String name, double weight);
+    }
+
+    private static final class Row extends AbstractVectorizable {
+        private Row(List<Feature<?>> features) {
+            features.forEach(this::addNonNullFeature);
+        }
+
+        @Override
+        public String toString() {
+            return "Row" + features();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Splits every query over a {@link ForkJoinPool} with a parallel stream. A parallel stream started from a task of a
+ * pool forks its work in that pool, so a query on a dedicated pool is submitted to it and never reaches the common
+ * pool.
+ */
+final class ForkJoinQueryExecutor implements QueryExecutor {
+    static final ForkJoinQueryExecutor COMMON = new ForkJoinQueryExecutor(ForkJoinPool.commonPool());
+
+    private final ForkJoinPool pool;
+
+    ForkJoinQueryExecutor(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public int parallelism() {
+        return pool == ForkJoinPool.commonPool() ? ForkJoinPool.getCommonPoolParallelism() : pool.getParallelism();
+    }
+
+    @Override
+    public <R> R collect(int size, Supplier<R> supplier, ObjIntConsumer<R> accumulator, BiConsumer<R, R> combiner) {
+        return inPool(() -> IntStream.range(0, size).parallel().collect(supplier, accumulator, combiner));
+    }
+
+    @Override
+    public void forEach(int size, IntConsumer action) {
+        inPool(() -> {
+            IntStream.range(0, size).parallel().forEach(action);
+            return null;
+        });
+    }
+
+    private <T> T inPool(Supplier<T> work) {
+        if (pool == ForkJoinPool.commonPool() || ForkJoinTask.getPool() == pool) {
+            return work.get();
+        }
+        return pool.submit(work::get).join();
+    }
+
+    @Override
+    public String toString() {
+        return "QueryExecutor{forkJoinPool, parallelism=" + parallelism() + "}";
+    }
+}
@@ -0,0 +1,575 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import com.acepero13.research.profilesimilarity.api.Vectorizable;
+import com.acepero13.research.profilesimilarity.core.Score;
+import com.acepero13.research.profilesimilarity.core.vectors.NormalizedVector;
+import com.acepero13.research.profilesimilarity.core.vectors.VectorKernels;
+import com.acepero13.research.profilesimilarity.exceptions.ArgumentException;
+import com.acepero13.research.profilesimilarity.exceptions.VectorException;
+import com.acepero13.research.profilesimilarity.utils.TopK;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An approximate nearest neighbor index over the normalized and weighted rows of a data set, based on a Hierarchical
+ * Navigable Small World (HNSW) graph.
+ * <p>
+ * Every row is a node of a layered proximity graph. The upper layers are sparse and are used to reach the region of
+ * the target quickly; the bottom layer links every row to its closest rows and is searched with a bounded best-first
+ * search. Queries visit a small fraction of the data set, at the price of missing some of the exact neighbors. The
+ * trade-off is controlled by the {@link Parameters}: a larger {@code efSearch} gives a higher recall and slower
+ * queries. {@link #recall(List, int)} measures it against an exact scan.
+ * <p>
+ * The graph compares its own copy of the rows, in double precision whatever the storage of the exact index: over a
+ * {@link CompactIndex}, the memory saved by the float or byte rows is lost, and a {@link PqIndex} keeps a large data
+ * set compressed instead. The graph is built once and is immutable afterwards, so the index can be shared across
+ * threads.
+ */
+public final class HnswIndex implements ApproximateIndex {
+    private static final long SEED = 42L;
+
+    private final NeighborIndex exact;
+    private final Distance distance;
+    private final Parameters parameters;
+    private final double[] vectors;
+    private final int dimension;
+    private final int[][][] links;
+    private final ThreadLocal<Visited> visited;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    private HnswIndex(NeighborIndex exact, Distance distance, Parameters parameters, double[] vectors, int dimension) {
+        this.exact = exact;
+        this.distance = distance;
+        this.parameters = parameters;
+        this.vectors = vectors;
+        this.dimension = dimension;
+        this.links = new int[exact.size()][][];
+        this.visited = ThreadLocal.withInitial(() -> new Visited(exact.size()));
+    }
+
+    /**
+     * Builds an approximate index over the rows of an exact index.
+     *
+     * @param index      the exact index whose rows are linked
+     * @param distance   the distance used to compare rows
+     * @param parameters the parameters of the graph
+     * @return a new approximate index
+     */
+    public static HnswIndex of(KnnIndex index, Distance distance, Parameters parameters) {
+        return build(requireNonNull(index), requireNonNull(distance), requireNonNull(parameters), QueryExecutor.commonPool());
+    }
+
+    static HnswIndex build(NeighborIndex exact, Distance distance, Parameters parameters, QueryExecutor executor) {
+        int size = exact.size();
+        int dimension = size == 0 ? 0 : exact.row(0).size();
+        double[] vectors = new double[size * dimension];
+        executor.forEach(size, node -> {
+            double[] row = distance.prepare(exact.row(node).toArray());
+            if (row.length != dimension) {
+                throw new VectorException("Vector length do not match. Vector length is: " + dimension + " and the other vector's length is: " + row.length);
+            }
+            System.arraycopy(row, 0, vectors, node * dimension, dimension);
+        });
+        HnswIndex index = new HnswIndex(exact, distance, parameters, vectors, dimension);
+        Random random = new Random(SEED);
+        double levelMultiplier = 1.0 / Math.log(parameters.m);
+        for (int node = 0; node < size; node++) {
+            index.insert(node, (int) Math.floor(-Math.log(1.0 - random.nextDouble()) * levelMultiplier));
+        }
+        return index;
+    }
+
+    /**
+     * Normalizes the numerical features of the target using the normalizer of the underlying exact index.
+     *
+     * @param target the target to normalize
+     * @return the normalized target
+     */
+    @Override
+    public NormalizedVector normalize(Vectorizable target) {
+        return exact.normalize(target);
+    }
+
+    /**
+     * Returns approximately the k samples closest to the target, sorted by ascending distance. The score of every
+     * sample is its Euclidean distance to the target, or one minus the cosine similarity for {@link Distance#COSINE}.
+     *
+     * @param target the target to compare against the index
+     * @param k      the number of neighbors to return
+     * @return the scores of the k nearest samples that were found
+     * @throws VectorException if the target does not have the dimension of the index
+     */
+    @Override
+    public List<Score> nearest(Vectorizable target, int k) {
+        TopK nearest = limit(search(query(target), Math.max(parameters.efSearch, k)), k);
+        int[] indices = nearest.indices();
+        double[] distances = nearest.scores();
+        List<Score> scores = new ArrayList<>(indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            scores.add(new Score(distance.score(distances[i]), exact.sample(indices[i]).toFeatureVector()));
+        }
+        return scores;
+    }
+
+    /**
+     * Returns approximately the k samples closest to each of the targets. The targets are searched in parallel on the
+     * common fork/join pool.
+     *
+     * @param targets the targets to compare against the index
+     * @param k       the number of neighbors to return for every target
+     * @return the scores of the k nearest samples of every target, in the order of the targets
+     */
+    @Override
+    public List<List<Score>> nearest(List<? extends Vectorizable> targets, int k) {
+        return nearest(targets, k, QueryExecutor.commonPool());
+    }
+
+    /**
+     * Returns the positions of the {@code efSearch} samples found closest to the target, to be scored exactly by the
+     * caller.
+     *
+     * @param target the target to compare against the index
+     * @return the positions of the candidates, closest first
+     */
+    @Override
+    public int[] candidates(Vectorizable target) {
+        return search(query(target), parameters.efSearch).indices();
+    }
+
+    /**
+     * Measures the recall of the index: the fraction of the exact k nearest neighbors of the targets that the index
+     * returns.
+     *
+     * @param targets the targets to search
+     * @param k       the number of neighbors of every target
+     * @return the recall, between 0 and 1
+     */
+    public double recall(List<? extends Vectorizable> targets, int k) {
+        requireNonNull(targets, "Targets cannot be null");
+        int expected = Math.min(k, size()) * targets.size();
+        if (expected == 0) {
+            return 1.0;
+        }
+        long found = targets.stream().parallel().mapToLong(target -> {
+            double[] query = query(target);
+            int[] approximate = limit(search(query, Math.max(parameters.efSearch, k)), k).indices();
+            TopK scan = TopK.of(k);
+            for (int node = 0; node < size(); node++) {
+                scan.offer(node, distance(query, 0, node));
+            }
+            int[] exactNeighbors = scan.indices();
+            return IntStream.of(approximate).filter(i -> IntStream.of(exactNeighbors).anyMatch(e -> e == i)).count();
+        }).sum();
+        return found / (double) expected;
+    }
+
+    @Override
+    public int size() {
+        return links.length;
+    }
+
+    /**
+     * Returns the number of numerical features of every row.
+     *
+     * @return the dimension of the index
+     */
+    public int dimension() {
+        return dimension;
+    }
+
+    /**
+     * Returns the parameters the graph was built with.
+     *
+     * @return the parameters
+     */
+    public Parameters parameters() {
+        return parameters;
+    }
+
+    @Override
+    public Vectorizable sample(int index) {
+        return exact.sample(index);
+    }
+
+    @Override
+    public NormalizedVector row(int index) {
+        return exact.row(index);
+    }
+
+    private double[] query(Vectorizable target) {
+        double[] query = distance.prepare(normalize(requireNonNull(target, "Target cannot be null")).toArray());
+        if (query.length != dimension && size() > 0) {
+            throw new VectorException("Vector length do not match. Vector length is: " + query.length + " and the other vector's length is: " + dimension);
+        }
+        return query;
+    }
+
+    private TopK search(double[] query, int ef) {
+        if (entryPoint < 0) {
+            return TopK.of(0);
+        }
+        int current = entryPoint;
+        for (int level = maxLevel; level > 0; level--) {
+            current = searchLayer(query, 0, current, 1, level).indices()[0];
+        }
+        return searchLayer(query, 0, current, ef, 0);
+    }
+
+    private static TopK limit(TopK found, int k) {
+        TopK limited = TopK.of(k);
+        limited.merge(found);
+        return limited;
+    }
+
+    private void insert(int node, int level) {
+        links[node] = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            links[node][l] = new int[maxLinks(l) + 1];
+        }
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return;
+        }
+        int offset = node * dimension;
+        int current = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            current = searchLayer(vectors, offset, current, 1, l).indices()[0];
+        }
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            TopK found = searchLayer(vectors, offset, current, parameters.efConstruction, l);
+            int[] candidates = found.indices();
+            int[] neighbors = selectNeighbors(candidates, found.scores(), parameters.m);
+            for (int neighbor : neighbors) {
+                connect(node, neighbor, l);
+                connect(neighbor, node, l);
+            }
+            current = candidates[0];
+        }
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = node;
+        }
+    }
+
+    /**
+     * Best-first search of one layer, keeping the ef closest nodes found.
+     */
+    private TopK searchLayer(double[] query, int offset, int entry, int ef, int level) {
+        Visited seen = visited.get();
+        seen.clear();
+        seen.add(entry);
+        double entryDistance = distance(query, offset, entry);
+        Candidates candidates = new Candidates();
+        candidates.push(entry, entryDistance);
+        TopK found = TopK.of(ef);
+        found.offer(entry, entryDistance);
+        while (!candidates.isEmpty()) {
+            int closest = candidates.peekNode();
+            if (candidates.peekDistance() > found.threshold()) {
+                break;
+            }
+            candidates.pop();
+            int[] neighbors = links[closest][level];
+            for (int i = 1; i <= neighbors[0]; i++) {
+                int neighbor = neighbors[i];
+                if (seen.add(neighbor)) {
+                    double neighborDistance = distance(query, offset, neighbor);
+                    if (found.offer(neighbor, neighborDistance)) {
+                        candidates.push(neighbor, neighborDistance);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Keeps a candidate only if it is closer to the inserted node than to every neighbor already selected, which
+     * spreads the links in different directions instead of clustering them.
+     *
+     * @param candidates the candidates, closest first
+     * @param distances  the distances of the candidates to the inserted node
+     * @param max        the maximum number of neighbors
+     * @return the selected neighbors
+     */
+    private int[] selectNeighbors(int[] candidates, double[] distances, int max) {
+        int[] selected = new int[Math.min(max, candidates.length)];
+        int count = 0;
+        for (int i = 0; i < candidates.length && count < selected.length; i++) {
+            boolean keep = true;
+            for (int j = 0; j < count && keep; j++) {
+                keep = distanceBetween(candidates[i], selected[j]) >= distances[i];
+            }
+            if (keep) {
+                selected[count++] = candidates[i];
+            }
+        }
+        int[] result = new int[count];
+        System.arraycopy(selected, 0, result, 0, count);
+        return result;
+    }
+
+    private void connect(int from, int to, int level) {
+        int[] neighbors = links[from][level];
+        int count = neighbors[0];
+        if (count < neighbors.length - 1) {
+            neighbors[count + 1] = to;
+            neighbors[0] = count + 1;
+            return;
+        }
+        TopK closest = TopK.of(count + 1);
+        closest.offer(to, distanceBetween(from, to));
+        for (int i = 1; i <= count; i++) {
+            closest.offer(neighbors[i], distanceBetween(from, neighbors[i]));
+        }
+        int[] kept = selectNeighbors(closest.indices(), closest.scores(), count);
+        System.arraycopy(kept, 0, neighbors, 1, kept.length);
+        neighbors[0] = kept.length;
+    }
+
+    private int maxLinks(int level) {
+        return level == 0 ? 2 * parameters.m : parameters.m;
+    }
+
+    private double distance(double[] query, int offset, int node) {
+        return distance.between(query, offset, vectors, node * dimension, dimension);
+    }
+
+    private double distanceBetween(int node, int another) {
+        return distance(vectors, node * dimension, another);
+    }
+
+    /**
+     * The distances supported by the index.
+     */
+    public enum Distance {
+        /**
+         * The Euclidean distance, as {@link com.acepero13.research.profilesimilarity.scores.Metrics#euclideanDistance()}.
+         */
+        EUCLIDEAN {
+            @Override
+            double between(double[] a, int aOffset, double[] b, int bOffset, int length) {
+                return VectorKernels.squaredDistance(a, aOffset, b, bOffset, length);
+            }
+
+            @Override
+            double score(double distance) {
+                return Math.sqrt(distance);
+            }
+
+            @Override
+            double[] prepare(double[] vector) {
+                return vector;
+            }
+        },
+        /**
+         * One minus the cosine similarity, as {@link com.acepero13.research.profilesimilarity.scores.Metrics#cosineSimilarity()}.
+         * Rows are scaled to unit length once, so comparing two rows is a dot product.
+         */
+        COSINE {
+            @Override
+            double between(double[] a, int aOffset, double[] b, int bOffset, int length) {
+                return 1.0 - VectorKernels.dot(a, aOffset, b, bOffset, length);
+            }
+
+            @Override
+            double score(double distance) {
+                return distance;
+            }
+
+            @Override
+            double[] prepare(double[] vector) {
+                double norm = Math.sqrt(VectorKernels.dot(vector, 0, vector, 0, vector.length));
+                if (norm == 0.0) {
+                    return vector;
+                }
+                double[] unit = new double[vector.length];
+                for (int i = 0; i < vector.length; i++) {
+                    unit[i] = vector[i] / norm;
+                }
+                return unit;
+            }
+        };
+
+        abstract double between(double[] a, int aOffset, double[] b, int bOffset, int length);
+
+        abstract double score(double distance);
+
+        abstract double[] prepare(double[] vector);
+    }
+
+    /**
+     * The parameters of the graph.
+     * <ul>
+     *     <li>{@code m}: the number of links of every node (twice as many on the bottom layer). More links give a
+     *     higher recall and use more memory.</li>
+     *     <li>{@code efConstruction}: the number of candidates considered when linking a new node. Larger values
+     *     build a better graph, more slowly.</li>
+     *     <li>{@code efSearch}: the number of candidates kept by a query. Larger values give a higher recall and
+     *     slower queries.</li>
+     * </ul>
+     */
+    @EqualsAndHashCode
+    @ToString
+    public static final class Parameters {
+        private final int m;
+        private final int efConstruction;
+        private final int efSearch;
+
+        private Parameters(int m, int efConstruction, int efSearch) {
+            this.m = m;
+            this.efConstruction = efConstruction;
+            this.efSearch = efSearch;
+        }
+
+        /**
+         * Creates new parameters.
+         *
+         * @param m              the number of links of every node
+         * @param efConstruction the number of candidates considered when linking a node
+         * @param efSearch       the number of candidates kept by a query
+         * @return the parameters
+         * @throws ArgumentException if m is lower than 2 or one of the ef values is lower than 1
+         */
+        public static Parameters of(int m, int efConstruction, int efSearch) {
+            if (m < 2 || efConstruction < 1 || efSearch < 1) {
+                throw new ArgumentException("Invalid HNSW parameters. Expected m >= 2 and ef >= 1, but got m: " + m
+                        + ", efConstruction: " + efConstruction + ", efSearch: " + efSearch);
+            }
+            return new Parameters(m, efConstruction, efSearch);
+        }
+
+        /**
+         * Returns parameters that usually give a recall above 0.95: {@code m = 16}, {@code efConstruction = 200} and
+         * {@code efSearch = 64}.
+         *
+         * @return the default parameters
+         */
+        public static Parameters defaults() {
+            return new Parameters(16, 200, 64);
+        }
+
+        /**
+         * Returns a copy of these parameters with another {@code efSearch}. The search parameter does not change the
+         * graph, so it can be tuned per index without rebuilding it.
+         *
+         * @param efSearch the number of candidates kept by a query
+         * @return the new parameters
+         */
+        public Parameters withEfSearch(int efSearch) {
+            return of(m, efConstruction, efSearch);
+        }
+
+        public int m() {
+            return m;
+        }
+
+        public int efConstruction() {
+            return efConstruction;
+        }
+
+        public int efSearch() {
+            return efSearch;
+        }
+    }
+
+    /**
+     * A min-heap of the nodes still to expand, closest first.
+     */
+    private static final class Candidates {
+        private int[] nodes = new int[16];
+        private double[] distances = new double[16];
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int peekNode() {
+            return nodes[0];
+        }
+
+        double peekDistance() {
+            return distances[0];
+        }
+
+        void push(int node, double distance) {
+            if (size == nodes.length) {
+                nodes = java.util.Arrays.copyOf(nodes, size * 2);
+                distances = java.util.Arrays.copyOf(distances, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (distances[parent] <= distance) {
+                    break;
+                }
+                nodes[i] = nodes[parent];
+                distances[i] = distances[parent];
+                i = parent;
+            }
+            nodes[i] = node;
+            distances[i] = distance;
+        }
+
+        void pop() {
+            int lastNode = nodes[--size];
+            double lastDistance = distances[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && distances[child + 1] < distances[child]) {
+                    child++;
+                }
+                if (distances[child] >= lastDistance) {
+                    break;
+                }
+                nodes[i] = nodes[child];
+                distances[i] = distances[child];
+                i = child;
+            }
+            nodes[i] = lastNode;
+            distances[i] = lastDistance;
+        }
+    }
+
+    /**
+     * The nodes visited by the current search of a thread. Clearing it only bumps a generation counter.
+     */
+    private static final class Visited {
+        private final int[] marks;
+        private int generation;
+
+        private Visited(int size) {
+            this.marks = new int[size];
+        }
+
+        void clear() {
+            generation++;
+            if (generation == Integer.MAX_VALUE) {
+                java.util.Arrays.fill(marks, 0);
+                generation = 1;
+            }
+        }
+
+        boolean add(int node) {
+            if (marks[node] == generation) {
+                return false;
+            }
+            marks[node] = generation;
+            return true;
+        }
+    }
+}
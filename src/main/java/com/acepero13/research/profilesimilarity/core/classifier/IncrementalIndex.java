@@ -0,0 +1,542 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import com.acepero13.research.profilesimilarity.api.Vectorizable;
+import com.acepero13.research.profilesimilarity.api.features.CategoricalFeature;
+import com.acepero13.research.profilesimilarity.core.Score;
+import com.acepero13.research.profilesimilarity.core.vectors.BitVector;
+import com.acepero13.research.profilesimilarity.core.vectors.DoubleVector;
+import com.acepero13.research.profilesimilarity.core.vectors.FeatureVector;
+import com.acepero13.research.profilesimilarity.core.vectors.NormalizedVector;
+import com.acepero13.research.profilesimilarity.exceptions.ArgumentException;
+import com.acepero13.research.profilesimilarity.exceptions.VectorException;
+import com.acepero13.research.profilesimilarity.utils.TopK;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A data set for one feature schema that can be changed after the classifiers were built.
+ * <p>
+ * The raw numerical values of the samples are packed into a growable array, next to their categorical features, and
+ * the minimum and maximum of every column are kept up to date. The min-max normalization is applied while comparing
+ * rows: like {@link KnnIndex}, a row is normalized and weighted, {@code (a - min) * weight / (max - min)}, and the target
+ * is only normalized, {@code (b - min) / (max - min)}. When an extreme changes only the per-column scales are
+ * recomputed and the stored rows are left untouched. Adding a sample, and removing or updating
+ * one that does not hold an extreme, costs time proportional to the number of features; removing the last sample at
+ * an extreme rescans its column.
+ * <p>
+ * Columns where every sample has the same value do not contribute to the distances.
+ * <p>
+ * Every sample gets an id that stays valid until it is removed. Queries run concurrently with each other, and changes
+ * wait for the running queries to finish.
+ *
+ * @see Knn#ofIndex(int, IncrementalIndex)
+ * @see KnnMixedData#ofIndex(int, IncrementalIndex)
+ * @see MostSimilar#ofIndex(com.acepero13.research.profilesimilarity.api.Metric, IncrementalIndex)
+ */
+public final class IncrementalIndex implements NeighborIndex {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final FeatureSchema schema;
+    private final double[] weights;
+    private final int dimension;
+    private final double[] min;
+    private final double[] max;
+    private final double[] scale;
+    private final double[] inverseRange;
+    private final Map<Integer, Integer> positions = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final View view = new View();
+    private double[] values;
+    private Vectorizable[] samples;
+    private FeatureVector[] featureVectors;
+    private BitVector[] flags;
+    private int[] ids;
+    private int size;
+    private int nextId;
+    private int renormalizations;
+
+    private IncrementalIndex(Vectorizable sample) {
+        this.schema = FeatureSchema.of(sample);
+        this.weights = schema.weights().toArray();
+        this.dimension = schema.dimension();
+        this.min = new double[dimension];
+        this.max = new double[dimension];
+        this.scale = new double[dimension];
+        this.inverseRange = new double[dimension];
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, Double.NEGATIVE_INFINITY);
+        this.values = new double[INITIAL_CAPACITY * dimension];
+        this.samples = new Vectorizable[INITIAL_CAPACITY];
+        this.featureVectors = new FeatureVector[INITIAL_CAPACITY];
+        this.flags = new BitVector[INITIAL_CAPACITY];
+        this.ids = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Creates an empty index. The feature schema (the numerical features and their weights) is taken from the sample.
+     *
+     * @param sample a vectorizable describing the features used by the queries
+     * @return a new empty index
+     */
+    public static IncrementalIndex of(Vectorizable sample) {
+        return new IncrementalIndex(requireNonNull(sample, "Sample cannot be null"));
+    }
+
+    /**
+     * Creates an index holding the given data points. Their ids are their positions in the list.
+     *
+     * @param sample     a vectorizable describing the features used by the queries
+     * @param dataPoints the initial data set
+     * @return a new index
+     */
+    public static IncrementalIndex of(Vectorizable sample, List<? extends Vectorizable> dataPoints) {
+        IncrementalIndex index = of(sample);
+        requireNonNull(dataPoints, "data points cannot be null").forEach(index::add);
+        return index;
+    }
+
+    /**
+     * Adds a sample to the data set.
+     *
+     * @param sample the sample to add
+     * @return the id of the sample
+     * @throws VectorException if the sample does not have the numerical features of the index
+     */
+    public int add(Vectorizable sample) {
+        double[] row = valuesOf(sample);
+        lock.writeLock().lock();
+        try {
+            ensureCapacity(size + 1);
+            int id = nextId++;
+            store(size, id, sample, row);
+            positions.put(id, size++);
+            if (extend(row)) {
+                renormalize();
+            }
+            return id;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a sample from the data set.
+     *
+     * @param id the id of the sample
+     * @throws ArgumentException if there is no sample with the given id
+     */
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            int position = positionOf(id);
+            double[] removed = Arrays.copyOfRange(values, position * dimension, (position + 1) * dimension);
+            positions.remove(id);
+            int last = --size;
+            if (position != last) {
+                System.arraycopy(values, last * dimension, values, position * dimension, dimension);
+                samples[position] = samples[last];
+                featureVectors[position] = featureVectors[last];
+                flags[position] = flags[last];
+                ids[position] = ids[last];
+                positions.put(ids[position], position);
+            }
+            samples[last] = null;
+            featureVectors[last] = null;
+            flags[last] = null;
+            if (shrink(removed)) {
+                renormalize();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces a sample of the data set. The sample keeps its id.
+     *
+     * @param id     the id of the sample
+     * @param sample the new sample
+     * @throws ArgumentException if there is no sample with the given id
+     * @throws VectorException   if the sample does not have the numerical features of the index
+     */
+    public void update(int id, Vectorizable sample) {
+        double[] row = valuesOf(sample);
+        lock.writeLock().lock();
+        try {
+            int position = positionOf(id);
+            double[] replaced = Arrays.copyOfRange(values, position * dimension, (position + 1) * dimension);
+            store(position, id, sample, row);
+            boolean shrunk = shrink(replaced);
+            if (extend(row) || shrunk) {
+                renormalize();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the sample with the given id.
+     *
+     * @param id the id of the sample
+     * @return the sample
+     * @throws ArgumentException if there is no sample with the given id
+     */
+    public Vectorizable get(int id) {
+        return read(v -> samples[positionOf(id)]);
+    }
+
+    /**
+     * Returns true if the data set holds a sample with the given id.
+     *
+     * @param id the id of the sample
+     * @return true if the sample was added and not removed
+     */
+    public boolean contains(int id) {
+        return read(v -> positions.containsKey(id));
+    }
+
+    /**
+     * Returns a copy of the samples currently in the data set.
+     *
+     * @return the samples
+     */
+    public List<Vectorizable> samples() {
+        return read(v -> new ArrayList<>(Arrays.asList(samples).subList(0, size)));
+    }
+
+    /**
+     * Returns true if the index was built for the feature schema of the target.
+     *
+     * @param target the target to check
+     * @return true if the index can answer queries for the target
+     */
+    public boolean accepts(Vectorizable target) {
+        return schema.equals(FeatureSchema.of(requireNonNull(target)));
+    }
+
+    /**
+     * Normalizes the numerical features of the target with the current minimum and maximum of every column.
+     *
+     * @param target the target to normalize
+     * @return the normalized and weighted target
+     */
+    @Override
+    public NormalizedVector normalize(Vectorizable target) {
+        return read(v -> v.normalize(target));
+    }
+
+    /**
+     * Returns the k samples closest to the target, sorted by ascending Euclidean distance between their normalized and
+     * weighted features. The score of every sample is its distance to the target.
+     *
+     * @param target the target to compare against the index
+     * @param k      the number of neighbors to return
+     * @return the scores of the k nearest samples
+     * @throws VectorException if the target does not have the dimension of the index
+     */
+    @Override
+    public List<Score> nearest(Vectorizable target, int k) {
+        return read(v -> v.nearest(target, k));
+    }
+
+    @Override
+    public List<List<Score>> nearest(List<? extends Vectorizable> targets, int k) {
+        return read(v -> v.nearest(targets, k));
+    }
+
+    @Override
+    public List<Score> nearest(Vectorizable target, int k, QueryExecutor executor) {
+        return read(v -> v.nearest(target, k, executor));
+    }
+
+    @Override
+    public List<List<Score>> nearest(List<? extends Vectorizable> targets, int k, QueryExecutor executor) {
+        return read(v -> v.nearest(targets, k, executor));
+    }
+
+    @Override
+    public int size() {
+        return read(v -> size);
+    }
+
+    @Override
+    public Vectorizable sample(int index) {
+        return read(v -> v.sample(index));
+    }
+
+    @Override
+    public NormalizedVector row(int index) {
+        return read(v -> v.row(index));
+    }
+
+    /**
+     * Returns the number of times the scale of the columns was recomputed because an extreme changed.
+     *
+     * @return the number of renormalizations
+     */
+    int renormalizations() {
+        return renormalizations;
+    }
+
+    /**
+     * Runs a query against a consistent view of the data set. The positions of the view stay valid until the query
+     * returns, so a classifier can scan the rows and then read the samples it selected.
+     *
+     * @param query the query
+     * @param <T>   the type of the result
+     * @return the result of the query
+     */
+    <T> T read(Function<View, T> query) {
+        lock.readLock().lock();
+        try {
+            return query.apply(view);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private double[] valuesOf(Vectorizable sample) {
+        double[] row = schema.project(requireNonNull(sample, "Sample cannot be null"));
+        if (row.length != dimension) {
+            throw new VectorException("Vector length do not match. Vector length is: " + dimension + " and the other vector's length is: " + row.length);
+        }
+        return row;
+    }
+
+    private int positionOf(int id) {
+        Integer position = positions.get(id);
+        if (position == null) {
+            throw new ArgumentException("There is no sample with id: " + id);
+        }
+        return position;
+    }
+
+    private void store(int position, int id, Vectorizable sample, double[] row) {
+        System.arraycopy(row, 0, values, position * dimension, dimension);
+        samples[position] = sample;
+        featureVectors[position] = sample.toFeatureVector();
+        flags[position] = BitVector.of(featureVectors[position].categorical());
+        ids[position] = id;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= samples.length) {
+            return;
+        }
+        int grown = Math.max(capacity, samples.length * 2);
+        values = Arrays.copyOf(values, grown * dimension);
+        samples = Arrays.copyOf(samples, grown);
+        featureVectors = Arrays.copyOf(featureVectors, grown);
+        flags = Arrays.copyOf(flags, grown);
+        ids = Arrays.copyOf(ids, grown);
+    }
+
+    /**
+     * Widens the range of every column to include the row.
+     *
+     * @return true if an extreme changed
+     */
+    private boolean extend(double[] row) {
+        boolean changed = false;
+        for (int column = 0; column < dimension; column++) {
+            if (row[column] < min[column]) {
+                min[column] = row[column];
+                changed = true;
+            }
+            if (row[column] > max[column]) {
+                max[column] = row[column];
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Recomputes the range of the columns where the row that left the data set held an extreme.
+     *
+     * @return true if an extreme changed
+     */
+    private boolean shrink(double[] row) {
+        boolean changed = false;
+        for (int column = 0; column < dimension; column++) {
+            if (row[column] == min[column] || row[column] == max[column]) {
+                double previousMin = min[column];
+                double previousMax = max[column];
+                rescan(column);
+                changed |= previousMin != min[column] || previousMax != max[column];
+            }
+        }
+        return changed;
+    }
+
+    private void rescan(int column) {
+        double columnMin = Double.POSITIVE_INFINITY;
+        double columnMax = Double.NEGATIVE_INFINITY;
+        for (int row = 0; row < size; row++) {
+            double value = values[row * dimension + column];
+            columnMin = Math.min(columnMin, value);
+            columnMax = Math.max(columnMax, value);
+        }
+        min[column] = columnMin;
+        max[column] = columnMax;
+    }
+
+    private void renormalize() {
+        for (int column = 0; column < dimension; column++) {
+            double range = max[column] - min[column];
+            scale[column] = range > 0 ? weights[column] / range : 0.0;
+            inverseRange[column] = range > 0 ? 1.0 / range : 0.0;
+        }
+        renormalizations++;
+    }
+
+    /**
+     * The data set as seen by a query holding the read lock.
+     */
+    final class View implements NeighborIndex {
+
+        private View() {
+        }
+
+        @Override
+        public NormalizedVector normalize(Vectorizable target) {
+            return NormalizedVector.of(DoubleVector.of(query(target)));
+        }
+
+        @Override
+        public List<Score> nearest(Vectorizable target, int k) {
+            return nearest(target, k, QueryExecutor.commonPool());
+        }
+
+        @Override
+        public List<Score> nearest(Vectorizable target, int k, QueryExecutor executor) {
+            double[] query = query(target);
+            TopK nearest = executor.collect(size, () -> TopK.of(k), (heap, row) -> heap.offer(row, squaredDistance(query, row)), TopK::merge);
+            int[] indices = nearest.indices();
+            double[] distances = nearest.scores();
+            List<Score> scores = new ArrayList<>(indices.length);
+            for (int i = 0; i < indices.length; i++) {
+                scores.add(new Score(Math.sqrt(distances[i]), featureVectors[indices[i]]));
+            }
+            return scores;
+        }
+
+        @Override
+        public List<List<Score>> nearest(List<? extends Vectorizable> targets, int k) {
+            return requireNonNull(targets, "Targets cannot be null").stream()
+                    .map(t -> nearest(t, k))
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Vectorizable sample(int index) {
+            Objects.checkIndex(index, size);
+            return samples[index];
+        }
+
+        @Override
+        public NormalizedVector row(int index) {
+            double[] row = new double[dimension];
+            readRow(index, row);
+            return NormalizedVector.of(DoubleVector.of(row));
+        }
+
+        @Override
+        public void readRow(int index, double[] buffer) {
+            Objects.checkIndex(index, size);
+            for (int column = 0; column < dimension; column++) {
+                buffer[column] = (values[index * dimension + column] - min[column]) * scale[column];
+            }
+        }
+
+        @Override
+        public List<CategoricalFeature<?>> categorical(int index) {
+            Objects.checkIndex(index, size);
+            return featureVectors[index].categorical();
+        }
+
+        @Override
+        public BitVector flags(int index) {
+            Objects.checkIndex(index, size);
+            return flags[index];
+        }
+
+        /**
+         * Returns the feature vector of the sample stored at the given position.
+         *
+         * @param index the position of the sample
+         * @return the feature vector
+         */
+        FeatureVector featureVector(int index) {
+            Objects.checkIndex(index, size);
+            return featureVectors[index];
+        }
+
+        /**
+         * Returns the raw value of a numerical feature.
+         *
+         * @param index  the position of the sample
+         * @param column the position of the feature
+         * @return the value, before normalization
+         */
+        double value(int index, int column) {
+            return values[index * dimension + column];
+        }
+
+        /**
+         * Returns the difference between the largest and the smallest value of a column.
+         *
+         * @param column the position of the feature
+         * @return the range of the column
+         */
+        double range(int column) {
+            return max[column] - min[column];
+        }
+
+        /**
+         * Returns the number of numerical features of every row.
+         *
+         * @return the dimension of the data set
+         */
+        int dimension() {
+            return dimension;
+        }
+
+        /**
+         * Normalizes the numerical features of the target, without weighting them.
+         */
+        private double[] query(Vectorizable target) {
+            double[] query = valuesOf(target);
+            for (int column = 0; column < dimension; column++) {
+                query[column] = (query[column] - min[column]) * inverseRange[column];
+            }
+            return query;
+        }
+
+        private double squaredDistance(double[] query, int row) {
+            int offset = row * dimension;
+            double sum = 0.0;
+            for (int column = 0; column < dimension; column++) {
+                double difference = (values[offset + column] - min[column]) * scale[column] - query[column];
+                sum += difference * difference;
+            }
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import com.acepero13.research.profilesimilarity.api.Vectorizable;
+import com.acepero13.research.profilesimilarity.core.Score;
+import com.acepero13.research.profilesimilarity.core.vectors.NormalizedVector;
+import com.acepero13.research.profilesimilarity.core.vectors.VectorKernels;
+import com.acepero13.research.profilesimilarity.exceptions.ArgumentException;
+import com.acepero13.research.profilesimilarity.exceptions.VectorException;
+import com.acepero13.research.profilesimilarity.utils.TopK;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An approximate nearest-neighbor index that partitions the rows of an exact index into cells (an inverted file).
+ * <p>
+ * k-means clusters a sample of the rows into {@code nlist} centroids, and every row is stored in the posting list of
+ * its closest centroid. A query ranks the centroids and only scans the rows of the {@code nprobe} closest cells, so a
+ * larger {@code nprobe} gives a higher recall and slower queries. The rows of a cell are copied next to each other,
+ * which keeps the scan of a cell sequential in memory.
+ * <p>
+ * The copies are doubles whatever the storage of the exact index: over a {@link CompactIndex}, the cells hold every
+ * row in double precision again and the memory saved by the float or byte rows is lost. A {@link PqIndex} keeps a
+ * large data set compressed instead.
+ * <p>
+ * Rows are compared with an {@link HnswIndex.Distance}. Building only needs a k-means over the sample and one pass to
+ * assign the rows, which runs on the executor of the classifier that builds it, or on the common fork/join pool; it
+ * is much cheaper than linking a graph. The index is immutable once built and can be shared across threads.
+ */
+public final class IvfIndex implements ApproximateIndex {
+    private static final long SEED = 42L;
+    private static final int ITERATIONS = 25;
+    private static final int TRAINING_ROWS_PER_CELL = 64;
+
+    private final NeighborIndex exact;
+    private final HnswIndex.Distance distance;
+    private final Parameters parameters;
+    private final int dimension;
+    private final double[] centroids;
+    private final int cells;
+    private final int[] starts;
+    private final int[] ids;
+    private final double[] vectors;
+
+    private IvfIndex(NeighborIndex exact, HnswIndex.Distance distance, Parameters parameters, int dimension,
+                     double[] centroids, int[] starts, int[] ids, double[] vectors) {
+        this.exact = exact;
+        this.distance = distance;
+        this.parameters = parameters;
+        this.dimension = dimension;
+        this.centroids = centroids;
+        this.cells = starts.length - 1;
+        this.starts = starts;
+        this.ids = ids;
+        this.vectors = vectors;
+    }
+
+    /**
+     * Clusters the rows of an exact index into cells.
+     *
+     * @param index      the exact index whose rows are partitioned
+     * @param distance   the distance used to compare rows
+     * @param parameters the parameters of the partition
+     * @return a new approximate index
+     */
+    public static IvfIndex of(KnnIndex index, HnswIndex.Distance distance, Parameters parameters) {
+        return build(requireNonNull(index), requireNonNull(distance), requireNonNull(parameters), QueryExecutor.commonPool());
+    }
+
+    static IvfIndex build(NeighborIndex exact, HnswIndex.Distance distance, Parameters parameters, QueryExecutor executor) {
+        int size = exact.size();
+        int dimension = size == 0 ? 0 : exact.row(0).size();
+        double[][] rows = new double[size][];
+        executor.forEach(size, row -> rows[row] = prepare(exact, distance, row, dimension));
+
+        Random random = new Random(SEED);
+        int[] sample = KMeans.sample(size, parameters.nlist * TRAINING_ROWS_PER_CELL, random);
+        double[] training = new double[sample.length * dimension];
+        for (int i = 0; i < sample.length; i++) {
+            System.arraycopy(rows[sample[i]], 0, training, i * dimension, dimension);
+        }
+        double[] centroids = KMeans.train(training, sample.length, dimension, parameters.nlist, ITERATIONS, random, executor);
+        int cells = dimension == 0 ? Math.min(1, size) : centroids.length / dimension;
+
+        int[] assignments = new int[size];
+        executor.forEach(size, row -> assignments[row] = KMeans.nearest(centroids, cells, rows[row], 0, dimension));
+        int[] starts = new int[cells + 1];
+        for (int cell : assignments) {
+            starts[cell + 1]++;
+        }
+        for (int cell = 0; cell < cells; cell++) {
+            starts[cell + 1] += starts[cell];
+        }
+        int[] next = starts.clone();
+        int[] ids = new int[size];
+        for (int row = 0; row < size; row++) {
+            ids[next[assignments[row]]++] = row;
+        }
+        double[] vectors = new double[size * dimension];
+        executor.forEach(size, position -> System.arraycopy(rows[ids[position]], 0, vectors, position * dimension, dimension));
+        return new IvfIndex(exact, distance, parameters, dimension, centroids, starts, ids, vectors);
+    }
+
+    private static double[] prepare(NeighborIndex exact, HnswIndex.Distance distance, int row, int dimension) {
+        double[] values = distance.prepare(exact.row(row).toArray());
+        if (values.length != dimension) {
+            throw new VectorException("Vector length do not match. Vector length is: " + dimension + " and the other vector's length is: " + values.length);
+        }
+        return values;
+    }
+
+    /**
+     * Normalizes the numerical features of the target using the normalizer of the underlying exact index.
+     *
+     * @param target the target to normalize
+     * @return the normalized target
+     */
+    @Override
+    public NormalizedVector normalize(Vectorizable target) {
+        return exact.normalize(target);
+    }
+
+    /**
+     * Returns approximately the k samples closest to the target among the rows of the {@code nprobe} closest cells,
+     * sorted by ascending distance. The score of every sample is its Euclidean distance to the target, or one minus the
+     * cosine similarity for {@link HnswIndex.Distance#COSINE}.
+     *
+     * @param target the target to compare against the index
+     * @param k      the number of neighbors to return
+     * @return the scores of the k nearest samples that were found
+     * @throws VectorException if the target does not have the dimension of the index
+     */
+    @Override
+    public List<Score> nearest(Vectorizable target, int k) {
+        TopK nearest = search(query(target), k);
+        int[] indices = nearest.indices();
+        double[] distances = nearest.scores();
+        List<Score> scores = new ArrayList<>(indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            scores.add(new Score(distance.score(distances[i]), exact.sample(indices[i]).toFeatureVector()));
+        }
+        return scores;
+    }
+
+    /**
+     * Returns approximately the k samples closest to each of the targets. The targets are searched in parallel on the
+     * common fork/join pool.
+     *
+     * @param targets the targets to compare against the index
+     * @param k       the number of neighbors to return for every target
+     * @return the scores of the k nearest samples of every target, in the order of the targets
+     */
+    @Override
+    public List<List<Score>> nearest(List<? extends Vectorizable> targets, int k) {
+        return nearest(targets, k, QueryExecutor.commonPool());
+    }
+
+    /**
+     * Returns the positions of every sample in the {@code nprobe} cells closest to the target, to be scored exactly by
+     * the caller.
+     *
+     * @param target the target to compare against the index
+     * @return the positions of the candidates, cell by cell, closest cell first
+     */
+    @Override
+    public int[] candidates(Vectorizable target) {
+        return IntStream.of(probe(query(target)))
+                .flatMap(cell -> IntStream.range(starts[cell], starts[cell + 1]).map(position -> ids[position]))
+                .toArray();
+    }
+
+    /**
+     * Measures the recall of the index: the fraction of the exact k nearest neighbors of the targets that the index
+     * returns.
+     *
+     * @param targets the targets to search
+     * @param k       the number of neighbors of every target
+     * @return the recall, between 0 and 1
+     */
+    public double recall(List<? extends Vectorizable> targets, int k) {
+        requireNonNull(targets, "Targets cannot be null");
+        int expected = Math.min(k, size()) * targets.size();
+        if (expected == 0) {
+            return 1.0;
+        }
+        long found = targets.stream().parallel().mapToLong(target -> {
+            double[] query = query(target);
+            int[] approximate = search(query, k).indices();
+            TopK scan = TopK.of(k);
+            for (int position = 0; position < ids.length; position++) {
+                scan.offer(ids[position], distance.between(query, 0, vectors, position * dimension, dimension));
+            }
+            int[] exactNeighbors = scan.indices();
+            return IntStream.of(approximate).filter(i -> IntStream.of(exactNeighbors).anyMatch(e -> e == i)).count();
+        }).sum();
+        return found / (double) expected;
+    }
+
+    @Override
+    public int size() {
+        return ids.length;
+    }
+
+    @Override
+    public Vectorizable sample(int index) {
+        return exact.sample(index);
+    }
+
+    @Override
+    public NormalizedVector row(int index) {
+        return exact.row(index);
+    }
+
+    /**
+     * Returns an index over the same cells that scans another number of them per query, without clustering again.
+     *
+     * @param nprobe the number of cells scanned by a query
+     * @return the new index
+     * @throws ArgumentException if nprobe is lower than 1
+     */
+    public IvfIndex probing(int nprobe) {
+        return new IvfIndex(exact, distance, parameters.withNprobe(nprobe), dimension, centroids, starts, ids, vectors);
+    }
+
+    /**
+     * Returns the number of cells, which is lower than {@code nlist} when the data set has fewer rows.
+     *
+     * @return the number of cells
+     */
+    public int cells() {
+        return cells;
+    }
+
+    public Parameters parameters() {
+        return parameters;
+    }
+
+    private double[] query(Vectorizable target) {
+        double[] query = distance.prepare(normalize(target).toArray());
+        if (query.length != dimension && size() > 0) {
+            throw new VectorException("Vector length do not match. Vector length is: " + query.length + " and the other vector's length is: " + dimension);
+        }
+        return query;
+    }
+
+    /**
+     * Ranks the cells like the rows were assigned to them: by squared Euclidean distance to their centroid.
+     */
+    private int[] probe(double[] query) {
+        TopK closest = TopK.of(parameters.nprobe);
+        for (int cell = 0; cell < cells; cell++) {
+            closest.offer(cell, VectorKernels.squaredDistance(query, 0, centroids, cell * dimension, dimension));
+        }
+        return closest.indices();
+    }
+
+    private TopK search(double[] query, int k) {
+        TopK nearest = TopK.of(k);
+        for (int cell : probe(query)) {
+            for (int position = starts[cell]; position < starts[cell + 1]; position++) {
+                nearest.offer(ids[position], distance.between(query, 0, vectors, position * dimension, dimension));
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * The parameters of the partition.
+     * <ul>
+     *     <li>{@code nlist}: the number of cells. More cells make every cell smaller, and each probe cheaper.</li>
+     *     <li>{@code nprobe}: the number of cells scanned by a query. More probes give a higher recall.</li>
+     * </ul>
+     */
+    public static final class Parameters {
+        private final int nlist;
+        private final int nprobe;
+
+        private Parameters(int nlist, int nprobe) {
+            this.nlist = nlist;
+            this.nprobe = nprobe;
+        }
+
+        /**
+         * Creates new parameters.
+         *
+         * @param nlist  the number of cells
+         * @param nprobe the number of cells scanned by a query
+         * @return the parameters
+         * @throws ArgumentException if one of the values is lower than 1
+         */
+        public static Parameters of(int nlist, int nprobe) {
+            if (nlist < 1 || nprobe < 1) {
+                throw new ArgumentException("Invalid IVF parameters. Expected nlist >= 1 and nprobe >= 1, but got nlist: "
+                        + nlist + ", nprobe: " + nprobe);
+            }
+            return new Parameters(nlist, nprobe);
+        }
+
+        /**
+         * Returns the default parameters: {@code nlist = 256} and {@code nprobe = 16}.
+         *
+         * @return the default parameters
+         */
+        public static Parameters defaults() {
+            return new Parameters(256, 16);
+        }
+
+        /**
+         * Returns a copy of these parameters with another {@code nprobe}. The number of probes does not change the
+         * cells, so a built index can be probed with it through {@link IvfIndex#probing(int)}.
+         *
+         * @param nprobe the number of cells scanned by a query
+         * @return the new parameters
+         */
+        public Parameters withNprobe(int nprobe) {
+            return of(nlist, nprobe);
+        }
+
+        public int nlist() {
+            return nlist;
+        }
+
+        public int nprobe() {
+            return nprobe;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import com.acepero13.research.profilesimilarity.core.vectors.VectorKernels;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Lloyd's k-means clustering of packed points, seeded with k-means++.
+ * <p>
+ * Points and centroids are stored row after row in a single array. The assignment step runs in parallel; the update
+ * step is a sequential pass over the assignments.
+ */
+final class KMeans {
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private KMeans() {
+    }
+
+    /**
+     * Clusters the points and returns the centroids, packed row after row. If there are fewer points than clusters,
+     * every point becomes a centroid.
+     *
+     * @param points     the packed points
+     * @param size       the number of points
+     * @param dimension  the number of values of every point
+     * @param clusters   the number of clusters
+     * @param iterations the maximum number of iterations
+     * @param random     the source of randomness of the seeding
+     * @param executor   the executor that assigns the points to the centroids
+     * @return the centroids, {@code min(clusters, size)} of them
+     */
+    static double[] train(double[] points, int size, int dimension, int clusters, int iterations, Random random,
+                          QueryExecutor executor) {
+        int count = Math.min(clusters, size);
+        double[] centroids = seed(points, size, dimension, count, random);
+        int[] assignments = new int[size];
+        Arrays.fill(assignments, -1);
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            int[] previous = assignments.clone();
+            executor.forEach(size, i -> assignments[i] = nearest(centroids, count, points, i * dimension, dimension));
+            if (Arrays.equals(previous, assignments)) {
+                break;
+            }
+            update(points, size, dimension, centroids, count, assignments);
+        }
+        return centroids;
+    }
+
+    /**
+     * Draws the positions of a uniform sample of rows with reservoir sampling, so that only the sample is held in
+     * memory.
+     *
+     * @param size   the number of rows
+     * @param count  the number of rows to draw
+     * @param random the source of randomness
+     * @return the positions of {@code min(count, size)} distinct rows
+     */
+    static int[] sample(int size, int count, Random random) {
+        int[] sample = new int[Math.min(size, count)];
+        for (int row = 0; row < size; row++) {
+            if (row < sample.length) {
+                sample[row] = row;
+            } else {
+                int slot = random.nextInt(row + 1);
+                if (slot < sample.length) {
+                    sample[slot] = row;
+                }
+            }
+        }
+        return sample;
+    }
+
+    /**
+     * Returns the centroid closest to a point.
+     *
+     * @param centroids the packed centroids
+     * @param count     the number of centroids
+     * @param points    the array holding the point
+     * @param offset    the position of the point in the array
+     * @param dimension the number of values of the point
+     * @return the position of the closest centroid
+     */
+    static int nearest(double[] centroids, int count, double[] points, int offset, int dimension) {
+        int nearest = 0;
+        double best = Double.POSITIVE_INFINITY;
+        for (int centroid = 0; centroid < count; centroid++) {
+            double distance = VectorKernels.squaredDistance(points, offset, centroids, centroid * dimension, dimension);
+            if (distance < best) {
+                best = distance;
+                nearest = centroid;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Picks the initial centroids with k-means++: every new centroid is a point drawn with a probability proportional
+     * to its squared distance to the closest centroid already picked.
+     */
+    private static double[] seed(double[] points, int size, int dimension, int count, Random random) {
+        double[] centroids = new double[count * dimension];
+        if (count == 0) {
+            return centroids;
+        }
+        double[] distances = new double[size];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        int chosen = random.nextInt(size);
+        for (int centroid = 0; centroid < count; centroid++) {
+            System.arraycopy(points, chosen * dimension, centroids, centroid * dimension, dimension);
+            double total = 0.0;
+            for (int i = 0; i < size; i++) {
+                double distance = VectorKernels.squaredDistance(points, i * dimension, centroids, centroid * dimension, dimension);
+                distances[i] = Math.min(distances[i], distance);
+                total += distances[i];
+            }
+            chosen = total == 0.0 ? random.nextInt(size) : draw(distances, total, random);
+        }
+        return centroids;
+    }
+
+    private static int draw(double[] weights, double total, Random random) {
+        double target = random.nextDouble() * total;
+        double cumulative = 0.0;
+        for (int i = 0; i < weights.length; i++) {
+            cumulative += weights[i];
+            if (cumulative > target) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    /**
+     * Moves every centroid to the mean of its points. A centroid without points keeps its position.
+     */
+    private static void update(double[] points, int size, int dimension, double[] centroids, int count, int[] assignments) {
+        double[] sums = new double[count * dimension];
+        int[] members = new int[count];
+        for (int i = 0; i < size; i++) {
+            int centroid = assignments[i];
+            members[centroid]++;
+            for (int j = 0; j < dimension; j++) {
+                sums[centroid * dimension + j] += points[i * dimension + j];
+            }
+        }
+        for (int centroid = 0; centroid < count; centroid++) {
+            if (members[centroid] == 0) {
+                continue;
+            }
+            for (int j = 0; j < dimension; j++) {
+                centroids[centroid * dimension + j] = sums[centroid * dimension + j] / members[centroid];
+            }
+        }
+    }
+}
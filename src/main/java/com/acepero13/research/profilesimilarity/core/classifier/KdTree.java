@@ -0,0 +1,187 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import com.acepero13.research.profilesimilarity.core.vectors.VectorKernels;
+import com.acepero13.research.profilesimilarity.utils.TopK;
+
+/**
+ * An exact k-d tree over the packed rows of a {@link KnnIndex}, used to answer Euclidean queries on low-dimensional
+ * data sets without scanning every row.
+ * <p>
+ * Every node splits its rows at the median of the dimension with the largest spread. A query descends to the leaf
+ * closest to the target and then backtracks, skipping every subtree whose box is farther than the current k-th
+ * neighbor. The distance to a box is maintained incrementally, one dimension at a time. Subtrees at exactly the k-th
+ * distance are still visited, so ties are broken by row position exactly as in a linear scan.
+ * <p>
+ * Pruning stops paying off as the number of dimensions grows, so {@link #isWorthBuilding(int, int)} limits the tree
+ * to low-dimensional data sets; the other data sets keep the linear scan.
+ */
+final class KdTree {
+    static final int MAX_DIMENSION = 16;
+    private static final int LEAF_SIZE = 16;
+
+    private final double[] rows;
+    private final int dimension;
+    private final int[] order;
+    private final int[] splitDimension;
+    private final double[] splitValue;
+    private final int[] right;
+    private final int[] start;
+    private final int[] end;
+    private int nodes;
+
+    private KdTree(double[] rows, int dimension, int size) {
+        this.rows = rows;
+        this.dimension = dimension;
+        this.order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        // Only nodes with more than LEAF_SIZE rows are split, so every leaf holds at least LEAF_SIZE / 2 rows
+        int capacity = 2 * (size / (LEAF_SIZE / 2)) + 1;
+        this.splitDimension = new int[capacity];
+        this.splitValue = new double[capacity];
+        this.right = new int[capacity];
+        this.start = new int[capacity];
+        this.end = new int[capacity];
+    }
+
+    /**
+     * Returns true if a tree prunes enough rows to beat a linear scan: the data set has a low dimension and more rows
+     * than fit in a few leaves.
+     *
+     * @param size      the number of rows
+     * @param dimension the number of values of every row
+     * @return true if the tree should be built
+     */
+    static boolean isWorthBuilding(int size, int dimension) {
+        return dimension > 0 && dimension <= MAX_DIMENSION && size > 4 * LEAF_SIZE;
+    }
+
+    /**
+     * Builds a tree over packed rows.
+     *
+     * @param rows      the rows, one after the other
+     * @param dimension the number of values of every row
+     * @param size      the number of rows
+     * @return a new tree; the rows are referenced, not copied
+     */
+    static KdTree of(double[] rows, int dimension, int size) {
+        KdTree tree = new KdTree(rows, dimension, size);
+        tree.build(0, size);
+        return tree;
+    }
+
+    /**
+     * Returns the k rows closest to the query, by squared Euclidean distance.
+     *
+     * @param query the query, with the dimension of the rows
+     * @param k     the number of neighbors
+     * @return the nearest rows and their squared distances
+     */
+    TopK nearest(double[] query, int k) {
+        TopK nearest = TopK.of(k);
+        search(0, query, new double[dimension], 0.0, nearest);
+        return nearest;
+    }
+
+    private void build(int from, int to) {
+        int node = nodes++;
+        start[node] = from;
+        end[node] = to;
+        splitDimension[node] = -1;
+        if (to - from <= LEAF_SIZE) {
+            return;
+        }
+        int widest = widestDimension(from, to);
+        int median = (from + to) >>> 1;
+        select(from, to - 1, median, widest);
+        splitDimension[node] = widest;
+        splitValue[node] = value(order[median], widest);
+        build(from, median);
+        right[node] = nodes;
+        build(median, to);
+    }
+
+    /**
+     * Visits a node whose box is at squared distance {@code boxDistance} of the query. {@code offsets} holds, per
+     * dimension, the distance from the query to the box along that dimension.
+     */
+    private void search(int node, double[] query, double[] offsets, double boxDistance, TopK nearest) {
+        int dim = splitDimension[node];
+        if (dim < 0) {
+            for (int i = start[node]; i < end[node]; i++) {
+                int row = order[i];
+                nearest.offer(row, VectorKernels.squaredDistance(query, 0, rows, row * dimension, dimension));
+            }
+            return;
+        }
+        double difference = query[dim] - splitValue[node];
+        int near = difference < 0 ? node + 1 : right[node];
+        int far = difference < 0 ? right[node] : node + 1;
+        search(near, query, offsets, boxDistance, nearest);
+        double previous = offsets[dim];
+        double farDistance = boxDistance - previous * previous + difference * difference;
+        if (farDistance <= nearest.threshold()) {
+            offsets[dim] = difference;
+            search(far, query, offsets, farDistance, nearest);
+            offsets[dim] = previous;
+        }
+    }
+
+    private int widestDimension(int from, int to) {
+        int widest = 0;
+        double widestSpread = -1.0;
+        for (int dim = 0; dim < dimension; dim++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = from; i < to; i++) {
+                double value = value(order[i], dim);
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            if (max - min > widestSpread) {
+                widestSpread = max - min;
+                widest = dim;
+            }
+        }
+        return widest;
+    }
+
+    /**
+     * Quickselect: reorders {@code order[from..to]} so that the row at position {@code k} has the k-th smallest value
+     * along {@code dim}, with smaller or equal values before it and greater or equal values after it.
+     */
+    private void select(int from, int to, int k, int dim) {
+        while (from < to) {
+            double pivot = value(order[(from + to) >>> 1], dim);
+            int i = from;
+            int j = to;
+            while (i <= j) {
+                while (value(order[i], dim) < pivot) {
+                    i++;
+                }
+                while (value(order[j], dim) > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = order[i];
+                    order[i] = order[j];
+                    order[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                to = j;
+            } else if (k >= i) {
+                from = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private double value(int row, int dim) {
+        return rows[row * dimension + dim];
+    }
+}
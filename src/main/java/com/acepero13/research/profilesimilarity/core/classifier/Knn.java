@@ -1,20 +1,22 @@
 package com.acepero13.research.profilesimilarity.core.classifier;
 
 import com.acepero13.research.profilesimilarity.api.Normalizer;
-import com.acepero13.research.profilesimilarity.api.Vector;
 import com.acepero13.research.profilesimilarity.api.Vectorizable;
 import com.acepero13.research.profilesimilarity.core.Matrix;
 import com.acepero13.research.profilesimilarity.core.Score;
 import com.acepero13.research.profilesimilarity.core.classifier.result.Result;
 import com.acepero13.research.profilesimilarity.core.proxy.VectorizableProxy;
-import com.acepero13.research.profilesimilarity.core.vectors.NormalizedVector;
+import com.acepero13.research.profilesimilarity.exceptions.ArgumentException;
 import com.acepero13.research.profilesimilarity.utils.CalculationUtils;
-import com.acepero13.research.profilesimilarity.utils.Tuple;
 import lombok.extern.java.Log;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -29,20 +31,17 @@ import static java.util.Objects.requireNonNull;
 public class Knn {
 
     private final int k;
-    private final DataSet dataSet;
-    private Normalizer normalizer;
-    private List<Tuple<Vectorizable, NormalizedVector>> normalizedDataSet = new ArrayList<>();
+    private final NeighborSource source;
+    private final QueryExecutor executor;
 
-
-    private Knn(int k, List<Vectorizable> data) {
+    private Knn(int k, NeighborSource source, QueryExecutor executor) {
         this.k = k;
-        this.dataSet = new DataSet(requireNonNull(data));
+        this.source = source;
+        this.executor = executor;
     }
 
-    private Knn(int k, Normalizer normalizer, List<Vectorizable> data) {
-        this.k = k;
-        this.dataSet = new DataSet(requireNonNull(data));
-        this.normalizer = normalizer;
+    private Knn(int k, NeighborSource source) {
+        this(k, source, QueryExecutor.commonPool());
     }
 
     /**
@@ -54,7 +53,7 @@ public class Knn {
      * @return a new instance of the Knn algorithm
      */
     public static Knn of(int k, Normalizer normalizer, List<Vectorizable> data) {
-        return new Knn(k, Objects.requireNonNull(normalizer), Objects.requireNonNull(data));
+        return new Knn(k, NeighborSource.inMemory(Objects.requireNonNull(data), Objects.requireNonNull(normalizer)));
     }
 
     /**
@@ -66,7 +65,7 @@ public class Knn {
      * @return a new instance of the Knn algorithm
      */
     public static Knn withDefaultNormalizer(int k, List<Vectorizable> data) {
-        return new Knn(k, requireNonNull(data));
+        return new Knn(k, NeighborSource.inMemory(requireNonNull(data), null));
     }
 
     /**
@@ -78,7 +77,7 @@ public class Knn {
      * @return a new instance of the Knn algorithm
      */
     public static Knn withDefaultNormalizer(int k, Vectorizable... data) {
-        return new Knn(k, List.of(requireNonNull(data)));
+        return new Knn(k, NeighborSource.inMemory(List.of(requireNonNull(data)), null));
     }
 
 
@@ -92,7 +91,7 @@ public class Knn {
      * @return a new instance of the Knn algorithm
      */
     public static <T> Knn ofObjectsWithDefaultNormalizer(int k, List<T> data) {
-        return new Knn(k, VectorizableProxy.of(requireNonNull(data)));
+        return new Knn(k, NeighborSource.inMemory(VectorizableProxy.of(requireNonNull(data)), null));
     }
 
     /**
@@ -105,12 +104,142 @@ public class Knn {
      * @return a new instance of the Knn algorithm
      */
     public static <T> Knn ofObjects(int k, Normalizer normalizer, List<T> data) {
-        return new Knn(k, requireNonNull(normalizer), VectorizableProxy.of(requireNonNull(data)));
+        return new Knn(k, NeighborSource.inMemory(VectorizableProxy.of(requireNonNull(data)), requireNonNull(normalizer)));
     }
 
 
-    private static Comparator<Score> ascendingScore() {
-        return Comparator.comparingDouble(Score::score);
+    /**
+     * Constructs a new instance of the Knn algorithm that queries a memory-mapped data set. The rows are read directly
+     * from the mapped file, normalized with the min-max ranges stored in it.
+     *
+     * @param k    the number of neighbors to consider
+     * @param data the mapped data set
+     * @return a new instance of the Knn algorithm
+     * @see MappedDataSet#open(Path)
+     */
+    public static Knn ofMapped(int k, MappedDataSet data) {
+        return new Knn(k, NeighborSource.columnar(data));
+    }
+
+    /**
+     * Constructs a new instance of the Knn algorithm that queries a columnar table. The numerical columns used by a
+     * feature schema are normalized with their min-max range and packed once, the first time the schema is queried.
+     *
+     * @param k     the number of neighbors to consider
+     * @param table the table
+     * @return a new instance of the Knn algorithm
+     */
+    public static Knn ofTable(int k, FeatureTable table) {
+        return new Knn(k, NeighborSource.columnar(table));
+    }
+
+    /**
+     * Constructs a new instance of the Knn algorithm that queries an incremental data set. Samples added to, removed
+     * from or updated in the index are seen by the next query, without rebuilding the classifier.
+     *
+     * @param k     the number of neighbors to consider
+     * @param index the incremental data set
+     * @return a new instance of the Knn algorithm
+     */
+    public static Knn ofIndex(int k, IncrementalIndex index) {
+        return new Knn(k, NeighborSource.incremental(index));
+    }
+
+    /**
+     * Returns a classifier over the same data set that answers queries with an {@link HnswIndex} instead of an exact
+     * scan. The neighbors returned are approximate: some of the exact k nearest neighbors may be missed, which the
+     * {@code efSearch} parameter trades against query time. The graph is built the first time a feature schema is
+     * queried, on top of the exact index of that schema, and is shared by later queries.
+     *
+     * @param parameters the parameters of the graph
+     * @return a new approximate classifier
+     * @throws IllegalStateException if this classifier queries an incremental data set
+     * @see HnswIndex#recall(List, int)
+     */
+    public Knn approximate(HnswIndex.Parameters parameters) {
+        requireNonNull(parameters);
+        return new Knn(k, source.approximate((exact, queryExecutor) -> HnswIndex.build(exact, HnswIndex.Distance.EUCLIDEAN, parameters, queryExecutor)), executor);
+    }
+
+    /**
+     * Returns a classifier over the same data set that answers queries with an {@link IvfIndex}: the rows are clustered
+     * into {@code nlist} cells and a query only scans the {@code nprobe} cells closest to it. The neighbors returned are
+     * approximate, and {@code nprobe} trades recall against query time. The cells are built the first time a feature
+     * schema is queried, which is much cheaper than building a graph.
+     *
+     * @param parameters the parameters of the partition
+     * @return a new approximate classifier
+     * @throws IllegalStateException if this classifier queries an incremental data set
+     * @see IvfIndex#recall(List, int)
+     */
+    public Knn partitioned(IvfIndex.Parameters parameters) {
+        requireNonNull(parameters);
+        return new Knn(k, source.approximate((exact, queryExecutor) -> IvfIndex.build(exact, HnswIndex.Distance.EUCLIDEAN, parameters, queryExecutor)), executor);
+    }
+
+    /**
+     * Returns a classifier over the same data set that answers queries with a {@link PqIndex}: every row is compressed
+     * to one byte per subspace, and the distances to the target are looked up in tables of the codebook centroids. The
+     * neighbors returned are approximate unless enough candidates are re-ranked with their exact rows. Over a
+     * memory-mapped data set only the codes are held in memory and the re-ranked rows are read from the file. The codes
+     * are trained and built the first time a feature schema is queried.
+     *
+     * @param parameters the parameters of the quantization
+     * @return a new approximate classifier
+     * @throws IllegalStateException if this classifier queries an incremental data set
+     * @see PqIndex#recall(List, int)
+     */
+    public Knn quantized(PqIndex.Parameters parameters) {
+        requireNonNull(parameters);
+        return new Knn(k, source.approximate((exact, queryExecutor) -> PqIndex.build(exact, parameters, queryExecutor)), executor);
+    }
+
+    /**
+     * Returns a classifier over the same data set whose rows are stored with the given precision: as floats, or
+     * quantized to one byte per value. The candidates are selected with the compact rows, and the {@code rerank}
+     * closest ones are re-scored in double precision, so that a re-rank depth a few times larger than k usually gives
+     * the exact neighbors. The data set is copied into a {@link FeatureTable}, which the returned classifier keeps
+     * instead of the samples, and the compact index over its columns is built the first time a feature schema is
+     * queried; the neighbors are samples decoded from the table. An
+     * {@link #approximate(HnswIndex.Parameters) approximate} or {@link #partitioned(IvfIndex.Parameters) partitioned}
+     * classifier built from the returned one copies the rows into its graph or its cells in double precision, which
+     * loses the memory saved by the compact rows.
+     *
+     * @param precision the precision of the stored rows
+     * @param rerank    the number of candidates to re-score exactly, or 0 to rank them by their compact distance
+     * @return a new classifier with compact storage
+     * @throws IllegalStateException if this classifier queries a memory-mapped, a columnar or an incremental data set
+     * @throws ArgumentException     if the re-rank depth is negative
+     */
+    public Knn compact(CompactIndex.Precision precision, int rerank) {
+        return new Knn(k, source.compact(precision, rerank), executor);
+    }
+
+    /**
+     * Returns a classifier over the same data set and indexes that runs the scans of its queries with the given
+     * executor instead of the common pool. Approximate indexes that search a graph or a few cells answer every query on
+     * the calling thread whatever the executor; their batches are split with it. An index that is not built yet is
+     * built with the executor of the first query that needs it.
+     *
+     * @param executor the executor that runs the queries
+     * @return a new classifier sharing the data set and the indexes of this one
+     */
+    public Knn withExecutor(QueryExecutor executor) {
+        return new Knn(k, source, requireNonNull(executor));
+    }
+
+    /**
+     * Writes the data set of this classifier to a file that can be opened with {@link MappedDataSet#open(Path)}.
+     *
+     * @param path the file to write
+     * @throws IOException           if the file cannot be written
+     * @throws IllegalStateException if this classifier already queries a mapped data set
+     */
+    public void write(Path path) throws IOException {
+        if (source.isMapped()) {
+            throw new IllegalStateException("The data set is already memory-mapped");
+        }
+        MappedDataSet.write(source.samples(), requireNonNull(path));
     }
 
     /**
@@ -124,8 +253,7 @@ public class Knn {
     public Result fit(Vectorizable target) {
         requireNonNull(target, "Target cannot be null");
         logInitialInformation();
-        NormalizedVector normalizedTarget = normalize(target);
-        return classify(normalizedTarget);
+        return Result.of(source.neighbors(target, executor).nearest(target, k, executor));
     }
 
     /**
@@ -141,36 +269,81 @@ public class Knn {
         return fit(VectorizableProxy.of(requireNonNull(target)));
     }
 
+    /**
+     * Fits the Knn algorithm to every target in one pass over the data set and returns one result per target. Targets
+     * that share a feature schema are answered together, comparing each block of the data set against many targets
+     * before moving to the next block.
+     *
+     * @param targets the targets to fit the algorithm to
+     * @return the results, in the order of the targets
+     * @throws NullPointerException if the list or one of the targets is null
+     */
+    public List<Result> fitAll(List<? extends Vectorizable> targets) {
+        requireNonNull(targets, "Targets cannot be null");
+        logInitialInformation();
+        Map<NeighborIndex, List<Integer>> positionsByIndex = new LinkedHashMap<>();
+        for (int i = 0; i < targets.size(); i++) {
+            Vectorizable target = requireNonNull(targets.get(i), "Target cannot be null");
+            positionsByIndex.computeIfAbsent(source.neighbors(target, executor), index -> new ArrayList<>()).add(i);
+        }
+        Result[] results = new Result[targets.size()];
+        positionsByIndex.forEach((index, positions) -> {
+            List<Vectorizable> group = positions.stream().map(targets::get).collect(Collectors.toList());
+            List<List<Score>> neighbors = index.nearest(group, k, executor);
+            for (int i = 0; i < positions.size(); i++) {
+                results[positions.get(i)] = Result.of(neighbors.get(i));
+            }
+        });
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Fits the Knn algorithm to every target object, which will be converted to a Vectorizable using
+     * VectorizableProxy, and returns one result per target.
+     *
+     * @param <T>     the type of the target objects
+     * @param targets the target objects to fit the algorithm to
+     * @return the results, in the order of the targets
+     * @throws NullPointerException if the list or one of the targets is null
+     * @see #fitAll(List)
+     */
+    public <T> List<Result> fitAllObjects(List<T> targets) {
+        return fitAll(VectorizableProxy.of(requireNonNull(targets)));
+    }
+
     private void logInitialInformation() {
         log.info(String.format("Classifying using Categorical KNN with k=%d.", k));
-        log.info("Number of samples: " + dataSet.size());
+        log.info("Number of samples: " + source.size());
         if (CalculationUtils.isEvenNumber(k)) {
             log.warning("K: {} is an even number. Consider changing it to an odd number to help the voting process");
         }
     }
 
-    private Result classify(NormalizedVector normalizedTarget) {
-
-
-        List<Score> results = normalizedDataSet.stream()
-                                               .parallel()
-                                               .map(t -> t.mapSecond(v -> DataSet.calculateScore(Vector::distanceTo, normalizedTarget, v)))
-                                               .map(t -> new Score(t.second(), t.first().toFeatureVector()))
-                                               .sorted(ascendingScore())
-                                               .limit(k)
-                                               .collect(Collectors.toList());
-
-        return Result.of(results);
+    /**
+     * Returns the index used to answer queries that share the feature schema (the numerical features and their weights)
+     * of the given sample. The index is built the first time a schema is seen and reused by every later query. Over a
+     * {@link FeatureTable} the index is the projection of the columns of the table.
+     *
+     * @param sample a vectorizable describing the features used by the queries
+     * @return the index for the feature schema of the sample
+     * @throws NullPointerException  if the sample is null
+     * @throws IllegalStateException if this classifier queries a mapped or an incremental data set
+     */
+    public KnnIndex index(Vectorizable sample) {
+        requireNonNull(sample, "Sample cannot be null");
+        return source.index(sample, executor);
     }
 
-    private NormalizedVector normalize(Vectorizable target) {
-        if (normalizer == null) {
-            this.normalizer = DataSet.minMaxNormalizer(target, dataSet);
-        }
-        if (normalizedDataSet.isEmpty()) {
-            normalizedDataSet = dataSet.scaleAndScore(target, normalizer);
-        }
-        return NormalizedVector.of(target.vector(target.numericalFeatures()), normalizer);
+    /**
+     * Returns the index used to answer queries that share the feature schema of the given object, which will be
+     * converted to a Vectorizable using VectorizableProxy.
+     *
+     * @param sample an object describing the features used by the queries
+     * @return the index for the feature schema of the sample
+     * @throws NullPointerException if the sample is null
+     */
+    public KnnIndex index(Object sample) {
+        return index(VectorizableProxy.of(requireNonNull(sample)));
     }
 
 }
@@ -0,0 +1,341 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import com.acepero13.research.profilesimilarity.api.Normalizer;
+import com.acepero13.research.profilesimilarity.api.Vector;
+import com.acepero13.research.profilesimilarity.api.Vectorizable;
+import com.acepero13.research.profilesimilarity.core.Score;
+import com.acepero13.research.profilesimilarity.core.vectors.DoubleVector;
+import com.acepero13.research.profilesimilarity.core.vectors.NormalizedVector;
+import com.acepero13.research.profilesimilarity.core.vectors.VectorKernels;
+import com.acepero13.research.profilesimilarity.exceptions.VectorException;
+import com.acepero13.research.profilesimilarity.utils.TopK;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A query-ready representation of a data set for a given feature schema.
+ * <p>
+ * The index normalizes and weights every sample once and packs the resulting rows into a single contiguous array.
+ * Queries only normalize the target and scan the packed rows. On low-dimensional data sets the rows are also organized
+ * in a {@link KdTree}, so a query only visits the regions of the data set that can hold one of its neighbors; the
+ * result is the same as the scan. The index is immutable and can be shared across threads.
+ * <p>
+ * Scans stop computing the distance to a row as soon as it exceeds the distance of the k-th nearest row found so far,
+ * which cannot change the result. On high-dimensional data sets the columns are stored by decreasing variance, so
+ * the dimensions that contribute most to a distance are read first and most rows are abandoned after a few blocks.
+ */
+public final class KnnIndex implements NeighborIndex {
+    private final FeatureSchema schema;
+    private final Normalizer normalizer;
+    private final List<Vectorizable> samples;
+    private final double[] rows;
+    private final int dimension;
+    private final KdTree tree;
+    private final int[] order;
+
+    private KnnIndex(FeatureSchema schema, Normalizer normalizer, List<Vectorizable> samples, double[] rows, int dimension) {
+        this.schema = schema;
+        this.normalizer = normalizer;
+        this.samples = samples;
+        this.rows = rows;
+        this.dimension = dimension;
+        this.tree = KdTree.isWorthBuilding(samples.size(), dimension) ? KdTree.of(rows, dimension, samples.size()) : null;
+        this.order = tree == null && isWorthReordering(dimension) ? reorder(rows, dimension, samples.size()) : null;
+    }
+
+    /**
+     * Returns true if the rows are long enough for the order of their columns to decide how early a distance is
+     * abandoned. Shorter rows are compared in a single block.
+     */
+    static boolean isWorthReordering(int dimension) {
+        return dimension > VectorKernels.ABANDON_BLOCK;
+    }
+
+    /**
+     * Sorts the columns of the packed rows, in place, by decreasing variance and returns the schema column stored at
+     * every position.
+     */
+    private static int[] reorder(double[] rows, int dimension, int size) {
+        double[] sum = new double[dimension];
+        double[] sumOfSquares = new double[dimension];
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < dimension; column++) {
+                double value = rows[row * dimension + column];
+                sum[column] += value;
+                sumOfSquares[column] += value * value;
+            }
+        }
+        double[] variance = new double[dimension];
+        for (int column = 0; column < dimension; column++) {
+            double mean = sum[column] / Math.max(1, size);
+            variance[column] = sumOfSquares[column] / Math.max(1, size) - mean * mean;
+        }
+        int[] order = IntStream.range(0, dimension)
+                .boxed()
+                .sorted((a, b) -> Double.compare(variance[b], variance[a]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        double[] scratch = new double[dimension];
+        for (int row = 0; row < size; row++) {
+            System.arraycopy(rows, row * dimension, scratch, 0, dimension);
+            for (int position = 0; position < dimension; position++) {
+                rows[row * dimension + position] = scratch[order[position]];
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Builds an index of the given data points using the min-max normalizer of the data set. The feature schema
+     * (the numerical features and their weights) is taken from the sample.
+     *
+     * @param sample     a vectorizable describing the features used by the queries
+     * @param dataPoints the data set
+     * @return a new index
+     */
+    public static KnnIndex of(Vectorizable sample, List<Vectorizable> dataPoints) {
+        requireNonNull(sample, "Sample cannot be null");
+        DataSet dataSet = new DataSet(requireNonNull(dataPoints));
+        return of(sample, dataSet, DataSet.minMaxNormalizer(sample, dataSet), QueryExecutor.commonPool());
+    }
+
+    /**
+     * Builds an index of the given data points using the given normalizer. The feature schema (the numerical features
+     * and their weights) is taken from the sample.
+     *
+     * @param sample     a vectorizable describing the features used by the queries
+     * @param normalizer the normalizer to use
+     * @param dataPoints the data set
+     * @return a new index
+     */
+    public static KnnIndex of(Vectorizable sample, Normalizer normalizer, List<Vectorizable> dataPoints) {
+        return of(requireNonNull(sample), new DataSet(requireNonNull(dataPoints)), requireNonNull(normalizer), QueryExecutor.commonPool());
+    }
+
+    static KnnIndex of(Vectorizable sample, DataSet dataSet, Normalizer normalizer, QueryExecutor executor) {
+        List<NormalizedVector> scaled = dataSet.scale(sample, normalizer, executor);
+        int dimension = scaled.isEmpty() ? 0 : scaled.get(0).size();
+        double[] rows = new double[scaled.size() * dimension];
+        for (int row = 0; row < scaled.size(); row++) {
+            Vector<Double> vector = scaled.get(row);
+            if (vector.size() != dimension) {
+                throw new VectorException("Vector length do not match. Vector length is: " + dimension + " and the other vector's length is: " + vector.size());
+            }
+            for (int column = 0; column < dimension; column++) {
+                rows[row * dimension + column] = vector.valueAt(column);
+            }
+        }
+        return new KnnIndex(FeatureSchema.of(sample), normalizer, dataSet.dataPoints(), rows, dimension);
+    }
+
+    /**
+     * Wraps rows that were already normalized, weighted and packed one after the other.
+     */
+    static KnnIndex ofRows(FeatureSchema schema, Normalizer normalizer, List<Vectorizable> samples, double[] rows, int dimension) {
+        return new KnnIndex(schema, normalizer, samples, rows, dimension);
+    }
+
+    /**
+     * Normalizes the numerical features of the target using the normalizer of this index.
+     *
+     * @param target the target to normalize
+     * @return the normalized target
+     */
+    @Override
+    public NormalizedVector normalize(Vectorizable target) {
+        requireNonNull(target, "Target cannot be null");
+        return NormalizedVector.of(schema.vector(target), normalizer);
+    }
+
+    /**
+     * Returns the k samples closest to the target, sorted by ascending Euclidean distance. The score of every sample is
+     * its distance to the target. Low-dimensional indexes search their k-d tree; the others scan every row in
+     * parallel and abandon a row as soon as it is farther than the k nearest rows found so far.
+     *
+     * @param target the target to compare against the index
+     * @param k      the number of neighbors to return
+     * @return the scores of the k nearest samples
+     * @throws VectorException if the target does not have the dimension of the index
+     */
+    @Override
+    public List<Score> nearest(Vectorizable target, int k) {
+        return nearest(target, k, QueryExecutor.commonPool());
+    }
+
+    /**
+     * Returns the k samples closest to the target, scanning the rows with the given executor.
+     *
+     * @param target   the target to compare against the index
+     * @param k        the number of neighbors to return
+     * @param executor the executor that runs the scan
+     * @return the scores of the k nearest samples
+     * @throws VectorException if the target does not have the dimension of the index
+     * @see #nearest(Vectorizable, int)
+     */
+    @Override
+    public List<Score> nearest(Vectorizable target, int k, QueryExecutor executor) {
+        double[] query = query(target);
+        if (tree != null) {
+            return toScores(tree.nearest(query, k));
+        }
+        TopK nearest = executor.collect(samples.size(), () -> TopK.of(k),
+                (heap, row) -> heap.offer(row, VectorKernels.squaredDistance(query, 0, rows, row * dimension, dimension, heap.threshold())),
+                TopK::merge);
+        return toScores(nearest);
+    }
+
+    /**
+     * Returns the k samples closest to each of the targets. Low-dimensional indexes search their k-d tree once per
+     * target. Otherwise the rows are scanned in cache-sized blocks, and each block is compared against a block of
+     * targets before moving on.
+     *
+     * @param targets the targets to compare against the index
+     * @param k       the number of neighbors to return for every target
+     * @return the scores of the k nearest samples of every target, in the order of the targets
+     * @throws VectorException if a target does not have the dimension of the index
+     * @see #nearest(Vectorizable, int)
+     */
+    @Override
+    public List<List<Score>> nearest(List<? extends Vectorizable> targets, int k) {
+        return nearest(targets, k, QueryExecutor.commonPool());
+    }
+
+    /**
+     * Returns the k samples closest to each of the targets, running the searches or the tiled scan with the given
+     * executor.
+     *
+     * @param targets  the targets to compare against the index
+     * @param k        the number of neighbors to return for every target
+     * @param executor the executor that runs the targets
+     * @return the scores of the k nearest samples of every target, in the order of the targets
+     * @throws VectorException if a target does not have the dimension of the index
+     * @see #nearest(List, int)
+     */
+    @Override
+    public List<List<Score>> nearest(List<? extends Vectorizable> targets, int k, QueryExecutor executor) {
+        requireNonNull(targets, "Targets cannot be null");
+        if (tree != null) {
+            return executor.map(targets, t -> nearest(t, k, executor));
+        }
+        if (!TiledScan.isWorthTiling(targets.size(), executor)) {
+            return targets.stream().map(t -> nearest(t, k, executor)).collect(Collectors.toList());
+        }
+        double[] queries = new double[targets.size() * dimension];
+        for (int i = 0; i < targets.size(); i++) {
+            System.arraycopy(query(targets.get(i)), 0, queries, i * dimension, dimension);
+        }
+        TopK[] nearest = TiledScan.select(targets.size(), samples.size(), dimension, k, executor,
+                (query, row, bound) -> VectorKernels.squaredDistance(queries, query * dimension, rows, row * dimension, dimension, bound));
+        return Arrays.stream(nearest).map(this::toScores).collect(Collectors.toList());
+    }
+
+    @Override
+    public double[] queryRow(Vectorizable target) {
+        return query(target);
+    }
+
+    @Override
+    public double[] packedRows() {
+        return rows;
+    }
+
+    @Override
+    public void readRow(int index, double[] buffer) {
+        Objects.checkIndex(index, samples.size());
+        System.arraycopy(rows, index * dimension, buffer, 0, dimension);
+    }
+
+    /**
+     * Normalizes the target and stores its values in the column order of the packed rows.
+     */
+    private double[] query(Vectorizable target) {
+        double[] query = normalize(target).toArray();
+        if (query.length != dimension && !samples.isEmpty()) {
+            throw new VectorException("Vector length do not match. Vector length is: " + query.length + " and the other vector's length is: " + dimension);
+        }
+        if (order == null) {
+            return query;
+        }
+        double[] reordered = new double[dimension];
+        for (int position = 0; position < dimension; position++) {
+            reordered[position] = query[order[position]];
+        }
+        return reordered;
+    }
+
+    private List<Score> toScores(TopK nearest) {
+        int[] indices = nearest.indices();
+        double[] distances = nearest.scores();
+        List<Score> scores = new ArrayList<>(indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            scores.add(new Score(Math.sqrt(distances[i]), samples.get(indices[i]).toFeatureVector()));
+        }
+        return scores;
+    }
+
+    /**
+     * Returns the number of samples in the index.
+     *
+     * @return the number of samples
+     */
+    @Override
+    public int size() {
+        return samples.size();
+    }
+
+    /**
+     * Returns the number of numerical features of every row.
+     *
+     * @return the dimension of the index
+     */
+    public int dimension() {
+        return dimension;
+    }
+
+    /**
+     * Returns the sample stored at the given position.
+     *
+     * @param index the position of the sample
+     * @return the sample
+     */
+    @Override
+    public Vectorizable sample(int index) {
+        return samples.get(index);
+    }
+
+    /**
+     * Returns the normalized and weighted row of the sample stored at the given position.
+     *
+     * @param index the position of the sample
+     * @return a copy of the row
+     */
+    @Override
+    public NormalizedVector row(int index) {
+        Objects.checkIndex(index, samples.size());
+        if (order == null) {
+            return NormalizedVector.of(DoubleVector.of(Arrays.copyOfRange(rows, index * dimension, (index + 1) * dimension)));
+        }
+        double[] row = new double[dimension];
+        for (int position = 0; position < dimension; position++) {
+            row[order[position]] = rows[index * dimension + position];
+        }
+        return NormalizedVector.of(DoubleVector.of(row));
+    }
+
+    /**
+     * Returns true if this index was built for the feature schema of the target.
+     *
+     * @param target the target to check
+     * @return true if the index can answer queries for the target
+     */
+    public boolean accepts(Vectorizable target) {
+        return schema.equals(FeatureSchema.of(requireNonNull(target)));
+    }
+}
@@ -1,22 +1,20 @@
 package com.acepero13.research.profilesimilarity.core.classifier;
 
-import com.acepero13.research.profilesimilarity.api.Vector;
 import com.acepero13.research.profilesimilarity.api.Vectorizable;
 import com.acepero13.research.profilesimilarity.api.features.CategoricalFeature;
+import com.acepero13.research.profilesimilarity.core.CategoricalDictionary;
 import com.acepero13.research.profilesimilarity.core.Matrix;
 import com.acepero13.research.profilesimilarity.core.Score;
 import com.acepero13.research.profilesimilarity.core.classifier.result.Result;
 import com.acepero13.research.profilesimilarity.core.proxy.VectorizableProxy;
 import com.acepero13.research.profilesimilarity.core.vectors.FeatureVector;
-import com.acepero13.research.profilesimilarity.utils.ListUtils;
-import com.acepero13.research.profilesimilarity.utils.MinMaxVector;
-import com.acepero13.research.profilesimilarity.utils.Tuple;
-import com.acepero13.research.profilesimilarity.utils.VectorCollector;
+import com.acepero13.research.profilesimilarity.exceptions.VectorException;
+import com.acepero13.research.profilesimilarity.utils.TopK;
 
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 import static java.util.Objects.requireNonNull;
@@ -29,9 +27,12 @@ import static java.util.Objects.requireNonNull;
  */
 public class KnnMixedData {
     private final List<FeatureVector> dataSet;
-    private final List<Vector<Double>> numericalDataSet;
     private final int k;
-    private final List<List<CategoricalFeature<?>>> categoricalDataSet;
+    private final CategoricalDictionary dictionary;
+    private final int[] categoricalDataSet;
+    private final GowerMetric metric;
+    private final IncrementalIndex incremental;
+    private final QueryExecutor executor;
 
     /**
      * Creates a new KnnMixedData object with the given k value and dataset of FeatureVectors.
@@ -42,12 +43,50 @@ public class KnnMixedData {
     private KnnMixedData(int k, List<FeatureVector> dataSet) {
         this.dataSet = requireNonNull(dataSet);
         this.k = k;
-        this.numericalDataSet = requireNonNull(dataSet).stream()
-                .map(FeatureVector::toDouble).collect(Collectors.toList());
-        this.categoricalDataSet = dataSet.stream()
+        Matrix<Double> numerical = Matrix.of(dataSet.stream()
+                .map(FeatureVector::toDouble).collect(Collectors.toList()));
+        List<List<CategoricalFeature<?>>> categorical = dataSet.stream()
                 .map(FeatureVector::categorical)
                 .collect(Collectors.toList());
+        this.dictionary = CategoricalDictionary.of(categorical);
+        this.categoricalDataSet = dictionary.encodeAll(categorical);
+        double[] rows = numerical.toRowMajorArray();
+        this.metric = new GowerMetric(rows, ranges(rows, numerical.totalColumns()), numerical.totalColumns());
+        this.incremental = null;
+        this.executor = QueryExecutor.commonPool();
+    }
 
+    private KnnMixedData(int k, FeatureTable table) {
+        this.dataSet = table.featureVectors();
+        this.k = k;
+        this.dictionary = table.categoricalDictionary();
+        this.categoricalDataSet = new int[table.size() * dictionary.columns()];
+        for (int row = 0; row < table.size(); row++) {
+            System.arraycopy(table.codes(row), 0, categoricalDataSet, row * dictionary.columns(), dictionary.columns());
+        }
+        this.metric = new GowerMetric(table.numericalRows(), table.ranges(), table.numericalFeatureNames().size());
+        this.incremental = null;
+        this.executor = QueryExecutor.commonPool();
+    }
+
+    private KnnMixedData(int k, IncrementalIndex incremental) {
+        this.dataSet = null;
+        this.k = k;
+        this.dictionary = null;
+        this.categoricalDataSet = null;
+        this.metric = null;
+        this.incremental = requireNonNull(incremental);
+        this.executor = QueryExecutor.commonPool();
+    }
+
+    private KnnMixedData(KnnMixedData source, QueryExecutor executor) {
+        this.dataSet = source.dataSet;
+        this.k = source.k;
+        this.dictionary = source.dictionary;
+        this.categoricalDataSet = source.categoricalDataSet;
+        this.metric = source.metric;
+        this.incremental = source.incremental;
+        this.executor = executor;
     }
 
     /**
@@ -100,6 +139,32 @@ public class KnnMixedData {
     }
 
 
+    /**
+     * Creates a new KnnMixedData object that queries an incremental data set. Samples added to, removed from or updated
+     * in the index are seen by the next query, and the numerical differences are scaled by the current range of their
+     * column.
+     *
+     * @param k     the number of nearest neighbors to consider
+     * @param index the incremental data set
+     * @return a new KnnMixedData object over the index
+     */
+    public static KnnMixedData ofIndex(int k, IncrementalIndex index) {
+        return new KnnMixedData(k, requireNonNull(index));
+    }
+
+    /**
+     * Creates a new KnnMixedData object that queries a columnar table. The numerical columns and the categorical codes
+     * are scanned as they are stored in the table, and only the neighbors are decoded into feature vectors.
+     *
+     * @param k     the number of nearest neighbors to consider
+     * @param table the table
+     * @return a new KnnMixedData object over the table
+     * @throws VectorException if a sample of the table does not have one of its numerical columns
+     */
+    public static KnnMixedData ofTable(int k, FeatureTable table) {
+        return new KnnMixedData(k, requireNonNull(table));
+    }
+
     /**
      * Returns a new KnnMixedData object constructed from a list of Vectorizable objects.
      * Each Vectorizable object is converted to a FeatureVector, and the resulting list of FeatureVectors
@@ -114,6 +179,17 @@ public class KnnMixedData {
         return of(k, VectorizableProxy.ofFeatureVector(requireNonNull(dataSet)));
     }
 
+    /**
+     * Returns a classifier over the same data set that runs the scans of its queries with the given executor instead
+     * of the common pool.
+     *
+     * @param executor the executor that runs the queries
+     * @return a new classifier sharing the data set of this one
+     */
+    public KnnMixedData withExecutor(QueryExecutor executor) {
+        return new KnnMixedData(this, requireNonNull(executor));
+    }
+
 
     /**
      * Returns a Result object representing the k-Nearest Neighbors of the given FeatureVector target.
@@ -122,18 +198,12 @@ public class KnnMixedData {
      * @return a Result object representing the k-Nearest Neighbors of the target FeatureVector
      */
     public Result fit(FeatureVector target) {
-        var metric = new GowerMetric();
-
-        List<Tuple<Double, FeatureVector>> scores = metric.calculate(requireNonNull(target));
-        List<Score> similarNeighbors = scores.stream()
-                .parallel()
-                .sorted(Comparator.comparingDouble(Tuple::first))
-                .limit(k)
-                .map(t -> new Score(t.first(), t.second()))
-                .collect(Collectors.toList());
-
-
-        return Result.of(similarNeighbors);
+        if (incremental != null) {
+            return incremental.read(view -> fit(view, requireNonNull(target)));
+        }
+        GowerMetric.Query query = metric.query(requireNonNull(target));
+        TopK nearest = executor.collect(dataSet.size(), () -> TopK.of(k), (heap, row) -> heap.offer(row, metric.score(query, row)), TopK::merge);
+        return toResult(nearest);
     }
 
     /**
@@ -156,76 +226,189 @@ public class KnnMixedData {
         return fit(VectorizableProxy.of(requireNonNull(target)));
     }
 
-    private class GowerMetric {
-
-
-        private final Matrix<Double> matrix;
-
-        public GowerMetric() {
-            this.matrix = Matrix.of(numericalDataSet);
+    /**
+     * Returns one Result object per target, computed in one pass over the data set. Each block of the data set is
+     * compared against many targets before moving to the next block.
+     *
+     * @param targets the FeatureVectors to find the k-Nearest Neighbors of
+     * @return the results, in the order of the targets
+     */
+    public List<Result> fitAll(List<FeatureVector> targets) {
+        requireNonNull(targets, "Targets cannot be null");
+        if (incremental != null || !TiledScan.isWorthTiling(targets.size(), executor)) {
+            return targets.stream().map(this::fit).collect(Collectors.toList());
         }
+        List<GowerMetric.Query> queries = targets.stream()
+                .map(t -> metric.query(requireNonNull(t)))
+                .collect(Collectors.toList());
+        TopK[] nearest = TiledScan.select(queries.size(), dataSet.size(), metric.dimension, k, executor,
+                (query, row) -> metric.score(queries.get(query), row));
+        return Arrays.stream(nearest).map(this::toResult).collect(Collectors.toList());
+    }
 
-        public List<Tuple<Double, FeatureVector>> calculate(FeatureVector target) {
-            MinMaxVector minMaxVector = MinMaxVector.of(matrix);
-            Vector<Double> difference = minMaxVector.difference();
-            var numericalTarget = target.toDouble();
-            Matrix<Double> numericalScore = calculateNumericalScore(difference, numericalTarget);
-            Matrix<Double> categoricalScore = calculateCategoricalScore(target.categorical());
-
-            List<Double> finalScore = calculateFinalScore(numericalScore, categoricalScore);
-
+    /**
+     * Returns one Result object per Vectorizable target, computed in one pass over the data set.
+     *
+     * @param targets the Vectorizable objects to find the k-Nearest Neighbors of
+     * @return the results, in the order of the targets
+     * @see #fitAll(List)
+     */
+    public List<Result> fitAllVectorizable(List<? extends Vectorizable> targets) {
+        return fitAll(requireNonNull(targets).stream()
+                .map(Vectorizable::toFeatureVector)
+                .collect(Collectors.toList()));
+    }
 
-            return buildResult(finalScore);
+    /**
+     * Returns one Result object per target object, computed in one pass over the data set. Each object is converted to
+     * a Vectorizable using VectorizableProxy.
+     *
+     * @param targets the objects to find the k-Nearest Neighbors of
+     * @param <T>     the type of the objects
+     * @return the results, in the order of the targets
+     * @see #fitAll(List)
+     */
+    public <T> List<Result> fitAllObjects(List<T> targets) {
+        return fitAllVectorizable(VectorizableProxy.of(requireNonNull(targets)));
+    }
 
+    private Result toResult(TopK nearest) {
+        int[] indices = nearest.indices();
+        double[] scores = nearest.scores();
+        List<Score> similarNeighbors = new ArrayList<>(indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            similarNeighbors.add(new Score(scores[i], dataSet.get(indices[i])));
+        }
+        return Result.of(similarNeighbors);
+    }
 
+    private Result fit(IncrementalIndex.View view, FeatureVector target) {
+        double[] numerical = target.toDouble().toArray();
+        if (numerical.length != view.dimension() && view.size() > 0) {
+            throw new VectorException("Vector length do not match. Vector length is: " + numerical.length + " and the other vector's length is: " + view.dimension());
         }
+        List<CategoricalFeature<?>> categorical = target.categorical();
+        TopK nearest = executor.collect(view.size(), () -> TopK.of(k), (heap, row) -> heap.offer(row, gower(view, numerical, categorical, row)), TopK::merge);
+        int[] indices = nearest.indices();
+        double[] scores = nearest.scores();
+        List<Score> similarNeighbors = new ArrayList<>(indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            similarNeighbors.add(new Score(scores[i], view.featureVector(indices[i])));
+        }
+        return Result.of(similarNeighbors);
+    }
 
-        private List<Tuple<Double, FeatureVector>> buildResult(List<Double> finalScore) {
-            Iterator<FeatureVector> it = dataSet.iterator();
-            List<Tuple<Double, FeatureVector>> result = new ArrayList<>();
-            int i = 0;
-            while (it.hasNext()) {
-                var score = finalScore.get(i);
-                result.add(Tuple.of(score, it.next()));
-                i++;
+    /**
+     * The difference between the largest and the smallest value of every column of the rows. Unlike
+     * {@link com.acepero13.research.profilesimilarity.utils.MinMax}, a column with one value has a range of 0, as in
+     * {@link FeatureTable} and {@link IncrementalIndex}.
+     */
+    private static double[] ranges(double[] rows, int dimension) {
+        double[] min = new double[dimension];
+        double[] max = new double[dimension];
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, Double.NEGATIVE_INFINITY);
+        for (int offset = 0; offset < rows.length; offset += dimension) {
+            for (int column = 0; column < dimension; column++) {
+                min[column] = Math.min(min[column], rows[offset + column]);
+                max[column] = Math.max(max[column], rows[offset + column]);
             }
-            return result;
         }
+        double[] ranges = new double[dimension];
+        for (int column = 0; column < dimension; column++) {
+            ranges[column] = max[column] - min[column];
+        }
+        return ranges;
+    }
 
-        private List<Double> calculateFinalScore(Matrix<Double> numericalScore, Matrix<Double> categoricalScore) {
-            return numericalScore.add(categoricalScore, 0.0)
-                    .stream()
-                    .parallel()
-                    .map(score -> score.sum() / (numericalScore.totalColumns() + categoricalScore.totalColumns()))
-                    .collect(Collectors.toList());
-
-
+    /**
+     * The Gower distance of {@link GowerMetric#score}, computed on the rows of an incremental data set.
+     */
+    private static double gower(IncrementalIndex.View view, double[] numerical, List<CategoricalFeature<?>> categorical, int row) {
+        double sum = 0.0;
+        for (int column = 0; column < numerical.length; column++) {
+            double range = view.range(column);
+            sum += range > 0 ? Math.abs(numerical[column] - view.value(row, column)) / range : 0.0;
         }
+        List<CategoricalFeature<?>> rowCategorical = view.categorical(row);
+        int compared = 0;
+        for (CategoricalFeature<?> feature : categorical) {
+            for (CategoricalFeature<?> candidate : rowCategorical) {
+                if (candidate.featureName().equals(feature.featureName())) {
+                    sum += Objects.equals(candidate.originalValue(), feature.originalValue()) ? 0.0 : 1.0;
+                    compared++;
+                    break;
+                }
+            }
+        }
+        return sum / (numerical.length + compared);
+    }
 
-        private Matrix<Double> calculateCategoricalScore(List<CategoricalFeature<?>> categorical) {
-            return Matrix.of(categoricalDataSet.stream()
-                    .map(l -> categoricalMatchBetween(l, categorical))
-                    .collect(Collectors.toList()));
+    private class GowerMetric {
+        private final double[] rows;
+        private final double[] inverseRange;
+        private final int dimension;
+
+        public GowerMetric(double[] rows, double[] difference, int dimension) {
+            this.rows = rows;
+            this.inverseRange = new double[difference.length];
+            for (int i = 0; i < difference.length; i++) {
+                inverseRange[i] = difference[i] > 0 ? 1.0 / difference[i] : 0.0;
+            }
+            this.dimension = dimension;
         }
 
-        private Vector<Double> categoricalMatchBetween(List<CategoricalFeature<?>> categorical, List<CategoricalFeature<?>> target) {
-            List<CategoricalFeature<?>> filteredCategorical = categorical.stream()
-                    .filter(c -> target.stream()
-                            .anyMatch(t -> t
-                                    .featureName()
-                                    .equals(c.featureName())))
+        public Query query(FeatureVector target) {
+            double[] numerical = target.toDouble().toArray();
+            if (numerical.length != dimension && !dataSet.isEmpty()) {
+                throw new VectorException("Vector length do not match. Vector length is: " + numerical.length + " and the other vector's length is: " + dimension);
+            }
+            List<CategoricalFeature<?>> categorical = target.categorical().stream()
+                    .filter(c -> dictionary.column(c.featureName()) != CategoricalDictionary.MISSING)
                     .collect(Collectors.toList());
+            int[] columns = categorical.stream().mapToInt(c -> dictionary.column(c.featureName())).toArray();
+            int[] codes = categorical.stream().mapToInt(dictionary::code).toArray();
+            return new Query(numerical, columns, codes);
+        }
 
-            return ListUtils.zip(target, filteredCategorical, CategoricalFeature::matches)
-                    .map(v -> v
-                            ? 0.0
-                            : 1.0)
-                    .collect(VectorCollector.toVector());
+        /**
+         * Gower distance between the query and a row: the numerical differences are scaled by the range of their
+         * column, the categorical features count as 0 when they match and 1 otherwise. Only the categorical features of
+         * the query that the row also has are compared. Columns where every sample has the same value count as a match.
+         */
+        public double score(Query query, int row) {
+            int offset = row * dimension;
+            int codes = row * dictionary.columns();
+            int columns = Math.max(dimension, query.columns.length);
+            int next = 0;
+            int compared = 0;
+            double sum = 0.0;
+            for (int i = 0; i < columns; i++) {
+                double numerical = i < dimension ? Math.abs(query.numerical[i] - rows[offset + i]) * inverseRange[i] : 0.0;
+                while (next < query.columns.length && categoricalDataSet[codes + query.columns[next]] == CategoricalDictionary.MISSING) {
+                    next++;
+                }
+                double categorical = 0.0;
+                if (next < query.columns.length) {
+                    categorical = categoricalDataSet[codes + query.columns[next]] == query.codes[next] ? 0.0 : 1.0;
+                    compared++;
+                    next++;
+                }
+                sum += numerical + categorical;
+            }
+            return sum / (dimension + compared);
         }
 
-        private Matrix<Double> calculateNumericalScore(Vector<Double> difference, Vector<Double> numericalTarget) {
-            return matrix.map(v -> numericalTarget.subtract(v).abs().divide(difference));
+        private final class Query {
+            private final double[] numerical;
+            private final int[] columns;
+            private final int[] codes;
 
+            private Query(double[] numerical, int[] columns, int[] codes) {
+                this.numerical = numerical;
+                this.columns = columns;
+                this.codes = codes;
+            }
         }
     }
 }
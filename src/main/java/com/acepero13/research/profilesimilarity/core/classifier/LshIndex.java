@@ -0,0 +1,454 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import com.acepero13.research.profilesimilarity.api.Vectorizable;
+import com.acepero13.research.profilesimilarity.core.Score;
+import com.acepero13.research.profilesimilarity.core.vectors.BitVector;
+import com.acepero13.research.profilesimilarity.core.vectors.NormalizedVector;
+import com.acepero13.research.profilesimilarity.core.vectors.VectorKernels;
+import com.acepero13.research.profilesimilarity.exceptions.ArgumentException;
+import com.acepero13.research.profilesimilarity.exceptions.VectorException;
+import com.acepero13.research.profilesimilarity.utils.TopK;
+import com.acepero13.research.profilesimilarity.utils.Tuple;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An approximate index that retrieves candidates with locality-sensitive hashing.
+ * <p>
+ * Every row gets a signature of {@code bands * rowsPerBand} hash values, chosen so that similar rows are likely to
+ * share values: for {@link Family#COSINE} the side of a random hyperplane on which the normalized numerical features
+ * lie, the hyperplanes going through the mean of the rows, and for {@link Family#JACCARD} the MinHash of the set of boolean categorical features (the one-hot features) of
+ * the row. Each band of the signature is a key in a table; a query collects the rows that share at least one band with
+ * it. Two rows with similarity {@code s} collide with probability {@code 1 - (1 - p(s)^rowsPerBand)^bands}, so more
+ * rows per band discard more dissimilar rows and more bands keep more similar ones.
+ * <p>
+ * The candidates are meant to be scored exactly, for instance with the {@link com.acepero13.research.profilesimilarity.api.Metric}
+ * of {@link MostSimilar}. A target that shares no band with any row falls back to every row. The tables are sorted
+ * arrays, built once; the index is immutable and can be shared across threads.
+ */
+public final class LshIndex implements ApproximateIndex {
+    private static final long SEED = 42L;
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    private final NeighborIndex exact;
+    private final Family family;
+    private final Parameters parameters;
+    private final double[] hyperplanes;
+    private final double[] offsets;
+    private final long[] multipliers;
+    private final long[] increments;
+    private final BitVector[] flags;
+    private final int dimension;
+    private final long[][] tables;
+
+    private LshIndex(NeighborIndex exact, Family family, Parameters parameters, int dimension, double[] center) {
+        this.exact = exact;
+        this.family = family;
+        this.parameters = parameters;
+        this.dimension = dimension;
+        int hashes = parameters.bands * parameters.rowsPerBand;
+        Random random = new Random(SEED);
+        if (family == Family.COSINE) {
+            this.hyperplanes = new double[hashes * dimension];
+            for (int i = 0; i < hyperplanes.length; i++) {
+                hyperplanes[i] = random.nextGaussian();
+            }
+            this.offsets = new double[hashes];
+            for (int plane = 0; plane < hashes; plane++) {
+                offsets[plane] = VectorKernels.dot(center, 0, hyperplanes, plane * dimension, dimension);
+            }
+            this.multipliers = null;
+            this.increments = null;
+            this.flags = null;
+        } else {
+            this.hyperplanes = null;
+            this.offsets = null;
+            this.multipliers = new long[hashes];
+            this.increments = new long[hashes];
+            for (int i = 0; i < hashes; i++) {
+                multipliers[i] = random.nextLong() | 1L;
+                increments[i] = random.nextLong();
+            }
+            this.flags = new BitVector[exact.size()];
+        }
+        this.tables = new long[parameters.bands][];
+    }
+
+    /**
+     * Hashes the rows of an exact index.
+     *
+     * @param index      the exact index whose rows are hashed
+     * @param family     the similarity the hashes approximate
+     * @param parameters the number of bands and of hashes per band
+     * @return a new index
+     */
+    public static LshIndex of(KnnIndex index, Family family, Parameters parameters) {
+        return build(requireNonNull(index), requireNonNull(family), requireNonNull(parameters), QueryExecutor.commonPool());
+    }
+
+    static LshIndex build(NeighborIndex exact, Family family, Parameters parameters, QueryExecutor executor) {
+        int size = exact.size();
+        int dimension = family == Family.JACCARD || size == 0 ? 0 : exact.row(0).size();
+        LshIndex index = new LshIndex(exact, family, parameters, dimension, family == Family.COSINE ? center(exact, dimension) : null);
+        int[][] keys = new int[size][];
+        executor.forEach(size, row -> keys[row] = index.keysOf(row));
+        for (int band = 0; band < parameters.bands; band++) {
+            int current = band;
+            // Rows without keys (an empty set of features for MinHash) are similar to nothing and are left out
+            index.tables[band] = IntStream.range(0, size)
+                    .filter(row -> keys[row] != null)
+                    .mapToLong(row -> entry(keys[row][current], row))
+                    .sorted()
+                    .toArray();
+        }
+        return index;
+    }
+
+    /**
+     * Returns the mean of the rows. Normalized rows all lie in the positive orthant, where every pair has a high
+     * cosine; hyperplanes through the mean split the rows themselves instead of the empty space around the origin.
+     */
+    private static double[] center(NeighborIndex exact, int dimension) {
+        double[] center = new double[dimension];
+        for (int row = 0; row < exact.size(); row++) {
+            double[] values = exact.row(row).toArray();
+            for (int i = 0; i < dimension && i < values.length; i++) {
+                center[i] += values[i] / exact.size();
+            }
+        }
+        return center;
+    }
+
+    private static long entry(int key, int row) {
+        return ((long) key << Integer.SIZE) | row;
+    }
+
+    private int[] keysOf(int row) {
+        if (family == Family.COSINE) {
+            return keys(vectorOf(exact.row(row)));
+        }
+        flags[row] = BitVector.of(exact.categorical(row));
+        return keys(flags[row]);
+    }
+
+    private double[] vectorOf(NormalizedVector vector) {
+        double[] values = vector.toArray();
+        if (values.length != dimension) {
+            throw new VectorException("Vector length do not match. Vector length is: " + values.length + " and the other vector's length is: " + dimension);
+        }
+        return values;
+    }
+
+    /**
+     * Returns one key per band: the sides of {@code rowsPerBand} random hyperplanes through the mean of the rows,
+     * packed into an int.
+     */
+    private int[] keys(double[] vector) {
+        int[] keys = new int[parameters.bands];
+        for (int band = 0; band < parameters.bands; band++) {
+            int key = 0;
+            for (int bit = 0; bit < parameters.rowsPerBand; bit++) {
+                int plane = band * parameters.rowsPerBand + bit;
+                if (VectorKernels.dot(vector, 0, hyperplanes, plane * dimension, dimension) >= offsets[plane]) {
+                    key |= 1 << bit;
+                }
+            }
+            keys[band] = key;
+        }
+        return keys;
+    }
+
+    /**
+     * Returns one key per band: the {@code rowsPerBand} MinHash values of the band, combined into an int, or null for
+     * an empty set.
+     */
+    private int[] keys(BitVector set) {
+        if (set.cardinality() == 0) {
+            return null;
+        }
+        int[] keys = new int[parameters.bands];
+        for (int band = 0; band < parameters.bands; band++) {
+            long key = band;
+            for (int hash = band * parameters.rowsPerBand; hash < (band + 1) * parameters.rowsPerBand; hash++) {
+                long min = Long.MAX_VALUE;
+                for (int element = 0; element < set.size(); element++) {
+                    if (set.get(element)) {
+                        // With an odd multiplier, a*x+b is a bijection of the longs: a random permutation of the elements
+                        min = Math.min(min, multipliers[hash] * (element + 1L) + increments[hash]);
+                    }
+                }
+                key = (key ^ min) * GOLDEN;
+            }
+            keys[band] = (int) (key >>> Integer.SIZE);
+        }
+        return keys;
+    }
+
+    /**
+     * Normalizes the numerical features of the target using the normalizer of the underlying exact index.
+     *
+     * @param target the target to normalize
+     * @return the normalized target
+     */
+    @Override
+    public NormalizedVector normalize(Vectorizable target) {
+        return exact.normalize(target);
+    }
+
+    /**
+     * Returns the k candidates closest to the target, sorted by ascending distance: one minus the cosine similarity of
+     * the normalized numerical features for {@link Family#COSINE}, and one minus the Jaccard similarity of the boolean
+     * categorical features for {@link Family#JACCARD}.
+     *
+     * @param target the target to compare against the index
+     * @param k      the number of neighbors to return
+     * @return the scores of the k nearest samples that were found
+     * @throws VectorException if the target does not have the dimension of the index
+     */
+    @Override
+    public List<Score> nearest(Vectorizable target, int k) {
+        Query query = new Query(target);
+        TopK nearest = TopK.of(k);
+        for (int row : candidates(query)) {
+            nearest.offer(row, query.distanceTo(row));
+        }
+        int[] indices = nearest.indices();
+        double[] distances = nearest.scores();
+        List<Score> scores = new ArrayList<>(indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            scores.add(new Score(distances[i], exact.sample(indices[i]).toFeatureVector()));
+        }
+        return scores;
+    }
+
+    /**
+     * Returns the k candidates closest to each of the targets. The targets are searched in parallel on the common
+     * fork/join pool.
+     *
+     * @param targets the targets to compare against the index
+     * @param k       the number of neighbors to return for every target
+     * @return the scores of the k nearest samples of every target, in the order of the targets
+     */
+    @Override
+    public List<List<Score>> nearest(List<? extends Vectorizable> targets, int k) {
+        return nearest(targets, k, QueryExecutor.commonPool());
+    }
+
+    /**
+     * Returns the positions of the samples that share at least one band with the target, in ascending order, or of
+     * every sample if there is none.
+     *
+     * @param target the target to compare against the index
+     * @return the positions of the candidates
+     */
+    @Override
+    public int[] candidates(Vectorizable target) {
+        return candidates(new Query(target));
+    }
+
+    private int[] candidates(Query query) {
+        int[] keys = query.keys();
+        if (keys == null) {
+            return IntStream.range(0, size()).toArray();
+        }
+        int[] found = new int[16];
+        int count = 0;
+        for (int band = 0; band < parameters.bands; band++) {
+            long[] table = tables[band];
+            int position = Arrays.binarySearch(table, entry(keys[band], 0));
+            for (position = position < 0 ? -position - 1 : position;
+                 position < table.length && (int) (table[position] >> Integer.SIZE) == keys[band]; position++) {
+                if (count == found.length) {
+                    found = Arrays.copyOf(found, count * 2);
+                }
+                found[count++] = (int) table[position];
+            }
+        }
+        int[] candidates = IntStream.of(Arrays.copyOf(found, count)).sorted().distinct().toArray();
+        return candidates.length == 0 ? IntStream.range(0, size()).toArray() : candidates;
+    }
+
+    /**
+     * Finds the pairs of samples whose similarity is at least the given value, among the pairs that share a band. Only
+     * the colliding pairs are compared, so the cost depends on the size of the buckets rather than on the square of
+     * the number of samples.
+     *
+     * @param minSimilarity the lowest cosine or Jaccard similarity of a pair
+     * @return the pairs of near-duplicate samples, ordered by the position of their first and then second sample
+     */
+    public List<Tuple<Vectorizable, Vectorizable>> nearDuplicates(double minSimilarity) {
+        Set<Long> pairs = new HashSet<>();
+        for (long[] table : tables) {
+            int start = 0;
+            while (start < table.length) {
+                int end = start + 1;
+                while (end < table.length && (table[end] >> Integer.SIZE) == (table[start] >> Integer.SIZE)) {
+                    end++;
+                }
+                for (int first = start; first < end; first++) {
+                    for (int second = first + 1; second < end; second++) {
+                        pairs.add(((long) (int) table[first] << Integer.SIZE) | (int) table[second]);
+                    }
+                }
+                start = end;
+            }
+        }
+        double[][] rows = family == Family.COSINE ? new double[size()][] : null;
+        return pairs.stream()
+                .sorted()
+                .filter(pair -> 1.0 - distance(rows, (int) (pair >> Integer.SIZE), (int) (long) pair) >= minSimilarity)
+                .map(pair -> Tuple.of(exact.sample((int) (pair >> Integer.SIZE)), exact.sample((int) (long) pair)))
+                .collect(Collectors.toList());
+    }
+
+    private double distance(double[][] rows, int first, int second) {
+        if (family == Family.JACCARD) {
+            return jaccardDistance(flags[first], flags[second]);
+        }
+        return 1.0 - VectorKernels.cosine(rowOf(rows, first), 0, rowOf(rows, second), 0, dimension);
+    }
+
+    private double[] rowOf(double[][] rows, int row) {
+        if (rows[row] == null) {
+            rows[row] = vectorOf(exact.row(row));
+        }
+        return rows[row];
+    }
+
+    private static double jaccardDistance(BitVector set, BitVector another) {
+        if (set.size() != another.size()) {
+            return 1.0;
+        }
+        int union = set.orCardinality(another);
+        return union == 0 ? 1.0 : 1.0 - (double) set.andCardinality(another) / union;
+    }
+
+    @Override
+    public int size() {
+        return exact.size();
+    }
+
+    @Override
+    public Vectorizable sample(int index) {
+        return exact.sample(index);
+    }
+
+    @Override
+    public NormalizedVector row(int index) {
+        return exact.row(index);
+    }
+
+    public Parameters parameters() {
+        return parameters;
+    }
+
+    /**
+     * A target, hashed once and compared with the candidates.
+     */
+    private final class Query {
+        private final double[] vector;
+        private final BitVector set;
+
+        private Query(Vectorizable target) {
+            requireNonNull(target, "Target cannot be null");
+            if (family == Family.COSINE) {
+                this.vector = size() == 0 ? new double[0] : vectorOf(normalize(target));
+                this.set = null;
+            } else {
+                this.vector = null;
+                this.set = BitVector.of(target.toFeatureVector().categorical());
+            }
+        }
+
+        int[] keys() {
+            return family == Family.COSINE ? LshIndex.this.keys(vector) : LshIndex.this.keys(set);
+        }
+
+        double distanceTo(int row) {
+            if (family == Family.JACCARD) {
+                return jaccardDistance(set, flags[row]);
+            }
+            return 1.0 - VectorKernels.cosine(vector, 0, vectorOf(exact.row(row)), 0, dimension);
+        }
+    }
+
+    /**
+     * The similarity approximated by the hashes.
+     */
+    public enum Family {
+        /**
+         * The cosine similarity of the normalized numerical features, as
+         * {@link com.acepero13.research.profilesimilarity.scores.Metrics#cosineSimilarity()}, hashed with random
+         * hyperplanes.
+         */
+        COSINE,
+        /**
+         * The Jaccard similarity of the boolean categorical features, as
+         * {@link com.acepero13.research.profilesimilarity.scores.Metrics#jaccardDistance()}, hashed with MinHash.
+         */
+        JACCARD
+    }
+
+    /**
+     * The parameters of the hash tables.
+     * <ul>
+     *     <li>{@code bands}: the number of tables. More bands find more of the similar samples.</li>
+     *     <li>{@code rowsPerBand}: the number of hashes combined into the key of a table, at most 32. More hashes per
+     *     band return fewer dissimilar candidates.</li>
+     * </ul>
+     */
+    public static final class Parameters {
+        private static final int MAX_ROWS_PER_BAND = Integer.SIZE;
+
+        private final int bands;
+        private final int rowsPerBand;
+
+        private Parameters(int bands, int rowsPerBand) {
+            this.bands = bands;
+            this.rowsPerBand = rowsPerBand;
+        }
+
+        /**
+         * Creates new parameters.
+         *
+         * @param bands       the number of tables
+         * @param rowsPerBand the number of hashes per table
+         * @return the parameters
+         * @throws ArgumentException if bands is lower than 1 or rowsPerBand is not between 1 and 32
+         */
+        public static Parameters of(int bands, int rowsPerBand) {
+            if (bands < 1 || rowsPerBand < 1 || rowsPerBand > MAX_ROWS_PER_BAND) {
+                throw new ArgumentException("Invalid LSH parameters. Expected bands >= 1 and 1 <= rowsPerBand <= 32, but got bands: "
+                        + bands + ", rowsPerBand: " + rowsPerBand);
+            }
+            return new Parameters(bands, rowsPerBand);
+        }
+
+        /**
+         * Returns the default parameters: 16 bands of 8 hashes. Two sets with a Jaccard similarity of 0.75 share a band
+         * with a probability above 0.8, and one with a similarity of 0.5 with a probability below 0.1.
+         *
+         * @return the default parameters
+         */
+        public static Parameters defaults() {
+            return new Parameters(16, 8);
+        }
+
+        public int bands() {
+            return bands;
+        }
+
+        public int rowsPerBand() {
+            return rowsPerBand;
+        }
+    }
+}
@@ -0,0 +1,766 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import com.acepero13.research.profilesimilarity.api.Vectorizable;
+import com.acepero13.research.profilesimilarity.api.features.CategoricalFeature;
+import com.acepero13.research.profilesimilarity.api.features.Feature;
+import com.acepero13.research.profilesimilarity.api.features.Features;
+import com.acepero13.research.profilesimilarity.core.AbstractVectorizable;
+import com.acepero13.research.profilesimilarity.core.CategoricalDictionary;
+import com.acepero13.research.profilesimilarity.core.Score;
+import com.acepero13.research.profilesimilarity.core.proxy.CategoricalFeatureProxy;
+import com.acepero13.research.profilesimilarity.core.vectors.DoubleVector;
+import com.acepero13.research.profilesimilarity.core.vectors.NormalizedVector;
+import com.acepero13.research.profilesimilarity.exceptions.ArgumentException;
+import com.acepero13.research.profilesimilarity.exceptions.VectorException;
+import com.acepero13.research.profilesimilarity.utils.MinMax;
+import com.acepero13.research.profilesimilarity.utils.MinMaxVector;
+import com.acepero13.research.profilesimilarity.utils.TopK;
+import lombok.EqualsAndHashCode;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A data set stored in a compact binary file and queried directly from memory-mapped buffers.
+ * <p>
+ * The file holds the feature schema, the {@link MinMaxVector} of every numerical column, the min-max normalized
+ * numerical matrix and the categorical features encoded as dictionary codes. Opening a file only reads the schema and
+ * the dictionaries; the rows stay off-heap and are read by the scans through {@link FileChannel#map}. Samples are
+ * decoded back into features only when they are returned as neighbors.
+ * <p>
+ * The layout is a header ({@code MAGIC}, {@code VERSION} and the length of the metadata), the metadata written with
+ * {@link DataOutputStream}, then the numerical section ({@code rows x columns} little-endian doubles) and the
+ * categorical section ({@code rows x columns} little-endian ints, {@code -1} when a row does not have the feature).
+ * A missing numerical feature is stored as {@code NaN}. Every section is mapped in chunks of whole rows, so a file
+ * can be larger than a single buffer.
+ * <p>
+ * Categorical values are restored as the enum constant when the feature is an enum, as a categorical boolean for
+ * one-hot encoded features, and as a proxy of the original value otherwise. Values that are not enums, strings,
+ * booleans or numbers are stored as their string representation.
+ */
+public final class MappedDataSet extends ColumnarDataSet {
+    private static final int MAGIC = 0x4B4E4E44;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 3 * Integer.BYTES;
+    private static final int ALIGNMENT = Double.BYTES;
+    private static final int MISSING = -1;
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+    /**
+     * Maximum number of bytes of a mapped chunk.
+     */
+    private static final long CHUNK_SIZE = 1L << 30;
+
+    private final int rows;
+    private final String[] numericalNames;
+    private final double[] min;
+    private final double[] max;
+    private final String[] categoricalNames;
+    private final CategoricalFeature<?>[][] dictionary;
+    private final CategoricalDictionary categoricalDictionary;
+    private final Map<String, Integer> numericalColumns;
+    private final Section numerical;
+    private final Section codes;
+    private final ConcurrentMap<FeatureSchema, Projection> projections = new ConcurrentHashMap<>();
+
+    private MappedDataSet(Metadata metadata, Section numerical, Section codes) {
+        this.rows = metadata.rows;
+        this.numericalNames = metadata.numericalNames;
+        this.min = metadata.min;
+        this.max = metadata.max;
+        this.categoricalNames = metadata.categoricalNames;
+        this.dictionary = metadata.decodeDictionary();
+        this.categoricalDictionary = CategoricalDictionary.of(dictionaryRows(dictionary));
+        this.numericalColumns = new LinkedHashMap<>();
+        for (int column = 0; column < numericalNames.length; column++) {
+            numericalColumns.put(numericalNames[column], column);
+        }
+        this.numerical = numerical;
+        this.codes = codes;
+    }
+
+    /**
+     * Writes the data points to a file that can be opened with {@link #open(Path)}.
+     *
+     * @param dataPoints the data set
+     * @param path       the file to write. An existing file is overwritten
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(List<? extends Vectorizable> dataPoints, Path path) throws IOException {
+        requireNonNull(dataPoints, "Data points cannot be null");
+        requireNonNull(path, "Path cannot be null");
+        Metadata metadata = Metadata.of(dataPoints);
+        byte[] header = metadata.toBytes();
+        long numericalOffset = align(HEADER_SIZE + (long) header.length);
+        long codesOffset = numericalOffset + (long) metadata.rows * metadata.numericalNames.length * Double.BYTES;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer start = ByteBuffer.allocate(HEADER_SIZE + header.length);
+            start.putInt(MAGIC).putInt(VERSION).putInt(header.length).put(header).flip();
+            writeFully(channel, start, 0);
+            writeNumerical(channel, dataPoints, metadata, numericalOffset);
+            writeCodes(channel, dataPoints, metadata, codesOffset);
+        }
+    }
+
+    /**
+     * Opens a file written by {@link #write(List, Path)}. Only the schema and the dictionaries are read; the rows are
+     * mapped into memory.
+     *
+     * @param path the file to open
+     * @return the mapped data set
+     * @throws IOException       if the file cannot be read
+     * @throws ArgumentException if the file is not a data set file
+     */
+    public static MappedDataSet open(Path path) throws IOException {
+        return open(path, CHUNK_SIZE);
+    }
+
+    /**
+     * Opens a file written by {@link #write(List, Path)}, mapping its sections in chunks of at most the given number of
+     * bytes. A chunk holds at least one row.
+     */
+    static MappedDataSet open(Path path, long chunkSize) throws IOException {
+        requireNonNull(path, "Path cannot be null");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer start = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, start, 0);
+            start.flip();
+            if (start.getInt() != MAGIC) {
+                throw new ArgumentException("Not a data set file: " + path);
+            }
+            int version = start.getInt();
+            if (version != VERSION) {
+                throw new ArgumentException("Unsupported data set version: " + version);
+            }
+            ByteBuffer header = ByteBuffer.allocate(start.getInt());
+            readFully(channel, header, HEADER_SIZE);
+            Metadata metadata = Metadata.of(header.array());
+
+            long numericalOffset = align(HEADER_SIZE + (long) header.capacity());
+            long numericalSize = (long) metadata.rows * metadata.numericalNames.length * Double.BYTES;
+            Section numerical = Section.map(channel, numericalOffset, metadata.rows, metadata.numericalNames.length * Double.BYTES, chunkSize);
+            Section codes = Section.map(channel, numericalOffset + numericalSize, metadata.rows, metadata.categoricalNames.length * Integer.BYTES, chunkSize);
+            return new MappedDataSet(metadata, numerical, codes);
+        }
+    }
+
+    private static void writeNumerical(FileChannel channel, List<? extends Vectorizable> dataPoints, Metadata metadata, long offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        double[] values = new double[metadata.numericalNames.length];
+        for (Vectorizable dataPoint : dataPoints) {
+            Arrays.fill(values, Double.NaN);
+            for (Feature<?> feature : dataPoint.numericalFeatures()) {
+                int column = metadata.numericalColumns.get(feature.featureName());
+                double difference = metadata.max[column] - metadata.min[column];
+                values[column] = (feature.featureValue() - metadata.min[column]) / difference;
+            }
+            for (double value : values) {
+                if (!buffer.hasRemaining()) {
+                    offset += flush(channel, buffer, offset);
+                }
+                buffer.putDouble(value);
+            }
+        }
+        flush(channel, buffer, offset);
+    }
+
+    private static void writeCodes(FileChannel channel, List<? extends Vectorizable> dataPoints, Metadata metadata, long offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        int[] values = new int[metadata.categoricalNames.length];
+        for (Vectorizable dataPoint : dataPoints) {
+            Arrays.fill(values, MISSING);
+            for (CategoricalFeature<?> feature : dataPoint.toFeatureVector().categorical()) {
+                int column = metadata.categoricalColumns.get(feature.featureName());
+                values[column] = metadata.dictionary.get(column).get(EncodedValue.of(feature));
+            }
+            for (int value : values) {
+                if (!buffer.hasRemaining()) {
+                    offset += flush(channel, buffer, offset);
+                }
+                buffer.putInt(value);
+            }
+        }
+        flush(channel, buffer, offset);
+    }
+
+    private static int flush(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+        buffer.flip();
+        int written = buffer.remaining();
+        writeFully(channel, buffer, offset);
+        buffer.clear();
+        return written;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            offset += channel.write(buffer, offset);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, offset);
+            if (read < 0) {
+                throw new ArgumentException("Unexpected end of data set file");
+            }
+            offset += read;
+        }
+    }
+
+    private static long align(long position) {
+        return (position + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    /**
+     * Returns the number of samples in the data set.
+     *
+     * @return the number of samples
+     */
+    @Override
+    public int size() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of chunks the numerical section is mapped in.
+     */
+    int chunks() {
+        return numerical.chunks();
+    }
+
+    /**
+     * Returns the minimum and maximum of every numerical column, in the order of {@link #numericalFeatureNames()}.
+     *
+     * @return the minimum and maximum of every numerical column
+     */
+    public MinMaxVector minMax() {
+        return new MinMaxVector(DoubleVector.of(min.clone()), DoubleVector.of(max.clone()));
+    }
+
+    /**
+     * Returns the names of the numerical columns.
+     *
+     * @return the names of the numerical columns
+     */
+    public List<String> numericalFeatureNames() {
+        return List.of(numericalNames);
+    }
+
+    /**
+     * Returns the names of the categorical columns.
+     *
+     * @return the names of the categorical columns
+     */
+    public List<String> categoricalFeatureNames() {
+        return List.of(categoricalNames);
+    }
+
+    /**
+     * Decodes the sample stored at the given position.
+     *
+     * @param index the position of the sample
+     * @return the decoded sample, with the original numerical values and categorical features
+     */
+    @Override
+    public Vectorizable sample(int index) {
+        return new DecodedSample(features(index));
+    }
+
+    /**
+     * Returns the k samples closest to the target, sorted by ascending Euclidean distance, using the same
+     * normalization and weighting as {@link Knn}.
+     *
+     * @param target the target to compare against the data set
+     * @param k      the number of neighbors to return
+     * @return the scores of the k nearest samples
+     * @throws VectorException if the data set does not have one of the numerical features of the target
+     */
+    public List<Score> nearest(Vectorizable target, int k) {
+        return projection(target).nearest(target, k);
+    }
+
+    @Override
+    NeighborIndex projection(Vectorizable target) {
+        requireNonNull(target, "Target cannot be null");
+        return projections.computeIfAbsent(FeatureSchema.of(target), Projection::new);
+    }
+
+    @Override
+    List<CategoricalFeature<?>> categorical(int index) {
+        Objects.checkIndex(index, rows);
+        List<CategoricalFeature<?>> categorical = new ArrayList<>(categoricalNames.length);
+        ByteBuffer chunk = codes.chunk(index);
+        int offset = codes.position(index);
+        for (int column = 0; column < categoricalNames.length; column++) {
+            int code = chunk.getInt(offset + column * Integer.BYTES);
+            if (code != MISSING) {
+                categorical.add(dictionary[column][code]);
+            }
+        }
+        return categorical;
+    }
+
+    @Override
+    CategoricalDictionary categoricalDictionary() {
+        return categoricalDictionary;
+    }
+
+    @Override
+    void readCodes(int index, int[] buffer) {
+        Objects.checkIndex(index, rows);
+        ByteBuffer chunk = codes.chunk(index);
+        int offset = codes.position(index);
+        for (int column = 0; column < categoricalNames.length; column++) {
+            buffer[column] = chunk.getInt(offset + column * Integer.BYTES);
+        }
+    }
+
+    /**
+     * Lays out the decoded dictionary so that {@link CategoricalDictionary#of(List)} assigns the same columns and codes
+     * as the file: row {@code i} holds the value with code {@code i} of every column that has one.
+     */
+    private static List<List<CategoricalFeature<?>>> dictionaryRows(CategoricalFeature<?>[][] dictionary) {
+        int values = Arrays.stream(dictionary).mapToInt(column -> column.length).max().orElse(0);
+        List<List<CategoricalFeature<?>>> rows = new ArrayList<>(values);
+        for (int code = 0; code < values; code++) {
+            List<CategoricalFeature<?>> row = new ArrayList<>(dictionary.length);
+            for (CategoricalFeature<?>[] column : dictionary) {
+                if (code < column.length) {
+                    row.add(column[code]);
+                }
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private List<Feature<?>> features(int index) {
+        Objects.checkIndex(index, rows);
+        List<Feature<?>> features = new ArrayList<>(numericalNames.length + categoricalNames.length);
+        ByteBuffer chunk = numerical.chunk(index);
+        int offset = numerical.position(index);
+        for (int column = 0; column < numericalNames.length; column++) {
+            double value = chunk.getDouble(offset + column * Double.BYTES);
+            if (!Double.isNaN(value)) {
+                features.add(Features.doubleFeature(value * (max[column] - min[column]) + min[column], numericalNames[column]));
+            }
+        }
+        features.addAll(categorical(index));
+        return features;
+    }
+
+    /**
+     * The numerical columns of the data set used by one feature schema, with the weights of the schema.
+     */
+    private final class Projection implements NeighborIndex {
+        private final FeatureSchema schema;
+        private final int[] columns;
+        private final double[] weights;
+
+        private Projection(FeatureSchema schema) {
+            this.schema = schema;
+            this.columns = schema.columnsIn(numericalColumns);
+            this.weights = schema.weights().toArray();
+        }
+
+        @Override
+        public NormalizedVector normalize(Vectorizable target) {
+            return NormalizedVector.of(DoubleVector.of(query(target)));
+        }
+
+        private double[] query(Vectorizable target) {
+            double[] values = schema.project(target);
+            if (values.length != columns.length) {
+                throw new VectorException("Vector length do not match. Vector length is: " + values.length + " and the other vector's length is: " + columns.length);
+            }
+            for (int i = 0; i < values.length; i++) {
+                values[i] = (values[i] - min[columns[i]]) / (max[columns[i]] - min[columns[i]]);
+            }
+            return values;
+        }
+
+        private double squaredDistance(double[] query, int queryOffset, int row) {
+            ByteBuffer chunk = numerical.chunk(row);
+            int offset = numerical.position(row);
+            double sum = 0.0;
+            for (int i = 0; i < columns.length; i++) {
+                double difference = query[queryOffset + i] - weights[i] * chunk.getDouble(offset + columns[i] * Double.BYTES);
+                sum += difference * difference;
+            }
+            return sum;
+        }
+
+        @Override
+        public List<Score> nearest(Vectorizable target, int k) {
+            return nearest(target, k, QueryExecutor.commonPool());
+        }
+
+        @Override
+        public List<Score> nearest(Vectorizable target, int k, QueryExecutor executor) {
+            double[] query = query(requireNonNull(target, "Target cannot be null"));
+            TopK nearest = executor.collect(rows, () -> TopK.of(k), (heap, row) -> heap.offer(row, squaredDistance(query, 0, row)), TopK::merge);
+            return toScores(nearest);
+        }
+
+        @Override
+        public List<List<Score>> nearest(List<? extends Vectorizable> targets, int k) {
+            return nearest(targets, k, QueryExecutor.commonPool());
+        }
+
+        @Override
+        public List<List<Score>> nearest(List<? extends Vectorizable> targets, int k, QueryExecutor executor) {
+            requireNonNull(targets, "Targets cannot be null");
+            if (!TiledScan.isWorthTiling(targets.size(), executor)) {
+                return targets.stream().map(t -> nearest(t, k, executor)).collect(Collectors.toList());
+            }
+            int dimension = columns.length;
+            double[] queries = new double[targets.size() * dimension];
+            for (int i = 0; i < targets.size(); i++) {
+                System.arraycopy(query(targets.get(i)), 0, queries, i * dimension, dimension);
+            }
+            TopK[] nearest = TiledScan.select(targets.size(), rows, numericalNames.length, k, executor,
+                    (query, row) -> squaredDistance(queries, query * dimension, row));
+            return Arrays.stream(nearest).map(this::toScores).collect(Collectors.toList());
+        }
+
+        private List<Score> toScores(TopK nearest) {
+            int[] indices = nearest.indices();
+            double[] distances = nearest.scores();
+            List<Score> scores = new ArrayList<>(indices.length);
+            for (int i = 0; i < indices.length; i++) {
+                scores.add(new Score(Math.sqrt(distances[i]), sample(indices[i]).toFeatureVector()));
+            }
+            return scores;
+        }
+
+        @Override
+        public int size() {
+            return rows;
+        }
+
+        @Override
+        public Vectorizable sample(int index) {
+            return MappedDataSet.this.sample(index);
+        }
+
+        @Override
+        public void readRow(int index, double[] buffer) {
+            Objects.checkIndex(index, rows);
+            ByteBuffer chunk = numerical.chunk(index);
+            int offset = numerical.position(index);
+            for (int i = 0; i < columns.length; i++) {
+                buffer[i] = weights[i] * chunk.getDouble(offset + columns[i] * Double.BYTES);
+            }
+        }
+
+        @Override
+        public NormalizedVector row(int index) {
+            Objects.checkIndex(index, rows);
+            ByteBuffer chunk = numerical.chunk(index);
+            int offset = numerical.position(index);
+            double[] values = new double[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                values[i] = weights[i] * chunk.getDouble(offset + columns[i] * Double.BYTES);
+            }
+            return NormalizedVector.of(DoubleVector.of(values));
+        }
+    }
+
+    /**
+     * A section of the file holding one fixed-size record per row, mapped in chunks of whole rows so that no row spans
+     * two buffers. Byte offsets within the file are longs; offsets within a chunk fit in an int.
+     */
+    private static final class Section {
+        private final ByteBuffer[] chunks;
+        private final int rowsPerChunk;
+        private final int rowSize;
+
+        private Section(ByteBuffer[] chunks, int rowsPerChunk, int rowSize) {
+            this.chunks = chunks;
+            this.rowsPerChunk = rowsPerChunk;
+            this.rowSize = rowSize;
+        }
+
+        private static Section map(FileChannel channel, long offset, int rows, int rowSize, long chunkSize) throws IOException {
+            if (rowSize == 0 || rows == 0) {
+                return new Section(new ByteBuffer[]{ByteBuffer.allocate(0)}, Integer.MAX_VALUE, rowSize);
+            }
+            int rowsPerChunk = (int) Math.max(1, Math.min(rows, Math.min(chunkSize, Integer.MAX_VALUE) / rowSize));
+            ByteBuffer[] chunks = new ByteBuffer[(rows + rowsPerChunk - 1) / rowsPerChunk];
+            for (int chunk = 0; chunk < chunks.length; chunk++) {
+                int chunkRows = Math.min(rowsPerChunk, rows - chunk * rowsPerChunk);
+                long start = offset + (long) chunk * rowsPerChunk * rowSize;
+                chunks[chunk] = channel.map(FileChannel.MapMode.READ_ONLY, start, (long) chunkRows * rowSize)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return new Section(chunks, rowsPerChunk, rowSize);
+        }
+
+        /**
+         * Returns the chunk holding the given row.
+         */
+        private ByteBuffer chunk(int row) {
+            return chunks[row / rowsPerChunk];
+        }
+
+        /**
+         * Returns the position of the first byte of the given row within its chunk.
+         */
+        private int position(int row) {
+            return row % rowsPerChunk * rowSize;
+        }
+
+        private int chunks() {
+            return chunks.length;
+        }
+    }
+
+    private static final class DecodedSample extends AbstractVectorizable {
+        private DecodedSample(List<Feature<?>> features) {
+            features.forEach(this::addNonNullFeature);
+        }
+
+        @Override
+        public String toString() {
+            return "DecodedSample" + features();
+        }
+    }
+
+    /**
+     * The schema, the ranges and the categorical dictionaries of a data set file.
+     */
+    private static final class Metadata {
+        private final int rows;
+        private final String[] numericalNames;
+        private final double[] min;
+        private final double[] max;
+        private final String[] categoricalNames;
+        private final List<Map<EncodedValue, Integer>> dictionary;
+        private final Map<String, Integer> numericalColumns = new LinkedHashMap<>();
+        private final Map<String, Integer> categoricalColumns = new LinkedHashMap<>();
+
+        private Metadata(int rows, String[] numericalNames, double[] min, double[] max, String[] categoricalNames,
+                         List<Map<EncodedValue, Integer>> dictionary) {
+            this.rows = rows;
+            this.numericalNames = numericalNames;
+            this.min = min;
+            this.max = max;
+            this.categoricalNames = categoricalNames;
+            this.dictionary = dictionary;
+            for (int column = 0; column < numericalNames.length; column++) {
+                numericalColumns.put(numericalNames[column], column);
+            }
+            for (int column = 0; column < categoricalNames.length; column++) {
+                categoricalColumns.put(categoricalNames[column], column);
+            }
+        }
+
+        private static Metadata of(List<? extends Vectorizable> dataPoints) {
+            Map<String, MinMaxAccumulator> numerical = new LinkedHashMap<>();
+            Map<String, Map<EncodedValue, Integer>> categorical = new LinkedHashMap<>();
+            for (Vectorizable dataPoint : dataPoints) {
+                for (Feature<?> feature : dataPoint.numericalFeatures()) {
+                    numerical.computeIfAbsent(feature.featureName(), name -> new MinMaxAccumulator())
+                            .accept(feature.featureValue());
+                }
+                for (CategoricalFeature<?> feature : dataPoint.toFeatureVector().categorical()) {
+                    Map<EncodedValue, Integer> values = categorical.computeIfAbsent(feature.featureName(), name -> new LinkedHashMap<>());
+                    values.putIfAbsent(EncodedValue.of(feature), values.size());
+                }
+            }
+            double[] min = new double[numerical.size()];
+            double[] max = new double[numerical.size()];
+            int column = 0;
+            for (MinMaxAccumulator accumulator : numerical.values()) {
+                MinMax minMax = accumulator.toMinMax();
+                min[column] = minMax.min();
+                max[column++] = minMax.max();
+            }
+            return new Metadata(dataPoints.size(), numerical.keySet().toArray(String[]::new), min, max,
+                    categorical.keySet().toArray(String[]::new), new ArrayList<>(categorical.values()));
+        }
+
+        private static Metadata of(byte[] bytes) throws IOException {
+            try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes))) {
+                int rows = input.readInt();
+                String[] numericalNames = new String[input.readInt()];
+                double[] min = new double[numericalNames.length];
+                double[] max = new double[numericalNames.length];
+                for (int column = 0; column < numericalNames.length; column++) {
+                    numericalNames[column] = input.readUTF();
+                    min[column] = input.readDouble();
+                    max[column] = input.readDouble();
+                }
+                String[] categoricalNames = new String[input.readInt()];
+                List<Map<EncodedValue, Integer>> dictionary = new ArrayList<>(categoricalNames.length);
+                for (int column = 0; column < categoricalNames.length; column++) {
+                    categoricalNames[column] = input.readUTF();
+                    int size = input.readInt();
+                    Map<EncodedValue, Integer> values = new LinkedHashMap<>();
+                    for (int code = 0; code < size; code++) {
+                        values.put(EncodedValue.read(input), code);
+                    }
+                    dictionary.add(values);
+                }
+                return new Metadata(rows, numericalNames, min, max, categoricalNames, dictionary);
+            }
+        }
+
+        private byte[] toBytes() throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream output = new DataOutputStream(bytes)) {
+                output.writeInt(rows);
+                output.writeInt(numericalNames.length);
+                for (int column = 0; column < numericalNames.length; column++) {
+                    output.writeUTF(numericalNames[column]);
+                    output.writeDouble(min[column]);
+                    output.writeDouble(max[column]);
+                }
+                output.writeInt(categoricalNames.length);
+                for (int column = 0; column < categoricalNames.length; column++) {
+                    output.writeUTF(categoricalNames[column]);
+                    output.writeInt(dictionary.get(column).size());
+                    for (EncodedValue value : dictionary.get(column).keySet()) {
+                        value.write(output);
+                    }
+                }
+            }
+            return bytes.toByteArray();
+        }
+
+        private CategoricalFeature<?>[][] decodeDictionary() {
+            CategoricalFeature<?>[][] decoded = new CategoricalFeature<?>[categoricalNames.length][];
+            for (int column = 0; column < categoricalNames.length; column++) {
+                String name = categoricalNames[column];
+                decoded[column] = dictionary.get(column).keySet().stream()
+                        .map(value -> value.decode(name))
+                        .toArray(CategoricalFeature<?>[]::new);
+            }
+            return decoded;
+        }
+    }
+
+    private static final class MinMaxAccumulator {
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+
+        private void accept(double value) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        private MinMax toMinMax() {
+            return new MinMax(min, max);
+        }
+    }
+
+    /**
+     * A categorical value as it is stored in the dictionary of a column.
+     */
+    @EqualsAndHashCode
+    private static final class EncodedValue {
+        private static final byte ENUM_FEATURE = 0;
+        private static final byte BOOLEAN = 1;
+        private static final byte ENUM = 2;
+        private static final byte STRING = 3;
+        private static final byte INTEGER = 4;
+        private static final byte LONG = 5;
+        private static final byte DOUBLE = 6;
+
+        private final byte kind;
+        private final String type;
+        private final String value;
+
+        private EncodedValue(byte kind, String type, String value) {
+            this.kind = kind;
+            this.type = type;
+            this.value = value;
+        }
+
+        private static EncodedValue of(CategoricalFeature<?> feature) {
+            if (feature instanceof Enum) {
+                Enum<?> constant = (Enum<?>) feature;
+                return new EncodedValue(ENUM_FEATURE, constant.getDeclaringClass().getName(), constant.name());
+            }
+            Object original = feature.originalValue();
+            if (original instanceof Boolean) {
+                return new EncodedValue(BOOLEAN, "", original.toString());
+            }
+            if (original instanceof Enum) {
+                Enum<?> constant = (Enum<?>) original;
+                return new EncodedValue(ENUM, constant.getDeclaringClass().getName(), constant.name());
+            }
+            if (original instanceof Integer) {
+                return new EncodedValue(INTEGER, "", original.toString());
+            }
+            if (original instanceof Long) {
+                return new EncodedValue(LONG, "", original.toString());
+            }
+            if (original instanceof Double) {
+                return new EncodedValue(DOUBLE, "", original.toString());
+            }
+            return new EncodedValue(STRING, "", String.valueOf(original));
+        }
+
+        private static EncodedValue read(DataInputStream input) throws IOException {
+            return new EncodedValue(input.readByte(), input.readUTF(), input.readUTF());
+        }
+
+        private void write(DataOutputStream output) throws IOException {
+            output.writeByte(kind);
+            output.writeUTF(type);
+            output.writeUTF(value);
+        }
+
+        private CategoricalFeature<?> decode(String name) {
+            switch (kind) {
+                case ENUM_FEATURE:
+                    return (CategoricalFeature<?>) enumConstant();
+                case BOOLEAN:
+                    return (CategoricalFeature<?>) Features.categoricalBoolean(Boolean.valueOf(value), name);
+                case ENUM:
+                    return CategoricalFeatureProxy.of(enumConstant(), name);
+                case INTEGER:
+                    return CategoricalFeatureProxy.of(Integer.valueOf(value), name);
+                case LONG:
+                    return CategoricalFeatureProxy.of(Long.valueOf(value), name);
+                case DOUBLE:
+                    return CategoricalFeatureProxy.of(Double.valueOf(value), name);
+                default:
+                    return CategoricalFeatureProxy.of(value, name);
+            }
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private Enum<?> enumConstant() {
+            try {
+                ClassLoader loader = Thread.currentThread().getContextClassLoader();
+                Class<? extends Enum> enumType = (Class<? extends Enum>) Class.forName(type, true,
+                        loader == null ? MappedDataSet.class.getClassLoader() : loader);
+                return Enum.valueOf(enumType, value);
+            } catch (ClassNotFoundException e) {
+                throw new ArgumentException("Could not find the categorical type: " + type);
+            }
+        }
+    }
+}
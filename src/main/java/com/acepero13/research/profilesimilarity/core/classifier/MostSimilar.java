@@ -1,27 +1,23 @@
 package com.acepero13.research.profilesimilarity.core.classifier;
 
 import com.acepero13.research.profilesimilarity.api.Metric;
-import com.acepero13.research.profilesimilarity.api.Normalizer;
 import com.acepero13.research.profilesimilarity.api.Vectorizable;
 import com.acepero13.research.profilesimilarity.api.features.CategoricalFeature;
 import com.acepero13.research.profilesimilarity.api.features.Feature;
 import com.acepero13.research.profilesimilarity.core.MixedSample;
+import com.acepero13.research.profilesimilarity.core.PackedRow;
 import com.acepero13.research.profilesimilarity.core.classifier.result.Classification;
 import com.acepero13.research.profilesimilarity.core.classifier.result.Prediction;
 import com.acepero13.research.profilesimilarity.core.classifier.result.Probability;
 import com.acepero13.research.profilesimilarity.core.classifier.result.Result;
 import com.acepero13.research.profilesimilarity.core.proxy.VectorizableProxy;
-import com.acepero13.research.profilesimilarity.core.vectors.FeatureVector;
-import com.acepero13.research.profilesimilarity.core.vectors.NormalizedVector;
+import com.acepero13.research.profilesimilarity.core.vectors.BitVector;
 import com.acepero13.research.profilesimilarity.exceptions.PredictionException;
 import com.acepero13.research.profilesimilarity.scores.Metrics;
-import com.acepero13.research.profilesimilarity.utils.ListUtils;
-import com.acepero13.research.profilesimilarity.utils.Tuple;
 import lombok.Data;
 import lombok.experimental.Accessors;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 import static java.util.Objects.requireNonNull;
 
@@ -37,25 +33,22 @@ import static java.util.Objects.requireNonNull;
 
 public class MostSimilar {
 
-    private final DataSet dataSet;
-    private final List<List<CategoricalFeature<?>>> categoricalDataSet;
     private final Metric metric;
-    private List<Tuple<Vectorizable, NormalizedVector>> normalizedDataSet = new ArrayList<>();
+    private final NeighborSource source;
+    private final QueryExecutor executor;
 
-    private MostSimilar(Vectorizable... vectorizables) {
-        this(Metrics.cosineSimilarity(), List.of(vectorizables));
+    private MostSimilar(Metric metric, NeighborSource source, QueryExecutor executor) {
+        this.metric = requireNonNull(metric);
+        this.source = source;
+        this.executor = executor;
     }
 
+    private MostSimilar(Metric metric, NeighborSource source) {
+        this(metric, source, QueryExecutor.commonPool());
+    }
 
     private MostSimilar(Metric metric, List<Vectorizable> vectorizables) {
-        this.dataSet = new DataSet(requireNonNull(vectorizables));
-        var featureVector = requireNonNull(vectorizables).stream().map(Vectorizable::toFeatureVector).collect(Collectors.toList());
-        this.categoricalDataSet = featureVector.stream()
-
-                .map(FeatureVector::categorical)
-                .collect(Collectors.toList());
-        this.metric = requireNonNull(metric);
-
+        this(metric, NeighborSource.inMemory(vectorizables, null));
     }
 
     /**
@@ -65,7 +58,7 @@ public class MostSimilar {
      * @return a new MostSimilar instance with default metric
      */
     public static MostSimilar withDefaultMetric(Vectorizable... vectorizables) {
-        return new MostSimilar(vectorizables);
+        return new MostSimilar(Metrics.cosineSimilarity(), List.of(vectorizables));
     }
 
     /**
@@ -113,6 +106,120 @@ public class MostSimilar {
         return new MostSimilar(requireNonNull(metric), VectorizableProxy.of(requireNonNull(vectorizables)));
     }
 
+    /**
+     * Creates a new MostSimilar instance with the specified Metric that queries a memory-mapped data set. Only the
+     * sample that is returned is decoded from the mapped file.
+     *
+     * @param metric the Metric to be used for the comparison
+     * @param data   the mapped data set
+     * @return a new MostSimilar instance with specified metric and mapped data set
+     * @see MappedDataSet#open(java.nio.file.Path)
+     */
+    public static MostSimilar ofMapped(Metric metric, MappedDataSet data) {
+        return new MostSimilar(requireNonNull(metric), NeighborSource.columnar(data));
+    }
+
+    /**
+     * Creates a new MostSimilar instance with the specified Metric that queries a columnar table. The rows are compared
+     * through the projection of the columns of the table, and only the sample that is returned is decoded into features.
+     *
+     * @param metric the Metric to be used for the comparison
+     * @param table  the table
+     * @return a new MostSimilar instance with specified metric and table
+     */
+    public static MostSimilar ofTable(Metric metric, FeatureTable table) {
+        return new MostSimilar(requireNonNull(metric), NeighborSource.columnar(table));
+    }
+
+    /**
+     * Creates a new MostSimilar instance with the specified Metric that queries an incremental data set. Samples added
+     * to, removed from or updated in the index are seen by the next query.
+     *
+     * @param metric the Metric to be used for the comparison
+     * @param index  the incremental data set
+     * @return a new MostSimilar instance with specified metric and incremental data set
+     */
+    public static MostSimilar ofIndex(Metric metric, IncrementalIndex index) {
+        return new MostSimilar(requireNonNull(metric), NeighborSource.incremental(index));
+    }
+
+    /**
+     * Returns an instance over the same data set that only scores the candidates found by an {@link HnswIndex}. The
+     * graph compares the normalized numerical features with the given distance, which should agree with the metric of
+     * this instance; the {@code efSearch} candidates it returns are then scored with the metric, so the score of the
+     * result is exact but the most similar sample may be missed.
+     *
+     * @param distance   the distance used to build the graph
+     * @param parameters the parameters of the graph
+     * @return a new approximate instance
+     * @throws IllegalStateException if this instance queries an incremental data set
+     */
+    public MostSimilar approximate(HnswIndex.Distance distance, HnswIndex.Parameters parameters) {
+        requireNonNull(distance);
+        requireNonNull(parameters);
+        return new MostSimilar(metric, source.approximate((index, queryExecutor) -> HnswIndex.build(index, distance, parameters, queryExecutor)), executor);
+    }
+
+    /**
+     * Returns an instance over the same data set that only scores the samples in the {@code nprobe} cells of an
+     * {@link IvfIndex} closest to the target. The cells cluster the normalized numerical features with the given
+     * distance, which should agree with the metric of this instance; the candidates are then scored with the metric.
+     *
+     * @param distance   the distance used to cluster the rows
+     * @param parameters the parameters of the partition
+     * @return a new approximate instance
+     * @throws IllegalStateException if this instance queries an incremental data set
+     */
+    public MostSimilar partitioned(HnswIndex.Distance distance, IvfIndex.Parameters parameters) {
+        requireNonNull(distance);
+        requireNonNull(parameters);
+        return new MostSimilar(metric, source.approximate((index, queryExecutor) -> IvfIndex.build(index, distance, parameters, queryExecutor)), executor);
+    }
+
+    /**
+     * Returns an instance over the same data set that only scores the candidates found by an {@link LshIndex}: the
+     * samples whose hash signature shares at least one band with the target. The family should agree with the metric
+     * of this instance: {@link LshIndex.Family#COSINE} for the cosine similarity, {@link LshIndex.Family#JACCARD} for
+     * the Jaccard similarity of one-hot features. The candidates are then scored with the metric, so the score of the
+     * result is exact but the most similar sample may be missed.
+     *
+     * @param family     the similarity approximated by the hashes
+     * @param parameters the parameters of the hash tables
+     * @return a new approximate instance
+     * @throws IllegalStateException if this instance queries an incremental data set
+     */
+    public MostSimilar hashed(LshIndex.Family family, LshIndex.Parameters parameters) {
+        requireNonNull(family);
+        requireNonNull(parameters);
+        return new MostSimilar(metric, source.approximate((index, queryExecutor) -> LshIndex.build(index, family, parameters, queryExecutor)), executor);
+    }
+
+    /**
+     * Returns an instance over the same data set that only scores the candidates found by a {@link PqIndex}. The
+     * candidates are the rows closest to the target by Euclidean distance between the quantized rows, as many as the
+     * re-rank depth of the parameters; they are then scored with the metric, so the score of the result is exact but the
+     * most similar sample may be missed.
+     *
+     * @param parameters the parameters of the quantization
+     * @return a new approximate instance
+     * @throws IllegalStateException if this instance queries an incremental data set
+     */
+    public MostSimilar quantized(PqIndex.Parameters parameters) {
+        requireNonNull(parameters);
+        return new MostSimilar(metric, source.approximate((index, queryExecutor) -> PqIndex.build(index, parameters, queryExecutor)), executor);
+    }
+
+    /**
+     * Returns an instance over the same data set and indexes that scores the samples with the given executor instead of
+     * the common pool. An index that is not built yet is built with the executor of the first query that needs it.
+     *
+     * @param executor the executor that runs the queries
+     * @return a new instance sharing the data set and the indexes of this one
+     */
+    public MostSimilar withExecutor(QueryExecutor executor) {
+        return new MostSimilar(metric, source, requireNonNull(executor));
+    }
+
     /**
      * Returns the Vectorizable from the list that is most similar to the target Vectorizable.
      *
@@ -193,25 +300,24 @@ public class MostSimilar {
 
     private Optional<SimilarScore> highestSimilarScore(Vectorizable target) {
         requireNonNull(target);
-        Normalizer normalizer = DataSet.minMaxNormalizer(target, dataSet);
-
-        if (normalizedDataSet.isEmpty()) {
-            normalizedDataSet = dataSet.scaleAndScore(target, normalizer);
-        }
-
-        NormalizedVector normalizedTarget = NormalizedVector.of(target.vector(target.numericalFeatures()), normalizer);
-
-
-        var categoricalTarget = target.toFeatureVector().categorical();
-
-
-        return ListUtils.zip(normalizedDataSet, categoricalDataSet)
-                .parallel()
-                .map(t -> new NormalizedSample(t, metric))
-                .map(s -> s.score(normalizedTarget, categoricalTarget))
-                .max(Comparator.comparingDouble(SimilarScore::score));
+        return source.read(target, executor, index -> highestSimilarScore(index, target));
     }
 
+    private Optional<SimilarScore> highestSimilarScore(NeighborIndex index, Vectorizable target) {
+        List<CategoricalFeature<?>> targetCategorical = target.toFeatureVector().categorical();
+        double[] query = index.queryRow(target);
+        var another = PackedRow.of(query, MixedSample.of(index.normalize(target), targetCategorical, source.dictionary().encode(targetCategorical), BitVector.of(targetCategorical)));
+
+        int[] candidates = source.candidates(target, executor);
+        int size = candidates == null ? index.size() : candidates.length;
+        Best best = executor.collect(size, () -> new Best(source.cursor(index, query.length)), (found, i) -> {
+            int row = candidates == null ? i : candidates[i];
+            found.offer(row, metric.similarityScore(found.cursor.moveTo(row), another));
+        }, Best::merge);
+        return best.row < 0
+                ? Optional.empty()
+                : Optional.of(new SimilarScore(best.score, index.sample(best.row)));
+    }
 
     private static class MostSimilarResult implements Result {
 
@@ -254,22 +360,30 @@ public class MostSimilar {
         }
     }
 
-    private static class NormalizedSample {
-        private final Tuple<Vectorizable, NormalizedVector> vector;
-        private final List<CategoricalFeature<?>> categorical;
-        private final Metric metric;
+    /**
+     * The row with the highest similarity seen so far, and the cursor the rows of its chunk are read with. Ties keep the
+     * row seen first.
+     */
+    private static final class Best {
+        private final NeighborSource.RowCursor cursor;
+        private int row = -1;
+        private double score;
 
-        public NormalizedSample(Tuple<Tuple<Vectorizable, NormalizedVector>, List<CategoricalFeature<?>>> tuple, Metric metric) {
-            this.vector = tuple.first();
-            this.categorical = tuple.second();
-            this.metric = metric;
+        private Best(NeighborSource.RowCursor cursor) {
+            this.cursor = cursor;
         }
 
-        public SimilarScore score(NormalizedVector normalizedTarget, List<CategoricalFeature<?>> categoricalTarget) {
+        private void offer(int row, double score) {
+            if (this.row < 0 || Double.compare(score, this.score) > 0) {
+                this.row = row;
+                this.score = score;
+            }
+        }
 
-            var sample = MixedSample.of(vector.second(), categorical);
-            var another = MixedSample.of(normalizedTarget, categoricalTarget);
-            return new SimilarScore(metric.similarityScore(sample, another), vector.first());
+        private void merge(Best another) {
+            if (another.row >= 0) {
+                offer(another.row, another.score);
+            }
         }
     }
 
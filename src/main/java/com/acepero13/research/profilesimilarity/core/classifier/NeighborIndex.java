@@ -0,0 +1,144 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import com.acepero13.research.profilesimilarity.api.Vectorizable;
+import com.acepero13.research.profilesimilarity.api.features.CategoricalFeature;
+import com.acepero13.research.profilesimilarity.core.Score;
+import com.acepero13.research.profilesimilarity.core.vectors.BitVector;
+import com.acepero13.research.profilesimilarity.core.vectors.NormalizedVector;
+
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Normalized and weighted rows of a data set for one feature schema, ready to be scanned by the classifiers.
+ */
+interface NeighborIndex {
+
+    /**
+     * Normalizes the numerical features of the target.
+     *
+     * @param target the target to normalize
+     * @return the normalized target
+     */
+    NormalizedVector normalize(Vectorizable target);
+
+    /**
+     * Returns the k samples closest to the target, sorted by ascending Euclidean distance.
+     *
+     * @param target the target to compare against the index
+     * @param k      the number of neighbors to return
+     * @return the scores of the k nearest samples
+     */
+    List<Score> nearest(Vectorizable target, int k);
+
+    /**
+     * Returns the k samples closest to each of the targets.
+     *
+     * @param targets the targets to compare against the index
+     * @param k       the number of neighbors to return for every target
+     * @return the scores of the k nearest samples of every target, in the order of the targets
+     */
+    List<List<Score>> nearest(List<? extends Vectorizable> targets, int k);
+
+    /**
+     * Returns the k samples closest to the target, scanning the rows with the given executor. Indexes that do not scan
+     * their rows answer on the calling thread.
+     *
+     * @param target   the target to compare against the index
+     * @param k        the number of neighbors to return
+     * @param executor the executor that runs the scan
+     * @return the scores of the k nearest samples
+     */
+    default List<Score> nearest(Vectorizable target, int k, QueryExecutor executor) {
+        return nearest(target, k);
+    }
+
+    /**
+     * Returns the k samples closest to each of the targets, answering the targets with the given executor.
+     *
+     * @param targets  the targets to compare against the index
+     * @param k        the number of neighbors to return for every target
+     * @param executor the executor that runs the targets
+     * @return the scores of the k nearest samples of every target, in the order of the targets
+     */
+    default List<List<Score>> nearest(List<? extends Vectorizable> targets, int k, QueryExecutor executor) {
+        return executor.map(requireNonNull(targets, "Targets cannot be null"), target -> nearest(target, k, executor));
+    }
+
+    /**
+     * Returns the number of samples in the index.
+     *
+     * @return the number of samples
+     */
+    int size();
+
+    /**
+     * Returns the sample stored at the given position.
+     *
+     * @param index the position of the sample
+     * @return the sample
+     */
+    Vectorizable sample(int index);
+
+    /**
+     * Returns the normalized and weighted row of the sample stored at the given position.
+     *
+     * @param index the position of the sample
+     * @return the row
+     */
+    NormalizedVector row(int index);
+
+    /**
+     * Normalizes the target and stores its values in the column order of {@link #readRow(int, double[])}, which is the
+     * order of the features unless the index reorders its columns.
+     *
+     * @param target the target to normalize
+     * @return the normalized values of the target
+     */
+    default double[] queryRow(Vectorizable target) {
+        return normalize(target).toArray();
+    }
+
+    /**
+     * Returns the rows of the index packed one after the other in a single array, in the column order of
+     * {@link #queryRow(Vectorizable)}, or null if the rows are not stored that way.
+     *
+     * @return the packed rows, or null
+     */
+    default double[] packedRows() {
+        return null;
+    }
+
+    /**
+     * Copies the normalized and weighted row of the sample stored at the given position into the buffer, in the column
+     * order of {@link #queryRow(Vectorizable)}.
+     *
+     * @param index  the position of the sample
+     * @param buffer the array the row is copied to
+     */
+    default void readRow(int index, double[] buffer) {
+        double[] row = row(index).toArray();
+        System.arraycopy(row, 0, buffer, 0, row.length);
+    }
+
+    /**
+     * Returns the categorical features of the sample stored at the given position.
+     *
+     * @param index the position of the sample
+     * @return the categorical features
+     */
+    default List<CategoricalFeature<?>> categorical(int index) {
+        return sample(index).toFeatureVector().categorical();
+    }
+
+    /**
+     * Returns the boolean categorical features of the sample stored at the given position, packed into a bit vector.
+     *
+     * @param index the position of the sample
+     * @return the flags of the sample
+     */
+    default BitVector flags(int index) {
+        return BitVector.of(categorical(index));
+    }
+}
@@ -0,0 +1,595 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import com.acepero13.research.profilesimilarity.api.Normalizer;
+import com.acepero13.research.profilesimilarity.api.Vectorizable;
+import com.acepero13.research.profilesimilarity.api.features.CategoricalFeature;
+import com.acepero13.research.profilesimilarity.core.CategoricalDictionary;
+import com.acepero13.research.profilesimilarity.core.MixedSample;
+import com.acepero13.research.profilesimilarity.core.PackedRow;
+import com.acepero13.research.profilesimilarity.core.vectors.BitVector;
+import com.acepero13.research.profilesimilarity.core.vectors.FeatureVector;
+import com.acepero13.research.profilesimilarity.exceptions.ArgumentException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The data queried by a classifier: supplies the {@link NeighborIndex} of every feature schema, building it the first
+ * time the schema is seen with the executor of the query that needs it. A source is shared by the classifiers derived
+ * from one another, so that they reuse the same indexes.
+ */
+abstract class NeighborSource {
+
+    /**
+     * Returns a source over an in-memory data set, normalized with the given normalizer or, when it is null, with the
+     * min-max ranges of the data set.
+     */
+    static NeighborSource inMemory(List<Vectorizable> data, Normalizer normalizer) {
+        return new InMemory(new DataSet(requireNonNull(data)), normalizer);
+    }
+
+    /**
+     * Returns a source over a columnar data set, queried through the projections of its columns.
+     */
+    static NeighborSource columnar(ColumnarDataSet data) {
+        return new Columnar(requireNonNull(data));
+    }
+
+    /**
+     * Returns a source over an incremental data set, which is always searched exactly.
+     */
+    static NeighborSource incremental(IncrementalIndex index) {
+        return new Incremental(requireNonNull(index));
+    }
+
+    abstract int size();
+
+    abstract List<Vectorizable> samples();
+
+    /**
+     * Returns the exact index for the feature schema of the target.
+     */
+    abstract NeighborIndex exact(Vectorizable target, QueryExecutor executor);
+
+    /**
+     * Returns the index searched for the k nearest neighbors of the target.
+     */
+    NeighborIndex neighbors(Vectorizable target, QueryExecutor executor) {
+        return exact(target, executor);
+    }
+
+    /**
+     * Applies the query to the exact index for the feature schema of the target, while no sample can be changed.
+     */
+    <T> T read(Vectorizable target, QueryExecutor executor, Function<NeighborIndex, T> query) {
+        return query.apply(exact(target, executor));
+    }
+
+    /**
+     * Returns the positions of the rows worth scoring for the target, or null when every row has to be scored.
+     */
+    int[] candidates(Vectorizable target, QueryExecutor executor) {
+        return null;
+    }
+
+    /**
+     * Returns the in-memory index for the feature schema of the sample.
+     */
+    KnnIndex index(Vectorizable sample, QueryExecutor executor) {
+        throw new IllegalStateException("The data set is queried directly and has no in-memory index");
+    }
+
+    /**
+     * Returns a source over the same data set whose exact indexes store their rows with the given precision.
+     */
+    NeighborSource compact(CompactIndex.Precision precision, int rerank) {
+        throw new IllegalStateException("Only an in-memory data set can be stored in compact form");
+    }
+
+    /**
+     * Returns a source over the same data set whose neighbors are searched with the approximate index built on top of
+     * every exact index.
+     */
+    NeighborSource approximate(BiFunction<NeighborIndex, QueryExecutor, ApproximateIndex> approximation) {
+        return new Approximate(this, approximation);
+    }
+
+    boolean isMapped() {
+        return false;
+    }
+
+    /**
+     * Returns the dictionary the categorical features of the rows are encoded with.
+     */
+    abstract CategoricalDictionary dictionary();
+
+    /**
+     * Returns the numerical row of the exact index together with the categorical features of the sample at the given
+     * position.
+     */
+    abstract MixedSample mixedSample(NeighborIndex index, int row);
+
+    /**
+     * Points the cursor at the encoded categorical features of the sample at the given position.
+     */
+    abstract void readCategorical(RowCursor cursor, NeighborIndex index, int row);
+
+    /**
+     * Returns a cursor over the rows of the exact index, whose numerical values have the given length.
+     */
+    RowCursor cursor(NeighborIndex index, int length) {
+        return new RowCursor(this, index, length);
+    }
+
+    /**
+     * A cursor over the rows of an exact index, read in place from its packed rows or copied into a buffer that is
+     * reused from one row to the next. Only the row that is decoded is copied into a {@link MixedSample}.
+     */
+    static final class RowCursor implements PackedRow {
+        private final NeighborSource source;
+        private final NeighborIndex index;
+        private final double[] packed;
+        private final double[] values;
+        private final int length;
+        private int row;
+        private int offset;
+        private int[] codes;
+        private int codesOffset;
+        private int numberOfCodes;
+        private BitVector flags;
+        private int[] codesBuffer;
+
+        private RowCursor(NeighborSource source, NeighborIndex index, int length) {
+            this.source = source;
+            this.index = index;
+            this.packed = index.packedRows();
+            this.values = packed == null ? new double[length] : packed;
+            this.length = length;
+        }
+
+        /**
+         * Moves the cursor to the sample at the given position.
+         */
+        RowCursor moveTo(int row) {
+            this.row = row;
+            if (packed == null) {
+                index.readRow(row, values);
+            } else {
+                offset = row * length;
+            }
+            source.readCategorical(this, index, row);
+            return this;
+        }
+
+        @Override
+        public double[] values() {
+            return values;
+        }
+
+        @Override
+        public int offset() {
+            return offset;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public int[] codes() {
+            return codes;
+        }
+
+        @Override
+        public int codesOffset() {
+            return codesOffset;
+        }
+
+        @Override
+        public int numberOfCodes() {
+            return numberOfCodes;
+        }
+
+        @Override
+        public BitVector flags() {
+            return flags;
+        }
+
+        @Override
+        public int numberOfCategoricalFeatures() {
+            if (codes == null) {
+                return decode().getFeatures().size();
+            }
+            int features = 0;
+            for (int column = 0; column < numberOfCodes; column++) {
+                if (codes[codesOffset + column] != CategoricalDictionary.MISSING) {
+                    features++;
+                }
+            }
+            return features;
+        }
+
+        @Override
+        public MixedSample decode() {
+            return source.mixedSample(index, row);
+        }
+
+        /**
+         * Returns an array the codes of a row can be copied to, reused from one row to the next.
+         */
+        private int[] codesBuffer(int columns) {
+            if (codesBuffer == null) {
+                codesBuffer = new int[columns];
+            }
+            return codesBuffer;
+        }
+
+        private void categorical(int[] codes, int codesOffset, int numberOfCodes, BitVector flags) {
+            this.codes = codes;
+            this.codesOffset = codesOffset;
+            this.numberOfCodes = numberOfCodes;
+            this.flags = flags;
+        }
+    }
+
+    private static final class InMemory extends NeighborSource {
+        private final DataSet dataSet;
+        private final Normalizer normalizer;
+        private final ConcurrentMap<FeatureSchema, KnnIndex> indexes = new ConcurrentHashMap<>();
+        private Categorical categorical;
+
+        private InMemory(DataSet dataSet, Normalizer normalizer) {
+            this.dataSet = dataSet;
+            this.normalizer = normalizer;
+        }
+
+        @Override
+        int size() {
+            return dataSet.size();
+        }
+
+        @Override
+        List<Vectorizable> samples() {
+            return dataSet.dataPoints();
+        }
+
+        @Override
+        NeighborIndex exact(Vectorizable target, QueryExecutor executor) {
+            return index(target, executor);
+        }
+
+        @Override
+        KnnIndex index(Vectorizable sample, QueryExecutor executor) {
+            return indexes.computeIfAbsent(FeatureSchema.of(sample),
+                    schema -> KnnIndex.of(sample, dataSet, normalizer(sample, executor), executor));
+        }
+
+        @Override
+        NeighborSource compact(CompactIndex.Precision precision, int rerank) {
+            return new Compact(FeatureTable.of(dataSet.dataPoints()), normalizer, precision, rerank);
+        }
+
+        private Normalizer normalizer(Vectorizable sample, QueryExecutor executor) {
+            return normalizer == null
+                    ? DataSet.minMaxNormalizer(sample, dataSet, executor)
+                    : normalizer;
+        }
+
+        @Override
+        CategoricalDictionary dictionary() {
+            return categorical().dictionary;
+        }
+
+        @Override
+        MixedSample mixedSample(NeighborIndex index, int row) {
+            Categorical categorical = categorical();
+            int columns = categorical.dictionary.columns();
+            int[] codes = Arrays.copyOfRange(categorical.codes, row * columns, (row + 1) * columns);
+            return MixedSample.of(index.row(row), index.categorical(row), codes, categorical.flags[row]);
+        }
+
+        @Override
+        void readCategorical(RowCursor cursor, NeighborIndex index, int row) {
+            Categorical categorical = categorical();
+            int columns = categorical.dictionary.columns();
+            cursor.categorical(categorical.codes, row * columns, columns, categorical.flags[row]);
+        }
+
+        private synchronized Categorical categorical() {
+            if (categorical == null) {
+                categorical = new Categorical(dataSet.dataPoints());
+            }
+            return categorical;
+        }
+    }
+
+    /**
+     * The categorical features of an in-memory data set, encoded once for the classifiers that score them: the codes of
+     * every row packed one after the other, and the boolean features of every row packed into a bit vector.
+     */
+    private static final class Categorical {
+        private final CategoricalDictionary dictionary;
+        private final int[] codes;
+        private final BitVector[] flags;
+
+        private Categorical(List<Vectorizable> dataPoints) {
+            List<List<CategoricalFeature<?>>> features = dataPoints.stream()
+                    .map(Vectorizable::toFeatureVector)
+                    .map(FeatureVector::categorical)
+                    .collect(Collectors.toList());
+            this.dictionary = CategoricalDictionary.of(features);
+            this.codes = dictionary.encodeAll(features);
+            this.flags = features.stream().map(BitVector::of).toArray(BitVector[]::new);
+        }
+    }
+
+    /**
+     * An in-memory data set copied into a {@link FeatureTable}, whose exact indexes are compact indexes over the columns
+     * of the table. The source does not keep the samples it was copied from.
+     */
+    private static final class Compact extends NeighborSource {
+        private final FeatureTable table;
+        private final Columnar source;
+        private final Normalizer normalizer;
+        private final CompactIndex.Precision precision;
+        private final int rerank;
+        private final ConcurrentMap<FeatureSchema, CompactIndex> indexes = new ConcurrentHashMap<>();
+
+        private Compact(FeatureTable table, Normalizer normalizer, CompactIndex.Precision precision, int rerank) {
+            if (rerank < 0) {
+                throw new ArgumentException("The re-rank depth cannot be negative, but got: " + rerank);
+            }
+            this.table = table;
+            this.source = new Columnar(table);
+            this.normalizer = normalizer;
+            this.precision = requireNonNull(precision);
+            this.rerank = rerank;
+        }
+
+        @Override
+        int size() {
+            return source.size();
+        }
+
+        @Override
+        List<Vectorizable> samples() {
+            return source.samples();
+        }
+
+        @Override
+        NeighborIndex exact(Vectorizable target, QueryExecutor executor) {
+            return indexes.computeIfAbsent(FeatureSchema.of(target),
+                    schema -> CompactIndex.of(target, table, normalizer, precision, rerank, executor));
+        }
+
+        @Override
+        KnnIndex index(Vectorizable sample, QueryExecutor executor) {
+            return source.index(sample, executor);
+        }
+
+        @Override
+        NeighborSource compact(CompactIndex.Precision precision, int rerank) {
+            return new Compact(table, normalizer, precision, rerank);
+        }
+
+        @Override
+        CategoricalDictionary dictionary() {
+            return source.dictionary();
+        }
+
+        @Override
+        MixedSample mixedSample(NeighborIndex index, int row) {
+            return source.mixedSample(index, row);
+        }
+
+        @Override
+        void readCategorical(RowCursor cursor, NeighborIndex index, int row) {
+            source.readCategorical(cursor, index, row);
+        }
+    }
+
+    private static final class Columnar extends NeighborSource {
+        private final ColumnarDataSet data;
+
+        private Columnar(ColumnarDataSet data) {
+            this.data = data;
+        }
+
+        @Override
+        int size() {
+            return data.size();
+        }
+
+        @Override
+        List<Vectorizable> samples() {
+            return data.samples();
+        }
+
+        @Override
+        NeighborIndex exact(Vectorizable target, QueryExecutor executor) {
+            return data.projection(target);
+        }
+
+        @Override
+        KnnIndex index(Vectorizable sample, QueryExecutor executor) {
+            if (data instanceof FeatureTable) {
+                return ((FeatureTable) data).projection(sample);
+            }
+            throw new IllegalStateException("A memory-mapped data set is queried directly and has no in-memory index");
+        }
+
+        @Override
+        boolean isMapped() {
+            return data instanceof MappedDataSet;
+        }
+
+        @Override
+        CategoricalDictionary dictionary() {
+            return data.categoricalDictionary();
+        }
+
+        @Override
+        MixedSample mixedSample(NeighborIndex index, int row) {
+            return MixedSample.of(index.row(row), data.categorical(row), data.codes(row), data.flags(row));
+        }
+
+        @Override
+        void readCategorical(RowCursor cursor, NeighborIndex index, int row) {
+            int[] codes = cursor.codesBuffer(data.categoricalDictionary().columns());
+            data.readCodes(row, codes);
+            cursor.categorical(codes, 0, codes.length, data.flags(row));
+        }
+    }
+
+    private static final class Incremental extends NeighborSource {
+        private static final CategoricalDictionary EMPTY = CategoricalDictionary.of(List.of());
+
+        private final IncrementalIndex index;
+
+        private Incremental(IncrementalIndex index) {
+            this.index = index;
+        }
+
+        @Override
+        int size() {
+            return index.size();
+        }
+
+        @Override
+        List<Vectorizable> samples() {
+            return index.samples();
+        }
+
+        @Override
+        NeighborIndex exact(Vectorizable target, QueryExecutor executor) {
+            return index;
+        }
+
+        @Override
+        NeighborIndex neighbors(Vectorizable target, QueryExecutor executor) {
+            if (!index.accepts(target)) {
+                throw new ArgumentException("The target does not have the numerical features of the incremental data set: " + target);
+            }
+            return index;
+        }
+
+        @Override
+        <T> T read(Vectorizable target, QueryExecutor executor, Function<NeighborIndex, T> query) {
+            return index.read(query::apply);
+        }
+
+        @Override
+        KnnIndex index(Vectorizable sample, QueryExecutor executor) {
+            throw new IllegalStateException("An incremental data set is queried directly and has no in-memory index");
+        }
+
+        @Override
+        NeighborSource approximate(BiFunction<NeighborIndex, QueryExecutor, ApproximateIndex> approximation) {
+            throw new IllegalStateException("An incremental data set is always searched exactly");
+        }
+
+        @Override
+        CategoricalDictionary dictionary() {
+            return EMPTY;
+        }
+
+        @Override
+        MixedSample mixedSample(NeighborIndex index, int row) {
+            return MixedSample.of(index.row(row), index.categorical(row));
+        }
+
+        @Override
+        void readCategorical(RowCursor cursor, NeighborIndex index, int row) {
+            cursor.categorical(null, 0, 0, index.flags(row));
+        }
+    }
+
+    private static final class Approximate extends NeighborSource {
+        private final NeighborSource exact;
+        private final BiFunction<NeighborIndex, QueryExecutor, ApproximateIndex> approximation;
+        private final ConcurrentMap<FeatureSchema, ApproximateIndex> indexes = new ConcurrentHashMap<>();
+
+        private Approximate(NeighborSource exact, BiFunction<NeighborIndex, QueryExecutor, ApproximateIndex> approximation) {
+            this.exact = exact;
+            this.approximation = requireNonNull(approximation);
+        }
+
+        @Override
+        int size() {
+            return exact.size();
+        }
+
+        @Override
+        List<Vectorizable> samples() {
+            return exact.samples();
+        }
+
+        @Override
+        NeighborIndex exact(Vectorizable target, QueryExecutor executor) {
+            return exact.exact(target, executor);
+        }
+
+        @Override
+        NeighborIndex neighbors(Vectorizable target, QueryExecutor executor) {
+            return approximateIndex(target, executor);
+        }
+
+        @Override
+        <T> T read(Vectorizable target, QueryExecutor executor, Function<NeighborIndex, T> query) {
+            return exact.read(target, executor, query);
+        }
+
+        @Override
+        int[] candidates(Vectorizable target, QueryExecutor executor) {
+            return approximateIndex(target, executor).candidates(target, executor);
+        }
+
+        private ApproximateIndex approximateIndex(Vectorizable target, QueryExecutor executor) {
+            NeighborIndex index = exact.exact(target, executor);
+            return indexes.computeIfAbsent(FeatureSchema.of(target), schema -> approximation.apply(index, executor));
+        }
+
+        @Override
+        KnnIndex index(Vectorizable sample, QueryExecutor executor) {
+            return exact.index(sample, executor);
+        }
+
+        @Override
+        NeighborSource compact(CompactIndex.Precision precision, int rerank) {
+            return new Approximate(exact.compact(precision, rerank), approximation);
+        }
+
+        @Override
+        NeighborSource approximate(BiFunction<NeighborIndex, QueryExecutor, ApproximateIndex> approximation) {
+            return new Approximate(exact, approximation);
+        }
+
+        @Override
+        boolean isMapped() {
+            return exact.isMapped();
+        }
+
+        @Override
+        CategoricalDictionary dictionary() {
+            return exact.dictionary();
+        }
+
+        @Override
+        MixedSample mixedSample(NeighborIndex index, int row) {
+            return exact.mixedSample(index, row);
+        }
+
+        @Override
+        void readCategorical(RowCursor cursor, NeighborIndex index, int row) {
+            exact.readCategorical(cursor, index, row);
+        }
+    }
+}
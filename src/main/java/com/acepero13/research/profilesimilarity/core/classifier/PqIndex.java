@@ -0,0 +1,373 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import com.acepero13.research.profilesimilarity.api.Vectorizable;
+import com.acepero13.research.profilesimilarity.core.Score;
+import com.acepero13.research.profilesimilarity.core.vectors.NormalizedVector;
+import com.acepero13.research.profilesimilarity.core.vectors.VectorKernels;
+import com.acepero13.research.profilesimilarity.exceptions.ArgumentException;
+import com.acepero13.research.profilesimilarity.exceptions.VectorException;
+import com.acepero13.research.profilesimilarity.utils.TopK;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An approximate nearest-neighbor index that compresses every row of an exact index to a few bytes with product
+ * quantization.
+ * <p>
+ * The numerical features are split into {@code subspaces} groups of consecutive columns. For every group, k-means
+ * learns a codebook of at most 256 centroids from a random sample of the rows, and every row is stored as the position
+ * of the closest centroid of each group: one byte per group, whatever the number of features. A query computes, once,
+ * the squared distance from each of its groups to every centroid of that group; the distance to a row is then the sum
+ * of one table lookup per group (asymmetric distance computation), without decoding the row.
+ * <p>
+ * The rows themselves are not kept. When a re-rank depth is given, that many candidates are re-scored with their exact
+ * rows, read from the underlying index; over a {@link MappedDataSet} they are read from disk, so only the codes have to
+ * fit in memory.
+ * <p>
+ * The index is immutable once built and can be shared across threads.
+ */
+public final class PqIndex implements ApproximateIndex {
+    private static final long SEED = 42L;
+    private static final int ITERATIONS = 25;
+
+    private final NeighborIndex exact;
+    private final Parameters parameters;
+    private final int dimension;
+    private final int subspaces;
+    private final int[] starts;
+    private final double[][] codebooks;
+    private final byte[] codes;
+
+    private PqIndex(NeighborIndex exact, Parameters parameters, int dimension, int[] starts, double[][] codebooks) {
+        this.exact = exact;
+        this.parameters = parameters;
+        this.dimension = dimension;
+        this.subspaces = codebooks.length;
+        this.starts = starts;
+        this.codebooks = codebooks;
+        this.codes = new byte[exact.size() * subspaces];
+    }
+
+    /**
+     * Trains the codebooks on a sample of the rows of an exact index and encodes every row.
+     *
+     * @param index      the exact index whose rows are compressed
+     * @param parameters the parameters of the quantization
+     * @return a new compressed index
+     */
+    public static PqIndex of(KnnIndex index, Parameters parameters) {
+        return build(requireNonNull(index), requireNonNull(parameters), QueryExecutor.commonPool());
+    }
+
+    static PqIndex build(NeighborIndex exact, Parameters parameters, QueryExecutor executor) {
+        int size = exact.size();
+        int dimension = size == 0 ? 0 : exact.row(0).size();
+        int subspaces = Math.max(1, Math.min(parameters.subspaces, dimension));
+        int[] starts = new int[subspaces + 1];
+        for (int subspace = 0; subspace <= subspaces; subspace++) {
+            starts[subspace] = subspace * dimension / subspaces;
+        }
+        Random random = new Random(SEED);
+        int[] sample = KMeans.sample(size, parameters.trainingSize, random);
+        double[] training = new double[sample.length * dimension];
+        for (int i = 0; i < sample.length; i++) {
+            System.arraycopy(rowOf(exact, sample[i], dimension), 0, training, i * dimension, dimension);
+        }
+        double[][] codebooks = new double[subspaces][];
+        for (int subspace = 0; subspace < subspaces; subspace++) {
+            int width = starts[subspace + 1] - starts[subspace];
+            double[] points = new double[sample.length * width];
+            for (int i = 0; i < sample.length; i++) {
+                System.arraycopy(training, i * dimension + starts[subspace], points, i * width, width);
+            }
+            codebooks[subspace] = KMeans.train(points, sample.length, width, parameters.centroids, ITERATIONS, random, executor);
+        }
+        PqIndex index = new PqIndex(exact, parameters, dimension, starts, codebooks);
+        executor.forEach(size, row -> index.encode(row, rowOf(exact, row, dimension)));
+        return index;
+    }
+
+    private static double[] rowOf(NeighborIndex exact, int row, int dimension) {
+        double[] values = exact.row(row).toArray();
+        if (values.length != dimension) {
+            throw new VectorException("Vector length do not match. Vector length is: " + dimension + " and the other vector's length is: " + values.length);
+        }
+        return values;
+    }
+
+    private void encode(int row, double[] values) {
+        for (int subspace = 0; subspace < subspaces; subspace++) {
+            int width = starts[subspace + 1] - starts[subspace];
+            int centroid = KMeans.nearest(codebooks[subspace], codebooks[subspace].length / width, values, starts[subspace], width);
+            codes[row * subspaces + subspace] = (byte) centroid;
+        }
+    }
+
+    /**
+     * Normalizes the numerical features of the target using the normalizer of the underlying exact index.
+     *
+     * @param target the target to normalize
+     * @return the normalized target
+     */
+    @Override
+    public NormalizedVector normalize(Vectorizable target) {
+        return exact.normalize(target);
+    }
+
+    /**
+     * Returns approximately the k samples closest to the target, sorted by ascending Euclidean distance. Without
+     * re-ranking the scores are the distances to the quantized rows; with re-ranking they are exact.
+     *
+     * @param target the target to compare against the index
+     * @param k      the number of neighbors to return
+     * @return the scores of the k nearest samples that were found
+     * @throws VectorException if the target does not have the dimension of the index
+     */
+    @Override
+    public List<Score> nearest(Vectorizable target, int k) {
+        return nearest(target, k, QueryExecutor.commonPool());
+    }
+
+    /**
+     * Returns approximately the k samples closest to the target, scanning the codes with the given executor.
+     *
+     * @param target   the target to compare against the index
+     * @param k        the number of neighbors to return
+     * @param executor the executor that runs the scan of the codes
+     * @return the scores of the k nearest samples that were found
+     * @throws VectorException if the target does not have the dimension of the index
+     * @see #nearest(Vectorizable, int)
+     */
+    @Override
+    public List<Score> nearest(Vectorizable target, int k, QueryExecutor executor) {
+        double[] query = query(target);
+        TopK candidates = scan(query, Math.max(k, parameters.rerank), executor);
+        TopK nearest = parameters.rerank == 0 ? limit(candidates, k) : rescore(query, candidates.indices(), k);
+        int[] indices = nearest.indices();
+        double[] distances = nearest.scores();
+        List<Score> scores = new ArrayList<>(indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            scores.add(new Score(Math.sqrt(distances[i]), exact.sample(indices[i]).toFeatureVector()));
+        }
+        return scores;
+    }
+
+    /**
+     * Returns approximately the k samples closest to each of the targets.
+     *
+     * @param targets the targets to compare against the index
+     * @param k       the number of neighbors to return for every target
+     * @return the scores of the k nearest samples of every target, in the order of the targets
+     */
+    @Override
+    public List<List<Score>> nearest(List<? extends Vectorizable> targets, int k) {
+        return requireNonNull(targets, "Targets cannot be null").stream()
+                .map(t -> nearest(t, k))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the positions of the samples closest to the target by their quantized rows, to be scored exactly by the
+     * caller: as many as the re-rank depth, or one without re-ranking.
+     *
+     * @param target the target to compare against the index
+     * @return the positions of the candidates, closest first
+     */
+    @Override
+    public int[] candidates(Vectorizable target) {
+        return candidates(target, QueryExecutor.commonPool());
+    }
+
+    @Override
+    public int[] candidates(Vectorizable target, QueryExecutor executor) {
+        return scan(query(target), Math.max(1, parameters.rerank), executor).indices();
+    }
+
+    /**
+     * Measures the recall of the index: the fraction of the exact k nearest neighbors of the targets that the index
+     * returns.
+     *
+     * @param targets the targets to search
+     * @param k       the number of neighbors of every target
+     * @return the recall, between 0 and 1
+     */
+    public double recall(List<? extends Vectorizable> targets, int k) {
+        requireNonNull(targets, "Targets cannot be null");
+        int expected = Math.min(k, size()) * targets.size();
+        if (expected == 0) {
+            return 1.0;
+        }
+        long found = targets.stream().mapToLong(target -> {
+            double[] query = query(target);
+            TopK candidates = scan(query, Math.max(k, parameters.rerank), QueryExecutor.commonPool());
+            int[] approximate = (parameters.rerank == 0 ? limit(candidates, k) : rescore(query, candidates.indices(), k)).indices();
+            int[] exactNeighbors = rescore(query, IntStream.range(0, size()).toArray(), k).indices();
+            return IntStream.of(approximate).filter(i -> IntStream.of(exactNeighbors).anyMatch(e -> e == i)).count();
+        }).sum();
+        return found / (double) expected;
+    }
+
+    @Override
+    public int size() {
+        return exact.size();
+    }
+
+    @Override
+    public Vectorizable sample(int index) {
+        return exact.sample(index);
+    }
+
+    /**
+     * Returns the exact row of the sample stored at the given position, read from the underlying index.
+     *
+     * @param index the position of the sample
+     * @return the row
+     */
+    @Override
+    public NormalizedVector row(int index) {
+        return exact.row(index);
+    }
+
+    /**
+     * Returns the number of bytes used by the codes of the rows.
+     *
+     * @return the size of the codes in memory
+     */
+    public long codeBytes() {
+        return codes.length;
+    }
+
+    public Parameters parameters() {
+        return parameters;
+    }
+
+    private double[] query(Vectorizable target) {
+        double[] query = normalize(target).toArray();
+        if (query.length != dimension && size() > 0) {
+            throw new VectorException("Vector length do not match. Vector length is: " + query.length + " and the other vector's length is: " + dimension);
+        }
+        return query;
+    }
+
+    /**
+     * Ranks every row by its distance to the query, looked up in one table per subspace.
+     */
+    private TopK scan(double[] query, int count, QueryExecutor executor) {
+        double[][] tables = new double[subspaces][];
+        for (int subspace = 0; subspace < subspaces; subspace++) {
+            int width = starts[subspace + 1] - starts[subspace];
+            double[] codebook = codebooks[subspace];
+            tables[subspace] = new double[codebook.length / width];
+            for (int centroid = 0; centroid < tables[subspace].length; centroid++) {
+                tables[subspace][centroid] = VectorKernels.squaredDistance(query, starts[subspace], codebook, centroid * width, width);
+            }
+        }
+        return executor.collect(size(), () -> TopK.of(count), (heap, row) -> heap.offer(row, distance(tables, row)), TopK::merge);
+    }
+
+    private double distance(double[][] tables, int row) {
+        int start = row * subspaces;
+        double sum = 0.0;
+        for (int subspace = 0; subspace < subspaces; subspace++) {
+            sum += tables[subspace][codes[start + subspace] & 0xFF];
+        }
+        return sum;
+    }
+
+    private TopK rescore(double[] query, int[] candidates, int k) {
+        TopK nearest = TopK.of(k);
+        for (int row : candidates) {
+            nearest.offer(row, VectorKernels.squaredDistance(query, 0, rowOf(exact, row, dimension), 0, dimension));
+        }
+        return nearest;
+    }
+
+    private static TopK limit(TopK candidates, int k) {
+        TopK limited = TopK.of(k);
+        limited.merge(candidates);
+        return limited;
+    }
+
+    /**
+     * The parameters of a product quantization: the number of subspaces, the number of centroids of every codebook,
+     * the number of rows the codebooks are trained on and the number of candidates re-scored with their exact rows.
+     */
+    public static final class Parameters {
+        private static final int MAX_CENTROIDS = 256;
+
+        private final int subspaces;
+        private final int centroids;
+        private final int trainingSize;
+        private final int rerank;
+
+        private Parameters(int subspaces, int centroids, int trainingSize, int rerank) {
+            this.subspaces = subspaces;
+            this.centroids = centroids;
+            this.trainingSize = trainingSize;
+            this.rerank = rerank;
+        }
+
+        /**
+         * Creates new parameters.
+         *
+         * @param subspaces    the number of groups of columns, and of bytes per row; capped at the number of features
+         * @param centroids    the number of centroids of every codebook, at most 256
+         * @param trainingSize the number of rows sampled to train the codebooks
+         * @param rerank       the number of candidates re-scored with their exact rows, or 0 to keep the quantized
+         *                     distances
+         * @return the parameters
+         * @throws ArgumentException if one of the values is out of range
+         */
+        public static Parameters of(int subspaces, int centroids, int trainingSize, int rerank) {
+            if (subspaces < 1 || centroids < 1 || centroids > MAX_CENTROIDS || trainingSize < 1 || rerank < 0) {
+                throw new ArgumentException("Invalid product quantization parameters. Expected subspaces >= 1, "
+                        + "1 <= centroids <= 256, trainingSize >= 1 and rerank >= 0, but got subspaces: " + subspaces
+                        + ", centroids: " + centroids + ", trainingSize: " + trainingSize + ", rerank: " + rerank);
+            }
+            return new Parameters(subspaces, centroids, trainingSize, rerank);
+        }
+
+        /**
+         * Returns the default parameters: 8 subspaces of 256 centroids trained on 20 000 rows, and the 100 best
+         * candidates re-scored exactly.
+         *
+         * @return the default parameters
+         */
+        public static Parameters defaults() {
+            return new Parameters(8, MAX_CENTROIDS, 20_000, 100);
+        }
+
+        /**
+         * Returns a copy of these parameters with another re-rank depth. The depth does not change the codes, so it can
+         * be tuned without training again.
+         *
+         * @param rerank the number of candidates re-scored with their exact rows
+         * @return the new parameters
+         */
+        public Parameters withRerank(int rerank) {
+            return of(subspaces, centroids, trainingSize, rerank);
+        }
+
+        public int subspaces() {
+            return subspaces;
+        }
+
+        public int centroids() {
+            return centroids;
+        }
+
+        public int trainingSize() {
+            return trainingSize;
+        }
+
+        public int rerank() {
+            return rerank;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import com.acepero13.research.profilesimilarity.exceptions.ArgumentException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Runs the parallel part of a query: the scan of the rows of a data set, or the targets of a batch.
+ * <p>
+ * By default the classifiers split their scans over the common {@link ForkJoinPool}, so every concurrent query fans
+ * out over the same workers. A service answering many requests at once can instead answer every query on its calling
+ * thread, give an index its own pool, or cap the helpers borrowed by all queries together. The executor only decides
+ * where the work runs: the results are the same whatever the executor.
+ *
+ * @see Knn#withExecutor(QueryExecutor)
+ * @see KnnMixedData#withExecutor(QueryExecutor)
+ * @see MostSimilar#withExecutor(QueryExecutor)
+ */
+public interface QueryExecutor {
+
+    /**
+     * Runs every query sequentially on the thread that calls the classifier.
+     *
+     * @return the caller thread executor
+     */
+    static QueryExecutor callerThread() {
+        return CallerThreadExecutor.INSTANCE;
+    }
+
+    /**
+     * Splits every query over the common {@link ForkJoinPool}. This is the executor of the classifiers unless another
+     * one is given.
+     *
+     * @return the common pool executor
+     */
+    static QueryExecutor commonPool() {
+        return ForkJoinQueryExecutor.COMMON;
+    }
+
+    /**
+     * Splits every query over a new, dedicated {@link ForkJoinPool}, for example one pool per index. The workers of
+     * the pool are daemon threads.
+     *
+     * @param parallelism the number of workers of the pool
+     * @return an executor backed by a new pool
+     * @throws ArgumentException if the parallelism is not positive
+     */
+    static QueryExecutor forkJoinPool(int parallelism) {
+        if (parallelism < 1) {
+            throw new ArgumentException("The parallelism of a pool must be positive, but got: " + parallelism);
+        }
+        return new ForkJoinQueryExecutor(new ForkJoinPool(parallelism));
+    }
+
+    /**
+     * Splits every query over the given {@link ForkJoinPool}.
+     *
+     * @param pool the pool that runs the queries
+     * @return an executor backed by the pool
+     */
+    static QueryExecutor of(ForkJoinPool pool) {
+        return new ForkJoinQueryExecutor(requireNonNull(pool));
+    }
+
+    /**
+     * Answers every query on the thread that calls the classifier, typically one thread per request, and lets it borrow
+     * helper tasks from the given executor. The helpers of every query share one semaphore of {@code permits}: a query
+     * only borrows the permits that are free when it starts and never waits for one, so the total parallelism stays
+     * bounded however many requests arrive at once, and a query on a busy service simply runs on its own thread. On a
+     * JDK with virtual threads, every request can run on its own virtual thread, and a virtual thread per task executor
+     * can serve as helpers.
+     *
+     * @param helpers the executor that runs the borrowed tasks, which should start them without queueing
+     * @param permits the maximum number of helper tasks running at the same time, across every query
+     * @return a bounded executor
+     * @throws ArgumentException if the number of permits is negative
+     */
+    static QueryExecutor bounded(Executor helpers, int permits) {
+        if (permits < 0) {
+            throw new ArgumentException("The number of permits cannot be negative, but got: " + permits);
+        }
+        return new BoundedQueryExecutor(requireNonNull(helpers), permits);
+    }
+
+    /**
+     * Returns the number of threads that can work on a query at the same time.
+     *
+     * @return the parallelism of the executor
+     */
+    int parallelism();
+
+    /**
+     * Performs a mutable reduction of the indices from {@code 0} to {@code size - 1}, like
+     * {@link java.util.stream.IntStream#collect(Supplier, ObjIntConsumer, BiConsumer)}. Every index is cheap: the
+     * executor splits the range into large chunks.
+     *
+     * @param size        the number of indices
+     * @param supplier    creates an empty container for a chunk
+     * @param accumulator adds an index to a container
+     * @param combiner    merges the second container into the first, which holds the lower indices
+     * @param <R>         the type of the container
+     * @return the container holding every index
+     */
+    <R> R collect(int size, Supplier<R> supplier, ObjIntConsumer<R> accumulator, BiConsumer<R, R> combiner);
+
+    /**
+     * Runs an action for every index from {@code 0} to {@code size - 1}. Every index is a large piece of work, such as
+     * a whole target or a block of targets, and may run on its own thread.
+     *
+     * @param size   the number of indices
+     * @param action the action to run for every index
+     */
+    void forEach(int size, IntConsumer action);
+
+    /**
+     * Applies a function to every item, each item being a large piece of work.
+     *
+     * @param items    the items
+     * @param function the function to apply
+     * @param <T>      the type of the items
+     * @param <R>      the type of the results
+     * @return the results, in the order of the items
+     */
+    default <T, R> List<R> map(List<? extends T> items, Function<? super T, ? extends R> function) {
+        List<R> results = new ArrayList<>(Collections.nCopies(items.size(), null));
+        forEach(items.size(), index -> results.set(index, function.apply(items.get(index))));
+        return results;
+    }
+}
@@ -0,0 +1,121 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import com.acepero13.research.profilesimilarity.utils.TopK;
+
+/**
+ * Selects the k best rows for many queries at once.
+ * <p>
+ * Queries are split into blocks that are processed in parallel by a {@link QueryExecutor}. Within a query block the
+ * rows are visited in blocks small enough to stay in cache, and every row of a block is scored against every query of
+ * the block before moving to the next one, so each row is read from memory once per query block instead of once per
+ * query.
+ */
+final class TiledScan {
+    /**
+     * Approximate number of values of a row block, small enough to stay in the L2 cache.
+     */
+    private static final int BLOCK_SIZE = 8192;
+    /**
+     * Maximum number of queries scored against the same row block.
+     */
+    private static final int QUERY_BLOCK = 32;
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private TiledScan() {
+    }
+
+    /**
+     * Returns true if there are enough queries to keep every worker of the executor busy with whole query blocks.
+     * Otherwise, the queries should be answered one by one, parallelizing over the rows.
+     *
+     * @param queries  the number of queries
+     * @param executor the executor that runs the batch
+     * @return true if the batch should be tiled
+     */
+    static boolean isWorthTiling(int queries, QueryExecutor executor) {
+        return queries >= executor.parallelism() * 2;
+    }
+
+    /**
+     * Scores every row against every query and keeps the k rows with the lowest score for each query.
+     *
+     * @param queries  the number of queries
+     * @param rows     the number of rows
+     * @param width    the number of values of each row, used to size the row blocks
+     * @param k        the number of rows to keep per query
+     * @param executor the executor that runs the query blocks
+     * @param scorer   the score of a row for a query, lower is better
+     * @return the selected rows of every query, in query order
+     */
+    static TopK[] select(int queries, int rows, int width, int k, QueryExecutor executor, Scorer scorer) {
+        return select(queries, rows, width, k, executor, (query, row, bound) -> scorer.score(query, row));
+    }
+
+    /**
+     * Scores every row against every query and keeps the k rows with the lowest score for each query. The scorer
+     * receives the worst score still kept for the query, so it can stop scoring a row as soon as the row cannot be
+     * kept.
+     *
+     * @param queries  the number of queries
+     * @param rows     the number of rows
+     * @param width    the number of values of each row, used to size the row blocks
+     * @param k        the number of rows to keep per query
+     * @param executor the executor that runs the query blocks
+     * @param scorer   the score of a row for a query, lower is better
+     * @return the selected rows of every query, in query order
+     */
+    static TopK[] select(int queries, int rows, int width, int k, QueryExecutor executor, BoundedScorer scorer) {
+        TopK[] result = new TopK[queries];
+        int rowsPerBlock = Math.max(1, BLOCK_SIZE / Math.max(1, width));
+        int queryBlocks = (queries + QUERY_BLOCK - 1) / QUERY_BLOCK;
+        executor.forEach(queryBlocks, block -> {
+            int firstQuery = block * QUERY_BLOCK;
+            int lastQuery = Math.min(queries, firstQuery + QUERY_BLOCK);
+            for (int query = firstQuery; query < lastQuery; query++) {
+                result[query] = TopK.of(k);
+            }
+            for (int firstRow = 0; firstRow < rows; firstRow += rowsPerBlock) {
+                int lastRow = Math.min(rows, firstRow + rowsPerBlock);
+                for (int row = firstRow; row < lastRow; row++) {
+                    for (int query = firstQuery; query < lastQuery; query++) {
+                        result[query].offer(row, scorer.score(query, row, result[query].threshold()));
+                    }
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Scores a row for a query.
+     */
+    @FunctionalInterface
+    interface Scorer {
+        /**
+         * Returns the score of a row for a query.
+         *
+         * @param query the index of the query
+         * @param row   the index of the row
+         * @return the score, lower is better
+         */
+        double score(int query, int row);
+    }
+
+    /**
+     * Scores a row for a query, given the worst score that can still be kept.
+     */
+    @FunctionalInterface
+    interface BoundedScorer {
+        /**
+         * Returns the score of a row for a query, or any value greater than the bound if the score is greater.
+         *
+         * @param query the index of the query
+         * @param row   the index of the row
+         * @param bound the worst score kept for the query
+         * @return the score, lower is better
+         */
+        double score(int query, int row, double bound);
+    }
+}
@@ -2,172 +2,236 @@ package com.acepero13.research.profilesimilarity.core.classifier.result;
 
 import com.acepero13.research.profilesimilarity.api.features.CategoricalFeature;
 import com.acepero13.research.profilesimilarity.api.features.Feature;
+import com.acepero13.research.profilesimilarity.api.features.NumericalFeature;
 import com.acepero13.research.profilesimilarity.core.Score;
-import com.acepero13.research.profilesimilarity.core.vectors.FeatureVector;
 import com.acepero13.research.profilesimilarity.exceptions.PredictionException;
-import com.acepero13.research.profilesimilarity.utils.Tuple;
-import lombok.Data;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
 
 /**
  * The confidence score for a KNN regression prediction can be calculated using the following formula:
  * <p>
  * confidence score = 1 / (∑(distance to K nearest neighbors)^p)
+ * <p>
+ * The votes and the weighted sums of every feature are computed when the result is built, in a single pass over the
+ * features of the neighbors. Every feature name becomes a column; classifying or predicting a feature resolves its
+ * name to a column once and reads the tallies of that column, so a result costs {@code O(k * features)} however many
+ * features are queried. The vote of every neighbor is weighted by its distance with the {@link Weighting} of the result.
  */
 final class FeatureVectorResult implements Result {
-    private final List<FeatureVector> vectors;
     private final List<Score> scoredVectors;
+    private final double totalWeight;
+    private final double sumOfSquaredDistances;
+    private final Map<String, Integer> numericalColumns = new HashMap<>();
+    private final List<Regression> regressions = new ArrayList<>();
+    private final Map<String, Integer> categoricalColumns = new HashMap<>();
+    private final List<Votes> votes = new ArrayList<>();
+    private final ConcurrentMap<Class<?>, Integer> typeColumns = new ConcurrentHashMap<>();
 
     public FeatureVectorResult(List<Score> scoredVectors) {
-        this.vectors = scoredVectors.stream().map(Score::sample).collect(Collectors.toList());
-        this.scoredVectors = scoredVectors;
+        this(scoredVectors, Weighting.majority());
     }
 
-    private Classification classify(Map<CategoricalFeature<?>, Long> groups) {
-        List<Map.Entry<CategoricalFeature<?>, Long>> sortedEntries = new ArrayList<>(groups.entrySet());
-        sortedEntries.sort(Map.Entry.comparingByValue(Comparator.reverseOrder()));
+    FeatureVectorResult(List<Score> scoredVectors, Weighting weighting) {
+        this.scoredVectors = requireNonNull(scoredVectors);
+        double[] weights = weightsOf(scoredVectors, requireNonNull(weighting));
+        double total = 0.0;
+        double squares = 0.0;
+        for (int neighbor = 0; neighbor < weights.length; neighbor++) {
+            Score scored = scoredVectors.get(neighbor);
+            total += weights[neighbor];
+            squares += scored.score() * scored.score();
+            for (Feature<?> feature : scored.sample().getFeatures()) {
+                if (feature instanceof CategoricalFeature) {
+                    Votes column = column(categoricalColumns, votes, feature.featureName(), Votes::new);
+                    column.vote(neighbor, (CategoricalFeature<?>) feature, weights[neighbor]);
+                } else if (feature instanceof NumericalFeature) {
+                    Regression column = column(numericalColumns, regressions, feature.featureName(), Regression::new);
+                    column.add(neighbor, feature.featureValue(), weights[neighbor]);
+                }
+            }
+        }
+        this.totalWeight = total;
+        this.sumOfSquaredDistances = squares;
+    }
 
-        if (sortedEntries.isEmpty()) {
+    /**
+     * Returns the weight of every neighbor. When a neighbor has an infinite weight, only the neighbors with an infinite
+     * weight vote, with the same weight; when every weight is zero, every neighbor votes with the same weight.
+     */
+    private static double[] weightsOf(List<Score> scoredVectors, Weighting weighting) {
+        double[] weights = new double[scoredVectors.size()];
+        boolean infinite = false;
+        double total = 0.0;
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = weighting.weight(scoredVectors.get(i).score());
+            infinite |= Double.isInfinite(weights[i]);
+            total += weights[i];
+        }
+        for (int i = 0; i < weights.length; i++) {
+            if (infinite) {
+                weights[i] = Double.isInfinite(weights[i]) ? 1.0 : 0.0;
+            } else if (total == 0.0) {
+                weights[i] = 1.0;
+            }
+        }
+        return weights;
+    }
+
+    private static <C> C column(Map<String, Integer> columns, List<C> tallies, String featureName, Supplier<C> factory) {
+        int column = columns.computeIfAbsent(featureName, name -> {
+            tallies.add(factory.get());
+            return tallies.size() - 1;
+        });
+        return tallies.get(column);
+    }
+
+    /**
+     * Returns the value with the highest vote in a column. Ties go to the value found first, that is, in the closest
+     * neighbor.
+     */
+    private Classification classify(int column) {
+        if (column < 0) {
             throw new PredictionException("Could not find a suitable category ");
         }
-        Map.Entry<CategoricalFeature<?>, Long> best = sortedEntries.get(0);
-        CategoricalFeature<?> classification = best.getKey();
-        double score = best.getValue() / (double) vectors.size();
-        return new Classification(classification, Probability.of(score));
+        Votes tally = votes.get(column);
+        int best = tally.best();
+        return new Classification(tally.values.get(best), Probability.of(tally.votes[best] / totalWeight));
+    }
+
+    private int column(String featureName) {
+        return categoricalColumns.getOrDefault(featureName, -1);
+    }
+
+    private int column(Class<? extends CategoricalFeature<?>> type) {
+        return typeColumns.computeIfAbsent(type, t -> {
+            for (int column = 0; column < votes.size(); column++) {
+                if (t.isInstance(votes.get(column).values.get(0))) {
+                    return column;
+                }
+            }
+            return -1;
+        });
     }
 
     @Override
     public CategoricalFeature<?> classify(String featureName) {
-        Map<CategoricalFeature<?>, Long> groups = groupResultsByCategory(featureName);
-
-        return classify(groups).classification();
+        return classify(column(featureName)).classification();
     }
 
+    /**
+     * Returns the value with the highest vote of every matching column, in the order of the feature names.
+     */
     @Override
     public List<CategoricalFeature<?>> classifyOneHot(Predicate<String> featureNameMatcher) {
-        return new OneHotEncodingClassifier(featureNameMatcher, vectors).classify();
+        List<String> matching = new ArrayList<>();
+        for (String featureName : categoricalColumns.keySet()) {
+            if (featureNameMatcher.test(featureName)) {
+                matching.add(featureName);
+            }
+        }
+        Collections.sort(matching);
+        List<CategoricalFeature<?>> result = new ArrayList<>(matching.size());
+        for (String featureName : matching) {
+            Votes tally = votes.get(categoricalColumns.get(featureName));
+            result.add(tally.values.get(tally.best()));
+        }
+        return result;
     }
 
     @Override
     public CategoricalFeature<?> classify(Class<? extends CategoricalFeature<?>> type) {
-        Map<CategoricalFeature<?>, Long> groups = groupResultsByCategory(type);
-
-        return classify(groups).classification();
+        return classify(column(type)).classification();
     }
 
     @Override
     public Classification classifyWithScore(Class<? extends CategoricalFeature<?>> type) {
-        Map<CategoricalFeature<?>, Long> groups = groupResultsByCategory(type);
-
-        return classify(groups);
-    }
-
-    private Map<CategoricalFeature<?>, Long> groupResultsByCategory(Class<? extends CategoricalFeature<?>> type) {
-        return vectors.stream()
-                      .map(v -> Tuple.of(v.getCategoricalFeatureBy(type), v))
-                      .filter(t -> t.first().isPresent())
-                      .map(t -> t.mapFirst(Optional::get))
-                      .collect(Collectors.groupingBy(Tuple::first, Collectors.counting()));
+        return classify(column(type));
     }
 
-    private Map<CategoricalFeature<?>, Long> groupResultsByCategory(String featureName) {
-
-        return vectors.stream()
-                      .map(v -> Tuple.of(v.getCategoricalFeatureBy(featureName), v))
-                      .filter(t -> t.first().isPresent())
-                      .map(t -> t.mapFirst(Optional::get))
-                      .collect(Collectors.groupingBy(Tuple::first, Collectors.counting()));
-
-
-    }
-
-
+    /**
+     * Returns the mean of the feature over the neighbors, weighted by the weighting of the result. Neighbors without
+     * the feature count as zero.
+     */
     @Override
     public Double predict(String featureName) {
-        if (vectors.isEmpty()) {
+        if (scoredVectors.isEmpty()) {
             throw new PredictionException("List of vectors is empty");
         }
-        return vectors.stream()
-                      .map(v -> v.getNumericalFeatureBy(featureName))
-                      .filter(Optional::isPresent)
-                      .map(Optional::get)
-                      .mapToDouble(Feature::featureValue)
-                      .sum() / vectors.size();
+        Integer column = numericalColumns.get(featureName);
+        return column == null ? 0.0 : regressions.get(column).sum / totalWeight;
     }
 
     @Override
     public Prediction predictWithScore(String featureName) {
-
         Double value = predict(featureName);
 
-        var sum = scoredVectors.stream()
-                     .map(sv -> Math.pow(sv.score(), 2))
-                .mapToDouble(Double::doubleValue)
-                .sum();
-
-        double score = sum == 0 ? 0.0 : (1 / sum);
+        double score = sumOfSquaredDistances == 0 ? 0.0 : (1 / sumOfSquaredDistances);
 
         return new Prediction(value, score);
     }
 
-    @Data
-    private static class OneHotEncodingClassifier {
-        final Predicate<String> featureNameMatcher;
-        final List<FeatureVector> vectors;
-
-        private static void addMostCommonValueTo(List<CategoricalFeature<?>> result, Map<Object, List<CategoricalFeature<?>>> sorted) {
-            sorted.values().stream()
-                  .findFirst()
-                  .flatMap(l -> l.stream().findFirst())
-                  .ifPresent(result::add);
-        }
-
-        private static Map<Object, List<CategoricalFeature<?>>> sortValuesByOcurrence(Map<Object, List<CategoricalFeature<?>>> countMap) {
-            return countMap.entrySet().stream()
-                           .sorted((o1, o2) -> Integer.compare(o2.getValue().size(), o1.getValue().size()))
-                           .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue,
-                                   (v1, v2) -> v1, LinkedHashMap::new));
-        }
-
-        private static Map<Object, List<CategoricalFeature<?>>> groupResultBy(List<CategoricalFeature<?>> values) {
-            return values.stream()
-                         .collect(Collectors.groupingBy(CategoricalFeature::originalValue, HashMap::new,
-                                 Collectors.toList()));
-        }
-
-        private List<CategoricalFeature<?>> classify() {
-            Set<String> feats = extractMatchingFeatures();
+    @Override
+    public Result weightedBy(Weighting weighting) {
+        return new FeatureVectorResult(scoredVectors, weighting);
+    }
 
-            List<CategoricalFeature<?>> result = new ArrayList<>();
-            for (var featureName : feats) {
-                List<CategoricalFeature<?>> values = extractCategoricalFeatureFor(featureName);
-                Map<Object, List<CategoricalFeature<?>>> countMap = groupResultBy(values);
-                Map<Object, List<CategoricalFeature<?>>> sorted = sortValuesByOcurrence(countMap);
-                addMostCommonValueTo(result, sorted);
+    /**
+     * The weighted sum of a numerical column. Only the first feature of a neighbor with the name of the column is
+     * counted.
+     */
+    private static final class Regression {
+        private int lastNeighbor = -1;
+        private double sum;
+
+        private void add(int neighbor, double value, double weight) {
+            if (neighbor != lastNeighbor) {
+                lastNeighbor = neighbor;
+                sum += weight * value;
             }
-
-            return result;
         }
+    }
 
-        private List<CategoricalFeature<?>> extractCategoricalFeatureFor(String featureName) {
-            return vectors.stream()
-                          .map(v -> v.getCategoricalFeatureBy(featureName))
-                          .flatMap(Optional::stream)
-                          .collect(Collectors.toList());
+    /**
+     * The votes of a categorical column. Every distinct value gets a code in order of appearance, and the vote of every
+     * neighbor is added to the code of its value. Only the first feature of a neighbor with the name of the column
+     * votes.
+     */
+    private static final class Votes {
+        private final Map<Object, Integer> codes = new HashMap<>();
+        private final List<CategoricalFeature<?>> values = new ArrayList<>();
+        private double[] votes = new double[4];
+        private int lastNeighbor = -1;
+
+        private void vote(int neighbor, CategoricalFeature<?> feature, double weight) {
+            if (neighbor == lastNeighbor) {
+                return;
+            }
+            lastNeighbor = neighbor;
+            int code = codes.computeIfAbsent(feature.originalValue(), value -> {
+                values.add(feature);
+                return values.size() - 1;
+            });
+            if (code == votes.length) {
+                votes = Arrays.copyOf(votes, votes.length * 2);
+            }
+            votes[code] += weight;
         }
 
-
-        private Set<String> extractMatchingFeatures() {
-            return vectors.stream()
-                          .flatMap(v -> v.categorical().stream())
-                          .map(Feature::featureName)
-                          .filter(featureNameMatcher)
-                          .collect(Collectors.toSet());
+        private int best() {
+            int best = 0;
+            for (int code = 1; code < values.size(); code++) {
+                if (votes[code] > votes[best]) {
+                    best = code;
+                }
+            }
+            return best;
         }
-
     }
-
 }
@@ -25,6 +25,18 @@ public interface Result {
         return new FeatureVectorResult(vectors);
     }
 
+    /**
+     * Returns a new instance of {@code KnnResult} whose votes and predictions are weighted by the distance of every
+     * neighbor.
+     *
+     * @param vectors   the scored neighbors to include in the result, the score being the distance to the target.
+     * @param weighting the weight of the vote of a neighbor, given its distance.
+     * @return a new instance of {@code KnnResult} containing the provided list of feature vectors.
+     */
+    static Result of(List<Score> vectors, Weighting weighting) {
+        return new FeatureVectorResult(vectors, weighting);
+    }
+
     /**
      * Returns a categorical feature that represents the predicted class of the input feature vector. The feature name
      * is specified as a string parameter.
@@ -83,4 +95,16 @@ public interface Result {
     default List<CategoricalFeature<?>> classifyOneHot(Predicate<String> featureNameMatcher) {
         throw new UnsupportedOperationException("classification for one hot vectors is not supported");
     }
+
+    /**
+     * Returns a result with the same neighbors, whose votes and predictions are weighted by the distance of every
+     * neighbor with the given weighting. The default weighting is {@link Weighting#majority()}.
+     *
+     * @param weighting the weight of the vote of a neighbor, given its distance.
+     * @return a result with the same neighbors.
+     * @throws UnsupportedOperationException if the method is not supported by the implementing class.
+     */
+    default Result weightedBy(Weighting weighting) {
+        throw new UnsupportedOperationException("weighted votes are not supported");
+    }
 }
@@ -0,0 +1,54 @@
+package com.acepero13.research.profilesimilarity.core.classifier.result;
+
+import com.acepero13.research.profilesimilarity.exceptions.ArgumentException;
+
+/**
+ * The weight of the vote of a neighbor, given its distance to the target. The classifications and predictions of a
+ * {@link Result} are the weighted votes and the weighted mean of its neighbors.
+ */
+@FunctionalInterface
+public interface Weighting {
+
+    /**
+     * Every neighbor has the same vote, whatever its distance.
+     *
+     * @return the majority weighting
+     */
+    static Weighting majority() {
+        return distance -> 1.0;
+    }
+
+    /**
+     * The vote of a neighbor is the inverse of its distance. Neighbors at a distance of zero are infinitely close:
+     * when there is one, only those neighbors vote.
+     *
+     * @return the inverse distance weighting
+     */
+    static Weighting inverseDistance() {
+        return distance -> 1.0 / distance;
+    }
+
+    /**
+     * The vote of a neighbor decreases with its distance following a Gaussian kernel,
+     * {@code exp(-distance^2 / (2 * bandwidth^2))}.
+     *
+     * @param bandwidth the distance at which the weight has dropped to about 60%
+     * @return the Gaussian weighting
+     * @throws ArgumentException if the bandwidth is not positive
+     */
+    static Weighting gaussian(double bandwidth) {
+        if (!(bandwidth > 0)) {
+            throw new ArgumentException("The bandwidth of a Gaussian kernel must be positive, but " + bandwidth + " was given");
+        }
+        double denominator = 2 * bandwidth * bandwidth;
+        return distance -> Math.exp(-distance * distance / denominator);
+    }
+
+    /**
+     * Returns the weight of the vote of a neighbor.
+     *
+     * @param distance the distance of the neighbor to the target
+     * @return the weight, not negative
+     */
+    double weight(double distance);
+}
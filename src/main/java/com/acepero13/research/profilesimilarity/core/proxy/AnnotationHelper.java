@@ -12,14 +12,22 @@ import java.util.stream.Stream;
 
 final class AnnotationHelper {
     public static <A extends Annotation> Optional<A> getAnnotation(Object target, Class<A> annotationType) {
-        return Arrays.stream(target.getClass().getAnnotations())
+        return getAnnotation(target.getClass(), annotationType);
+    }
+
+    public static <A extends Annotation> Optional<A> getAnnotation(Class<?> type, Class<A> annotationType) {
+        return Arrays.stream(type.getAnnotations())
                 .filter(a -> a.annotationType().equals(annotationType))
                 .map(annotationType::cast)
                 .findFirst();
     }
 
     public static <A extends Annotation> List<Tuple<Field, A>> getAnnotatedFields(Object target, Class<A> annotationType) {
-        return Stream.of(target.getClass().getDeclaredFields())
+        return getAnnotatedFields(target.getClass(), annotationType);
+    }
+
+    public static <A extends Annotation> List<Tuple<Field, A>> getAnnotatedFields(Class<?> type, Class<A> annotationType) {
+        return Stream.of(type.getDeclaredFields())
                 .map(a -> fields(a, annotationType))
                 .filter(Optional::isPresent)
                 .map(Optional::get)
@@ -1,40 +1,47 @@
 package com.acepero13.research.profilesimilarity.core.proxy;
 
 import com.acepero13.research.profilesimilarity.api.features.CategoricalFeature;
+import com.acepero13.research.profilesimilarity.api.features.Feature;
 import com.acepero13.research.profilesimilarity.exceptions.VectorizableProxyException;
-import com.acepero13.research.profilesimilarity.utils.ListUtils;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Objects;
 
+/**
+ * Handler of a {@link CategoricalFeature} proxy around a plain value. {@link #of(Object, String)} no longer creates
+ * proxies and returns the plain wrapper instead; the handler is kept for callers that build their own proxies.
+ */
 @SuppressWarnings("ALL")
 public class CategoricalFeatureProxy implements InvocationHandler {
 
-
     private final CategoricalWrapper wrapper;
 
     public CategoricalFeatureProxy(Object target, String name) {
         this.wrapper = new CategoricalWrapper(target, name);
     }
 
+    /**
+     * Returns the given object as a categorical feature. Objects that are not already a CategoricalFeature are wrapped
+     * in a plain value that matches, and is equal to, any categorical feature with an equal original value.
+     *
+     * @param object the value of the feature
+     * @param name   the name of the feature
+     * @param <A>    the type of the feature
+     * @return the object as a categorical feature
+     */
     public static <A> CategoricalFeature<A> of(Object object, String name) {
         if (object instanceof CategoricalFeature) {
             return (CategoricalFeature<A>) object;
         }
-        return (CategoricalFeature<A>) Proxy.newProxyInstance(
-                CategoricalFeature.class.getClassLoader(),
-                new Class[]{CategoricalFeature.class},
-                new CategoricalFeatureProxy(object, name)
-        );
-    }
-
-    private static CategoricalFeatureProxy toProxy(Object another) {
-        return (CategoricalFeatureProxy) Proxy.getInvocationHandler(another);
+        return (CategoricalFeature<A>) new CategoricalWrapper(object, name);
     }
 
-    private static boolean isProxyClass(Object anotherRule) {
-        return Proxy.isProxyClass(anotherRule.getClass());
+    private static boolean isCategoricalProxy(Object another) {
+        return Proxy.isProxyClass(another.getClass())
+                && Proxy.getInvocationHandler(another) instanceof CategoricalFeatureProxy;
     }
 
     @Override
@@ -50,22 +57,16 @@ public class CategoricalFeatureProxy implements InvocationHandler {
             case "featureValue":
                 return wrapper.featureValue();
             case "isWhiteListed":
-                var feats = FeaturesHelper.features(args);
-                FeaturesHelper.checkArguments(args, FeaturesHelper.exactly(ListUtils.class));
-                return wrapper.isWhiteListed(feats);
+                return wrapper.isWhiteListed((List<Feature<?>>) args[0]);
             case "toString":
                 return wrapper.toString();
             case "hashCode":
                 return wrapper.hashCode();
             case "equals":
-                FeaturesHelper.checkArguments(args, 1, FeaturesHelper.oneOf(CategoricalFeatureProxy.class, CategoricalFeature.class));
-                return objectEquals(args[0]);
             case "matches":
-                FeaturesHelper.checkArguments(args, FeaturesHelper.exactly(CategoricalFeature.class));
                 return objectEquals(args[0]);
             default:
                 throw new VectorizableProxyException("Error calling undefined method for Categorical Feature: " + methodName);
-
         }
     }
 
@@ -75,29 +76,15 @@ public class CategoricalFeatureProxy implements InvocationHandler {
     }
 
     public boolean objectEquals(Object o) {
-        if (this.wrapper == o) return true;
         if (o == null) return false;
-
-        if (isProxyClass(o)) {
-            CategoricalFeatureProxy proxy = toProxy(o);
-            return isEqualToTarget(proxy);
-        } else if (o instanceof CategoricalFeature) {
-            return equalToRealTarget((CategoricalFeature) o);
+        if (isCategoricalProxy(o)) {
+            return wrapper.equals(((CategoricalFeatureProxy) Proxy.getInvocationHandler(o)).wrapper);
         }
-        return false;
-    }
-
-    private boolean equalToRealTarget(CategoricalFeature another) {
-        return wrapper.originalValue().equals(another.originalValue());
-    }
-
-    private boolean isEqualToTarget(CategoricalFeatureProxy another) {
-        if (this.getClass() != another.getClass()) return false;
-        return wrapper.originalValue().equals(another.wrapper.originalValue());
+        return wrapper.equals(o);
     }
 
     @SuppressWarnings("rawtypes")
-    private static class CategoricalWrapper implements CategoricalFeature {
+    private static final class CategoricalWrapper implements CategoricalFeature {
         private final String name;
         private final Object target;
 
@@ -116,9 +103,26 @@ public class CategoricalFeatureProxy implements InvocationHandler {
             return name;
         }
 
+        @Override
+        public boolean matches(CategoricalFeature another) {
+            return another != null && Objects.equals(target, another.originalValue());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CategoricalFeature)) return false;
+            return Objects.equals(target, ((CategoricalFeature) o).originalValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(target);
+        }
+
         @Override
         public String toString() {
-            return target.toString();
+            return String.valueOf(target);
         }
     }
 }
@@ -0,0 +1,182 @@
+package com.acepero13.research.profilesimilarity.core.proxy;
+
+import com.acepero13.research.profilesimilarity.annotations.Categorical;
+import com.acepero13.research.profilesimilarity.annotations.Numerical;
+import com.acepero13.research.profilesimilarity.annotations.Vectorizable;
+import com.acepero13.research.profilesimilarity.api.features.CategoricalFeature;
+import com.acepero13.research.profilesimilarity.api.features.Feature;
+import com.acepero13.research.profilesimilarity.api.features.Features;
+import com.acepero13.research.profilesimilarity.core.AbstractVectorizable;
+import com.acepero13.research.profilesimilarity.core.OneHotEncodingExtractor;
+import com.acepero13.research.profilesimilarity.exceptions.ArgumentException;
+import com.acepero13.research.profilesimilarity.exceptions.VectorizableProxyException;
+import com.acepero13.research.profilesimilarity.utils.Tuple;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The features of a class annotated with {@link Vectorizable}, resolved once per class.
+ * <p>
+ * The annotations and fields of a class are scanned the first time one of its objects is vectorized. The plan keeps a
+ * {@link MethodHandle} getter and the name, weight and kind of every annotated field, so vectorizing further objects
+ * of the same class only reads their fields.
+ */
+final class VectorizationPlan {
+    private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+    private static final ClassValue<VectorizationPlan> PLANS = new ClassValue<>() {
+        @Override
+        protected VectorizationPlan computeValue(Class<?> type) {
+            return VectorizationPlan.of(type);
+        }
+    };
+
+    private final List<Extractor> extractors;
+
+    private VectorizationPlan(List<Extractor> extractors) {
+        this.extractors = extractors;
+    }
+
+    /**
+     * Returns the plan of the class of the given object, building it the first time the class is seen.
+     *
+     * @param target the object to vectorize
+     * @return the plan of its class
+     * @throws ArgumentException if the class is not annotated with {@link Vectorizable}
+     */
+    static VectorizationPlan of(Object target) {
+        return PLANS.get(Objects.requireNonNull(target).getClass());
+    }
+
+    private static VectorizationPlan of(Class<?> type) {
+        if (AnnotationHelper.getAnnotation(type, Vectorizable.class).isEmpty()) {
+            throw new ArgumentException("Missing annotation. Please, make sure to add the @Vectorizable annotation to " + type.getSimpleName());
+        }
+        List<Extractor> extractors = new ArrayList<>();
+        for (Tuple<Field, Numerical> field : AnnotationHelper.getAnnotatedFields(type, Numerical.class)) {
+            extractors.add(numerical(field.first(), field.second()));
+        }
+        for (Tuple<Field, Categorical> field : AnnotationHelper.getAnnotatedFields(type, Categorical.class)) {
+            extractors.add(categorical(field.first(), field.second()));
+        }
+        return new VectorizationPlan(extractors);
+    }
+
+    /**
+     * Adds the features of the target to the given vectorizable, in the order of the annotated fields.
+     *
+     * @param target       the object to vectorize
+     * @param vectorizable the vectorizable that receives the features
+     */
+    void addFeatures(Object target, AbstractVectorizable vectorizable) {
+        for (Extractor extractor : extractors) {
+            extractor.addTo(target, vectorizable);
+        }
+    }
+
+    private static Extractor numerical(Field field, Numerical annotation) {
+        String name = annotation.name().isEmpty() ? field.getName() : annotation.name();
+        double weight = annotation.weight();
+        MethodHandle getter = getter(field);
+        Class<?> fieldType = field.getType();
+        String error = "Error while creating numerical feature: " + annotation.name();
+        if (fieldType.equals(Integer.class) || fieldType.equals(int.class)) {
+            return (target, vectorizable) -> vectorizable.addNonNullFeature(Features.integerFeature((Integer) read(getter, target, error), name, weight));
+        } else if (fieldType.equals(Double.class) || fieldType.equals(double.class)) {
+            return (target, vectorizable) -> vectorizable.addNonNullFeature(Features.doubleFeature((Double) read(getter, target, error), name, weight));
+        } else if (fieldType.equals(Boolean.class) || fieldType.equals(boolean.class)) {
+            return (target, vectorizable) -> vectorizable.addNonNullFeature(Features.booleanFeature((Boolean) read(getter, target, error), name, weight));
+        }
+        return (target, vectorizable) -> {
+        };
+    }
+
+    private static Extractor categorical(Field field, Categorical annotation) {
+        MethodHandle getter = getter(field);
+        if (annotation.oneHotEncoding()) {
+            String error = "Error while creating one-hot-encoding: " + annotation.name();
+            OneHotEncodingFieldExtractor oneHot = new OneHotEncodingFieldExtractor(annotation);
+            return (target, vectorizable) -> oneHot.extract(read(getter, target, error))
+                    .forEach(vectorizable::addNonNullFeature);
+        }
+        String name = annotation.name().isEmpty() ? field.getName() : annotation.name();
+        String error = "Error while creating categorical feature: " + name;
+        return (target, vectorizable) -> vectorizable.addNonNullFeature(CategoricalFeatureProxy.of(read(getter, target, error), name));
+    }
+
+    private static MethodHandle getter(Field field) {
+        try {
+            field.setAccessible(true);
+            return MethodHandles.lookup().unreflectGetter(field).asType(GETTER);
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new VectorizableProxyException("Cannot access field: " + field.getName(), e);
+        }
+    }
+
+    private static Object read(MethodHandle getter, Object target, String error) {
+        try {
+            return getter.invokeExact(target);
+        } catch (Throwable e) {
+            throw new VectorizableProxyException(error, e);
+        }
+    }
+
+    /**
+     * Reads one annotated field of an object and adds the resulting features.
+     */
+    @FunctionalInterface
+    private interface Extractor {
+        void addTo(Object target, AbstractVectorizable vectorizable);
+    }
+
+    /**
+     * Converts the values of a one-hot encoded field. The enum constants of the field and the extractor built from them
+     * are resolved once per enum type, the first time a value of that type is converted.
+     */
+    private static final class OneHotEncodingFieldExtractor {
+        private final Categorical annotation;
+        private final ClassValue<OneHotEncodingExtractor<CategoricalFeature<?>>> extractors = new ClassValue<>() {
+            @Override
+            protected OneHotEncodingExtractor<CategoricalFeature<?>> computeValue(Class<?> type) {
+                if (!type.isEnum()) {
+                    throw new VectorizableProxyException("I cannot infer the type of the categorical feature for one-hot-encoding."
+                            + annotation.name()
+                            + "Please, include the type parameter in the Categorical annotation");
+                }
+                return OneHotEncodingExtractor.oneHotEncodingOf(OneHotEncodingExtractor.allValuesForOneHot(annotation, filter(type.getEnumConstants())));
+            }
+        };
+
+        private OneHotEncodingFieldExtractor(Categorical annotation) {
+            this.annotation = annotation;
+        }
+
+        private List<Feature<?>> extract(Object targetObject) throws VectorizableProxyException {
+            if (!(targetObject instanceof List)) {
+                throw new VectorizableProxyException("Expecting list argument for one-hot-encoding, but got" + targetObject);
+            }
+            List<?> originalValues = new ArrayList<>((List<?>) targetObject);
+            List<CategoricalFeature<Object>> values = originalValues.stream()
+                    .map(c -> CategoricalFeatureProxy.<Object>of(c, annotation.name()))
+                    .collect(Collectors.toList());
+            Class<?> type = values.isEmpty() ? annotation.type() : originalValues.get(0).getClass();
+            return extractors.get(type).convertCategoricalFeature(values);
+        }
+
+        private Object[] filter(Object[] constants) {
+            if (annotation.values() != null && annotation.values().length > 0) {
+                return Arrays.stream(constants).filter(c -> Stream.of(annotation.values()).anyMatch(a -> a.equals(c.toString())))
+                        .toArray();
+            }
+            return constants;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.acepero13.research.profilesimilarity.core.vectors;
+
+import com.acepero13.research.profilesimilarity.api.Vector;
+import com.acepero13.research.profilesimilarity.api.features.CategoricalFeature;
+import com.acepero13.research.profilesimilarity.exceptions.VectorException;
+import lombok.EqualsAndHashCode;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A vector of binary values packed into 64-bit words, such as a one-hot encoding.
+ * <p>
+ * The set operations used by the set-based metrics are computed with {@link Long#bitCount(long)} over whole words,
+ * so a group of up to 64 one-hot values costs a single word per row.
+ */
+@EqualsAndHashCode
+public final class BitVector {
+    private static final int WORD_SIZE = Long.SIZE;
+
+    private final long[] words;
+    private final int size;
+
+    private BitVector(long[] words, int size) {
+        this.words = words;
+        this.size = size;
+    }
+
+    /**
+     * Creates a new BitVector with the given values.
+     *
+     * @param values the values of the vector
+     * @return a new BitVector
+     */
+    public static BitVector of(boolean... values) {
+        long[] words = new long[wordsFor(requireNonNull(values).length)];
+        for (int i = 0; i < values.length; i++) {
+            if (values[i]) {
+                words[i / WORD_SIZE] |= 1L << i;
+            }
+        }
+        return new BitVector(words, values.length);
+    }
+
+    /**
+     * Creates a new BitVector from the boolean categorical features of a list, in order. Features that do not hold a
+     * boolean value are skipped, as in {@link com.acepero13.research.profilesimilarity.api.Metric#from(List)}.
+     *
+     * @param features the categorical features
+     * @return a new BitVector with one value per boolean feature
+     */
+    public static BitVector of(List<CategoricalFeature<?>> features) {
+        long[] words = new long[wordsFor(requireNonNull(features).size())];
+        int size = 0;
+        for (CategoricalFeature<?> feature : features) {
+            Object value = feature.originalValue();
+            if (value instanceof Boolean) {
+                if ((Boolean) value) {
+                    words[size / WORD_SIZE] |= 1L << size;
+                }
+                size++;
+            }
+        }
+        return new BitVector(Arrays.copyOf(words, wordsFor(size)), size);
+    }
+
+    /**
+     * Creates a new BitVector with a set value wherever the given vector is exactly 1.0.
+     *
+     * @param vector the vector to pack
+     * @return a new BitVector of the same size
+     */
+    public static BitVector of(Vector<Double> vector) {
+        boolean[] bits = new boolean[requireNonNull(vector).size()];
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = vector.valueAt(i) == 1.0;
+        }
+        return of(bits);
+    }
+
+    private static int wordsFor(int size) {
+        return (size + WORD_SIZE - 1) / WORD_SIZE;
+    }
+
+    /**
+     * Returns the number of values of this vector.
+     *
+     * @return the size of the vector
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value at the given position.
+     *
+     * @param index the position of the value
+     * @return true if the value is set
+     */
+    public boolean get(int index) {
+        Objects.checkIndex(index, size);
+        return (words[index / WORD_SIZE] & (1L << index)) != 0;
+    }
+
+    /**
+     * Returns the number of set values.
+     *
+     * @return the number of set values
+     */
+    public int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of positions set in both vectors.
+     *
+     * @param another the other vector
+     * @return the size of the intersection
+     * @throws VectorException if the vectors do not have the same size
+     */
+    public int andCardinality(BitVector another) {
+        checkSizeMatchWith(another);
+        int count = 0;
+        for (int i = 0; i < words.length; i++) {
+            count += Long.bitCount(words[i] & another.words[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of positions set in at least one of the vectors.
+     *
+     * @param another the other vector
+     * @return the size of the union
+     * @throws VectorException if the vectors do not have the same size
+     */
+    public int orCardinality(BitVector another) {
+        checkSizeMatchWith(another);
+        int count = 0;
+        for (int i = 0; i < words.length; i++) {
+            count += Long.bitCount(words[i] | another.words[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of positions set in exactly one of the vectors.
+     *
+     * @param another the other vector
+     * @return the size of the symmetric difference
+     * @throws VectorException if the vectors do not have the same size
+     */
+    public int xorCardinality(BitVector another) {
+        checkSizeMatchWith(another);
+        int count = 0;
+        for (int i = 0; i < words.length; i++) {
+            count += Long.bitCount(words[i] ^ another.words[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Returns this vector as a NormalizedVector of 0.0 and 1.0 values.
+     *
+     * @return the unpacked vector
+     */
+    public NormalizedVector toNormalizedVector() {
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = get(i) ? 1.0 : 0.0;
+        }
+        return NormalizedVector.of(DoubleVector.of(values));
+    }
+
+    private void checkSizeMatchWith(BitVector another) {
+        if (requireNonNull(another).size != size) {
+            throw new VectorException("Vector length do not match. Vector length is: " + size + " and the other vector's length is: " + another.size);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(size);
+        for (int i = 0; i < size; i++) {
+            builder.append(get(i) ? '1' : '0');
+        }
+        return "BitVector(" + builder + ")";
+    }
+}
@@ -3,40 +3,34 @@ package com.acepero13.research.profilesimilarity.core.vectors;
 import com.acepero13.research.profilesimilarity.api.Vector;
 import com.acepero13.research.profilesimilarity.api.features.Feature;
 import com.acepero13.research.profilesimilarity.exceptions.VectorException;
-import com.acepero13.research.profilesimilarity.utils.ListUtils;
 import com.acepero13.research.profilesimilarity.utils.MinMax;
 import com.acepero13.research.profilesimilarity.utils.Tuple;
-import com.acepero13.research.profilesimilarity.utils.VectorCollector;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import lombok.extern.java.Log;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
  * A {@link Vector} implementation that represents a collection of double values.
+ * <p>
+ * The values are stored in a primitive {@code double[]}, so every arithmetic operation runs as an indexed loop
+ * without boxing and without allocating intermediate objects per element.
  */
 @EqualsAndHashCode
 @ToString
 @Log
 public class DoubleVector implements Vector<Double> {
-    private final List<Double> features;
-    private final int size;
+    private final double[] features;
 
-    private DoubleVector(List<Double> arr) {
-        this.features = Objects.requireNonNull(arr, "Features cannot be null");
-        this.size = features.size();
+    private DoubleVector(double[] features) {
+        this.features = Objects.requireNonNull(features, "Features cannot be null");
     }
 
-    private DoubleVector(Double[] arr) {
-        this(List.of(arr));
-    }
-
-
     /**
      * Creates a new DoubleVector object from an array of double values.
      *
@@ -44,6 +38,22 @@ public class DoubleVector implements Vector<Double> {
      * @return a new DoubleVector object initialized with the specified values.
      */
     public static DoubleVector of(Double... features) {
+        Objects.requireNonNull(features, "Features cannot be null");
+        double[] values = new double[features.length];
+        for (int i = 0; i < features.length; i++) {
+            values[i] = features[i];
+        }
+        return new DoubleVector(values);
+    }
+
+    /**
+     * Creates a new DoubleVector object backed by the given primitive array.
+     *
+     * @param features the array of double values to create the DoubleVector object from.
+     * @return a new DoubleVector object initialized with the specified values.
+     * @implNote The array is not copied. It must not be modified after the vector has been created.
+     */
+    public static DoubleVector of(double[] features) {
         return new DoubleVector(features);
     }
 
@@ -54,7 +64,13 @@ public class DoubleVector implements Vector<Double> {
      * @return a new DoubleVector object initialized with the specified values.
      */
     public static DoubleVector of(List<Double> features) {
-        return new DoubleVector(features);
+        Objects.requireNonNull(features, "Features cannot be null");
+        double[] values = new double[features.size()];
+        int i = 0;
+        for (Double feature : features) {
+            values[i++] = feature;
+        }
+        return new DoubleVector(values);
     }
 
     /**
@@ -64,9 +80,12 @@ public class DoubleVector implements Vector<Double> {
      * @return a new DoubleVector object initialized with the specified values, where each integer value is converted to double.
      */
     public static DoubleVector of(Integer... features) {
-        return new DoubleVector(Stream.of(features)
-                .map(Integer::doubleValue)
-                .collect(Collectors.toList()));
+        Objects.requireNonNull(features, "Features cannot be null");
+        double[] values = new double[features.length];
+        for (int i = 0; i < features.length; i++) {
+            values[i] = features[i];
+        }
+        return new DoubleVector(values);
     }
 
     /**
@@ -76,112 +95,167 @@ public class DoubleVector implements Vector<Double> {
      * @return a new DoubleVector object initialized with the specified values, where each feature's value is collected into a list of doubles.
      */
     public static DoubleVector ofFeatures(List<Feature<?>> features) {
-        return new DoubleVector(features.stream()
-                .map(Feature::featureValue)
-                .collect(Collectors.toList()));
+        double[] values = new double[features.size()];
+        int i = 0;
+        for (Feature<?> feature : features) {
+            values[i++] = feature.featureValue();
+        }
+        return new DoubleVector(values);
+    }
+
+    /**
+     * Returns the primitive values of the given vector. If the vector is (or wraps) a {@link DoubleVector} its backing
+     * array is returned directly, otherwise the values are copied.
+     *
+     * @param vector the vector to read.
+     * @return the values of the vector.
+     */
+    private static double[] valuesOf(Vector<Double> vector) {
+        Vector<Double> unwrapped = vector.toDouble();
+        if (unwrapped instanceof DoubleVector) {
+            return ((DoubleVector) unwrapped).features;
+        }
+        double[] values = new double[unwrapped.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = unwrapped.getFeature(i);
+        }
+        return values;
     }
 
     @Override
     public Double norm() {
-        return Math.sqrt(
-                features.stream()
-                        .mapToDouble(f -> Math.pow(f, 2))
-                        .sum()
-        );
+        double sum = 0.0;
+        for (double feature : features) {
+            sum += feature * feature;
+        }
+        return Math.sqrt(sum);
     }
 
     @Override
     public Double cosine(Vector<Double> another) throws VectorException {
-        Double denominator = norm() * another.norm();
-        if (denominator == 0) {
-            return 0.0;
-        }
-        return dot(another) / denominator;
+        checkSizeMatchWith(another);
+        return VectorKernels.cosine(features, 0, valuesOf(another), 0, features.length);
     }
 
     @Override
     public Double dot(Vector<Double> another) throws VectorException {
         checkSizeMatchWith(another);
-        return zip(another)
-                .map(t -> t.first() * t.second())
-                .reduce(0.0, Double::sum);
+        return VectorKernels.dot(features, 0, valuesOf(another), 0, features.length);
     }
 
     @Override
     public Double distanceTo(Vector<Double> another) throws VectorException {
-        return subtract(another).norm();
+        return Math.sqrt(squaredDistanceTo(another));
     }
 
     @Override
-    public Vector<Double> add(Vector<Double> another) throws VectorException {
+    public double squaredDistanceTo(Vector<Double> another) throws VectorException {
         checkSizeMatchWith(another);
+        return VectorKernels.squaredDistance(features, 0, valuesOf(another), 0, features.length);
+    }
 
-        return zip(another)
-                .map(t -> t.first() + t.second())
-                .collect(VectorCollector.toVector());
+    @Override
+    public double manhattanDistanceTo(Vector<Double> another) throws VectorException {
+        checkSizeMatchWith(another);
+        return VectorKernels.manhattanDistance(features, 0, valuesOf(another), 0, features.length);
+    }
+
+    @Override
+    public Vector<Double> add(Vector<Double> another) throws VectorException {
+        checkSizeMatchWith(another);
+        double[] other = valuesOf(another);
+        double[] result = new double[features.length];
+        for (int i = 0; i < features.length; i++) {
+            result[i] = features[i] + other[i];
+        }
+        return new DoubleVector(result);
     }
 
     @Override
     public Vector<Double> subtract(Vector<Double> another) throws VectorException {
         checkSizeMatchWith(another);
-        return zip(another)
-                .map(t -> t.first() - t.second())
-                .collect(VectorCollector.toVector());
+        double[] other = valuesOf(another);
+        double[] result = new double[features.length];
+        for (int i = 0; i < features.length; i++) {
+            result[i] = features[i] - other[i];
+        }
+        return new DoubleVector(result);
     }
 
     @Override
     public void checkSizeMatchWith(Vector<Double> another) throws VectorException {
-        if (size != another.size()) {
+        if (features.length != another.size()) {
             log.warning("Vectors do not match");
-            throw new VectorException("Vector length do not match. Vector length is: " + size + " and the other vector's length is: " + another.size());
+            throw new VectorException("Vector length do not match. Vector length is: " + features.length + " and the other vector's length is: " + another.size());
         }
     }
 
     @Override
     public Stream<Tuple<Double, Double>> zip(Vector<Double> another) {
-        return IntStream.range(0, size)
-                .mapToObj(i -> Tuple.of(features.get(i), another.getFeature(i)));
+        return IntStream.range(0, features.length)
+                .mapToObj(i -> Tuple.of(features[i], another.getFeature(i)));
     }
 
     @Override
     public Vector<Double> multiply(Vector<Double> another) throws VectorException {
         checkSizeMatchWith(another);
-        return zip(another)
-                .map(t -> t.first() * t.second())
-                .collect(VectorCollector.toVector());
+        double[] other = valuesOf(another);
+        double[] result = new double[features.length];
+        for (int i = 0; i < features.length; i++) {
+            result[i] = features[i] * other[i];
+        }
+        return new DoubleVector(result);
     }
 
     @Override
     public Double getFeature(int index) throws IndexOutOfBoundsException {
-        return features.get(index);
+        return features[Objects.checkIndex(index, features.length)];
     }
 
 
+    @Override
+    public double valueAt(int index) {
+        return features[index];
+    }
+
     @Override
     public int size() {
-        return features.size();
+        return features.length;
     }
 
     @Override
     public MinMax minMax() {
-        double min = features.stream()
-                .min(Double::compare).orElse(Double.MIN_VALUE - 1);
-        double max = features.stream()
-                .max(Double::compare).orElse(Double.MIN_VALUE - 1);
+        if (features.length == 0) {
+            return new MinMax(Double.MIN_VALUE - 1, Double.MIN_VALUE - 1);
+        }
+        double min = features[0];
+        double max = features[0];
+        for (double feature : features) {
+            min = Math.min(min, feature);
+            max = Math.max(max, feature);
+        }
         return new MinMax(min, max);
     }
 
 
     @Override
-    public Vector<Double> divide(Vector<Double> another) {
-        return zip(another)
-                .map(t -> t.first() / t.second())
-                .collect(VectorCollector.toVector());
+    public Vector<Double> divide(Vector<Double> another) throws VectorException {
+        checkSizeMatchWith(another);
+        double[] other = valuesOf(another);
+        double[] result = new double[features.length];
+        for (int i = 0; i < features.length; i++) {
+            result[i] = features[i] / other[i];
+        }
+        return new DoubleVector(result);
     }
 
     @Override
     public double sum() {
-        return features.stream().mapToDouble(f -> f).sum();
+        double sum = 0.0;
+        for (double feature : features) {
+            sum += feature;
+        }
+        return sum;
     }
 
     @Override
@@ -190,7 +264,11 @@ public class DoubleVector implements Vector<Double> {
             log.warning("Division by zero is not allowed");
             throw new VectorException("value cannot be zero");
         }
-        return features.stream().map(f -> f / value).collect(VectorCollector.toVector());
+        double[] result = new double[features.length];
+        for (int i = 0; i < features.length; i++) {
+            result[i] = features[i] / value;
+        }
+        return new DoubleVector(result);
     }
 
     @Override
@@ -200,7 +278,11 @@ public class DoubleVector implements Vector<Double> {
 
     @Override
     public Vector<Double> abs() {
-        return features.stream().map(Math::abs).collect(VectorCollector.toVector());
+        double[] result = new double[features.length];
+        for (int i = 0; i < features.length; i++) {
+            result[i] = Math.abs(features[i]);
+        }
+        return new DoubleVector(result);
     }
 
     @Override
@@ -210,11 +292,19 @@ public class DoubleVector implements Vector<Double> {
             return this.add(anotherVector);
         }
         if (difference > 0) {
-            DoubleVector padded = new DoubleVector(ListUtils.padding(((DoubleVector) anotherVector).features, padding, Math.abs(difference)));
-            return this.add(padded);
+            return this.add(padded(valuesOf(anotherVector), padding, features.length));
         }
-        return new DoubleVector(ListUtils.padding(features, padding, Math.abs(difference))).add(anotherVector);
+        return padded(features, padding, anotherVector.size()).add(anotherVector);
     }
 
+    @Override
+    public double[] toArray() {
+        return features.clone();
+    }
 
+    private static DoubleVector padded(double[] values, double padding, int length) {
+        double[] result = Arrays.copyOf(values, length);
+        Arrays.fill(result, values.length, length, padding);
+        return new DoubleVector(result);
+    }
 }
@@ -78,6 +78,16 @@ public class FeatureVector implements Vector<AbstractNumericalFeature<Double>> {
         return vector.distanceTo(another.toDouble());
     }
 
+    @Override
+    public double squaredDistanceTo(Vector<AbstractNumericalFeature<Double>> another) throws VectorException {
+        return vector.squaredDistanceTo(another.toDouble());
+    }
+
+    @Override
+    public double manhattanDistanceTo(Vector<AbstractNumericalFeature<Double>> another) throws VectorException {
+        return vector.manhattanDistanceTo(another.toDouble());
+    }
+
     @Override
     public Vector<AbstractNumericalFeature<Double>> add(Vector<AbstractNumericalFeature<Double>> another) throws VectorException {
         return new FeatureVector(vector.add(another.toDouble()), categorical, features);
@@ -108,6 +118,11 @@ public class FeatureVector implements Vector<AbstractNumericalFeature<Double>> {
         throw new UnsupportedOperationException("t.b.d");
     }
 
+    @Override
+    public double valueAt(int index) {
+        return vector.valueAt(index);
+    }
+
     @Override
     public int size() {
         return this.categorical.size() + this.vector.size();
@@ -138,6 +153,11 @@ public class FeatureVector implements Vector<AbstractNumericalFeature<Double>> {
         return vector;
     }
 
+    @Override
+    public double[] toArray() {
+        return vector.toArray();
+    }
+
     @Override
     public Vector<AbstractNumericalFeature<Double>> abs() {
         return new FeatureVector(vector.abs(), categorical, features);
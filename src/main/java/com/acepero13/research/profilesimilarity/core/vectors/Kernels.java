@@ -0,0 +1,66 @@
+package com.acepero13.research.profilesimilarity.core.vectors;
+
+/**
+ * An implementation of the distance and similarity kernels of {@link VectorKernels}.
+ * <p>
+ * Every kernel reads {@code length} values starting at the given offsets of both arrays and does not allocate.
+ *
+ * @see VectorKernels#backend()
+ */
+public interface Kernels {
+
+    /**
+     * Returns the name of the implementation, for logs and benchmarks.
+     *
+     * @return the name of the implementation
+     */
+    String name();
+
+    /**
+     * Computes the dot product of two ranges.
+     *
+     * @param a       the first array.
+     * @param aOffset the index of the first value of the first range.
+     * @param b       the second array.
+     * @param bOffset the index of the first value of the second range.
+     * @param length  the number of values of each range.
+     * @return the dot product.
+     */
+    double dot(double[] a, int aOffset, double[] b, int bOffset, int length);
+
+    /**
+     * Computes the squared Euclidean distance between two ranges.
+     *
+     * @param a       the first array.
+     * @param aOffset the index of the first value of the first range.
+     * @param b       the second array.
+     * @param bOffset the index of the first value of the second range.
+     * @param length  the number of values of each range.
+     * @return the squared Euclidean distance.
+     */
+    double squaredDistance(double[] a, int aOffset, double[] b, int bOffset, int length);
+
+    /**
+     * Computes the Manhattan (L1) distance between two ranges.
+     *
+     * @param a       the first array.
+     * @param aOffset the index of the first value of the first range.
+     * @param b       the second array.
+     * @param bOffset the index of the first value of the second range.
+     * @param length  the number of values of each range.
+     * @return the Manhattan distance.
+     */
+    double manhattanDistance(double[] a, int aOffset, double[] b, int bOffset, int length);
+
+    /**
+     * Computes the cosine similarity between two ranges.
+     *
+     * @param a       the first array.
+     * @param aOffset the index of the first value of the first range.
+     * @param b       the second array.
+     * @param bOffset the index of the first value of the second range.
+     * @param length  the number of values of each range.
+     * @return the cosine similarity, or 0 if one of the ranges has a norm of zero.
+     */
+    double cosine(double[] a, int aOffset, double[] b, int bOffset, int length);
+}
@@ -67,6 +67,16 @@ public class NormalizedVector implements Vector<Double> {
         return vector.distanceTo(another);
     }
 
+    @Override
+    public double squaredDistanceTo(Vector<Double> another) throws VectorException {
+        return vector.squaredDistanceTo(another);
+    }
+
+    @Override
+    public double manhattanDistanceTo(Vector<Double> another) throws VectorException {
+        return vector.manhattanDistanceTo(another);
+    }
+
     @Override
     public Vector<Double> add(Vector<Double> another) throws VectorException {
         return vector.add(another);
@@ -97,6 +107,11 @@ public class NormalizedVector implements Vector<Double> {
         return vector.getFeature(index);
     }
 
+    @Override
+    public double valueAt(int index) {
+        return vector.valueAt(index);
+    }
+
     @Override
     public int size() {
         return vector.size();
@@ -128,6 +143,11 @@ public class NormalizedVector implements Vector<Double> {
         return vector.toDouble();
     }
 
+    @Override
+    public double[] toArray() {
+        return vector.toArray();
+    }
+
     @Override
     public Vector<Double> abs() {
         return vector.abs();
@@ -0,0 +1,170 @@
+package com.acepero13.research.profilesimilarity.core.vectors;
+
+import lombok.extern.java.Log;
+
+import java.util.Optional;
+import java.util.logging.Level;
+
+/**
+ * Single-pass distance and similarity kernels over primitive arrays.
+ * <p>
+ * Every kernel reads {@code length} values starting at the given offsets of both arrays, walks the memory once and
+ * does not allocate. Offsets make it possible to run the kernels directly over rows packed into one contiguous array.
+ * <p>
+ * The kernels delegate to a {@link Kernels} backend chosen once, when this class is loaded. When the JVM was started
+ * with {@code --add-modules jdk.incubator.vector}, the SIMD backend is used; otherwise, or when the system property
+ * {@value #BACKEND_PROPERTY} is set to {@code scalar}, the portable scalar loops are used.
+ */
+@Log
+public final class VectorKernels {
+    /**
+     * The system property that forces the scalar backend when set to {@code scalar}.
+     */
+    public static final String BACKEND_PROPERTY = "profilesimilarity.kernels";
+    /**
+     * The number of values accumulated between two checks of the bound of an abandoning distance.
+     */
+    public static final int ABANDON_BLOCK = 32;
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final Kernels SIMD = loadSimd();
+    private static final Kernels BACKEND = "scalar".equals(System.getProperty(BACKEND_PROPERTY)) || SIMD == null
+            ? ScalarKernels.INSTANCE
+            : SIMD;
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private VectorKernels() {
+    }
+
+    private static Kernels loadSimd() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return null;
+        }
+        try {
+            return (Kernels) Class.forName(VectorKernels.class.getPackageName() + ".SimdKernels")
+                    .getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            log.log(Level.WARNING, "Cannot load the SIMD kernels, falling back to the scalar kernels", e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns the backend used by the kernels of this class.
+     *
+     * @return the selected backend
+     */
+    public static Kernels backend() {
+        return BACKEND;
+    }
+
+    /**
+     * Returns the portable scalar backend.
+     *
+     * @return the scalar backend
+     */
+    public static Kernels scalar() {
+        return ScalarKernels.INSTANCE;
+    }
+
+    /**
+     * Returns the SIMD backend, if the {@code jdk.incubator.vector} module is available.
+     *
+     * @return the SIMD backend, or empty
+     */
+    public static Optional<Kernels> simd() {
+        return Optional.ofNullable(SIMD);
+    }
+
+    /**
+     * Computes the dot product of two ranges.
+     *
+     * @param a       the first array.
+     * @param aOffset the index of the first value of the first range.
+     * @param b       the second array.
+     * @param bOffset the index of the first value of the second range.
+     * @param length  the number of values of each range.
+     * @return the dot product.
+     */
+    public static double dot(double[] a, int aOffset, double[] b, int bOffset, int length) {
+        return BACKEND.dot(a, aOffset, b, bOffset, length);
+    }
+
+    /**
+     * Computes the squared Euclidean distance between two ranges.
+     *
+     * @param a       the first array.
+     * @param aOffset the index of the first value of the first range.
+     * @param b       the second array.
+     * @param bOffset the index of the first value of the second range.
+     * @param length  the number of values of each range.
+     * @return the squared Euclidean distance.
+     */
+    public static double squaredDistance(double[] a, int aOffset, double[] b, int bOffset, int length) {
+        return BACKEND.squaredDistance(a, aOffset, b, bOffset, length);
+    }
+
+    /**
+     * Computes the squared Euclidean distance between two ranges, abandoning it once it exceeds a bound. The distance
+     * is accumulated {@value #ABANDON_BLOCK} values at a time and the bound is checked after every block, so a range
+     * that cannot beat the bound is usually rejected after reading only its first values. When the ranges are sorted by
+     * decreasing spread of their values, the partial sum grows fastest and the distance is abandoned earliest.
+     *
+     * @param a       the first array.
+     * @param aOffset the index of the first value of the first range.
+     * @param b       the second array.
+     * @param bOffset the index of the first value of the second range.
+     * @param length  the number of values of each range.
+     * @param bound   the distance above which the computation can stop.
+     * @return the squared Euclidean distance, or a partial sum greater than the bound if the computation was abandoned.
+     */
+    public static double squaredDistance(double[] a, int aOffset, double[] b, int bOffset, int length, double bound) {
+        if (length <= ABANDON_BLOCK) {
+            return BACKEND.squaredDistance(a, aOffset, b, bOffset, length);
+        }
+        double sum = 0.0;
+        for (int start = 0; start < length && sum <= bound; start += ABANDON_BLOCK) {
+            sum += BACKEND.squaredDistance(a, aOffset + start, b, bOffset + start, Math.min(ABANDON_BLOCK, length - start));
+        }
+        return sum;
+    }
+
+    /**
+     * Computes the Manhattan (L1) distance between two ranges.
+     *
+     * @param a       the first array.
+     * @param aOffset the index of the first value of the first range.
+     * @param b       the second array.
+     * @param bOffset the index of the first value of the second range.
+     * @param length  the number of values of each range.
+     * @return the Manhattan distance.
+     */
+    public static double manhattanDistance(double[] a, int aOffset, double[] b, int bOffset, int length) {
+        return BACKEND.manhattanDistance(a, aOffset, b, bOffset, length);
+    }
+
+    /**
+     * Computes the cosine similarity between two ranges. The dot product and both norms are accumulated in the same
+     * loop.
+     *
+     * @param a       the first array.
+     * @param aOffset the index of the first value of the first range.
+     * @param b       the second array.
+     * @param bOffset the index of the first value of the second range.
+     * @param length  the number of values of each range.
+     * @return the cosine similarity, or 0 if one of the ranges has a norm of zero.
+     */
+    public static double cosine(double[] a, int aOffset, double[] b, int bOffset, int length) {
+        return BACKEND.cosine(a, aOffset, b, bOffset, length);
+    }
+
+    static double cosine(double dot, double normA, double normB) {
+        double denominator = Math.sqrt(normA) * Math.sqrt(normB);
+        if (denominator == 0) {
+            return 0.0;
+        }
+        return dot / denominator;
+    }
+}
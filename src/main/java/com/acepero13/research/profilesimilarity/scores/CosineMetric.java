@@ -1,14 +1,17 @@
 package com.acepero13.research.profilesimilarity.scores;
 
 import com.acepero13.research.profilesimilarity.api.Metric;
+import com.acepero13.research.profilesimilarity.core.CategoricalDictionary;
 import com.acepero13.research.profilesimilarity.core.MixedSample;
+import com.acepero13.research.profilesimilarity.core.PackedRow;
+import com.acepero13.research.profilesimilarity.core.vectors.VectorKernels;
 import com.acepero13.research.profilesimilarity.core.vectors.NormalizedVector;
 
 import java.util.Objects;
 
 import static java.util.Objects.requireNonNull;
 
-final class CosineMetric implements Metric {
+final class CosineMetric implements Metric, PackedMetric {
     @Override
     public Double similarityScore(NormalizedVector vector, NormalizedVector another) {
         return requireNonNull(vector).cosine(requireNonNull(another));
@@ -20,6 +23,25 @@ final class CosineMetric implements Metric {
         return (sample.getVector().cosine(another.getVector()) + categoricalScore) / 2;
     }
 
+    @Override
+    public Double similarityScore(PackedRow row, PackedRow another) {
+        if (row.codes() == null || another.codes() == null || row.numberOfCodes() != another.numberOfCodes()) {
+            return similarityScore(row.decode(), another.decode());
+        }
+        int matches = CategoricalDictionary.matches(row.codes(), row.codesOffset(), another.codes(), another.codesOffset(), another.numberOfCodes());
+        int featureCount = another.numberOfCategoricalFeatures();
+        double categoricalScore = featureCount == 0
+                ? 0.0
+                : (double) matches / featureCount;
+        return (numericalScore(row, another) + categoricalScore) / 2;
+    }
+
+    @Override
+    public double numericalScore(PackedRow row, PackedRow another) {
+        PackedMetric.checkSizeMatch(row, another);
+        return VectorKernels.cosine(row.values(), row.offset(), another.values(), another.offset(), row.length());
+    }
+
     private static double computeCategoricalScore(MixedSample sample, MixedSample another) {
         int matches = requireNonNull(sample).numberOfMatches(requireNonNull(another));
         int featureCount = sample.numberOfMatchingFeatures(another);
@@ -1,6 +1,8 @@
 package com.acepero13.research.profilesimilarity.scores;
 
 import com.acepero13.research.profilesimilarity.api.Metric;
+import com.acepero13.research.profilesimilarity.core.PackedRow;
+import com.acepero13.research.profilesimilarity.core.vectors.VectorKernels;
 import com.acepero13.research.profilesimilarity.core.vectors.NormalizedVector;
 import com.acepero13.research.profilesimilarity.utils.CalculationUtils;
 
@@ -8,9 +10,15 @@ import java.util.Objects;
 
 import static java.util.Objects.requireNonNull;
 
-final class EuclideanDistance implements Metric {
+final class EuclideanDistance implements Metric, PackedMetric {
     @Override
     public Double similarityScore(NormalizedVector vector, NormalizedVector another) {
         return CalculationUtils.sigmoid(requireNonNull(vector).distanceTo(requireNonNull(another)));
     }
+
+    @Override
+    public double numericalScore(PackedRow row, PackedRow another) {
+        PackedMetric.checkSizeMatch(row, another);
+        return CalculationUtils.sigmoid(Math.sqrt(VectorKernels.squaredDistance(row.values(), row.offset(), another.values(), another.offset(), row.length())));
+    }
 }
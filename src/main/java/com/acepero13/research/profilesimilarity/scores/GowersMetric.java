@@ -2,6 +2,7 @@ package com.acepero13.research.profilesimilarity.scores;
 
 import com.acepero13.research.profilesimilarity.api.Metric;
 import com.acepero13.research.profilesimilarity.core.MixedSample;
+import com.acepero13.research.profilesimilarity.core.PackedRow;
 import com.acepero13.research.profilesimilarity.core.vectors.NormalizedVector;
 
 
@@ -27,9 +28,17 @@ final class GowersMetric implements Metric {
     @Override
     public Double similarityScore(MixedSample sample, MixedSample another) {
         double numericalScore = this.numericalMetric.similarityScore(sample.getVector(), another.getVector());
-        double categoricalScore = this.categoricalMetric.similarityScore(
-                Metric.from(sample.getFeatures()),
-                Metric.from(another.getFeatures()));
+        double categoricalScore = this.categoricalMetric.similarityScore(sample.getFlags(), another.getFlags());
+
+        return (numericalScore + categoricalScore) / 2;
+    }
+
+    @Override
+    public Double similarityScore(PackedRow row, PackedRow another) {
+        double numericalScore = numericalMetric instanceof PackedMetric
+                ? ((PackedMetric) numericalMetric).numericalScore(row, another)
+                : this.numericalMetric.similarityScore(row.decode().getVector(), another.decode().getVector());
+        double categoricalScore = this.categoricalMetric.similarityScore(row.flags(), another.flags());
 
         return (numericalScore + categoricalScore) / 2;
     }
@@ -1,41 +1,44 @@
 package com.acepero13.research.profilesimilarity.scores;
 
 import com.acepero13.research.profilesimilarity.api.Metric;
+import com.acepero13.research.profilesimilarity.core.vectors.BitVector;
 import com.acepero13.research.profilesimilarity.core.vectors.NormalizedVector;
 
 final class JaccardMetric implements Metric {
     @Override
     public Double similarityScore(NormalizedVector vector, NormalizedVector anotherVector) {
 
-        int a = numberOfAttributesEqualToOne(vector, anotherVector);
-        int b = numberOfAttributesEqualToZeroForFirstAndOneForTheOther(vector, anotherVector);
-        int c = numberOfAttributesEqualToOneForFirstAndAndZeroForTheOther(vector, anotherVector);
-
+        int bothOne = 0;
+        int onlyOther = 0;
+        int onlyFirst = 0;
+        for (int i = 0; i < vector.size(); i++) {
+            double first = vector.valueAt(i);
+            double second = anotherVector.valueAt(i);
+            if (first == 1.0 && second == 1.0) {
+                bothOne++;
+            } else if (first == 0.0 && second == 1.0) {
+                onlyOther++;
+            } else if (first == 1.0 && second == 0.0) {
+                onlyFirst++;
+            }
+        }
 
-        int denominator = a + b + c;
+        int denominator = bothOne + onlyOther + onlyFirst;
         if (denominator == 0) {
             return 0.0;
         }
-        return (double) a / denominator;
-    }
-
-
-    private int numberOfAttributesEqualToOneForFirstAndAndZeroForTheOther(NormalizedVector vector, NormalizedVector anotherVector) {
-        return (int) vector.zip(anotherVector)
-                .filter(t -> t.filterBoth(f -> f.equals(1.0), s -> s.equals(0.0)))
-                .count();
+        return (double) bothOne / denominator;
     }
 
-    private int numberOfAttributesEqualToZeroForFirstAndOneForTheOther(NormalizedVector vector1, NormalizedVector anotherVector) {
-        return (int) vector1.zip(anotherVector)
-                .filter(t -> t.filterBoth(f -> f.equals(0.0), s -> s.equals(1.0)))
-                .count();
-    }
-
-    private int numberOfAttributesEqualToOne(NormalizedVector vector, NormalizedVector another) {
-        return (int) vector.zip(another)
-                .filter(t -> t.first().equals(t.second()))
-                .filter(t -> t.first().equals(1.0))
-                .count();
+    @Override
+    public Double similarityScore(BitVector vector, BitVector anotherVector) {
+        if (vector.size() != anotherVector.size()) {
+            return similarityScore(vector.toNormalizedVector(), anotherVector.toNormalizedVector());
+        }
+        int union = vector.orCardinality(anotherVector);
+        if (union == 0) {
+            return 0.0;
+        }
+        return (double) vector.andCardinality(anotherVector) / union;
     }
 }
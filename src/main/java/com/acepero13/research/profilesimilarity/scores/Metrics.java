@@ -50,6 +50,15 @@ public final class Metrics {
         return NormalizedVector::distanceTo;
     }
 
+    /**
+     * Returns a metric for computing Manhattan (L1) distance between two vectors.
+     *
+     * @return a metric for Manhattan distance.
+     */
+    public static Metric manhattanDistance() {
+        return NormalizedVector::manhattanDistanceTo;
+    }
+
     /**
      * Returns a metric for computing Gowers distance between two vectors, which is a combination of Cosine similarity and
      * Strict Dice similarity between categorical variables.
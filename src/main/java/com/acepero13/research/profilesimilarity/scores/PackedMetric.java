@@ -0,0 +1,27 @@
+package com.acepero13.research.profilesimilarity.scores;
+
+import com.acepero13.research.profilesimilarity.core.PackedRow;
+import com.acepero13.research.profilesimilarity.exceptions.VectorException;
+
+/**
+ * A metric whose numerical score is computed with the vector kernels directly on the values of two packed rows, so that
+ * the metrics combining it with a categorical score do not decode the rows.
+ */
+interface PackedMetric {
+
+    /**
+     * Scores the numerical values of two rows stored in the same column order.
+     *
+     * @param row     the first row
+     * @param another the second row
+     * @return the numerical similarity score
+     * @throws VectorException if the rows do not have the same length
+     */
+    double numericalScore(PackedRow row, PackedRow another);
+
+    static void checkSizeMatch(PackedRow row, PackedRow another) {
+        if (row.length() != another.length()) {
+            throw new VectorException("Vector length do not match. Vector length is: " + row.length() + " and the other vector's length is: " + another.length());
+        }
+    }
+}
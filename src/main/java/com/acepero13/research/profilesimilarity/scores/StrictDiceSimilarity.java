@@ -1,6 +1,7 @@
 package com.acepero13.research.profilesimilarity.scores;
 
 import com.acepero13.research.profilesimilarity.api.Metric;
+import com.acepero13.research.profilesimilarity.core.vectors.BitVector;
 import com.acepero13.research.profilesimilarity.core.vectors.NormalizedVector;
 
 /**
@@ -11,10 +12,20 @@ import com.acepero13.research.profilesimilarity.core.vectors.NormalizedVector;
 final class StrictDiceSimilarity implements Metric {
     @Override
     public Double similarityScore(NormalizedVector vectorizable, NormalizedVector another) {
-        long similar = vectorizable.zip(another)
-                .filter(t -> t.first().equals(t.second()))
-                .filter(t -> t.first().equals(1.0))
-                .count();
+        long similar = 0;
+        for (int i = 0; i < vectorizable.size(); i++) {
+            if (vectorizable.valueAt(i) == 1.0 && another.valueAt(i) == 1.0) {
+                similar++;
+            }
+        }
         return similar / (double) vectorizable.size();
     }
+
+    @Override
+    public Double similarityScore(BitVector vector, BitVector another) {
+        if (vector.size() != another.size()) {
+            return similarityScore(vector.toNormalizedVector(), another.toNormalizedVector());
+        }
+        return vector.andCardinality(another) / (double) vector.size();
+    }
 }
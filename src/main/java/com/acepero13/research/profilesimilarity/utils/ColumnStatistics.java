@@ -0,0 +1,252 @@
+package com.acepero13.research.profilesimilarity.utils;
+
+import com.acepero13.research.profilesimilarity.api.Vector;
+import com.acepero13.research.profilesimilarity.core.vectors.DoubleVector;
+import com.acepero13.research.profilesimilarity.exceptions.VectorException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Per-column statistics of a stream of vectors, accumulated in a single pass: the minimum and maximum, the mean and
+ * variance (with Welford's algorithm) and, optionally, approximate quantiles.
+ * <p>
+ * The vectors are not kept, so the statistics of a data set larger than the heap can be computed from an
+ * {@link Iterator} or a {@link Stream}. Statistics of different partitions can be merged, which lets a parallel stream
+ * accumulate them with {@link #collector(boolean)}. The result feeds the normalizers of
+ * {@link com.acepero13.research.profilesimilarity.api.Normalizer}.
+ */
+public final class ColumnStatistics {
+    private static final int SKETCH_CAPACITY = 256;
+
+    private final boolean quantiles;
+    private long count;
+    private double[] min = new double[0];
+    private double[] max = new double[0];
+    private double[] mean = new double[0];
+    private double[] m2 = new double[0];
+    private QuantileSketch[] sketches = new QuantileSketch[0];
+
+    private ColumnStatistics(boolean quantiles) {
+        this.quantiles = quantiles;
+    }
+
+    /**
+     * Creates empty statistics.
+     *
+     * @param quantiles true to also track approximate quantiles, which {@link #quantile(double)} needs
+     * @return new empty statistics
+     */
+    public static ColumnStatistics create(boolean quantiles) {
+        return new ColumnStatistics(quantiles);
+    }
+
+    /**
+     * Accumulates the statistics of the vectors returned by an iterator.
+     *
+     * @param vectors   the vectors
+     * @param quantiles true to also track approximate quantiles
+     * @return the statistics of the vectors
+     * @throws VectorException if the vectors do not all have the same size
+     */
+    public static ColumnStatistics of(Iterator<? extends Vector<Double>> vectors, boolean quantiles) {
+        requireNonNull(vectors);
+        ColumnStatistics statistics = create(quantiles);
+        while (vectors.hasNext()) {
+            statistics.accept(vectors.next());
+        }
+        return statistics;
+    }
+
+    /**
+     * Accumulates the statistics of a stream of vectors. Parallel streams accumulate one partition per thread and
+     * merge the partial statistics.
+     *
+     * @param vectors   the vectors
+     * @param quantiles true to also track approximate quantiles
+     * @return the statistics of the vectors
+     * @throws VectorException if the vectors do not all have the same size
+     */
+    public static ColumnStatistics of(Stream<? extends Vector<Double>> vectors, boolean quantiles) {
+        return requireNonNull(vectors).collect(collector(quantiles));
+    }
+
+    /**
+     * Returns a collector that accumulates the statistics of a stream of vectors.
+     *
+     * @param quantiles true to also track approximate quantiles
+     * @return the collector
+     */
+    public static Collector<Vector<Double>, ColumnStatistics, ColumnStatistics> collector(boolean quantiles) {
+        return Collector.of(() -> create(quantiles), ColumnStatistics::accept, ColumnStatistics::merge);
+    }
+
+    /**
+     * Adds a vector to the statistics.
+     *
+     * @param vector the vector to add
+     * @return these statistics
+     * @throws VectorException if the vector does not have the size of the vectors already added
+     */
+    public ColumnStatistics accept(Vector<Double> vector) {
+        double[] values = requireNonNull(vector).toArray();
+        if (count == 0) {
+            initialize(values.length);
+        } else if (values.length != min.length) {
+            throw new VectorException("Vector length do not match. Vector length is: " + min.length + " and the other vector's length is: " + values.length);
+        }
+        count++;
+        for (int i = 0; i < values.length; i++) {
+            double value = values[i];
+            min[i] = Math.min(min[i], value);
+            max[i] = Math.max(max[i], value);
+            double delta = value - mean[i];
+            mean[i] += delta / count;
+            m2[i] += delta * (value - mean[i]);
+            if (quantiles) {
+                sketches[i].add(value);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Adds the statistics of another partition to these statistics.
+     *
+     * @param another the statistics to merge
+     * @return these statistics
+     * @throws VectorException if the statistics were accumulated over vectors of different sizes
+     */
+    public ColumnStatistics merge(ColumnStatistics another) {
+        requireNonNull(another);
+        if (another.count == 0) {
+            return this;
+        }
+        if (count == 0) {
+            initialize(another.min.length);
+        } else if (another.min.length != min.length) {
+            throw new VectorException("Vector length do not match. Vector length is: " + min.length + " and the other vector's length is: " + another.min.length);
+        }
+        long total = count + another.count;
+        for (int i = 0; i < min.length; i++) {
+            min[i] = Math.min(min[i], another.min[i]);
+            max[i] = Math.max(max[i], another.max[i]);
+            double delta = another.mean[i] - mean[i];
+            mean[i] += delta * another.count / total;
+            m2[i] += another.m2[i] + delta * delta * ((double) count * another.count / total);
+            if (quantiles && another.quantiles) {
+                sketches[i].merge(another.sketches[i]);
+            }
+        }
+        count = total;
+        return this;
+    }
+
+    private void initialize(int dimension) {
+        min = new double[dimension];
+        max = new double[dimension];
+        mean = new double[dimension];
+        m2 = new double[dimension];
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, Double.NEGATIVE_INFINITY);
+        sketches = new QuantileSketch[quantiles ? dimension : 0];
+        for (int i = 0; i < sketches.length; i++) {
+            sketches[i] = new QuantileSketch(SKETCH_CAPACITY);
+        }
+    }
+
+    /**
+     * Returns the number of vectors accumulated.
+     *
+     * @return the number of vectors
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Returns the number of columns of the vectors.
+     *
+     * @return the size of the vectors, or 0 if no vector was accumulated
+     */
+    public int dimension() {
+        return min.length;
+    }
+
+    /**
+     * Returns the minimum and maximum of every column. Columns with a single value get the range [0, 1], as in
+     * {@link MinMax}.
+     *
+     * @return the ranges of the columns
+     */
+    public MinMaxVector minMax() {
+        List<MinMax> minMaxes = new ArrayList<>(min.length);
+        for (int i = 0; i < min.length; i++) {
+            minMaxes.add(new MinMax(min[i], max[i]));
+        }
+        return MinMaxVector.of(minMaxes);
+    }
+
+    /**
+     * Returns the mean of every column.
+     *
+     * @return the means
+     */
+    public Vector<Double> mean() {
+        return DoubleVector.of(mean.clone());
+    }
+
+    /**
+     * Returns the population variance of every column.
+     *
+     * @return the variances
+     */
+    public Vector<Double> variance() {
+        double[] variance = new double[m2.length];
+        for (int i = 0; i < m2.length; i++) {
+            variance[i] = count == 0 ? 0.0 : m2[i] / count;
+        }
+        return DoubleVector.of(variance);
+    }
+
+    /**
+     * Returns the population standard deviation of every column.
+     *
+     * @return the standard deviations
+     */
+    public Vector<Double> standardDeviation() {
+        double[] deviation = variance().toArray();
+        for (int i = 0; i < deviation.length; i++) {
+            deviation[i] = Math.sqrt(deviation[i]);
+        }
+        return DoubleVector.of(deviation);
+    }
+
+    /**
+     * Returns the approximate value of every column at the given rank, for instance 0.5 for the median.
+     *
+     * @param probability the rank, between 0 and 1
+     * @return the quantiles of the columns
+     * @throws IllegalArgumentException if the rank is not between 0 and 1
+     * @throws IllegalStateException    if the statistics do not track quantiles
+     */
+    public Vector<Double> quantile(double probability) {
+        if (probability < 0.0 || probability > 1.0) {
+            throw new IllegalArgumentException("The rank must be between 0 and 1, but got: " + probability);
+        }
+        if (!quantiles) {
+            throw new IllegalStateException("Quantiles are not tracked. Please, create the statistics with quantiles enabled");
+        }
+        double[] values = new double[sketches.length];
+        for (int i = 0; i < sketches.length; i++) {
+            values[i] = sketches[i].quantile(probability);
+        }
+        return DoubleVector.of(values);
+    }
+}
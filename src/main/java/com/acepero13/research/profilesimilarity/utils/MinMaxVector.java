@@ -2,10 +2,10 @@ package com.acepero13.research.profilesimilarity.utils;
 
 import com.acepero13.research.profilesimilarity.api.Vector;
 import com.acepero13.research.profilesimilarity.core.Matrix;
+import com.acepero13.research.profilesimilarity.core.vectors.DoubleVector;
 import lombok.Data;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 
 /**
@@ -43,19 +43,14 @@ public class MinMaxVector {
      * @return A new instance of {@link MinMaxVector} with the minimum and maximum values extracted from the list of {@link MinMax} objects.
      */
     public static MinMaxVector of(List<MinMax> minMaxes) {
-        List<Tuple<Double, Double>> values = minMaxes.stream()
-                .map(m -> Tuple.of(m.min(), m.max()))
-                .collect(Collectors.toList());
-
-        Vector<Double> min = values.stream()
-                .map(Tuple::first)
-                .collect(VectorCollector.toVector());
-
-        Vector<Double> max = values.stream()
-                .map(Tuple::second)
-                .collect(VectorCollector.toVector());
-
-        return new MinMaxVector(min, max);
+        double[] min = new double[minMaxes.size()];
+        double[] max = new double[minMaxes.size()];
+        int i = 0;
+        for (MinMax minMax : minMaxes) {
+            min[i] = minMax.min();
+            max[i++] = minMax.max();
+        }
+        return new MinMaxVector(DoubleVector.of(min), DoubleVector.of(max));
     }
 
     /**
@@ -63,9 +58,10 @@ public class MinMaxVector {
      *
      * @param matrix A matrix of doubles.
      * @return A new instance of {@link MinMaxVector} with the minimum and maximum values extracted from the matrix of doubles.
+     * @see Matrix#columnMinMax()
      */
     public static MinMaxVector of(Matrix<Double> matrix) {
-        return of(matrix.reduceColumnWise(Vector::minMax));
+        return of(matrix.columnMinMax());
     }
 
     /**
@@ -0,0 +1,119 @@
+package com.acepero13.research.profilesimilarity.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A mergeable summary of a stream of values that answers approximate quantile queries in bounded memory.
+ * <p>
+ * Values are kept in levels of buffers. When a buffer fills up it is sorted and every other value moves to the next
+ * level, where each value stands for twice as many inputs. Two sketches are merged by concatenating their levels and
+ * compacting again. The rank error shrinks with the capacity of the buffers.
+ */
+final class QuantileSketch {
+    private final int capacity;
+    private final List<double[]> levels = new ArrayList<>();
+    private final List<Integer> sizes = new ArrayList<>();
+    private boolean odd;
+
+    QuantileSketch(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds a value to the sketch.
+     *
+     * @param value the value to add
+     */
+    void add(double value) {
+        append(0, value);
+        compact();
+    }
+
+    /**
+     * Adds every value summarized by another sketch.
+     *
+     * @param another the sketch to merge
+     */
+    void merge(QuantileSketch another) {
+        for (int level = 0; level < another.levels.size(); level++) {
+            double[] values = another.levels.get(level);
+            for (int i = 0; i < another.sizes.get(level); i++) {
+                append(level, values[i]);
+            }
+        }
+        compact();
+    }
+
+    /**
+     * Returns the approximate value at the given rank.
+     *
+     * @param probability the rank, between 0 and 1
+     * @return the value at the rank, or NaN if the sketch is empty
+     */
+    double quantile(double probability) {
+        int total = 0;
+        for (int size : sizes) {
+            total += size;
+        }
+        if (total == 0) {
+            return Double.NaN;
+        }
+        double[] values = new double[total];
+        long[] weights = new long[total];
+        Integer[] order = new Integer[total];
+        int next = 0;
+        long totalWeight = 0;
+        for (int level = 0; level < levels.size(); level++) {
+            for (int i = 0; i < sizes.get(level); i++) {
+                values[next] = levels.get(level)[i];
+                weights[next] = 1L << level;
+                order[next] = next;
+                totalWeight += weights[next++];
+            }
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+        double target = probability * totalWeight;
+        long cumulative = 0;
+        for (int position : order) {
+            cumulative += weights[position];
+            if (cumulative >= target) {
+                return values[position];
+            }
+        }
+        return values[order[total - 1]];
+    }
+
+    private void append(int level, double value) {
+        while (levels.size() <= level) {
+            levels.add(new double[capacity]);
+            sizes.add(0);
+        }
+        double[] values = levels.get(level);
+        int size = sizes.get(level);
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+            levels.set(level, values);
+        }
+        values[size] = value;
+        sizes.set(level, size + 1);
+    }
+
+    private void compact() {
+        for (int level = 0; level < levels.size(); level++) {
+            int size = sizes.get(level);
+            if (size < capacity) {
+                continue;
+            }
+            double[] values = levels.get(level);
+            Arrays.sort(values, 0, size);
+            // Alternate which half survives, so that the errors of successive compactions cancel out
+            odd = !odd;
+            for (int i = odd ? 1 : 0; i < size; i += 2) {
+                append(level + 1, values[i]);
+            }
+            sizes.set(level, 0);
+        }
+    }
+}
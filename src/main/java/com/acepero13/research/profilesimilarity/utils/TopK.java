@@ -0,0 +1,191 @@
+package com.acepero13.research.profilesimilarity.utils;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * A bounded max-heap that keeps the k entries with the lowest score seen so far.
+ * <p>
+ * Entries are primitive pairs of a row index and a score, so offering a candidate does not allocate. Ties are broken
+ * by the row index, which makes the selection identical to a stable sort followed by a limit. Heaps filled by
+ * different threads can be merged, which allows using the heap as the container of a parallel stream collector:
+ * <pre>{@code
+ * TopK top = IntStream.range(0, n).parallel()
+ *         .collect(() -> TopK.of(k), (heap, row) -> heap.offer(row, distance(row)), TopK::merge);
+ * }</pre>
+ * The arrays of the heap grow with the entries it keeps, so a heap with a k much larger than the number of rows it is
+ * offered, such as the heap of one chunk of a parallel scan, only allocates for those rows. Instances are not
+ * thread-safe.
+ */
+public final class TopK {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int k;
+    private int[] indices;
+    private double[] scores;
+    private int size;
+
+    private TopK(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k cannot be negative: " + k);
+        }
+        this.k = k;
+        this.indices = new int[Math.min(k, INITIAL_CAPACITY)];
+        this.scores = new double[indices.length];
+    }
+
+    /**
+     * Creates an empty heap that keeps at most k entries.
+     *
+     * @param k the maximum number of entries
+     * @return a new empty heap
+     * @throws IllegalArgumentException if k is negative
+     */
+    public static TopK of(int k) {
+        return new TopK(k);
+    }
+
+    /**
+     * Offers a candidate to the heap. The candidate is kept if the heap is not full or if it is better than the worst
+     * entry, which is then evicted.
+     *
+     * @param index the row index of the candidate
+     * @param score the score of the candidate, lower is better
+     * @return true if the candidate was kept
+     */
+    public boolean offer(int index, double score) {
+        if (size < k) {
+            if (size == indices.length) {
+                grow();
+            }
+            indices[size] = index;
+            scores[size] = score;
+            siftUp(size++);
+            return true;
+        }
+        if (k == 0 || !isBefore(index, score, indices[0], scores[0])) {
+            return false;
+        }
+        indices[0] = index;
+        scores[0] = score;
+        siftDown(0);
+        return true;
+    }
+
+    /**
+     * Returns the score a candidate has to beat to enter the heap.
+     *
+     * @return the worst score in the heap, or {@link Double#POSITIVE_INFINITY} if the heap is not full yet
+     */
+    public double threshold() {
+        return size < k || k == 0 ? Double.POSITIVE_INFINITY : scores[0];
+    }
+
+    /**
+     * Offers every entry of another heap to this one.
+     *
+     * @param another the heap to merge
+     */
+    public void merge(TopK another) {
+        for (int i = 0; i < another.size; i++) {
+            offer(another.indices[i], another.scores[i]);
+        }
+    }
+
+    /**
+     * Returns the number of entries in the heap.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the row indices of the entries, from the best to the worst score.
+     *
+     * @return a new array with the sorted indices
+     */
+    public int[] indices() {
+        int[] positions = sortedPositions();
+        int[] result = new int[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = indices[positions[i]];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the scores of the entries, from the best to the worst. The order matches {@link #indices()}.
+     *
+     * @return a new array with the sorted scores
+     */
+    public double[] scores() {
+        int[] positions = sortedPositions();
+        double[] result = new double[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = scores[positions[i]];
+        }
+        return result;
+    }
+
+    private int[] sortedPositions() {
+        return IntStream.range(0, size)
+                .boxed()
+                .sorted((a, b) -> a.equals(b) ? 0 : isBefore(indices[a], scores[a], indices[b], scores[b]) ? -1 : 1)
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private static boolean isBefore(int index, double score, int anotherIndex, double anotherScore) {
+        int comparison = Double.compare(score, anotherScore);
+        return comparison < 0 || (comparison == 0 && index < anotherIndex);
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (!isBefore(indices[parent], scores[parent], indices[position], scores[position])) {
+                return;
+            }
+            swap(parent, position);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int worst = position;
+            for (int child = 2 * position + 1; child <= 2 * position + 2 && child < size; child++) {
+                if (isBefore(indices[worst], scores[worst], indices[child], scores[child])) {
+                    worst = child;
+                }
+            }
+            if (worst == position) {
+                return;
+            }
+            swap(worst, position);
+            position = worst;
+        }
+    }
+
+    private void grow() {
+        int capacity = (int) Math.min(k, 2L * indices.length);
+        indices = Arrays.copyOf(indices, capacity);
+        scores = Arrays.copyOf(scores, capacity);
+    }
+
+    private void swap(int first, int second) {
+        int index = indices[first];
+        indices[first] = indices[second];
+        indices[second] = index;
+        double score = scores[first];
+        scores[first] = scores[second];
+        scores[second] = score;
+    }
+
+    @Override
+    public String toString() {
+        return "TopK{k=" + k + ", indices=" + Arrays.toString(indices()) + ", scores=" + Arrays.toString(scores()) + "}";
+    }
+}
@@ -3,8 +3,7 @@ package com.acepero13.research.profilesimilarity.utils;
 import com.acepero13.research.profilesimilarity.api.Vector;
 import com.acepero13.research.profilesimilarity.core.vectors.DoubleVector;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.BinaryOperator;
@@ -16,9 +15,10 @@ import java.util.stream.Collector;
 /**
  * A custom {@link java.util.stream.Collector} that collects {@link java.lang.Double}s into a {@link Vector}.
  * <p>
- * The collector is unordered and its finisher function returns a {@link Vector} instance.
+ * The collector is unordered and its finisher function returns a {@link Vector} instance. The elements are accumulated
+ * into a growable primitive buffer, so the resulting {@link DoubleVector} does not keep any boxed value.
  */
-public class VectorCollector implements Collector<Double, List<Double>, Vector<Double>> {
+public class VectorCollector implements Collector<Double, VectorCollector.Buffer, Vector<Double>> {
 
     /**
      * Creates a new instance of {@code VectorCollector}.
@@ -32,45 +32,41 @@ public class VectorCollector implements Collector<Double, List<Double>, Vector<D
     /**
      * Supplies a new mutable container that will hold the collected elements.
      *
-     * @return A {@link java.util.ArrayList} instance.
+     * @return An empty {@link Buffer} instance.
      */
     @Override
-    public Supplier<List<Double>> supplier() {
-        return ArrayList::new;
+    public Supplier<Buffer> supplier() {
+        return Buffer::new;
     }
 
     /**
      * Accumulates an element into the mutable container.
      *
-     * @return A {@link java.util.List} object with a new element added to it.
+     * @return A {@link Buffer} object with a new element added to it.
      */
     @Override
-    public BiConsumer<List<Double>, Double> accumulator() {
-        return List::add;
+    public BiConsumer<Buffer, Double> accumulator() {
+        return Buffer::add;
     }
 
     /**
      * Combines the contents of two containers.
      *
-     * @return A {@link java.util.List} object that is the result of combining two other lists.
+     * @return A {@link Buffer} object that is the result of combining two other buffers.
      */
     @Override
-    public BinaryOperator<List<Double>> combiner() {
-        return (list1, list2) ->
-        {
-            list1.addAll(list2);
-            return list1;
-        };
+    public BinaryOperator<Buffer> combiner() {
+        return Buffer::addAll;
     }
 
     /**
      * Transforms the container into the final result type.
      *
-     * @return A {@link Vector} instance containing the elements collected into a list.
+     * @return A {@link Vector} instance containing the elements collected into the buffer.
      */
     @Override
-    public Function<List<Double>, Vector<Double>> finisher() {
-        return DoubleVector::of;
+    public Function<Buffer, Vector<Double>> finisher() {
+        return Buffer::toVector;
     }
 
     /**
@@ -82,4 +78,35 @@ public class VectorCollector implements Collector<Double, List<Double>, Vector<D
     public Set<Characteristics> characteristics() {
         return Set.of(Characteristics.UNORDERED);
     }
-}
\ No newline at end of file
+
+    /**
+     * A growable array of primitive doubles used as the mutable container of the collector.
+     */
+    public static final class Buffer {
+        private static final int INITIAL_CAPACITY = 16;
+        private double[] values = new double[INITIAL_CAPACITY];
+        private int size;
+
+        private void add(Double value) {
+            ensureCapacity(size + 1);
+            values[size++] = value;
+        }
+
+        private Buffer addAll(Buffer another) {
+            ensureCapacity(size + another.size);
+            System.arraycopy(another.values, 0, values, size, another.size);
+            size += another.size;
+            return this;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > values.length) {
+                values = Arrays.copyOf(values, Math.max(capacity, values.length * 2));
+            }
+        }
+
+        private Vector<Double> toVector() {
+            return DoubleVector.of(Arrays.copyOf(values, size));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.acepero13.research.profilesimilarity.core.vectors;
+
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Kernels written with the incubating JDK Vector API, which the JIT compiles to the SIMD instructions of the machine.
+ * <p>
+ * The ranges are processed one register ({@link #SPECIES}) at a time into lane-wise accumulators that are only reduced
+ * at the end; the remaining values are handled by a scalar loop. The sums are accumulated in a different order than
+ * the {@link ScalarKernels}, so results may differ in the last bits.
+ * <p>
+ * This class is only loaded when the {@code jdk.incubator.vector} module is present; see
+ * {@link VectorKernels#backend()}. It is the only class compiled with the module, in its own source set.
+ */
+final class SimdKernels implements Kernels {
+    private static final VectorSpecies<Double> SPECIES = jdk.incubator.vector.DoubleVector.SPECIES_PREFERRED;
+
+    SimdKernels() {
+        // Fails fast, while the backend is selected, if the module cannot be linked
+        jdk.incubator.vector.DoubleVector.zero(SPECIES);
+    }
+
+    @Override
+    public String name() {
+        return "simd-" + SPECIES.vectorBitSize();
+    }
+
+    @Override
+    public double dot(double[] a, int aOffset, double[] b, int bOffset, int length) {
+        var sum = jdk.incubator.vector.DoubleVector.zero(SPECIES);
+        int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            var x = jdk.incubator.vector.DoubleVector.fromArray(SPECIES, a, aOffset + i);
+            var y = jdk.incubator.vector.DoubleVector.fromArray(SPECIES, b, bOffset + i);
+            sum = sum.add(x.mul(y));
+        }
+        double result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            result += a[aOffset + i] * b[bOffset + i];
+        }
+        return result;
+    }
+
+    @Override
+    public double squaredDistance(double[] a, int aOffset, double[] b, int bOffset, int length) {
+        var sum = jdk.incubator.vector.DoubleVector.zero(SPECIES);
+        int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            var difference = jdk.incubator.vector.DoubleVector.fromArray(SPECIES, a, aOffset + i)
+                    .sub(jdk.incubator.vector.DoubleVector.fromArray(SPECIES, b, bOffset + i));
+            sum = sum.add(difference.mul(difference));
+        }
+        double result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            double difference = a[aOffset + i] - b[bOffset + i];
+            result += difference * difference;
+        }
+        return result;
+    }
+
+    @Override
+    public double manhattanDistance(double[] a, int aOffset, double[] b, int bOffset, int length) {
+        var sum = jdk.incubator.vector.DoubleVector.zero(SPECIES);
+        int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            var difference = jdk.incubator.vector.DoubleVector.fromArray(SPECIES, a, aOffset + i)
+                    .sub(jdk.incubator.vector.DoubleVector.fromArray(SPECIES, b, bOffset + i));
+            sum = sum.add(difference.abs());
+        }
+        double result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            result += Math.abs(a[aOffset + i] - b[bOffset + i]);
+        }
+        return result;
+    }
+
+    @Override
+    public double cosine(double[] a, int aOffset, double[] b, int bOffset, int length) {
+        var dot = jdk.incubator.vector.DoubleVector.zero(SPECIES);
+        var normA = jdk.incubator.vector.DoubleVector.zero(SPECIES);
+        var normB = jdk.incubator.vector.DoubleVector.zero(SPECIES);
+        int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            var x = jdk.incubator.vector.DoubleVector.fromArray(SPECIES, a, aOffset + i);
+            var y = jdk.incubator.vector.DoubleVector.fromArray(SPECIES, b, bOffset + i);
+            dot = dot.add(x.mul(y));
+            normA = normA.add(x.mul(x));
+            normB = normB.add(y.mul(y));
+        }
+        double dotSum = dot.reduceLanes(VectorOperators.ADD);
+        double normASum = normA.reduceLanes(VectorOperators.ADD);
+        double normBSum = normB.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            double x = a[aOffset + i];
+            double y = b[bOffset + i];
+            dotSum += x * y;
+            normASum += x * x;
+            normBSum += y * y;
+        }
+        return VectorKernels.cosine(dotSum, normASum, normBSum);
+    }
+}
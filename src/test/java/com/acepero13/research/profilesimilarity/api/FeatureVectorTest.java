@@ -109,7 +109,12 @@ class FeatureVectorTest {
 
     @Test
     void cosineSimilarityNormIsZero() {
-        assertThat(vector1.cosine(ZERO), closeTo(0.0, 0.1));
+        assertThat(vector1.cosine(FeatureVector.of(Collections.nCopies(5, Features.doubleFeature(0.0, "zero")))), closeTo(0.0, 0.1));
+    }
+
+    @Test
+    void cosineSimilarityNormIsZeroButSizesDoNotMatch() {
+        assertThrows(VectorException.class, () -> vector1.cosine(ZERO));
     }
 
     @Test
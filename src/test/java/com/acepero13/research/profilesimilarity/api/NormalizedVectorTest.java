@@ -80,7 +80,12 @@ class NormalizedVectorTest {
 
     @Test
     void cosineSimilarityNormIsZero() {
-        assertThat(vector1.cosine(DoubleVector.of(0.0)), closeTo(0.0, 0.1));
+        assertThat(vector1.cosine(DoubleVector.of(0.0, 0.0, 0.0, 0.0, 0.0)), closeTo(0.0, 0.1));
+    }
+
+    @Test
+    void cosineSimilarityNormIsZeroButSizesDoNotMatch() {
+        assertThrows(VectorException.class, () -> vector1.cosine(DoubleVector.of(0.0)));
     }
 
     @Test
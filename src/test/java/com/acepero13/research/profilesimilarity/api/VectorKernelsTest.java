@@ -0,0 +1,74 @@
+package com.acepero13.research.profilesimilarity.api;
+
+import com.acepero13.research.profilesimilarity.core.vectors.Kernels;
+import com.acepero13.research.profilesimilarity.core.vectors.VectorKernels;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+class VectorKernelsTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 3, 8, 17, 64, 784, 1023})
+    void simdKernelsMatchTheScalarKernels(int length) {
+        Random random = new Random(length);
+        double[] a = new double[length + 5];
+        double[] b = new double[length + 3];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = random.nextDouble() * 2.0 - 1.0;
+        }
+        for (int i = 0; i < b.length; i++) {
+            b[i] = random.nextDouble() * 2.0 - 1.0;
+        }
+        Kernels scalar = VectorKernels.scalar();
+        Kernels simd = VectorKernels.simd().orElse(scalar);
+
+        assertThat(simd.dot(a, 5, b, 3, length), closeTo(scalar.dot(a, 5, b, 3, length), 1e-9));
+        assertThat(simd.squaredDistance(a, 5, b, 3, length), closeTo(scalar.squaredDistance(a, 5, b, 3, length), 1e-9));
+        assertThat(simd.manhattanDistance(a, 5, b, 3, length), closeTo(scalar.manhattanDistance(a, 5, b, 3, length), 1e-9));
+        assertThat(simd.cosine(a, 5, b, 3, length), closeTo(scalar.cosine(a, 5, b, 3, length), 1e-9));
+        assertThat(simd.cosine(a, 0, new double[length], 0, length), equalTo(0.0));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 17, 64, 784})
+    void boundedDistanceIsExactUnlessItExceedsTheBound(int length) {
+        Random random = new Random(length);
+        double[] a = new double[length];
+        double[] b = new double[length];
+        for (int i = 0; i < length; i++) {
+            a[i] = random.nextDouble();
+            b[i] = random.nextDouble();
+        }
+        double distance = VectorKernels.squaredDistance(a, 0, b, 0, length);
+
+        assertThat(VectorKernels.squaredDistance(a, 0, b, 0, length, Double.POSITIVE_INFINITY), closeTo(distance, 1e-9));
+        assertThat(VectorKernels.squaredDistance(a, 0, b, 0, length, distance + 1.0), closeTo(distance, 1e-9));
+        double abandoned = VectorKernels.squaredDistance(a, 0, b, 0, length, distance / 4);
+        assertThat(abandoned > distance / 4 || length == 0, equalTo(true));
+        assertThat(abandoned <= distance + 1e-9, equalTo(true));
+    }
+
+    @Test
+    void scalarPropertySelectsTheScalarBackend() {
+        if ("scalar".equals(System.getProperty(VectorKernels.BACKEND_PROPERTY))) {
+            assertThat(VectorKernels.backend(), sameInstance(VectorKernels.scalar()));
+        } else {
+            assertThat(VectorKernels.backend(), sameInstance(VectorKernels.simd().orElse(VectorKernels.scalar())));
+        }
+    }
+
+    @Test
+    void simdBackendIsLoadedWhenTheVectorModuleIsPresent() {
+        boolean module = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+        assertThat(VectorKernels.simd().isPresent(), equalTo(module));
+    }
+}
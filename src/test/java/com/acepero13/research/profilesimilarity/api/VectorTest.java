@@ -2,9 +2,11 @@ package com.acepero13.research.profilesimilarity.api;
 
 import com.acepero13.research.profilesimilarity.core.vectors.DoubleVector;
 import com.acepero13.research.profilesimilarity.exceptions.VectorException;
+import com.acepero13.research.profilesimilarity.utils.VectorCollector;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -30,6 +32,23 @@ class VectorTest {
         assertThat(result, closeTo(expected, 0.1));
     }
 
+    @Test
+    void squaredDistanceTo() {
+        double result = vector1.squaredDistanceTo(vector2);
+        assertThat(result, closeTo(4455.0, 0.1));
+    }
+
+    @Test
+    void manhattanDistanceTo() {
+        double result = vector1.manhattanDistanceTo(vector2);
+        assertThat(result, closeTo(135.0, 0.1));
+    }
+
+    @Test
+    void distanceToDifferentSizedVectors() {
+        assertThrows(VectorException.class, () -> vector1.squaredDistanceTo(DoubleVector.of(1.0)));
+    }
+
     @Test
     void multipliesDifferentSizedVectors() {
         assertThrows(VectorException.class, () -> vector1.multiply(DoubleVector.of(1.0)));
@@ -60,6 +79,11 @@ class VectorTest {
         assertThrows(VectorException.class, () -> vector1.subtract(DoubleVector.of(1.0)));
     }
 
+    @Test
+    void divideTwoDifferentSizedVectors() {
+        assertThrows(VectorException.class, () -> vector1.divide(DoubleVector.of(1.0)));
+    }
+
     @Test
     void cosineSimilarity() {
 
@@ -80,7 +104,12 @@ class VectorTest {
 
     @Test
     void cosineSimilarityNormIsZero() {
-        assertThat(vector1.cosine(DoubleVector.of(0.0)), closeTo(0.0, 0.1));
+        assertThat(vector1.cosine(DoubleVector.of(0.0, 0.0, 0.0, 0.0, 0.0)), closeTo(0.0, 0.1));
+    }
+
+    @Test
+    void cosineSimilarityNormIsZeroButSizesDoNotMatch() {
+        assertThrows(VectorException.class, () -> vector1.cosine(DoubleVector.of(0.0)));
     }
 
     @Test
@@ -121,4 +150,26 @@ class VectorTest {
         assertThrows(VectorException.class, () -> vector1.divide(0));
     }
 
+    @Test
+    void primitiveArrayVectorEqualsBoxedVector() {
+        var primitive = DoubleVector.of(new double[]{1.0, 2.0, 3.0, 4.0, 5.0});
+        assertThat(primitive, equalTo(vector1));
+        assertThat(primitive.multiply(vector2), equalTo(vector1.multiply(vector2)));
+    }
+
+    @Test
+    void collectsIntoVector() {
+        Vector<Double> result = Stream.of(1.0, 2.0, 3.0, 4.0, 5.0)
+                .parallel()
+                .collect(VectorCollector.toVector());
+        assertThat(result, equalTo(vector1));
+    }
+
+    @Test
+    void toArrayReturnsCopy() {
+        double[] values = vector1.toArray();
+        values[0] = 100.0;
+        assertThat(vector1.getFeature(0), closeTo(1.0, 0.01));
+    }
+
 }
@@ -0,0 +1,69 @@
+package com.acepero13.research.profilesimilarity.core;
+
+import com.acepero13.research.profilesimilarity.api.Metric;
+import com.acepero13.research.profilesimilarity.api.features.CategoricalFeature;
+import com.acepero13.research.profilesimilarity.core.proxy.CategoricalFeatureProxy;
+import com.acepero13.research.profilesimilarity.core.vectors.DoubleVector;
+import com.acepero13.research.profilesimilarity.core.vectors.NormalizedVector;
+import com.acepero13.research.profilesimilarity.scores.Metrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+
+class CategoricalDictionaryTest {
+    private final List<List<CategoricalFeature<?>>> rows = List.of(
+            List.of(CategoricalFeatureProxy.of("red", "color"), CategoricalFeatureProxy.of("small", "size")),
+            List.of(CategoricalFeatureProxy.of("blue", "color")),
+            List.of(CategoricalFeatureProxy.of("red", "color"), CategoricalFeatureProxy.of("large", "size")));
+    private final CategoricalDictionary dictionary = CategoricalDictionary.of(rows);
+
+    @Test
+    void assignsColumnsAndCodesInOrderOfAppearance() {
+        assertThat(dictionary.columns(), equalTo(2));
+        assertThat(dictionary.column("size"), equalTo(1));
+        assertThat(dictionary.column("shape"), equalTo(CategoricalDictionary.MISSING));
+        assertThat(dictionary.encodeAll(rows), equalTo(new int[]{0, 0, 1, CategoricalDictionary.MISSING, 0, 1}));
+    }
+
+    @Test
+    void unknownValuesNeverMatch() {
+        int[] query = dictionary.encode(List.of(CategoricalFeatureProxy.of("green", "color"), CategoricalFeatureProxy.of("small", "size")));
+
+        assertThat(query, equalTo(new int[]{CategoricalDictionary.UNKNOWN, 0}));
+        assertThat(CategoricalDictionary.matches(dictionary.encodeAll(rows), 0, query), equalTo(1));
+    }
+
+    @Test
+    void encodedSamplesMatchLikeFeatures() {
+        List<CategoricalFeature<?>> target = List.of(CategoricalFeatureProxy.of("red", "color"), CategoricalFeatureProxy.of("large", "size"));
+        NormalizedVector vector = NormalizedVector.of(DoubleVector.of(1.0));
+        MixedSample another = MixedSample.of(vector, target);
+        MixedSample encodedAnother = MixedSample.of(vector, target, dictionary.encode(target));
+
+        for (List<CategoricalFeature<?>> row : rows) {
+            int expected = MixedSample.of(vector, row).numberOfMatches(another);
+            assertThat(MixedSample.of(vector, row, dictionary.encode(row)).numberOfMatches(encodedAnother), equalTo(expected));
+        }
+    }
+
+    @Test
+    void packedRowsScoreLikeMixedSamples() {
+        List<CategoricalFeature<?>> target = List.of(CategoricalFeatureProxy.of("red", "color"), CategoricalFeatureProxy.of("large", "size"));
+        double[] values = {0.2, 0.4, 0.6, 0.8, 0.1, 0.9};
+        MixedSample another = MixedSample.of(NormalizedVector.of(DoubleVector.of(0.5, 0.5)), target, dictionary.encode(target));
+        PackedRow packedAnother = PackedRow.of(new double[]{0.5, 0.5}, another);
+
+        for (Metric metric : List.of(Metrics.cosineSimilarity(), Metrics.gowersMetric(Metrics.normalizedEuclideanDistance(), Metrics.jaccardDistance()))) {
+            for (int row = 0; row < rows.size(); row++) {
+                double[] rowValues = {values[row * 2], values[row * 2 + 1]};
+                MixedSample sample = MixedSample.of(NormalizedVector.of(DoubleVector.of(rowValues)), rows.get(row), dictionary.encode(rows.get(row)));
+
+                assertThat(metric.similarityScore(PackedRow.of(rowValues, sample), packedAnother), closeTo(metric.similarityScore(sample, another), 1e-12));
+            }
+        }
+    }
+}
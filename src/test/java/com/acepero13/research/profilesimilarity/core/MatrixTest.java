@@ -1,17 +1,22 @@
 package com.acepero13.research.profilesimilarity.core;
 
 import com.acepero13.research.profilesimilarity.api.Vector;
+import com.acepero13.research.profilesimilarity.api.features.AbstractNumericalFeature;
+import com.acepero13.research.profilesimilarity.api.features.Features;
 import com.acepero13.research.profilesimilarity.core.vectors.DoubleVector;
+import com.acepero13.research.profilesimilarity.core.vectors.FeatureVector;
 import com.acepero13.research.profilesimilarity.exceptions.MatrixException;
 import com.acepero13.research.profilesimilarity.utils.MinMax;
 import com.acepero13.research.profilesimilarity.utils.MinMaxVector;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class MatrixTest {
@@ -56,4 +61,53 @@ class MatrixTest {
         MatrixException exception = assertThrows(MatrixException.class, MISMATCHED_MATRIX::transpose);
         assertThat(exception.getMessage(), containsString("Not every vector have the same size. The expected size is: 2 but row: 2 has size: 3"));
     }
+
+    @Test
+    void columnMinMaxMatchesColumnWiseReduction() {
+        var values = new double[3000 * 7];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.sin(i) * i;
+        }
+        Matrix<Double> large = Matrix.ofRowMajor(values, 7);
+
+        assertThat(large.columnMinMax(), equalTo(large.reduceColumnWise(Vector::minMax)));
+        assertThat(large.transpose().transpose(), equalTo(large));
+    }
+
+    @Test
+    void sumColumns() {
+        assertThat(matrix.sumColumns(), equalTo(DoubleVector.of(12, 15, 18)));
+    }
+
+    @Test
+    void addMatrices() {
+        var expected = Matrix.of(List.of(DoubleVector.of(2, 4, 6), DoubleVector.of(8, 10, 12), DoubleVector.of(14, 16, 18)));
+        assertThat(matrix.add(matrix), equalTo(expected));
+    }
+
+    @Test
+    void addMatricesWithPadding() {
+        var another = Matrix.of(List.of(DoubleVector.of(1, 1), DoubleVector.of(1, 1, 1, 1)));
+        var expected = Matrix.of(List.of(DoubleVector.of(2, 3), DoubleVector.of(3, 6, 9, 1)));
+        assertThat(MISMATCHED_MATRIX.add(another, 0.0), equalTo(expected));
+    }
+
+    @Test
+    void readsTheRowsFromThePackedValues() {
+        FeatureVector first = FeatureVector.of(List.of(Features.integerFeature(1, "a"), Features.integerFeature(2, "b")));
+        FeatureVector second = FeatureVector.of(List.of(Features.integerFeature(3, "a"), Features.integerFeature(4, "b")));
+        Matrix<AbstractNumericalFeature<Double>> features = Matrix.of(List.of(first, second));
+
+        assertThat(features.row(1).toDouble(), equalTo(DoubleVector.of(3, 4)));
+        assertThat(features.transpose().row(0).toDouble(), equalTo(DoubleVector.of(1, 3)));
+    }
+
+    @Test
+    void keepsNullRows() {
+        Matrix<Double> withNull = Matrix.of(Arrays.asList(DoubleVector.of(1, 2), null));
+
+        assertThat(withNull.totalRows(), equalTo(2.0));
+        assertThat(withNull.row(0), equalTo(DoubleVector.of(1, 2)));
+        assertThat(withNull.row(1), nullValue());
+    }
 }
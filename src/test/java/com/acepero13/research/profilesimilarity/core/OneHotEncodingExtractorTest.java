@@ -2,6 +2,8 @@ package com.acepero13.research.profilesimilarity.core;
 
 import com.acepero13.research.profilesimilarity.api.features.CategoricalFeature;
 import com.acepero13.research.profilesimilarity.api.features.Feature;
+import com.acepero13.research.profilesimilarity.api.features.Features;
+import com.acepero13.research.profilesimilarity.core.vectors.BitVector;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
@@ -9,6 +11,7 @@ import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
 
 /**
  * A Description
@@ -43,6 +46,31 @@ class OneHotEncodingExtractorTest {
 
     }
 
+    @Test
+    void packTagsIntoBits() {
+        var extractor = OneHotEncodingExtractor.oneHotEncodingOf(TAG.values());
+        List<CategoricalFeature<?>> converted = extractor.convert(List.of(TAG.SPORT, TAG.MUSIC, TAG.CONCERT)).stream()
+                .map(f -> (CategoricalFeature<?>) f)
+                .collect(Collectors.toList());
+
+        BitVector bits = extractor.encode(List.of(TAG.SPORT, TAG.MUSIC, TAG.CONCERT));
+
+        assertThat(bits, equalTo(BitVector.of(true, false, true, true, false)));
+        assertThat(bits, equalTo(BitVector.of(converted)));
+        assertThat(bits.cardinality(), equalTo(3));
+    }
+
+    @Test
+    void convertedListsShareTheFeaturesOfEveryValue() {
+        var extractor = OneHotEncodingExtractor.oneHotEncodingOf(TAG.values());
+        var first = extractor.convert(List.of(TAG.SPORT, TAG.MUSIC));
+        var second = extractor.convert(List.of(TAG.SPORT, TAG.OTHER));
+
+        assertThat(second.get(0), sameInstance(first.get(0)));
+        assertThat(second.get(1), sameInstance(first.get(1)));
+        assertThat(second.get(2), equalTo(Features.categoricalBoolean(false, "one_hot_tag")));
+    }
+
     private enum TAG implements CategoricalFeature<TAG> {
         SPORT, FAMILY, MUSIC, CONCERT, OTHER;
 
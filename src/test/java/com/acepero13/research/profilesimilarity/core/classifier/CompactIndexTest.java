@@ -0,0 +1,90 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import com.acepero13.research.profilesimilarity.api.Vectorizable;
+import com.acepero13.research.profilesimilarity.core.Score;
+import com.acepero13.research.profilesimilarity.exceptions.ArgumentException;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static com.acepero13.research.profilesimilarity.core.classifier.Points.levelledPoints;
+import static com.acepero13.research.profilesimilarity.core.classifier.Points.points;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CompactIndexTest {
+    private final List<Vectorizable> samples = points(new Random(1), 2_000, 8);
+    private final List<Vectorizable> targets = points(new Random(2), 50, 8);
+
+    @Test
+    void reRankedNeighborsMatchTheExactNeighbors() {
+        KnnIndex exact = Knn.withDefaultNormalizer(10, samples).index(targets.get(0));
+        CompactIndex floats = CompactIndex.of(targets.get(0), samples, CompactIndex.Precision.FLOAT32, 30);
+        CompactIndex bytes = CompactIndex.of(targets.get(0), samples, CompactIndex.Precision.INT8, 30);
+
+        for (Vectorizable target : targets) {
+            List<Score> expected = exact.nearest(target, 10);
+            assertSameScores(floats.nearest(target, 10), expected);
+            assertSameScores(bytes.nearest(target, 10), expected);
+        }
+    }
+
+    @Test
+    void quantizedNeighborsWithoutReRankHaveHighRecall() {
+        KnnIndex exact = Knn.withDefaultNormalizer(10, samples).index(targets.get(0));
+        CompactIndex bytes = CompactIndex.of(targets.get(0), samples, CompactIndex.Precision.INT8, 0);
+
+        int found = 0;
+        for (Vectorizable target : targets) {
+            Set<Object> expected = new HashSet<>();
+            exact.nearest(target, 10).forEach(score -> expected.add(score.sample()));
+            for (Score score : bytes.nearest(target, 10)) {
+                found += expected.contains(score.sample()) ? 1 : 0;
+            }
+        }
+
+        assertThat(found / (targets.size() * 10.0), greaterThanOrEqualTo(0.9));
+        assertThat(bytes.rowBytes(), equalTo((long) samples.size() * 8));
+    }
+
+    @Test
+    void compactKnnPredictsLikeExactKnn() {
+        var exact = Knn.withDefaultNormalizer(5, samples);
+        var compact = exact.compact(CompactIndex.Precision.INT8, 20);
+
+        for (Vectorizable target : targets) {
+            assertThat(compact.fit(target).predict("f0"), closeTo(exact.fit(target).predict("f0"), 1e-9));
+        }
+        assertThrows(ArgumentException.class, () -> exact.compact(CompactIndex.Precision.FLOAT32, -1));
+    }
+
+    @Test
+    void neighborsAreDecodedWithEveryFeatureOfTheSamples() {
+        List<Vectorizable> levelled = levelledPoints(new Random(3), 500, 4);
+        var exact = Knn.withDefaultNormalizer(5, levelled);
+        var compact = exact.compact(CompactIndex.Precision.FLOAT32, 20);
+        CompactIndex index = CompactIndex.of(levelled.get(0), levelled, CompactIndex.Precision.INT8, 20);
+
+        for (Vectorizable target : levelledPoints(new Random(4), 20, 4)) {
+            assertThat(compact.fit(target).classify(Points.Level.class), equalTo(exact.fit(target).classify(Points.Level.class)));
+            List<Score> expected = exact.index(target).nearest(target, 5);
+            List<Score> actual = index.nearest(target, 5);
+            for (int i = 0; i < expected.size(); i++) {
+                assertThat(actual.get(i).sample(), equalTo(expected.get(i).sample()));
+            }
+        }
+    }
+
+    private static void assertSameScores(List<Score> actual, List<Score> expected) {
+        assertThat(actual.size(), equalTo(expected.size()));
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(actual.get(i).score(), closeTo(expected.get(i).score(), 1e-9));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import com.acepero13.research.profilesimilarity.api.Vectorizable;
+import com.acepero13.research.profilesimilarity.api.features.Feature;
+import com.acepero13.research.profilesimilarity.api.features.Features;
+import com.acepero13.research.profilesimilarity.core.AbstractVectorizable;
+import com.acepero13.research.profilesimilarity.exceptions.VectorException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FeatureSchemaTest {
+
+    @Test
+    void projectsRowsInTheOrderOfTheSchema() {
+        FeatureSchema schema = FeatureSchema.of(new Row(
+                Features.doubleFeature(1.0, "income"),
+                Features.integerFeature(2, "age")));
+
+        double[] projected = schema.project(new Row(
+                Features.integerFeature(40, "age"),
+                Features.categoricalBoolean(true, "income"),
+                Features.doubleFeature(3.0, "height"),
+                Features.doubleFeature(50_000.0, "income")));
+
+        assertThat(projected, equalTo(new double[]{50_000.0, 40.0}));
+    }
+
+    @Test
+    void rejectsRowsWithoutEveryFeature() {
+        FeatureSchema schema = FeatureSchema.of(new Row(Features.doubleFeature(1.0, "income"), Features.integerFeature(2, "age")));
+
+        assertThrows(VectorException.class, () -> schema.project(new Row(Features.integerFeature(40, "age"))));
+        assertThrows(VectorException.class, () -> schema.columnsIn(Map.of("age", 0)));
+    }
+
+    @Test
+    void resolvesColumnsOnce() {
+        FeatureSchema schema = FeatureSchema.of(new Row(Features.doubleFeature(1.0, "income"), Features.integerFeature(2, "age")));
+
+        assertThat(schema.columnsIn(Map.of("age", 0, "height", 1, "income", 2)), equalTo(new int[]{2, 0}));
+    }
+
+    @Test
+    void schemasWithTheSameNamesAndWeightsAreEqual() {
+        Vectorizable sample = new Row(Features.doubleFeature(1.0, "income"), Features.integerFeature(2, "age"));
+        Vectorizable another = new Row(Features.doubleFeature(7.0, "income"), Features.integerFeature(9, "age"));
+        Vectorizable weighted = new Row(Features.doubleFeature(1.0, "income", 2.0), Features.integerFeature(2, "age"));
+
+        assertThat(FeatureSchema.of(sample), equalTo(FeatureSchema.of(another)));
+        assertThat(FeatureSchema.of(sample).hashCode(), equalTo(FeatureSchema.of(another).hashCode()));
+        assertThat(FeatureSchema.of(sample), not(equalTo(FeatureSchema.of(weighted))));
+    }
+
+    private static class Row extends AbstractVectorizable {
+        private Row(Feature<?>... features) {
+            List.of(features).forEach(this::addNonNullFeature);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import com.acepero13.research.profilesimilarity.annotations.Categorical;
+import com.acepero13.research.profilesimilarity.annotations.Numerical;
+import com.acepero13.research.profilesimilarity.api.Vectorizable;
+import com.acepero13.research.profilesimilarity.api.features.Features;
+import com.acepero13.research.profilesimilarity.core.AbstractVectorizable;
+import com.acepero13.research.profilesimilarity.core.classifier.Points.Level;
+import com.acepero13.research.profilesimilarity.exceptions.VectorException;
+import com.acepero13.research.profilesimilarity.scores.Metrics;
+import com.acepero13.research.profilesimilarity.testmodels.HOBBY;
+import lombok.Data;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static com.acepero13.research.profilesimilarity.core.classifier.Points.levelledPoints;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FeatureTableTest {
+    private static final List<Vectorizable> SAMPLES = List.of(
+            new Person(30, 30_000, List.of(HOBBY.MUSIC), Level.LOW),
+            new Person(60, 60_000, List.of(HOBBY.MUSIC, HOBBY.SPORT), Level.HIGH),
+            new Person(45, 60_000, List.of(HOBBY.SPORT, HOBBY.MUSIC), Level.HIGH),
+            new Person(33, 60_000, List.of(HOBBY.MUSIC), Level.LOW),
+            new Person(39, 50_000, List.of(HOBBY.SPORT), Level.LOW)
+    );
+
+    @Test
+    void storesOneSchemaAndDecodesSamples() {
+        FeatureTable table = FeatureTable.of(SAMPLES);
+
+        assertThat(table.size(), equalTo(5));
+        assertThat(table.numericalFeatureNames(), equalTo(List.of("age", "income")));
+        assertThat(table.column("age"), equalTo(new double[]{30, 60, 45, 33, 39}));
+        assertThat(table.sample(1).toFeatureVector().getCategoricalFeatureBy(Level.class).orElseThrow(), equalTo(Level.HIGH));
+        assertThat(table.sample(4).numericalFeatures().get(0).originalValue(), equalTo(39));
+        assertThat(table.sample(2).toFeatureVector(), equalTo(SAMPLES.get(2).toFeatureVector()));
+        assertThrows(VectorException.class, () -> table.column("height"));
+    }
+
+    @Test
+    void knnOverATableMatchesInMemoryKnn() {
+        List<Vectorizable> samples = levelledPoints(new Random(1), 500, 4);
+        Knn inMemory = Knn.withDefaultNormalizer(5, samples);
+        Knn table = Knn.ofTable(5, FeatureTable.of(samples));
+
+        for (Vectorizable target : levelledPoints(new Random(2), 20, 4)) {
+            assertThat(table.fit(target).predict("f0"), closeTo(inMemory.fit(target).predict("f0"), 1e-9));
+            assertThat(table.fit(target).classify(Level.class), equalTo(inMemory.fit(target).classify(Level.class)));
+        }
+    }
+
+    @Test
+    void mixedKnnOverATableMatchesInMemoryKnn() {
+        List<Vectorizable> samples = levelledPoints(new Random(3), 300, 3);
+        KnnMixedData inMemory = KnnMixedData.ofVectorizable(3, samples);
+        KnnMixedData table = KnnMixedData.ofTable(3, FeatureTable.of(samples));
+
+        for (Vectorizable target : levelledPoints(new Random(4), 20, 3)) {
+            assertThat(table.fit(target).predict("f1"), closeTo(inMemory.fit(target).predict("f1"), 1e-9));
+        }
+    }
+
+    @Test
+    void mostSimilarOverATableMatchesInMemory() {
+        var target = new Person(40, 60_000, List.of(), null);
+
+        var table = MostSimilar.ofTable(Metrics.gowersMetricCosineAndDice(), FeatureTable.of(SAMPLES));
+        var inMemory = MostSimilar.of(Metrics.gowersMetricCosineAndDice(), SAMPLES);
+
+        assertThat(table.resultOfMostSimilarTo(target).predict("age"), closeTo(inMemory.resultOfMostSimilarTo(target).predict("age"), 1e-9));
+    }
+
+    @Test
+    void buildsATableFromAnnotatedObjects() {
+        List<AnnotatedPerson> people = List.of(
+                new AnnotatedPerson(30, 30_000, List.of(HOBBY.MUSIC)),
+                new AnnotatedPerson(60, 60_000, List.of(HOBBY.MUSIC, HOBBY.SPORT)),
+                new AnnotatedPerson(39, 50_000, List.of(HOBBY.SPORT)));
+
+        var knn = Knn.ofTable(1, FeatureTable.ofObjects(people));
+
+        assertThat(knn.fit(new AnnotatedPerson(41, 52_000, List.of())).predict("age"), closeTo(39, 1e-9));
+    }
+
+    private static class Person extends AbstractVectorizable {
+        private Person(int age, double income, List<HOBBY> hobbies, Level level) {
+            addNonNullFeature(Features.integerFeature(age, "age"))
+                    .addNonNullFeature(Features.doubleFeature(income, "income"))
+                    .addAsOneHotEncodingFeature(HOBBY.values(), hobbies)
+                    .addNonNullFeature(level);
+        }
+    }
+
+    @com.acepero13.research.profilesimilarity.annotations.Vectorizable
+    @Data
+    private static class AnnotatedPerson {
+        @Numerical
+        private final int age;
+        @Numerical
+        private final double income;
+        @Categorical(oneHotEncoding = true, type = HOBBY.class)
+        private final List<HOBBY> hobbies;
+    }
+}
@@ -0,0 +1,73 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import com.acepero13.research.profilesimilarity.api.Vectorizable;
+import com.acepero13.research.profilesimilarity.exceptions.ArgumentException;
+import com.acepero13.research.profilesimilarity.scores.Metrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static com.acepero13.research.profilesimilarity.core.classifier.Points.points;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HnswIndexTest {
+
+    @Test
+    void approximateNeighborsHaveHighRecall() {
+        List<Vectorizable> samples = points(new Random(1), 2_000, 8);
+        List<Vectorizable> targets = points(new Random(2), 100, 8);
+        KnnIndex exact = Knn.withDefaultNormalizer(10, samples).index(targets.get(0));
+
+        HnswIndex euclidean = HnswIndex.of(exact, HnswIndex.Distance.EUCLIDEAN, HnswIndex.Parameters.defaults());
+        HnswIndex cosine = HnswIndex.of(exact, HnswIndex.Distance.COSINE, HnswIndex.Parameters.defaults());
+
+        assertThat(euclidean.size(), equalTo(samples.size()));
+        assertThat(euclidean.recall(targets, 10), greaterThanOrEqualTo(0.9));
+        assertThat(cosine.recall(targets, 10), greaterThanOrEqualTo(0.9));
+    }
+
+    @Test
+    void approximateKnnScoresOnlyTheCandidatesButAgreesWithExactKnn() {
+        List<Vectorizable> samples = points(new Random(3), 2_000, 8);
+        List<Vectorizable> targets = points(new Random(4), 50, 8);
+        var exact = Knn.withDefaultNormalizer(5, samples);
+        HnswIndex.Parameters parameters = HnswIndex.Parameters.of(8, 64, 32);
+        var approximate = exact.approximate(parameters);
+        HnswIndex index = HnswIndex.of(exact.index(targets.get(0)), HnswIndex.Distance.EUCLIDEAN, parameters);
+
+        int agreements = 0;
+        for (Vectorizable target : targets) {
+            assertThat(index.candidates(target).length, lessThanOrEqualTo(samples.size() / 50));
+            agreements += Math.abs(approximate.fit(target).predict("f0") - exact.fit(target).predict("f0")) < 1e-9 ? 1 : 0;
+        }
+
+        assertThat(agreements / (double) targets.size(), greaterThanOrEqualTo(0.9));
+    }
+
+    @Test
+    void approximateMostSimilarAgreesWithExactMostSimilar() {
+        List<Vectorizable> samples = points(new Random(5), 2_000, 8);
+        List<Vectorizable> targets = points(new Random(6), 50, 8);
+        var exact = MostSimilar.of(Metrics.cosineSimilarity(), samples);
+        var approximate = exact.approximate(HnswIndex.Distance.COSINE, HnswIndex.Parameters.of(8, 64, 32));
+
+        int agreements = 0;
+        for (Vectorizable target : targets) {
+            agreements += approximate.mostSimilarTo(target).equals(exact.mostSimilarTo(target)) ? 1 : 0;
+        }
+
+        assertThat(agreements / (double) targets.size(), greaterThanOrEqualTo(0.9));
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        assertThrows(ArgumentException.class, () -> HnswIndex.Parameters.of(1, 100, 10));
+        assertThrows(ArgumentException.class, () -> HnswIndex.Parameters.of(16, 0, 10));
+        assertThrows(ArgumentException.class, () -> HnswIndex.Parameters.defaults().withEfSearch(0));
+    }
+}
@@ -0,0 +1,127 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import com.acepero13.research.profilesimilarity.api.Vectorizable;
+import com.acepero13.research.profilesimilarity.api.features.CategoricalFeature;
+import com.acepero13.research.profilesimilarity.api.features.Features;
+import com.acepero13.research.profilesimilarity.core.AbstractVectorizable;
+import com.acepero13.research.profilesimilarity.exceptions.ArgumentException;
+import com.acepero13.research.profilesimilarity.scores.Metrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.acepero13.research.profilesimilarity.core.classifier.Points.weightedPoints;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IncrementalIndexTest {
+
+    @Test
+    void classifiersSeeChangesWithoutBeingRebuilt() {
+        Random random = new Random(7);
+        List<Vectorizable> samples = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            samples.add(person(random));
+        }
+        var index = IncrementalIndex.of(samples.get(0), samples);
+        var knn = Knn.ofIndex(3, index);
+        var knnMixedData = KnnMixedData.ofIndex(3, index);
+        var mostSimilar = MostSimilar.ofIndex(Metrics.cosineSimilarity(), index);
+
+        for (int i = 0; i < 20; i++) {
+            samples.set(i, person(random));
+            index.update(i, samples.get(i));
+        }
+        for (int id = 59; id >= 40; id--) {
+            index.remove(id);
+            samples.remove(id);
+        }
+        for (int i = 0; i < 10; i++) {
+            Vectorizable added = person(random);
+            samples.add(added);
+            index.add(added);
+        }
+
+        var rebuiltKnn = Knn.withDefaultNormalizer(3, samples);
+        var rebuiltKnnMixedData = KnnMixedData.ofVectorizable(3, samples);
+        var rebuiltMostSimilar = MostSimilar.of(Metrics.cosineSimilarity(), samples);
+        for (int i = 0; i < 20; i++) {
+            Vectorizable target = person(random);
+            assertThat(knn.fit(target).predict("age"), closeTo(rebuiltKnn.fit(target).predict("age"), 1e-9));
+            assertThat(knnMixedData.fit(target).predict("age"), closeTo(rebuiltKnnMixedData.fit(target).predict("age"), 1e-9));
+            assertThat(mostSimilar.resultOfMostSimilarTo(target).predict("age"), closeTo(rebuiltMostSimilar.resultOfMostSimilarTo(target).predict("age"), 1e-9));
+        }
+    }
+
+    @Test
+    void weightsScaleTheRowsLikeAnInMemoryIndex() {
+        List<Vectorizable> samples = weightedPoints(new Random(11), 200, 5.0, 1.0);
+        var incremental = Knn.ofIndex(2, IncrementalIndex.of(samples.get(0), samples));
+        var inMemory = Knn.withDefaultNormalizer(2, samples);
+        var table = Knn.ofTable(2, FeatureTable.of(samples));
+
+        for (Vectorizable target : weightedPoints(new Random(12), 20, 5.0, 1.0)) {
+            double expected = inMemory.fit(target).predict("f0");
+            assertThat(incremental.fit(target).predict("f0"), closeTo(expected, 1e-9));
+            assertThat(table.fit(target).predict("f0"), closeTo(expected, 1e-9));
+        }
+    }
+
+    @Test
+    void renormalizesOnlyWhenAnExtremeChanges() {
+        var index = IncrementalIndex.of(new Person(30, 3_000, Level.LOW),
+                List.of(new Person(20, 1_000, Level.LOW), new Person(60, 9_000, Level.HIGH)));
+        int renormalizations = index.renormalizations();
+
+        int inside = index.add(new Person(40, 5_000, Level.HIGH));
+        index.update(inside, new Person(45, 4_000, Level.LOW));
+        index.remove(inside);
+        assertThat(index.renormalizations(), equalTo(renormalizations));
+
+        int oldest = index.add(new Person(70, 5_000, Level.LOW));
+        assertThat(index.renormalizations(), equalTo(renormalizations + 1));
+        index.remove(oldest);
+        assertThat(index.renormalizations(), equalTo(renormalizations + 2));
+        assertThat(index.size(), equalTo(2));
+    }
+
+    @Test
+    void rejectsUnknownIds() {
+        var index = IncrementalIndex.of(new Person(30, 3_000, Level.LOW), List.of(new Person(20, 1_000, Level.LOW)));
+        index.remove(0);
+
+        assertThat(index.contains(0), equalTo(false));
+        assertThrows(ArgumentException.class, () -> index.remove(0));
+        assertThrows(ArgumentException.class, () -> index.update(1, new Person(20, 1_000, Level.LOW)));
+    }
+
+    private static Person person(Random random) {
+        return new Person(18 + random.nextInt(60), 1_000 + random.nextInt(9_000), random.nextBoolean() ? Level.LOW : Level.HIGH);
+    }
+
+    private enum Level implements CategoricalFeature<Level> {
+        LOW, HIGH;
+
+        @Override
+        public Level originalValue() {
+            return this;
+        }
+
+        @Override
+        public String featureName() {
+            return "level";
+        }
+    }
+
+    private static class Person extends AbstractVectorizable {
+        private Person(int age, double income, Level level) {
+            addNonNullFeature(Features.integerFeature(age, "age"))
+                    .addNonNullFeature(Features.doubleFeature(income, "income"))
+                    .addNonNullFeature(level);
+        }
+    }
+}
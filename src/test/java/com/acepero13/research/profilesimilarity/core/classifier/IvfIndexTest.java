@@ -0,0 +1,74 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import com.acepero13.research.profilesimilarity.api.Vectorizable;
+import com.acepero13.research.profilesimilarity.exceptions.ArgumentException;
+import com.acepero13.research.profilesimilarity.scores.Metrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static com.acepero13.research.profilesimilarity.core.classifier.Points.points;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IvfIndexTest {
+
+    @Test
+    void moreProbesGiveAHigherRecall() {
+        List<Vectorizable> samples = points(new Random(1), 2_000, 8);
+        List<Vectorizable> targets = points(new Random(2), 100, 8);
+        KnnIndex exact = Knn.withDefaultNormalizer(10, samples).index(targets.get(0));
+
+        IvfIndex one = IvfIndex.of(exact, HnswIndex.Distance.EUCLIDEAN, IvfIndex.Parameters.of(32, 1));
+        IvfIndex eight = one.probing(8);
+        IvfIndex all = one.probing(32);
+
+        assertThat(one.cells(), equalTo(32));
+        assertThat(eight.recall(targets, 10), greaterThanOrEqualTo(one.recall(targets, 10)));
+        assertThat(eight.recall(targets, 10), greaterThanOrEqualTo(0.8));
+        assertThat(all.recall(targets, 10), equalTo(1.0));
+    }
+
+    @Test
+    void partitionedKnnProbesAFewCellsButAgreesWithExactKnn() {
+        List<Vectorizable> samples = points(new Random(3), 2_000, 8);
+        List<Vectorizable> targets = points(new Random(4), 50, 8);
+        var exact = Knn.withDefaultNormalizer(5, samples);
+        IvfIndex.Parameters parameters = IvfIndex.Parameters.of(32, 6);
+        var partitioned = exact.partitioned(parameters);
+        IvfIndex index = IvfIndex.of(exact.index(targets.get(0)), HnswIndex.Distance.EUCLIDEAN, parameters);
+
+        int agreements = 0;
+        for (Vectorizable target : targets) {
+            assertThat(index.candidates(target).length, lessThan(samples.size() / 4));
+            agreements += Math.abs(partitioned.fit(target).predict("f0") - exact.fit(target).predict("f0")) < 1e-9 ? 1 : 0;
+        }
+
+        assertThat(agreements / (double) targets.size(), greaterThanOrEqualTo(0.9));
+    }
+
+    @Test
+    void partitionedMostSimilarAgreesWithExactMostSimilar() {
+        List<Vectorizable> samples = points(new Random(5), 2_000, 8);
+        List<Vectorizable> targets = points(new Random(6), 50, 8);
+        var exact = MostSimilar.of(Metrics.cosineSimilarity(), samples);
+        var partitioned = exact.partitioned(HnswIndex.Distance.COSINE, IvfIndex.Parameters.of(32, 6));
+
+        int agreements = 0;
+        for (Vectorizable target : targets) {
+            agreements += partitioned.mostSimilarTo(target).equals(exact.mostSimilarTo(target)) ? 1 : 0;
+        }
+
+        assertThat(agreements / (double) targets.size(), greaterThanOrEqualTo(0.9));
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        assertThrows(ArgumentException.class, () -> IvfIndex.Parameters.of(0, 1));
+        assertThrows(ArgumentException.class, () -> IvfIndex.Parameters.defaults().withNprobe(0));
+    }
+}
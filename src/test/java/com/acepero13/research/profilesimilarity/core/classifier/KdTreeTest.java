@@ -0,0 +1,44 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import com.acepero13.research.profilesimilarity.core.vectors.VectorKernels;
+import com.acepero13.research.profilesimilarity.utils.TopK;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+class KdTreeTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 5, 15})
+    void findsTheSameNeighborsAsALinearScan(int dimension) {
+        Random random = new Random(dimension);
+        int size = 3_000;
+        double[] rows = new double[size * dimension];
+        for (int i = 0; i < rows.length; i++) {
+            // Few distinct values, so that many rows are at the same distance of a query
+            rows[i] = random.nextInt(8) / 8.0;
+        }
+        KdTree tree = KdTree.of(rows, dimension, size);
+
+        for (int q = 0; q < 50; q++) {
+            double[] query = new double[dimension];
+            for (int i = 0; i < dimension; i++) {
+                query[i] = random.nextDouble();
+            }
+            for (int k : new int[]{1, 10, 100}) {
+                TopK scan = TopK.of(k);
+                for (int row = 0; row < size; row++) {
+                    scan.offer(row, VectorKernels.squaredDistance(query, 0, rows, row * dimension, dimension));
+                }
+                TopK found = tree.nearest(query, k);
+
+                assertThat(found.indices(), equalTo(scan.indices()));
+                assertThat(found.scores(), equalTo(scan.scores()));
+            }
+        }
+    }
+}
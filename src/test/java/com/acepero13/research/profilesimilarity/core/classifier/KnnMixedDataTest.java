@@ -14,6 +14,7 @@ import org.junit.jupiter.api.Test;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.closeTo;
@@ -117,6 +118,40 @@ class KnnMixedDataTest {
         assertThat(prediction.score(), closeTo(49.74, 0.1));
     }
 
+    @Test
+    void fitAllMatchesFit() {
+        var knn = KnnMixedData.ofVectorizable(3, PERSON_LIST);
+        List<com.acepero13.research.profilesimilarity.api.Vectorizable> targets = IntStream.range(0, 64)
+                .mapToObj(i -> new Person(20 + i, 25_000 + 1_000 * i, i % 2 == 0 ? List.of(HOBBY.MUSIC) : List.of(HOBBY.SPORT)))
+                .collect(Collectors.toList());
+
+        var results = knn.fitAllVectorizable(targets);
+
+        assertThat(results.size(), equalTo(targets.size()));
+        for (int i = 0; i < targets.size(); i++) {
+            assertThat(results.get(i).predict("age"), equalTo(knn.fit(targets.get(i)).predict("age")));
+        }
+    }
+
+    @Test
+    void aColumnWithOneValueCountsAsAMatchOnEveryPath() {
+        List<com.acepero13.research.profilesimilarity.api.Vectorizable> sameIncome = IntStream.range(0, 20)
+                .mapToObj(i -> new Person(20 + 3 * i, 60_000, i % 2 == 0 ? List.of(HOBBY.MUSIC) : List.of(HOBBY.SPORT)))
+                .collect(Collectors.toList());
+        var target = new Person(42, 35_000, List.of(HOBBY.MUSIC));
+
+        var inMemory = KnnMixedData.ofVectorizable(1, sameIncome).fit(target).predictWithScore("age");
+        var table = KnnMixedData.ofTable(1, FeatureTable.of(sameIncome)).fit(target).predictWithScore("age");
+        var incremental = KnnMixedData.ofIndex(1, IncrementalIndex.of(sameIncome.get(0), sameIncome))
+                .fit(target).predictWithScore("age");
+
+        assertThat(inMemory.prediction(), equalTo(44.0));
+        assertThat(table.prediction(), equalTo(inMemory.prediction()));
+        assertThat(incremental.prediction(), equalTo(inMemory.prediction()));
+        assertThat(table.score(), closeTo(inMemory.score(), 1e-9));
+        assertThat(incremental.score(), closeTo(inMemory.score(), 1e-9));
+    }
+
     @EqualsAndHashCode(callSuper = true)
     private static class Person extends AbstractVectorizable {
         private int age;
@@ -6,15 +6,22 @@ import com.acepero13.research.profilesimilarity.annotations.Vectorizable;
 import com.acepero13.research.profilesimilarity.api.features.CategoricalFeature;
 import com.acepero13.research.profilesimilarity.api.features.Features;
 import com.acepero13.research.profilesimilarity.core.AbstractVectorizable;
+import com.acepero13.research.profilesimilarity.core.Score;
+import com.acepero13.research.profilesimilarity.core.vectors.VectorKernels;
 import com.acepero13.research.profilesimilarity.core.classifier.result.Classification;
 import lombok.Data;
 import org.junit.jupiter.api.Test;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.closeTo;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
 
 class KnnTest {
 
@@ -58,6 +65,73 @@ class KnnTest {
         assertThat(result.probability().value(), closeTo(0.67, 0.1));
     }
 
+    @Test
+    void indexIsBuiltOncePerFeatureSchema() {
+        var classifier = Knn.withDefaultNormalizer(1, new AcidDurability(7, 7, CLASSIFICATION.BAD),
+                new AcidDurability(1, 4, CLASSIFICATION.GOOD));
+
+        KnnIndex index = classifier.index(new AcidDurability(3, 7));
+
+        assertThat(classifier.index(new AcidDurability(6, 6)), sameInstance(index));
+        assertThat(index.dimension(), equalTo(2));
+        assertThat(index.size(), equalTo(2));
+
+        var durabilityOnly = new DurabilityOnly(6);
+        assertThat(classifier.index(durabilityOnly).dimension(), equalTo(1));
+        assertThat(classifier.fit(durabilityOnly).classify(CLASSIFICATION.class), equalTo(CLASSIFICATION.BAD));
+        assertThat(classifier.fit(new AcidDurability(2, 4)).classify(CLASSIFICATION.class), equalTo(CLASSIFICATION.GOOD));
+    }
+
+    @Test
+    void fitAllMatchesFit() {
+        List<com.acepero13.research.profilesimilarity.api.Vectorizable> samples = IntStream.range(0, 50)
+                .mapToObj(i -> new AcidDurability(i % 11, (i * 7) % 13, i % 3 == 0 ? CLASSIFICATION.GOOD : CLASSIFICATION.BAD))
+                .collect(Collectors.toList());
+        List<com.acepero13.research.profilesimilarity.api.Vectorizable> targets = IntStream.range(0, 80)
+                .mapToObj(i -> new AcidDurability((i * 5) % 17, i % 9))
+                .collect(Collectors.toList());
+        var classifier = Knn.withDefaultNormalizer(5, samples);
+
+        var results = classifier.fitAll(targets);
+
+        assertThat(results.size(), equalTo(targets.size()));
+        for (int i = 0; i < targets.size(); i++) {
+            var expected = classifier.fit(targets.get(i));
+            assertThat(results.get(i).classify(CLASSIFICATION.class), equalTo(expected.classify(CLASSIFICATION.class)));
+            assertThat(results.get(i).predict("Strength in km/m2"), equalTo(expected.predict("Strength in km/m2")));
+        }
+    }
+
+    @Test
+    void abandoningScanFindsTheSameNeighborsAsAFullScan() {
+        Random random = new Random(784);
+        List<com.acepero13.research.profilesimilarity.api.Vectorizable> samples = IntStream.range(0, 600)
+                .mapToObj(i -> new Pixels(random))
+                .collect(Collectors.toList());
+        List<com.acepero13.research.profilesimilarity.api.Vectorizable> targets = IntStream.range(0, 20)
+                .mapToObj(i -> new Pixels(random))
+                .collect(Collectors.toList());
+        KnnIndex index = KnnIndex.of(targets.get(0), samples);
+
+        List<List<Score>> batch = index.nearest(targets, 5);
+        for (int t = 0; t < targets.size(); t++) {
+            double[] query = index.normalize(targets.get(t)).toArray();
+            List<Integer> expected = IntStream.range(0, samples.size())
+                    .boxed()
+                    .sorted(Comparator.comparingDouble(row -> VectorKernels.squaredDistance(query, 0, index.row(row).toArray(), 0, query.length)))
+                    .limit(5)
+                    .collect(Collectors.toList());
+            List<Score> nearest = index.nearest(targets.get(t), 5);
+
+            for (int i = 0; i < expected.size(); i++) {
+                double distance = Math.sqrt(VectorKernels.squaredDistance(query, 0, index.row(expected.get(i)).toArray(), 0, query.length));
+                assertThat(nearest.get(i).sample(), equalTo(samples.get(expected.get(i)).toFeatureVector()));
+                assertThat(nearest.get(i).score(), closeTo(distance, 1e-9));
+                assertThat(batch.get(t).get(i).sample(), equalTo(nearest.get(i).sample()));
+            }
+        }
+    }
+
     private enum CLASSIFICATION implements CategoricalFeature<CLASSIFICATION> {
         GOOD, BAD, UNKNOWN;
 
@@ -111,5 +185,19 @@ class KnnTest {
 
 
     }
-}
 
+    private static class Pixels extends AbstractVectorizable {
+        private Pixels(Random random) {
+            for (int i = 0; i < 784; i++) {
+                // The pixels of a larger power are concentrated near zero and vary less
+                this.addNonNullFeature(Features.doubleFeature(Math.pow(random.nextDouble(), 1 + i % 28), "pixel" + i));
+            }
+        }
+    }
+
+    private static class DurabilityOnly extends AbstractVectorizable {
+        private DurabilityOnly(int durabilitySeconds) {
+            this.addNonNullFeature(Features.integerFeature(durabilitySeconds, "Acid Durability (s)"));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import com.acepero13.research.profilesimilarity.api.Vectorizable;
+import com.acepero13.research.profilesimilarity.api.features.Features;
+import com.acepero13.research.profilesimilarity.core.AbstractVectorizable;
+import com.acepero13.research.profilesimilarity.exceptions.ArgumentException;
+import com.acepero13.research.profilesimilarity.scores.Metrics;
+import com.acepero13.research.profilesimilarity.utils.Tuple;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.acepero13.research.profilesimilarity.core.classifier.Points.points;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LshIndexTest {
+
+    @Test
+    void cosineCandidatesContainTheMostSimilarSample() {
+        List<Vectorizable> samples = points(new Random(1), 2_000, 8);
+        KnnIndex exact = Knn.withDefaultNormalizer(1, samples).index(samples.get(0));
+        LshIndex index = LshIndex.of(exact, LshIndex.Family.COSINE, LshIndex.Parameters.defaults());
+        var mostSimilar = MostSimilar.of(Metrics.cosineSimilarity(), samples);
+        var hashed = mostSimilar.hashed(LshIndex.Family.COSINE, LshIndex.Parameters.defaults());
+
+        int found = 0;
+        int candidates = 0;
+        List<Vectorizable> targets = points(new Random(2), 50, 8);
+        for (Vectorizable target : targets) {
+            candidates += index.candidates(target).length;
+            double expected = mostSimilar.resultOfMostSimilarTo(target).predict("f0");
+            found += hashed.resultOfMostSimilarTo(target).predict("f0") == expected ? 1 : 0;
+        }
+
+        assertThat(candidates / targets.size(), lessThan(samples.size() / 4));
+        assertThat(found / (double) targets.size(), greaterThanOrEqualTo(0.8));
+    }
+
+    @Test
+    void jaccardNeighborsShareMostTags() {
+        List<Vectorizable> samples = profiles(new Random(3), 500);
+        KnnIndex exact = Knn.withDefaultNormalizer(1, samples).index(samples.get(0));
+        LshIndex index = LshIndex.of(exact, LshIndex.Family.JACCARD, LshIndex.Parameters.of(32, 2));
+
+        Vectorizable target = samples.get(7);
+
+        assertThat(index.nearest(target, 1).get(0).score(), closeTo(0.0, 1e-9));
+        assertThat(index.nearest(target, 1).get(0).sample(), equalTo(target.toFeatureVector()));
+    }
+
+    @Test
+    void findsNearDuplicateProfiles() {
+        List<Vectorizable> samples = profiles(new Random(4), 300);
+        Vectorizable copy = new Profile(samples.get(42));
+        samples.add(copy);
+        KnnIndex exact = Knn.withDefaultNormalizer(1, samples).index(samples.get(0));
+
+        List<Tuple<Vectorizable, Vectorizable>> duplicates = LshIndex.of(exact, LshIndex.Family.JACCARD, LshIndex.Parameters.of(16, 4))
+                .nearDuplicates(1.0);
+
+        assertThat(duplicates.stream().anyMatch(pair -> pair.first() == samples.get(42) && pair.second() == copy), equalTo(true));
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        assertThrows(ArgumentException.class, () -> LshIndex.Parameters.of(0, 8));
+        assertThrows(ArgumentException.class, () -> LshIndex.Parameters.of(16, 33));
+    }
+
+    private static List<Vectorizable> profiles(Random random, int size) {
+        List<Vectorizable> profiles = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            profiles.add(new Profile(random));
+        }
+        return profiles;
+    }
+
+    private static class Profile extends AbstractVectorizable {
+        private static final int TAGS = 40;
+
+        private final double[] values = new double[4];
+        private final boolean[] tags = new boolean[TAGS];
+
+        private Profile(Random random) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = random.nextGaussian();
+            }
+            for (int i = 0; i < TAGS; i++) {
+                tags[i] = random.nextDouble() < 0.2;
+            }
+            addFeatures();
+        }
+
+        private Profile(Vectorizable another) {
+            Profile profile = (Profile) another;
+            System.arraycopy(profile.values, 0, values, 0, values.length);
+            System.arraycopy(profile.tags, 0, tags, 0, TAGS);
+            addFeatures();
+        }
+
+        private void addFeatures() {
+            for (int i = 0; i < values.length; i++) {
+                addNonNullFeature(Features.doubleFeature(values[i], "f" + i));
+            }
+            for (int i = 0; i < TAGS; i++) {
+                addNonNullFeature(Features.categoricalBoolean(tags[i], "tag" + i));
+            }
+        }
+    }
+}
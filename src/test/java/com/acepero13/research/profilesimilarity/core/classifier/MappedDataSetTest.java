@@ -0,0 +1,114 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import com.acepero13.research.profilesimilarity.api.Vectorizable;
+import com.acepero13.research.profilesimilarity.api.features.CategoricalFeature;
+import com.acepero13.research.profilesimilarity.api.features.Features;
+import com.acepero13.research.profilesimilarity.core.AbstractVectorizable;
+import com.acepero13.research.profilesimilarity.scores.Metrics;
+import com.acepero13.research.profilesimilarity.testmodels.HOBBY;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+
+class MappedDataSetTest {
+    private static final List<Vectorizable> SAMPLES = List.of(
+            new Person(30, 30_000, List.of(HOBBY.MUSIC), Level.LOW),
+            new Person(60, 60_000, List.of(HOBBY.MUSIC, HOBBY.SPORT), Level.HIGH),
+            new Person(45, 60_000, List.of(HOBBY.SPORT, HOBBY.MUSIC), Level.HIGH),
+            new Person(33, 60_000, List.of(HOBBY.MUSIC), Level.LOW),
+            new Person(39, 50_000, List.of(HOBBY.SPORT), Level.LOW)
+    );
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void mappedKnnMatchesInMemoryKnn() throws IOException {
+        Path file = directory.resolve("people.knn");
+        Knn inMemory = Knn.withDefaultNormalizer(3, SAMPLES);
+        inMemory.write(file);
+
+        Knn mapped = Knn.ofMapped(3, MappedDataSet.open(file));
+        var target = new Person(40, 55_000, List.of(), null);
+
+        assertThat(mapped.fit(target).predict("income"), closeTo(inMemory.fit(target).predict("income"), 1e-6));
+        assertThat(mapped.fit(target).classify(Level.class), equalTo(inMemory.fit(target).classify(Level.class)));
+    }
+
+    @Test
+    void restoresSchemaAndSamples() throws IOException {
+        Path file = directory.resolve("people.knn");
+        MappedDataSet.write(SAMPLES, file);
+
+        MappedDataSet data = MappedDataSet.open(file);
+
+        assertThat(data.size(), equalTo(5));
+        assertThat(data.numericalFeatureNames(), equalTo(List.of("age", "income")));
+        assertThat(data.minMax().getMin().toArray(), equalTo(new double[]{30, 30_000}));
+        assertThat(data.sample(1).toFeatureVector().getCategoricalFeatureBy(Level.class).orElseThrow(), equalTo(Level.HIGH));
+        assertThat(data.sample(4).toFeatureVector().getNumericalFeatureBy("age").orElseThrow().featureValue(), closeTo(39, 1e-9));
+    }
+
+    @Test
+    void mapsLargeSectionsInChunksOfWholeRows() throws IOException {
+        Path file = directory.resolve("people.knn");
+        Knn inMemory = Knn.withDefaultNormalizer(3, SAMPLES);
+        inMemory.write(file);
+        var target = new Person(40, 55_000, List.of(), null);
+
+        MappedDataSet whole = MappedDataSet.open(file);
+        MappedDataSet chunked = MappedDataSet.open(file, 40);
+        Knn mapped = Knn.ofMapped(3, chunked);
+
+        assertThat(whole.chunks(), equalTo(1));
+        assertThat(chunked.chunks(), equalTo(3));
+        assertThat(MappedDataSet.open(file, 1).chunks(), equalTo(5));
+        for (int row = 0; row < SAMPLES.size(); row++) {
+            assertThat(chunked.sample(row).toFeatureVector(), equalTo(whole.sample(row).toFeatureVector()));
+        }
+        assertThat(mapped.fit(target).predict("income"), closeTo(inMemory.fit(target).predict("income"), 1e-6));
+        assertThat(mapped.fit(target).classify(Level.class), equalTo(inMemory.fit(target).classify(Level.class)));
+    }
+
+    @Test
+    void mappedMostSimilarMatchesInMemory() throws IOException {
+        Path file = directory.resolve("people.knn");
+        MappedDataSet.write(SAMPLES, file);
+        var target = new Person(40, 60_000, List.of(), null);
+
+        var mapped = MostSimilar.ofMapped(Metrics.gowersMetricCosineAndDice(), MappedDataSet.open(file));
+        var inMemory = MostSimilar.of(Metrics.gowersMetricCosineAndDice(), SAMPLES);
+
+        assertThat(mapped.resultOfMostSimilarTo(target).predict("age"), closeTo(inMemory.resultOfMostSimilarTo(target).predict("age"), 1e-9));
+    }
+
+    private enum Level implements CategoricalFeature<Level> {
+        LOW, HIGH;
+
+        @Override
+        public Level originalValue() {
+            return this;
+        }
+
+        @Override
+        public String featureName() {
+            return "level";
+        }
+    }
+
+    private static class Person extends AbstractVectorizable {
+        private Person(int age, double income, List<HOBBY> hobbies, Level level) {
+            addNonNullFeature(Features.integerFeature(age, "age"))
+                    .addNonNullFeature(Features.doubleFeature(income, "income"))
+                    .addAsOneHotEncodingFeature(HOBBY.values(), hobbies)
+                    .addNonNullFeature(level);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import com.acepero13.research.profilesimilarity.api.Vectorizable;
+import com.acepero13.research.profilesimilarity.api.features.CategoricalFeature;
+import com.acepero13.research.profilesimilarity.api.features.Features;
+import com.acepero13.research.profilesimilarity.core.AbstractVectorizable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Random samples shared by the tests of the indexes: each point has the numerical features {@code f0, f1, ...}
+ * uniformly drawn from {@code [0, 10)}, with a weight of 1 unless other weights are given, and optionally a random
+ * {@link Level}.
+ */
+final class Points {
+
+    private Points() {
+    }
+
+    static List<Vectorizable> points(Random random, int size, int dimension) {
+        return points(random, size, unitWeights(dimension), false);
+    }
+
+    static List<Vectorizable> levelledPoints(Random random, int size, int dimension) {
+        return points(random, size, unitWeights(dimension), true);
+    }
+
+    static List<Vectorizable> weightedPoints(Random random, int size, double... weights) {
+        return points(random, size, weights, false);
+    }
+
+    private static List<Vectorizable> points(Random random, int size, double[] weights, boolean levelled) {
+        List<Vectorizable> points = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            points.add(new Point(random, weights, levelled));
+        }
+        return points;
+    }
+
+    private static double[] unitWeights(int dimension) {
+        double[] weights = new double[dimension];
+        Arrays.fill(weights, 1.0);
+        return weights;
+    }
+
+    enum Level implements CategoricalFeature<Level> {
+        LOW, HIGH;
+
+        @Override
+        public Level originalValue() {
+            return this;
+        }
+
+        @Override
+        public String featureName() {
+            return "level";
+        }
+    }
+
+    private static class Point extends AbstractVectorizable {
+        private Point(Random random, double[] weights, boolean levelled) {
+            for (int i = 0; i < weights.length; i++) {
+                addNonNullFeature(Features.doubleFeature(random.nextDouble() * 10.0, "f" + i, weights[i]));
+            }
+            if (levelled) {
+                addNonNullFeature(random.nextBoolean() ? Level.LOW : Level.HIGH);
+            }
+        }
+    }
+}
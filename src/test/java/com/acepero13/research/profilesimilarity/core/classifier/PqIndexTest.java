@@ -0,0 +1,73 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import com.acepero13.research.profilesimilarity.api.Vectorizable;
+import com.acepero13.research.profilesimilarity.exceptions.ArgumentException;
+import com.acepero13.research.profilesimilarity.scores.Metrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static com.acepero13.research.profilesimilarity.core.classifier.Points.points;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PqIndexTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void reRankedNeighborsHaveHighRecall() {
+        List<Vectorizable> samples = points(new Random(1), 2_000, 8);
+        List<Vectorizable> targets = points(new Random(2), 50, 8);
+        KnnIndex exact = Knn.withDefaultNormalizer(10, samples).index(targets.get(0));
+
+        PqIndex reRanked = PqIndex.of(exact, PqIndex.Parameters.of(4, 64, 1_000, 100));
+        PqIndex quantized = PqIndex.of(exact, reRanked.parameters().withRerank(0));
+
+        assertThat(reRanked.codeBytes(), equalTo(samples.size() * 4L));
+        assertThat(reRanked.recall(targets, 10), greaterThanOrEqualTo(0.9));
+        assertThat(quantized.recall(targets, 10), greaterThanOrEqualTo(0.4));
+    }
+
+    @Test
+    void quantizedKnnOverAMappedDataSetMatchesExactKnn() throws IOException {
+        List<Vectorizable> samples = points(new Random(3), 200, 3);
+        Path file = directory.resolve("points.knn");
+        MappedDataSet.write(samples, file);
+        var exact = Knn.withDefaultNormalizer(3, samples);
+        var quantized = Knn.ofMapped(3, MappedDataSet.open(file)).quantized(PqIndex.Parameters.of(3, 16, 200, 60));
+
+        for (Vectorizable target : points(new Random(4), 20, 3)) {
+            assertThat(quantized.fit(target).predict("f0"), closeTo(exact.fit(target).predict("f0"), 1e-9));
+        }
+    }
+
+    @Test
+    void quantizedMostSimilarAgreesWithExactMostSimilar() {
+        List<Vectorizable> samples = points(new Random(5), 2_000, 8);
+        List<Vectorizable> targets = points(new Random(6), 50, 8);
+        var exact = MostSimilar.of(Metrics.cosineSimilarity(), samples);
+        var quantized = exact.quantized(PqIndex.Parameters.of(4, 64, 1_000, 50));
+
+        int agreements = 0;
+        for (Vectorizable target : targets) {
+            agreements += quantized.mostSimilarTo(target).equals(exact.mostSimilarTo(target)) ? 1 : 0;
+        }
+
+        assertThat(agreements / (double) targets.size(), greaterThanOrEqualTo(0.9));
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        assertThrows(ArgumentException.class, () -> PqIndex.Parameters.of(0, 256, 1_000, 10));
+        assertThrows(ArgumentException.class, () -> PqIndex.Parameters.of(8, 257, 1_000, 10));
+        assertThrows(ArgumentException.class, () -> PqIndex.Parameters.defaults().withRerank(-1));
+    }
+}
@@ -0,0 +1,222 @@
+package com.acepero13.research.profilesimilarity.core.classifier;
+
+import com.acepero13.research.profilesimilarity.api.Metric;
+import com.acepero13.research.profilesimilarity.api.Vector;
+import com.acepero13.research.profilesimilarity.api.Vectorizable;
+import com.acepero13.research.profilesimilarity.api.features.Feature;
+import com.acepero13.research.profilesimilarity.core.MixedSample;
+import com.acepero13.research.profilesimilarity.core.PackedRow;
+import com.acepero13.research.profilesimilarity.core.vectors.NormalizedVector;
+import com.acepero13.research.profilesimilarity.exceptions.ArgumentException;
+import com.acepero13.research.profilesimilarity.scores.Metrics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.acepero13.research.profilesimilarity.core.classifier.Points.levelledPoints;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class QueryExecutorTest {
+    private static final ExecutorService HELPERS = Executors.newCachedThreadPool();
+    private static final List<QueryExecutor> EXECUTORS = List.of(
+            QueryExecutor.callerThread(),
+            QueryExecutor.forkJoinPool(2),
+            QueryExecutor.bounded(HELPERS, 3),
+            QueryExecutor.bounded(task -> {
+                throw new AssertionError("No permit, no helper");
+            }, 0));
+
+    @AfterAll
+    static void shutdown() {
+        HELPERS.shutdown();
+    }
+
+    @Test
+    void collectCombinesTheChunksInIndexOrder() {
+        for (QueryExecutor executor : EXECUTORS) {
+            List<Integer> collected = executor.collect(10_000, ArrayList::new, List::add, List::addAll);
+
+            assertThat(executor.toString(), collected, equalTo(IntStream.range(0, 10_000).boxed().collect(Collectors.toList())));
+            assertThat(executor.map(List.of("a", "bb", "ccc"), String::length), equalTo(List.of(1, 2, 3)));
+        }
+    }
+
+    @Test
+    void knnFindsTheSameNeighborsWithEveryExecutor() {
+        List<Vectorizable> samples = levelledPoints(new Random(1), 3_000, 20);
+        List<Vectorizable> targets = levelledPoints(new Random(2), 40, 20);
+        Knn knn = Knn.withDefaultNormalizer(5, samples);
+        List<Double> expected = targets.stream().map(t -> knn.fit(t).predict("f0")).collect(Collectors.toList());
+
+        for (QueryExecutor executor : EXECUTORS) {
+            Knn withExecutor = knn.withExecutor(executor);
+
+            assertThat(targets.stream().map(t -> withExecutor.fit(t).predict("f0")).collect(Collectors.toList()), equalTo(expected));
+            assertThat(withExecutor.fitAll(targets).stream().map(r -> r.predict("f0")).collect(Collectors.toList()), equalTo(expected));
+        }
+    }
+
+    @Test
+    void mixedKnnAndMostSimilarFindTheSameSamplesWithEveryExecutor() {
+        List<Vectorizable> samples = levelledPoints(new Random(3), 2_000, 3);
+        List<Vectorizable> targets = levelledPoints(new Random(4), 10, 3);
+        KnnMixedData knn = KnnMixedData.ofVectorizable(5, samples);
+        MostSimilar mostSimilar = MostSimilar.of(Metrics.cosineSimilarity(), samples);
+
+        for (QueryExecutor executor : EXECUTORS) {
+            for (Vectorizable target : targets) {
+                assertThat(knn.withExecutor(executor).fit(target).predict("f1"), equalTo(knn.fit(target).predict("f1")));
+                assertThat(mostSimilar.withExecutor(executor).mostSimilarTo(target), equalTo(mostSimilar.mostSimilarTo(target)));
+            }
+        }
+    }
+
+    @Test
+    void concurrentQueriesNeverRunMoreHelpersThanPermits() throws Exception {
+        ThreadLocal<Boolean> onHelper = ThreadLocal.withInitial(() -> false);
+        Executor marking = task -> HELPERS.execute(() -> {
+            onHelper.set(true);
+            try {
+                task.run();
+            } finally {
+                onHelper.set(false);
+            }
+        });
+        QueryExecutor bounded = QueryExecutor.bounded(marking, 2);
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maximum = new AtomicInteger();
+        AtomicInteger helped = new AtomicInteger();
+
+        ExecutorService requests = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> queries = new ArrayList<>();
+            for (int query = 0; query < 32; query++) {
+                queries.add(requests.submit(() -> bounded.forEach(16, index -> {
+                    if (!onHelper.get()) {
+                        return;
+                    }
+                    maximum.accumulateAndGet(active.incrementAndGet(), Math::max);
+                    helped.incrementAndGet();
+                    try {
+                        Thread.sleep(1);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        active.decrementAndGet();
+                    }
+                })));
+            }
+            for (Future<?> query : queries) {
+                query.get();
+            }
+        } finally {
+            requests.shutdown();
+        }
+
+        assertThat(helped.get(), greaterThan(0));
+        assertThat(maximum.get(), lessThanOrEqualTo(2));
+    }
+
+    @Test
+    void callerThreadBuildsAndAnswersOnTheCallingThread() {
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        List<Vectorizable> samples = levelledPoints(new Random(5), 3_000, 8).stream()
+                .map(sample -> new Recorded(sample, threads))
+                .collect(Collectors.toList());
+        List<Vectorizable> targets = levelledPoints(new Random(6), 10, 8);
+        Knn knn = Knn.withDefaultNormalizer(5, samples).withExecutor(QueryExecutor.callerThread());
+        MostSimilar mostSimilar = MostSimilar.of(new RecordedMetric(Metrics.cosineSimilarity(), threads), samples)
+                .withExecutor(QueryExecutor.callerThread());
+
+        for (Knn classifier : List.of(knn, knn.compact(CompactIndex.Precision.INT8, 20),
+                knn.approximate(HnswIndex.Parameters.defaults()), knn.partitioned(IvfIndex.Parameters.of(16, 4)),
+                knn.quantized(PqIndex.Parameters.of(4, 16, 500, 50)))) {
+            classifier.fitAll(targets);
+            targets.forEach(classifier::fit);
+        }
+        for (MostSimilar instance : List.of(mostSimilar, mostSimilar.hashed(LshIndex.Family.COSINE, LshIndex.Parameters.defaults()),
+                mostSimilar.quantized(PqIndex.Parameters.of(4, 16, 500, 50)))) {
+            targets.forEach(instance::mostSimilarTo);
+        }
+
+        assertThat(threads, equalTo(Set.of(Thread.currentThread())));
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        assertThrows(ArgumentException.class, () -> QueryExecutor.forkJoinPool(0));
+        assertThrows(ArgumentException.class, () -> QueryExecutor.bounded(HELPERS, -1));
+    }
+
+    /**
+     * A sample that records the threads its features are read on.
+     */
+    private static class Recorded implements Vectorizable {
+        private final Vectorizable sample;
+        private final Set<Thread> threads;
+
+        private Recorded(Vectorizable sample, Set<Thread> threads) {
+            this.sample = sample;
+            this.threads = threads;
+        }
+
+        @Override
+        public Vector<Double> vector() {
+            threads.add(Thread.currentThread());
+            return sample.vector();
+        }
+
+        @Override
+        public List<Feature<?>> features() {
+            threads.add(Thread.currentThread());
+            return sample.features();
+        }
+    }
+
+    /**
+     * A metric that records the threads the samples are scored on.
+     */
+    private static class RecordedMetric implements Metric {
+        private final Metric metric;
+        private final Set<Thread> threads;
+
+        private RecordedMetric(Metric metric, Set<Thread> threads) {
+            this.metric = metric;
+            this.threads = threads;
+        }
+
+        @Override
+        public Double similarityScore(NormalizedVector vectorizable, NormalizedVector another) {
+            threads.add(Thread.currentThread());
+            return metric.similarityScore(vectorizable, another);
+        }
+
+        @Override
+        public Double similarityScore(MixedSample sample, MixedSample another) {
+            threads.add(Thread.currentThread());
+            return metric.similarityScore(sample, another);
+        }
+
+        @Override
+        public Double similarityScore(PackedRow row, PackedRow another) {
+            threads.add(Thread.currentThread());
+            return metric.similarityScore(row, another);
+        }
+    }
+}
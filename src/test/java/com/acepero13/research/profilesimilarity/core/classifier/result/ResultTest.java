@@ -0,0 +1,96 @@
+package com.acepero13.research.profilesimilarity.core.classifier.result;
+
+import com.acepero13.research.profilesimilarity.api.features.CategoricalFeature;
+import com.acepero13.research.profilesimilarity.api.features.Feature;
+import com.acepero13.research.profilesimilarity.api.features.Features;
+import com.acepero13.research.profilesimilarity.core.Score;
+import com.acepero13.research.profilesimilarity.core.vectors.FeatureVector;
+import com.acepero13.research.profilesimilarity.exceptions.ArgumentException;
+import com.acepero13.research.profilesimilarity.exceptions.PredictionException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResultTest {
+    // One close neighbor that says GOOD, two far neighbors that say BAD
+    private static final List<Score> NEIGHBORS = List.of(
+            neighbor(0.5, 10.0, Quality.GOOD),
+            neighbor(4.0, 20.0, Quality.BAD),
+            neighbor(4.0, 30.0, Quality.BAD));
+
+    @Test
+    void majorityCountsEveryNeighborOnce() {
+        Result result = Result.of(NEIGHBORS);
+
+        Classification classification = result.classifyWithScore(Quality.class);
+
+        assertThat(classification.classification(), equalTo(Quality.BAD));
+        assertThat(classification.probability().value(), closeTo(2.0 / 3.0, 1e-9));
+        assertThat(result.classify("quality"), equalTo(Quality.BAD));
+        assertThat(result.predict("price"), closeTo(20.0, 1e-9));
+    }
+
+    @Test
+    void inverseDistanceFavorsTheCloseNeighbors() {
+        Result result = Result.of(NEIGHBORS).weightedBy(Weighting.inverseDistance());
+
+        Classification classification = result.classifyWithScore(Quality.class);
+
+        assertThat(classification.classification(), equalTo(Quality.GOOD));
+        assertThat(classification.probability().value(), closeTo(2.0 / 2.5, 1e-9));
+        assertThat(result.predict("price"), closeTo((10.0 * 2.0 + 20.0 * 0.25 + 30.0 * 0.25) / 2.5, 1e-9));
+    }
+
+    @Test
+    void gaussianKernelFavorsTheCloseNeighbors() {
+        Result result = Result.of(NEIGHBORS, Weighting.gaussian(1.0));
+
+        double close = Math.exp(-0.125);
+        double far = Math.exp(-8.0);
+        assertThat(result.classify(Quality.class), equalTo(Quality.GOOD));
+        assertThat(result.predict("price"), closeTo((10.0 * close + 50.0 * far) / (close + 2 * far), 1e-9));
+        assertThrows(ArgumentException.class, () -> Weighting.gaussian(0.0));
+    }
+
+    @Test
+    void exactMatchesOutvoteEveryOtherNeighbor() {
+        Result result = Result.of(List.of(neighbor(0.0, 10.0, Quality.GOOD), neighbor(1.0, 20.0, Quality.BAD),
+                neighbor(1.0, 30.0, Quality.BAD)), Weighting.inverseDistance());
+
+        assertThat(result.classify(Quality.class), equalTo(Quality.GOOD));
+        assertThat(result.predict("price"), closeTo(10.0, 1e-9));
+    }
+
+    @Test
+    void missingFeatures() {
+        Result result = Result.of(NEIGHBORS);
+
+        assertThat(result.predict("height"), equalTo(0.0));
+        assertThrows(PredictionException.class, () -> result.classify("color"));
+        assertThrows(PredictionException.class, () -> Result.of(List.of()).predict("price"));
+    }
+
+    private static Score neighbor(double distance, double price, Quality quality) {
+        List<Feature<?>> features = List.of(Features.doubleFeature(price, "price"), quality);
+        return new Score(distance, FeatureVector.of(features));
+    }
+
+    private enum Quality implements CategoricalFeature<Quality> {
+        GOOD, BAD;
+
+        @Override
+        public Quality originalValue() {
+            return this;
+        }
+
+        @Override
+        public String featureName() {
+            return "quality";
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.acepero13.research.profilesimilarity.core.proxy;
 
 import com.acepero13.research.profilesimilarity.annotations.Categorical;
+import com.acepero13.research.profilesimilarity.api.features.CategoricalFeature;
 import org.junit.jupiter.api.Test;
 
+import java.lang.reflect.Proxy;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -36,6 +39,58 @@ class CategoricalProxyTest {
         assertThat(feat.toString(), equalTo("MALE"));
     }
 
+    @Test
+    void equalityIsSymmetricAndNullSafe() {
+        var same = CategoricalFeatureProxy.of(GENDER.MALE, "gender");
+        var renamed = CategoricalFeatureProxy.of(GENDER.MALE, "sex");
+        var missing = CategoricalFeatureProxy.of(null, "gender");
+
+        assertThat(feat, equalTo(same));
+        assertThat(feat.hashCode(), equalTo(same.hashCode()));
+        assertThat(feat.equals(renamed), equalTo(renamed.equals(feat)));
+        assertThat(feat.equals(renamed), equalTo(true));
+        assertThat(missing, equalTo(CategoricalFeatureProxy.of(null, "gender")));
+        assertThat(missing.equals(feat), equalTo(false));
+        assertThat(feat.matches(renamed), equalTo(true));
+        assertThat(missing.toString(), equalTo("null"));
+    }
+
+    @Test
+    void equalsAnyCategoricalFeatureWithTheSameValue() {
+        CategoricalFeature<GENDER> male = new CategoricalFeature<>() {
+            @Override
+            public GENDER originalValue() {
+                return GENDER.MALE;
+            }
+
+            @Override
+            public String featureName() {
+                return "gender";
+            }
+        };
+
+        assertThat(feat.equals(male), equalTo(true));
+        assertThat(feat.equals(CategoricalFeatureProxy.of(GENDER.FEMALE, "gender")), equalTo(false));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void handlerStillBuildsProxies() {
+        var proxy = (CategoricalFeature<Object>) Proxy.newProxyInstance(
+                CategoricalFeature.class.getClassLoader(),
+                new Class[]{CategoricalFeature.class},
+                new CategoricalFeatureProxy(GENDER.MALE, "gender")
+        );
+
+        assertThat(proxy.originalValue(), equalTo(GENDER.MALE));
+        assertThat(proxy.featureName(), equalTo("gender"));
+        assertThat(proxy.toString(), equalTo("MALE"));
+        assertThat(proxy.equals(feat), equalTo(true));
+        assertThat(feat.equals(proxy), equalTo(true));
+        assertThat(proxy.matches(CategoricalFeatureProxy.of(GENDER.FEMALE, "gender")), equalTo(false));
+        assertThat(new CategoricalFeatureProxy(GENDER.MALE, "gender").objectEquals(proxy), equalTo(true));
+    }
+
     @Categorical(name = "gender")
     private enum GENDER {
         MALE, FEMALE
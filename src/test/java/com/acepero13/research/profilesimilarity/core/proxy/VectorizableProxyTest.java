@@ -12,6 +12,7 @@ import com.acepero13.research.profilesimilarity.testmodels.User;
 import lombok.Data;
 import org.junit.jupiter.api.Test;
 
+import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -89,6 +90,38 @@ class VectorizableProxyTest {
         assertThat(actual, not(equalTo("")));
     }
 
+    @Test
+    void planIsBuiltOncePerClass() {
+        var person = new PersonTest(33, List.of(TAG.SPORT));
+        var another = new PersonTest(40, List.of(TAG.ECO));
+
+        assertThat(VectorizationPlan.of(person), sameInstance(VectorizationPlan.of(another)));
+        assertThat(VectorizableProxy.of(another).numericalFeatures(), equalTo(List.of(Features.integerFeature(40, "age"))));
+    }
+
+    @Test
+    void equalVectorizablesHaveTheSameHashCode() {
+        var default2 = VectorizableProxy.of(User.defaultUser());
+
+        assertThat(actual.hashCode(), equalTo(default2.hashCode()));
+        assertThat(VectorizableProxy.targetOf(actual, User.class).isPresent(), equalTo(true));
+    }
+
+    @Test
+    void handlerStillBuildsProxies() {
+        var proxy = (Vectorizable) Proxy.newProxyInstance(
+                Vectorizable.class.getClassLoader(),
+                new Class[]{Vectorizable.class},
+                new VectorizableProxy(User.defaultUser())
+        );
+
+        assertThat(proxy.features(), equalTo(actual.features()));
+        assertThat(proxy.equals(actual), equalTo(true));
+        assertThat(actual.equals(proxy), equalTo(true));
+        assertThat(new VectorizableProxy(User.defaultUser()).objectEquals(proxy), equalTo(true));
+        assertThat(VectorizableProxy.targetOf(proxy, User.class).isPresent(), equalTo(true));
+    }
+
     private enum TAG {
         SPORT, FAMILY, ECO, SAFETY, MUSIC, EVENTS, READING, EMAIL
     }
@@ -34,4 +34,13 @@ class CombinedMetricTest {
         double score = Metrics.euclideanDistance().similarityScore(v1, v2);
         assertThat(score, equalTo(2.0));
     }
-}
\ No newline at end of file
+
+    @Test
+    void manhattanDistance() {
+        var v1 = NormalizedVector.of(DoubleVector.of(1, 1, 1, 1));
+        var v2 = NormalizedVector.of(DoubleVector.of(0, -1, 0, 0));
+
+        double score = Metrics.manhattanDistance().similarityScore(v1, v2);
+        assertThat(score, equalTo(5.0));
+    }
+}
@@ -1,6 +1,7 @@
 package com.acepero13.research.profilesimilarity.scores;
 
 import com.acepero13.research.profilesimilarity.api.Metric;
+import com.acepero13.research.profilesimilarity.core.vectors.BitVector;
 import com.acepero13.research.profilesimilarity.core.vectors.DoubleVector;
 import com.acepero13.research.profilesimilarity.core.vectors.NormalizedVector;
 import org.junit.jupiter.api.Test;
@@ -26,4 +27,13 @@ class JaccardMetricTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    void similarityOfPackedVectors() {
+        var v1 = DoubleVector.of(0, 1, 0, 0, 0, 1, 0, 0, 1);
+        var v2 = DoubleVector.of(0, 0, 1, 0, 0, 0, 0, 0, 1);
+
+        double score = metricScorer.similarityScore(BitVector.of(v1), BitVector.of(v2));
+
+        assertThat(score, closeTo(0.25, 0.01));
+    }
+}
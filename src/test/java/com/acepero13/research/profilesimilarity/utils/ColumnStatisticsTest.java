@@ -0,0 +1,85 @@
+package com.acepero13.research.profilesimilarity.utils;
+
+import com.acepero13.research.profilesimilarity.api.Normalizer;
+import com.acepero13.research.profilesimilarity.api.Vector;
+import com.acepero13.research.profilesimilarity.core.Matrix;
+import com.acepero13.research.profilesimilarity.core.vectors.DoubleVector;
+import com.acepero13.research.profilesimilarity.exceptions.VectorException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ColumnStatisticsTest {
+    private final List<Vector<Double>> vectors = vectors(20_000);
+
+    @Test
+    void minMaxNormalizerMatchesTheMatrixNormalizer() {
+        ColumnStatistics statistics = ColumnStatistics.of(vectors.iterator(), false);
+        Normalizer streaming = Normalizer.minMaxNormalizer(statistics);
+        Normalizer matrix = Normalizer.minMaxNormalizer(Matrix.of(vectors));
+
+        assertThat(statistics.count(), equalTo((long) vectors.size()));
+        for (Vector<Double> vector : vectors.subList(0, 100)) {
+            assertThat(streaming.normalize(vector).toArray(), equalTo(matrix.normalize(vector).toArray()));
+        }
+    }
+
+    @Test
+    void parallelPartitionsMergeToTheSequentialStatistics() {
+        ColumnStatistics sequential = ColumnStatistics.of(vectors.iterator(), false);
+        ColumnStatistics parallel = ColumnStatistics.of(vectors.parallelStream(), false);
+
+        for (int i = 0; i < sequential.dimension(); i++) {
+            assertThat(parallel.mean().valueAt(i), closeTo(sequential.mean().valueAt(i), 1e-9));
+            assertThat(parallel.variance().valueAt(i), closeTo(sequential.variance().valueAt(i), 1e-6));
+        }
+        assertThat(parallel.minMax(), equalTo(sequential.minMax()));
+    }
+
+    @Test
+    void zScoreNormalizedColumnsHaveZeroMeanAndUnitVariance() {
+        Normalizer normalizer = Normalizer.zScoreNormalizer(ColumnStatistics.of(vectors.stream(), false));
+
+        ColumnStatistics normalized = ColumnStatistics.of(vectors.stream().map(normalizer::normalize), false);
+
+        for (int i = 0; i < normalized.dimension(); i++) {
+            assertThat(normalized.mean().valueAt(i), closeTo(0.0, 1e-9));
+            assertThat(normalized.variance().valueAt(i), closeTo(1.0, 1e-9));
+        }
+    }
+
+    @Test
+    void robustNormalizerCentersOnTheMedian() {
+        ColumnStatistics statistics = ColumnStatistics.of(vectors.parallelStream(), true);
+        Normalizer normalizer = Normalizer.robustNormalizer(statistics);
+
+        // The first column is uniform on [0, 100): median 50 and interquartile range 50
+        assertThat(statistics.quantile(0.5).valueAt(0), closeTo(50.0, 2.0));
+        assertThat(statistics.quantile(0.25).valueAt(0), closeTo(25.0, 2.0));
+        assertThat(normalizer.normalize(DoubleVector.of(100.0, 0.0, 0.0)).valueAt(0), closeTo(1.0, 0.1));
+        assertThrows(IllegalStateException.class, () -> Normalizer.robustNormalizer(ColumnStatistics.of(vectors.stream(), false)));
+    }
+
+    @Test
+    void rejectsVectorsOfDifferentSizes() {
+        ColumnStatistics statistics = ColumnStatistics.create(false).accept(DoubleVector.of(1.0, 2.0));
+
+        assertThrows(VectorException.class, () -> statistics.accept(DoubleVector.of(1.0)));
+    }
+
+    private static List<Vector<Double>> vectors(int size) {
+        Random random = new Random(11);
+        List<Vector<Double>> vectors = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            vectors.add(DoubleVector.of(random.nextDouble() * 100.0, random.nextGaussian() * 5.0 + 20.0, (double) random.nextInt(3)));
+        }
+        return vectors;
+    }
+}
@@ -0,0 +1,75 @@
+package com.acepero13.research.profilesimilarity.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+class TopKTest {
+
+    @Test
+    void keepsLowestScoresInOrder() {
+        var top = TopK.of(3);
+        top.offer(0, 5.0);
+        top.offer(1, 1.0);
+        top.offer(2, 4.0);
+        top.offer(3, 2.0);
+        top.offer(4, 3.0);
+
+        assertThat(top.indices(), equalTo(new int[]{1, 3, 4}));
+        assertThat(top.scores(), equalTo(new double[]{1.0, 2.0, 3.0}));
+        assertThat(top.threshold(), equalTo(3.0));
+    }
+
+    @Test
+    void tiesAreBrokenByIndex() {
+        var top = TopK.of(2);
+        top.offer(7, 1.0);
+        top.offer(3, 1.0);
+        top.offer(5, 1.0);
+
+        assertThat(top.indices(), equalTo(new int[]{3, 5}));
+    }
+
+    @Test
+    void parallelSelectionMatchesSortAndLimit() {
+        double[] scores = new Random(42).doubles(10_000).map(d -> Math.floor(d * 100)).toArray();
+
+        TopK top = IntStream.range(0, scores.length)
+                .parallel()
+                .collect(() -> TopK.of(25), (heap, i) -> heap.offer(i, scores[i]), TopK::merge);
+
+        int[] expected = IntStream.range(0, scores.length)
+                .boxed()
+                .sorted(Comparator.comparingDouble(i -> scores[i]))
+                .limit(25)
+                .mapToInt(Integer::intValue)
+                .toArray();
+        assertThat(top.indices(), equalTo(expected));
+    }
+
+    @Test
+    void heapWithAHugeKGrowsWithItsEntries() {
+        var top = TopK.of(Integer.MAX_VALUE);
+        for (int i = 0; i < 100; i++) {
+            top.offer(i, 100 - i);
+        }
+
+        assertThat(top.size(), equalTo(100));
+        assertThat(top.indices()[0], equalTo(99));
+        assertThat(top.threshold(), equalTo(Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    void emptyHeap() {
+        var top = TopK.of(0);
+        top.offer(0, 1.0);
+
+        assertThat(top.size(), equalTo(0));
+        assertThat(top.indices(), equalTo(new int[0]));
+    }
+}